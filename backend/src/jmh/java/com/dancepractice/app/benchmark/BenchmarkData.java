@@ -0,0 +1,160 @@
+package com.dancepractice.app.benchmark;
+
+// NOTE: Reference-only synthetic data for the JMH suite; it never touches Supabase.
+
+import com.dancepractice.app.common.persistence.AbstractAuditableEntity;
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.SessionStatus;
+import com.dancepractice.app.domain.common.SessionType;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.location.Location;
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.session.Session;
+import com.dancepractice.app.domain.user.User;
+import java.lang.reflect.Field;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic stand-in for {@code supabase/seed_via_api.py}. The knobs mirror the seed script:
+ * {@code extraUsers} is {@code --extra-users} and {@code windowsPerUser} is {@code
+ * --windows-per-user} (the number of windows kept from each user's template). Templates are the
+ * seed's evening and weekend windows, shifted by whole quarter hours per user so that overlaps vary.
+ * Everything is derived from {@code seed}, and ids are sequential, so two runs with the same
+ * configuration produce identical rows.
+ */
+public final class BenchmarkData {
+
+  /** Same windows as the seed's {@code alice}, {@code bob} and {@code test} templates. */
+  private static final String[][][] TEMPLATES = {
+    {
+      {"TUESDAY", "18:00", "21:00"},
+      {"WEDNESDAY", "19:00", "22:00"},
+      {"THURSDAY", "18:00", "21:00"},
+      {"SATURDAY", "10:00", "14:00"}
+    },
+    {
+      {"MONDAY", "19:00", "21:00"},
+      {"TUESDAY", "18:00", "21:00"},
+      {"THURSDAY", "18:00", "21:00"},
+      {"FRIDAY", "18:00", "20:00"},
+      {"SATURDAY", "10:00", "14:00"}
+    },
+    {
+      {"TUESDAY", "18:00", "21:00"},
+      {"THURSDAY", "18:00", "21:00"},
+      {"SATURDAY", "10:00", "14:00"}
+    }
+  };
+
+  private static final Instant EPOCH = Instant.parse("2026-01-05T00:00:00Z");
+
+  public record Config(
+      int extraUsers, int windowsPerUser, int cities, int sessionsPerUser, long seed) {
+
+    public static Config of(int extraUsers, int windowsPerUser) {
+      return new Config(extraUsers, windowsPerUser, 1, 2, 42L);
+    }
+  }
+
+  public record Dataset(
+      List<Location> locations,
+      List<User> users,
+      List<SchedulePreference> preferences,
+      List<Session> sessions) {}
+
+  private BenchmarkData() {}
+
+  public static Dataset generate(Config config) {
+    SplittableRandom random = new SplittableRandom(config.seed());
+    List<Location> locations = new ArrayList<>(config.cities());
+    for (int i = 0; i < config.cities(); i++) {
+      Location location = new Location();
+      assign(location, new UUID(0x10L, i), 0L);
+      location.setName("Studio " + i);
+      location.setCity(i == 0 ? "San Francisco" : "City " + i);
+      location.setLatitude(37.7749 + (i / 32) * 0.5);
+      location.setLongitude(-122.4194 + (i % 32) * 0.5);
+      locations.add(location);
+    }
+
+    List<User> users = new ArrayList<>(config.extraUsers());
+    List<SchedulePreference> preferences = new ArrayList<>(config.extraUsers());
+    for (int i = 0; i < config.extraUsers(); i++) {
+      User user = new User();
+      assign(user, new UUID(0x20L, i), 0L);
+      user.setFirstName("Extra");
+      user.setLastName("User" + (i + 1));
+      user.setEmail("extra" + (i + 1) + "@example.com");
+      user.setPrimaryRole(PrimaryRole.values()[random.nextInt(PrimaryRole.values().length)]);
+      user.setWsdcSkillLevel(WsdcSkillLevel.values()[random.nextInt(4)]);
+      user.setHomeLocation(locations.get(random.nextInt(locations.size())));
+      users.add(user);
+
+      SchedulePreference preference = new SchedulePreference();
+      assign(preference, new UUID(0x30L, i), 0L);
+      preference.setUser(user);
+      String[][] template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+      int shiftMinutes = (random.nextInt(9) - 4) * 15;
+      for (int w = 0; w < Math.min(config.windowsPerUser(), template.length); w++) {
+        AvailabilityWindow window = new AvailabilityWindow();
+        window.setDayOfWeek(DayOfWeek.valueOf(template[w][0]));
+        window.setStartTime(LocalTime.parse(template[w][1]).plusMinutes(shiftMinutes));
+        window.setEndTime(LocalTime.parse(template[w][2]).plusMinutes(shiftMinutes));
+        preference.getAvailabilityWindows().add(window);
+      }
+      for (FocusArea focusArea : FocusArea.values()) {
+        if (random.nextInt(3) == 0) {
+          preference.getPreferredFocusAreas().add(focusArea);
+        }
+      }
+      user.getSchedulePreferences().add(preference);
+      preferences.add(preference);
+    }
+
+    List<Session> sessions = new ArrayList<>(config.extraUsers() * config.sessionsPerUser());
+    for (int i = 0; i < config.extraUsers() * config.sessionsPerUser(); i++) {
+      User organizer = users.get(random.nextInt(users.size()));
+      Session session = new Session();
+      assign(session, new UUID(0x40L, i), 0L);
+      session.setTitle("Practice " + (i + 1));
+      session.setSessionType(
+          random.nextInt(4) == 0 ? SessionType.GROUP_PRACTICE : SessionType.PARTNER_PRACTICE);
+      session.setStatus(SessionStatus.values()[random.nextInt(SessionStatus.values().length)]);
+      Instant start = EPOCH.plus(Duration.ofMinutes(15L * random.nextInt(4 * 24 * 28)));
+      session.setScheduledStart(start);
+      session.setScheduledEnd(start.plus(Duration.ofMinutes(60 + 30L * random.nextInt(4))));
+      session.setOrganizer(organizer);
+      session.setLocation(organizer.getHomeLocation());
+      session.getParticipants().add(organizer);
+      session.getParticipants().add(users.get(random.nextInt(users.size())));
+      sessions.add(session);
+    }
+    return new Dataset(locations, users, preferences, sessions);
+  }
+
+  /** Sets the id and version JPA would normally assign; their setters are protected. */
+  static void assign(AbstractAuditableEntity entity, UUID id, long version) {
+    try {
+      Field idField = AbstractAuditableEntity.class.getDeclaredField("id");
+      Field versionField = AbstractAuditableEntity.class.getDeclaredField("version");
+      Field createdField = AbstractAuditableEntity.class.getDeclaredField("createdAt");
+      idField.setAccessible(true);
+      versionField.setAccessible(true);
+      createdField.setAccessible(true);
+      idField.set(entity, id);
+      versionField.set(entity, version);
+      createdField.set(entity, EPOCH);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.dancepractice.app.benchmark;
+
+// NOTE: Reference-only JMH entry point; run it from a scratch project, this repo has no build.
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the suite with the GC profiler attached, so every result carries {@code gc.alloc.rate.norm}
+ * (bytes allocated per operation) next to throughput. Arguments are regular JMH options, e.g. a
+ * benchmark regex or {@code -p users=1000}.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder options =
+        new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+    if (commandLine.getIncludes().isEmpty()) {
+      options.include("com\\.dancepractice\\.app\\..*Benchmark");
+    }
+    new Runner(options.build()).run();
+  }
+}
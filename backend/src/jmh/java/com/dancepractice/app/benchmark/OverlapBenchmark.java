@@ -0,0 +1,91 @@
+package com.dancepractice.app.benchmark;
+
+// NOTE: Reference-only JMH benchmark; run it from a scratch project, this repo has no build.
+
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.schedule.WeeklyAvailability;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overlapping minutes of one pair of weekly schedules: the {@link WeeklyAvailability} AND plus
+ * popcount against the pairwise window join the RPC performs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapBenchmark {
+
+  private static final int SCHEDULES = 1024;
+
+  @Param({"2", "4", "5"})
+  public int windowsPerUser;
+
+  private WeeklyAvailability[] bitmaps;
+  private AvailabilityWindow[][] windows;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    List<SchedulePreference> preferences =
+        BenchmarkData.generate(BenchmarkData.Config.of(SCHEDULES, windowsPerUser)).preferences();
+    bitmaps = new WeeklyAvailability[SCHEDULES];
+    windows = new AvailabilityWindow[SCHEDULES][];
+    for (int i = 0; i < SCHEDULES; i++) {
+      bitmaps[i] = WeeklyAvailability.of(preferences.get(i));
+      windows[i] = preferences.get(i).getAvailabilityWindows().toArray(new AvailabilityWindow[0]);
+    }
+  }
+
+  @Benchmark
+  public int bitmap() {
+    int i = next();
+    return bitmaps[i].overlapMinutes(bitmaps[(i * 31 + 7) & (SCHEDULES - 1)]);
+  }
+
+  @Benchmark
+  public long pairwiseJoin() {
+    int i = next();
+    long minutes = 0;
+    for (AvailabilityWindow left : windows[i]) {
+      for (AvailabilityWindow right : windows[(i * 31 + 7) & (SCHEDULES - 1)]) {
+        if (left.getDayOfWeek() != right.getDayOfWeek()
+            || !left.getStartTime().isBefore(right.getEndTime())
+            || !right.getStartTime().isBefore(left.getEndTime())) {
+          continue;
+        }
+        minutes +=
+            Duration.between(
+                    left.getStartTime().isAfter(right.getStartTime())
+                        ? left.getStartTime()
+                        : right.getStartTime(),
+                    left.getEndTime().isBefore(right.getEndTime())
+                        ? left.getEndTime()
+                        : right.getEndTime())
+                .toMinutes();
+      }
+    }
+    return minutes;
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SCHEDULES - 1);
+    return cursor;
+  }
+}
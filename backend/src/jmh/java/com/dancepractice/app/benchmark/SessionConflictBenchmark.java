@@ -0,0 +1,135 @@
+package com.dancepractice.app.benchmark;
+
+// NOTE: Reference-only JMH benchmark; run it from a scratch project, this repo has no build.
+
+import com.dancepractice.app.domain.common.SessionStatus;
+import com.dancepractice.app.domain.session.Session;
+import com.dancepractice.app.domain.session.SessionCalendarIndex;
+import com.dancepractice.app.domain.user.User;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whether a proposed session for an organizer and one invitee collides with a PROPOSED or
+ * SCHEDULED session either of them takes part in. {@code scanAll} is what a range scan without a
+ * per-user index amounts to; {@code scanPerUser} walks each participant's own sessions, and {@code
+ * indexed} asks the {@link SessionCalendarIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionConflictBenchmark {
+
+  private static final int PROPOSALS = 4096;
+
+  @Param({"1000", "10000", "100000"})
+  public int users;
+
+  private List<Session> sessions;
+  private final Map<UUID, List<Session>> sessionsByUser = new HashMap<>();
+  private final SessionCalendarIndex calendar = new SessionCalendarIndex();
+  private UUID[][] participants;
+  private Instant[] starts;
+  private Instant[] ends;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData.Dataset data = BenchmarkData.generate(BenchmarkData.Config.of(users, 4));
+    sessions = data.sessions();
+    for (Session session : sessions) {
+      for (User participant : session.getParticipants()) {
+        sessionsByUser.computeIfAbsent(participant.getId(), id -> new ArrayList<>()).add(session);
+      }
+      calendar.upsert(session);
+    }
+    SplittableRandom random = new SplittableRandom(7L);
+    participants = new UUID[PROPOSALS][];
+    starts = new Instant[PROPOSALS];
+    ends = new Instant[PROPOSALS];
+    Instant epoch = Instant.parse("2026-01-05T00:00:00Z");
+    for (int i = 0; i < PROPOSALS; i++) {
+      participants[i] =
+          new UUID[] {
+            data.users().get(random.nextInt(users)).getId(),
+            data.users().get(random.nextInt(users)).getId()
+          };
+      starts[i] = epoch.plus(Duration.ofMinutes(15L * random.nextInt(4 * 24 * 28)));
+      ends[i] = starts[i].plus(Duration.ofMinutes(90));
+    }
+  }
+
+  @Benchmark
+  public boolean scanAll() {
+    int i = next();
+    for (Session session : sessions) {
+      if (!blocking(session, starts[i], ends[i])) {
+        continue;
+      }
+      for (User participant : session.getParticipants()) {
+        UUID id = participant.getId();
+        if (id.equals(participants[i][0]) || id.equals(participants[i][1])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean scanPerUser() {
+    int i = next();
+    for (UUID participant : participants[i]) {
+      for (Session session : sessionsByUser.getOrDefault(participant, List.of())) {
+        if (blocking(session, starts[i], ends[i])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean indexed() {
+    int i = next();
+    for (UUID participant : participants[i]) {
+      if (calendar.hasConflict(participant, starts[i], ends[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean blocking(Session session, Instant start, Instant end) {
+    return (session.getStatus() == SessionStatus.PROPOSED
+            || session.getStatus() == SessionStatus.SCHEDULED)
+        && session.getScheduledStart().isBefore(end)
+        && start.isBefore(session.getScheduledEnd());
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (PROPOSALS - 1);
+    return cursor;
+  }
+}
@@ -0,0 +1,73 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only JMH benchmark; it lives in this package to reach package-private hot paths.
+
+import com.dancepractice.app.benchmark.BenchmarkData;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full {@code find_matches_for_current_user} equivalent per operation, and scoring of a single
+ * candidate pair, over a pool of {@code users} seeded like {@code seed_via_api.py --extra-users}
+ * (everyone in one city, as in the seed). Callers and candidates rotate so no result is cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int users;
+
+  @Param({"4"})
+  public int windowsPerUser;
+
+  private MatchEngine engine;
+  private CandidatePool pool;
+  private UUID[] callers;
+  private int cursor;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData.Dataset data =
+        BenchmarkData.generate(BenchmarkData.Config.of(users, windowsPerUser));
+    pool = CandidatePool.of(data.preferences());
+    engine = new MatchEngine(pool);
+    callers = new UUID[Math.min(users, 4096)];
+    for (int i = 0; i < callers.length; i++) {
+      callers[i] = data.users().get(i).getId();
+    }
+  }
+
+  @Benchmark
+  public List<MatchResult> findMatches() {
+    return engine.findMatches(callers[next()], 20);
+  }
+
+  /** Scores one pair; no writer runs during the benchmark, so the pool lock is not taken. */
+  @Benchmark
+  public MatchResult scorePair() {
+    int i = next();
+    return engine.scorePair(i, (i * 31 + 7) % pool.preferenceCount());
+  }
+
+  private int next() {
+    cursor = cursor + 1 == callers.length ? 0 : cursor + 1;
+    return cursor;
+  }
+}
@@ -0,0 +1,56 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only JMH benchmark; it lives in this package because TopK is package-private.
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Selecting the best {@code k} of {@code candidates} scores drawn like real match scores. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopKBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int candidates;
+
+  @Param({"20"})
+  public int k;
+
+  private double[] scores;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42L);
+    scores = new double[candidates];
+    for (int i = 0; i < candidates; i++) {
+      scores[i] =
+          MatchScoring.score(15 * random.nextInt(41), random.nextInt(6), random.nextInt(6));
+    }
+  }
+
+  @Benchmark
+  public int[] select() {
+    TopK top = new TopK(k);
+    for (int i = 0; i < scores.length; i++) {
+      if (!top.isFull() || scores[i] >= top.threshold()) {
+        top.offer(scores[i], i);
+      }
+    }
+    return top.drainDescending();
+  }
+}
@@ -0,0 +1,395 @@
+package com.dancepractice.app.common.cache;
+
+// NOTE: Reference-only read-through cache for Supabase rows; no Spring Boot backend wires it up.
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded read-through cache for rows that carry {@code version} and {@code updated_at}, with
+ * W-TinyLFU eviction. New entries land in a small LRU window (1% of the capacity by default); an
+ * entry pushed out of the window only enters the main segmented LRU if a {@link FrequencySketch}
+ * says it has been asked for more often than the entry it would displace. A burst of one-off ids
+ * therefore cannot flush the few rows that are read all the time.
+ *
+ * <p>Misses are loaded in bulk: {@link #getAll(Collection)} hands every missing key to the loader
+ * at once, so a page of rows costs one query however many rows it has. Change events go through
+ * {@link #update}, which keeps whichever copy has the higher {@code version} (then {@code
+ * updated_at}). A soft-deleted row stays cached as a tombstone that reads as absent, so neither a
+ * stale load nor a lookup by a dangling reference brings it back. A load that overlaps any update
+ * or invalidation is returned but not cached. All operations take one lock.
+ */
+public final class EntityCache<K, V> {
+
+  /** Counters since construction. */
+  public record Stats(
+      long hits, long misses, long loads, long evictions, long staleUpdates, int size) {
+
+    /** Hits over lookups, or {@code 1} before the first lookup. */
+    public double hitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+  }
+
+  private static final byte WINDOW = 0;
+  private static final byte PROBATION = 1;
+  private static final byte PROTECTED = 2;
+
+  private static final class Node<K, V> {
+    private final K key;
+    private final int hash;
+    private V value;
+    private long version;
+    private Instant updatedAt;
+    private byte queue;
+    private Node<K, V> previous;
+    private Node<K, V> next;
+
+    private Node(K key, int hash) {
+      this.key = key;
+      this.hash = hash;
+    }
+  }
+
+  /** Access-ordered list, least recently used first. */
+  private static final class Queue<K, V> {
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size;
+
+    private void add(Node<K, V> node) {
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    private void remove(Node<K, V> node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+
+    private void touch(Node<K, V> node) {
+      if (node != tail) {
+        remove(node);
+        add(node);
+      }
+    }
+  }
+
+  private final Function<? super Set<K>, ? extends Map<K, V>> loader;
+  private final Function<? super V, Long> version;
+  private final Function<? super V, Instant> updatedAt;
+  private final Predicate<? super V> deleted;
+  private final int maximumSize;
+  private final int windowSize;
+  private final int protectedSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<K, Node<K, V>> nodes = new HashMap<>();
+  private final FrequencySketch sketch;
+  private final Queue<K, V> window = new Queue<>();
+  private final Queue<K, V> probation = new Queue<>();
+  private final Queue<K, V> protectedQueue = new Queue<>();
+  private long generation;
+
+  private long hits;
+  private long misses;
+  private long loads;
+  private long evictions;
+  private long staleUpdates;
+
+  private EntityCache(Builder<K, V> builder) {
+    this.loader = builder.loader;
+    this.version = builder.version;
+    this.updatedAt = builder.updatedAt;
+    this.deleted = builder.deleted;
+    this.maximumSize = builder.maximumSize;
+    this.windowSize = Math.max(1, maximumSize * builder.windowPercent / 100);
+    this.protectedSize = (maximumSize - windowSize) * 4 / 5;
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  /** {@code loader} returns the live rows among the requested keys; missing keys are absent. */
+  public static <K, V> Builder<K, V> builder(
+      Function<? super Set<K>, ? extends Map<K, V>> loader) {
+    return new Builder<>(loader);
+  }
+
+  /** The live value for {@code key}, loading it on a miss; {@code null} if absent or deleted. */
+  public V get(K key) {
+    return getAll(Set.of(key)).get(key);
+  }
+
+  /**
+   * Live values for {@code keys} in iteration order, absent and deleted keys left out. Every miss
+   * is loaded in a single loader call.
+   */
+  public Map<K, V> getAll(Collection<K> keys) {
+    Map<K, V> found = new LinkedHashMap<>();
+    Set<K> missing = new LinkedHashSet<>();
+    long loadGeneration;
+    lock.lock();
+    try {
+      for (K key : keys) {
+        int hash = hash(key);
+        sketch.increment(hash);
+        Node<K, V> node = nodes.get(key);
+        if (node == null) {
+          misses++;
+          missing.add(key);
+          continue;
+        }
+        hits++;
+        onAccess(node);
+        if (node.value != null) {
+          found.put(key, node.value);
+        }
+      }
+      loadGeneration = generation;
+    } finally {
+      lock.unlock();
+    }
+    if (missing.isEmpty()) {
+      return found;
+    }
+    Map<K, V> loaded = loader.apply(Collections.unmodifiableSet(missing));
+    lock.lock();
+    try {
+      loads++;
+      boolean fresh = loadGeneration == generation;
+      for (Map.Entry<K, V> entry : loaded.entrySet()) {
+        if (fresh && missing.contains(entry.getKey())) {
+          install(entry.getKey(), entry.getValue(), true);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    Map<K, V> ordered = new LinkedHashMap<>();
+    for (K key : keys) {
+      V value = found.containsKey(key) ? found.get(key) : loaded.get(key);
+      if (value != null && !deleted.test(value)) {
+        ordered.put(key, value);
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * Applies a changed row if the cache holds an older copy of it, and returns whether it did.
+   * Rows that are not cached are not added, but any load in flight is kept out of the cache.
+   */
+  public boolean update(K key, V value) {
+    lock.lock();
+    try {
+      generation++;
+      return install(key, value, false);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      generation++;
+      Node<K, V> node = nodes.remove(key);
+      if (node != null) {
+        queueOf(node).remove(node);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Stats stats() {
+    lock.lock();
+    try {
+      return new Stats(hits, misses, loads, evictions, staleUpdates, nodes.size());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean install(K key, V value, boolean insert) {
+    Node<K, V> node = nodes.get(key);
+    if (node == null) {
+      if (!insert) {
+        return false;
+      }
+      node = new Node<>(key, hash(key));
+      store(node, value);
+      nodes.put(key, node);
+      node.queue = WINDOW;
+      window.add(node);
+      evict();
+      return true;
+    }
+    Long incoming = version.apply(value);
+    Instant incomingUpdatedAt = updatedAt.apply(value);
+    long incomingVersion = incoming == null ? Long.MIN_VALUE : incoming;
+    boolean newer =
+        incomingVersion > node.version
+            || (incomingVersion == node.version
+                && incomingUpdatedAt != null
+                && (node.updatedAt == null || incomingUpdatedAt.isAfter(node.updatedAt)));
+    if (!newer) {
+      staleUpdates++;
+      return false;
+    }
+    store(node, value);
+    return true;
+  }
+
+  private void store(Node<K, V> node, V value) {
+    Long rowVersion = version.apply(value);
+    node.version = rowVersion == null ? Long.MIN_VALUE : rowVersion;
+    node.updatedAt = updatedAt.apply(value);
+    node.value = deleted.test(value) ? null : value;
+  }
+
+  private void onAccess(Node<K, V> node) {
+    switch (node.queue) {
+      case WINDOW -> window.touch(node);
+      case PROBATION -> {
+        probation.remove(node);
+        node.queue = PROTECTED;
+        protectedQueue.add(node);
+        while (protectedQueue.size > protectedSize) {
+          Node<K, V> demoted = protectedQueue.head;
+          protectedQueue.remove(demoted);
+          demoted.queue = PROBATION;
+          probation.add(demoted);
+        }
+      }
+      default -> protectedQueue.touch(node);
+    }
+  }
+
+  /**
+   * Moves window overflow into probation, and once the cache is full lets each candidate leaving
+   * the window compete with the main region's least recently used entry on frequency.
+   */
+  private void evict() {
+    while (window.size > windowSize) {
+      Node<K, V> candidate = window.head;
+      window.remove(candidate);
+      if (nodes.size() <= maximumSize) {
+        candidate.queue = PROBATION;
+        probation.add(candidate);
+        continue;
+      }
+      Node<K, V> victim = probation.head != null ? probation.head : protectedQueue.head;
+      if (victim != null && sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+        queueOf(victim).remove(victim);
+        nodes.remove(victim.key);
+        candidate.queue = PROBATION;
+        probation.add(candidate);
+      } else {
+        nodes.remove(candidate.key);
+      }
+      evictions++;
+    }
+    while (nodes.size() > maximumSize) {
+      Node<K, V> victim = probation.head != null ? probation.head : protectedQueue.head;
+      if (victim == null) {
+        victim = window.head;
+      }
+      queueOf(victim).remove(victim);
+      nodes.remove(victim.key);
+      evictions++;
+    }
+  }
+
+  private Queue<K, V> queueOf(Node<K, V> node) {
+    return switch (node.queue) {
+      case WINDOW -> window;
+      case PROBATION -> probation;
+      default -> protectedQueue;
+    };
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  public static final class Builder<K, V> {
+    private final Function<? super Set<K>, ? extends Map<K, V>> loader;
+    private Function<? super V, Long> version = value -> null;
+    private Function<? super V, Instant> updatedAt = value -> null;
+    private Predicate<? super V> deleted = value -> false;
+    private int maximumSize = 10_000;
+    private int windowPercent = 1;
+
+    private Builder(Function<? super Set<K>, ? extends Map<K, V>> loader) {
+      this.loader = Objects.requireNonNull(loader, "loader");
+    }
+
+    public Builder<K, V> version(Function<? super V, Long> version) {
+      this.version = Objects.requireNonNull(version, "version");
+      return this;
+    }
+
+    public Builder<K, V> updatedAt(Function<? super V, Instant> updatedAt) {
+      this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+      return this;
+    }
+
+    /** Rows matching {@code deleted} are kept as tombstones that read as absent. */
+    public Builder<K, V> deleted(Predicate<? super V> deleted) {
+      this.deleted = Objects.requireNonNull(deleted, "deleted");
+      return this;
+    }
+
+    /** Entries, tombstones included, the cache holds at most. */
+    public Builder<K, V> maximumSize(int maximumSize) {
+      if (maximumSize <= 0) {
+        throw new IllegalArgumentException("maximumSize must be positive");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /** Share of {@code maximumSize} given to the admission window. */
+    public Builder<K, V> windowPercent(int windowPercent) {
+      if (windowPercent <= 0 || windowPercent >= 100) {
+        throw new IllegalArgumentException("windowPercent must be between 1 and 99");
+      }
+      this.windowPercent = windowPercent;
+      return this;
+    }
+
+    public EntityCache<K, V> build() {
+      return new EntityCache<>(this);
+    }
+  }
+}
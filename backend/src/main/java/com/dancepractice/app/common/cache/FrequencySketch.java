@@ -0,0 +1,68 @@
+package com.dancepractice.app.common.cache;
+
+// NOTE: Reference-only helper for in-memory caches over Supabase rows; no Spring Boot backend wires it up.
+
+/**
+ * Count-min sketch of recent access frequency with four 4-bit counters per key, packed sixteen to
+ * a {@code long}. Estimates saturate at 15. After ten accesses per table slot every counter is
+ * halved, so old popularity fades and a key that was hot an hour ago does not stay admitted
+ * forever. Not thread-safe: {@link EntityCache} guards it with its own lock.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(int maximumSize) {
+    int size = Integer.highestOneBit(Math.max(16, maximumSize - 1)) << 1;
+    this.table = new long[size];
+    this.mask = size - 1;
+    this.sampleSize = 10 * size;
+  }
+
+  int frequency(int hash) {
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int row = 0; row < 4; row++) {
+      int offset = (start + row) << 2;
+      frequency = Math.min(frequency, (int) ((table[indexOf(hash, row)] >>> offset) & 0xF));
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int row = 0; row < 4; row++) {
+      int index = indexOf(hash, row);
+      int offset = (start + row) << 2;
+      if (((table[index] >>> offset) & 0xF) != 0xF) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions >>>= 1;
+  }
+
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & mask;
+  }
+}
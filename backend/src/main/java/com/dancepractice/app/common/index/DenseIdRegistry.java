@@ -0,0 +1,68 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns stable, dense {@code int} indexes to entity ids so that in-memory indexes can be laid
+ * out as primitive arrays instead of maps keyed by {@link UUID}. Indexes are never reused, so a
+ * removed row simply leaves a hole until the owning index is rebuilt.
+ */
+public final class DenseIdRegistry {
+
+  private final Map<UUID, Integer> indexes = new ConcurrentHashMap<>();
+  private volatile UUID[] ids;
+  private int size;
+
+  public DenseIdRegistry() {
+    this(16);
+  }
+
+  public DenseIdRegistry(int expectedSize) {
+    this.ids = new UUID[Math.max(16, expectedSize)];
+  }
+
+  /** Returns the dense index for {@code id}, assigning the next free one on first sight. */
+  public int register(UUID id) {
+    Objects.requireNonNull(id, "id");
+    Integer existing = indexes.get(id);
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (this) {
+      existing = indexes.get(id);
+      if (existing != null) {
+        return existing;
+      }
+      int index = size;
+      UUID[] current = ids;
+      if (index == current.length) {
+        current = Arrays.copyOf(current, current.length * 2);
+      }
+      current[index] = id;
+      ids = current;
+      size = index + 1;
+      indexes.put(id, index);
+      return index;
+    }
+  }
+
+  /** Returns the dense index for {@code id}, or {@code -1} when it has never been registered. */
+  public int indexOf(UUID id) {
+    Integer index = id == null ? null : indexes.get(id);
+    return index == null ? -1 : index;
+  }
+
+  public UUID idAt(int index) {
+    return ids[index];
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+}
@@ -0,0 +1,73 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+
+/** Growable {@code int} list used for posting lists and adjacency without boxing. */
+public final class IntArrayList {
+
+  private int[] values;
+  private int size;
+
+  public IntArrayList() {
+    this(4);
+  }
+
+  public IntArrayList(int capacity) {
+    this.values = new int[Math.max(1, capacity)];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return values[index];
+  }
+
+  public void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  public boolean contains(int value) {
+    return indexOf(value) >= 0;
+  }
+
+  public int indexOf(int value) {
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Removes one occurrence of {@code value} by moving the last element into its place. */
+  public boolean removeValue(int value) {
+    int index = indexOf(value);
+    if (index < 0) {
+      return false;
+    }
+    values[index] = values[--size];
+    return true;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,126 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of {@code int} codes stored as one sorted array, used in place of {@code
+ * Set<String>} element collections once their values are encoded by a {@link StringDictionary}.
+ * Membership is a binary search and subset and intersection tests are linear merges.
+ */
+public final class IntSet {
+
+  public static final IntSet EMPTY = new IntSet(new int[0]);
+
+  private final int[] values;
+
+  private IntSet(int[] values) {
+    this.values = values;
+  }
+
+  /** Sorts and de-duplicates {@code values}; the array is copied. */
+  public static IntSet of(int... values) {
+    if (values.length == 0) {
+      return EMPTY;
+    }
+    int[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int size = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[size - 1]) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return new IntSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  public boolean isEmpty() {
+    return values.length == 0;
+  }
+
+  /** The {@code index}-th smallest code. */
+  public int get(int index) {
+    return values[index];
+  }
+
+  public boolean contains(int value) {
+    return values.length != 0 && Arrays.binarySearch(values, value) >= 0;
+  }
+
+  /** Whether every code of {@code other} is in this set. */
+  public boolean containsAll(IntSet other) {
+    if (other.values.length > values.length) {
+      return false;
+    }
+    int i = 0;
+    for (int value : other.values) {
+      while (i < values.length && values[i] < value) {
+        i++;
+      }
+      if (i == values.length || values[i] != value) {
+        return false;
+      }
+      i++;
+    }
+    return true;
+  }
+
+  public boolean intersects(IntSet other) {
+    int i = 0;
+    int j = 0;
+    while (i < values.length && j < other.values.length) {
+      if (values[i] == other.values[j]) {
+        return true;
+      }
+      if (values[i] < other.values[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  public IntSet intersect(IntSet other) {
+    int[] out = new int[Math.min(values.length, other.values.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < values.length && j < other.values.length) {
+      if (values[i] == other.values[j]) {
+        out[size++] = values[i];
+        i++;
+        j++;
+      } else if (values[i] < other.values[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return size == 0 ? EMPTY : new IntSet(size == out.length ? out : Arrays.copyOf(out, size));
+  }
+
+  public int[] toArray() {
+    return values.clone();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IntSet set && Arrays.equals(values, set.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(values);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(values);
+  }
+}
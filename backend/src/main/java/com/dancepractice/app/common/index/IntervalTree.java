@@ -0,0 +1,272 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+
+/**
+ * Set of half-open {@code [start, end)} intervals of {@code long}s, each tagged with an {@code int}
+ * payload (a dense row index). It is an AVL tree ordered by {@code (start, end, payload)} in which
+ * every node also carries the largest end below it, so overlap queries skip whole subtrees and cost
+ * {@code O(log n + k)}. Nodes live in parallel primitive arrays with a free list instead of one
+ * object each.
+ *
+ * <p>Not thread-safe; owners guard it with their own lock.
+ */
+public final class IntervalTree {
+
+  /** Receives the payload and bounds of each interval found by a query. */
+  @FunctionalInterface
+  public interface Visitor {
+    void visit(int payload, long start, long end);
+  }
+
+  private static final int NIL = -1;
+
+  private long[] start;
+  private long[] end;
+  private long[] maxEnd;
+  private int[] payload;
+  private int[] left;
+  private int[] right;
+  private byte[] height;
+  private int root = NIL;
+  private int free = NIL;
+  private int allocated;
+  private int size;
+
+  public IntervalTree() {
+    this(4);
+  }
+
+  public IntervalTree(int capacity) {
+    int nodes = Math.max(1, capacity);
+    start = new long[nodes];
+    end = new long[nodes];
+    maxEnd = new long[nodes];
+    payload = new int[nodes];
+    left = new int[nodes];
+    right = new int[nodes];
+    height = new byte[nodes];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Adds {@code [from, to)}; returns {@code false} if the same interval and payload is present. */
+  public boolean insert(long from, long to, int value) {
+    if (to <= from) {
+      throw new IllegalArgumentException("Interval must not be empty: [" + from + ", " + to + ")");
+    }
+    int before = size;
+    root = insert(root, from, to, value);
+    return size != before;
+  }
+
+  public boolean remove(long from, long to, int value) {
+    int before = size;
+    root = remove(root, from, to, value);
+    return size != before;
+  }
+
+  public boolean overlapsAny(long from, long to) {
+    int node = root;
+    while (node != NIL && maxEnd[node] > from) {
+      if (start[node] < to && end[node] > from) {
+        return true;
+      }
+      int l = left[node];
+      if (l != NIL && maxEnd[l] > from) {
+        node = l;
+      } else if (start[node] < to) {
+        node = right[node];
+      } else {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Visits every interval overlapping {@code [from, to)} in ascending {@code start} order, so
+   * callers can merge the output in a single pass.
+   */
+  public void forEachOverlapping(long from, long to, Visitor visitor) {
+    if (from < to) {
+      visit(root, from, to, visitor);
+    }
+  }
+
+  public void clear() {
+    root = NIL;
+    free = NIL;
+    allocated = 0;
+    size = 0;
+  }
+
+  private void visit(int node, long from, long to, Visitor visitor) {
+    while (node != NIL && maxEnd[node] > from) {
+      visit(left[node], from, to, visitor);
+      if (start[node] >= to) {
+        return;
+      }
+      if (end[node] > from) {
+        visitor.visit(payload[node], start[node], end[node]);
+      }
+      node = right[node];
+    }
+  }
+
+  private int insert(int node, long from, long to, int value) {
+    if (node == NIL) {
+      size++;
+      return allocate(from, to, value);
+    }
+    // Assign through a local: inserting may grow the arrays, and left[node] = insert(...) would
+    // write into the array that was current before the call.
+    int order = compare(from, to, value, node);
+    if (order < 0) {
+      int child = insert(left[node], from, to, value);
+      left[node] = child;
+    } else if (order > 0) {
+      int child = insert(right[node], from, to, value);
+      right[node] = child;
+    } else {
+      return node;
+    }
+    return balance(node);
+  }
+
+  private int remove(int node, long from, long to, int value) {
+    if (node == NIL) {
+      return NIL;
+    }
+    int order = compare(from, to, value, node);
+    if (order < 0) {
+      left[node] = remove(left[node], from, to, value);
+    } else if (order > 0) {
+      right[node] = remove(right[node], from, to, value);
+    } else {
+      size--;
+      if (left[node] == NIL || right[node] == NIL) {
+        int child = left[node] == NIL ? right[node] : left[node];
+        release(node);
+        return child;
+      }
+      int successor = right[node];
+      while (left[successor] != NIL) {
+        successor = left[successor];
+      }
+      start[node] = start[successor];
+      end[node] = end[successor];
+      payload[node] = payload[successor];
+      size++;
+      right[node] = remove(right[node], start[node], end[node], payload[node]);
+    }
+    return balance(node);
+  }
+
+  private int compare(long from, long to, int value, int node) {
+    int order = Long.compare(from, start[node]);
+    if (order == 0) {
+      order = Long.compare(to, end[node]);
+    }
+    return order != 0 ? order : Integer.compare(value, payload[node]);
+  }
+
+  private int balance(int node) {
+    update(node);
+    int skew = height(left[node]) - height(right[node]);
+    if (skew > 1) {
+      if (height(left[left[node]]) < height(right[left[node]])) {
+        left[node] = rotateLeft(left[node]);
+      }
+      return rotateRight(node);
+    }
+    if (skew < -1) {
+      if (height(right[right[node]]) < height(left[right[node]])) {
+        right[node] = rotateRight(right[node]);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private int rotateLeft(int node) {
+    int pivot = right[node];
+    right[node] = left[pivot];
+    left[pivot] = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private int rotateRight(int node) {
+    int pivot = left[node];
+    left[node] = right[pivot];
+    right[pivot] = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private void update(int node) {
+    int l = left[node];
+    int r = right[node];
+    height[node] = (byte) (1 + Math.max(height(l), height(r)));
+    long max = end[node];
+    if (l != NIL && maxEnd[l] > max) {
+      max = maxEnd[l];
+    }
+    if (r != NIL && maxEnd[r] > max) {
+      max = maxEnd[r];
+    }
+    maxEnd[node] = max;
+  }
+
+  private int height(int node) {
+    return node == NIL ? 0 : height[node];
+  }
+
+  private int allocate(long from, long to, int value) {
+    int node;
+    if (free != NIL) {
+      node = free;
+      free = left[node];
+    } else {
+      if (allocated == start.length) {
+        grow();
+      }
+      node = allocated++;
+    }
+    start[node] = from;
+    end[node] = to;
+    maxEnd[node] = to;
+    payload[node] = value;
+    left[node] = NIL;
+    right[node] = NIL;
+    height[node] = 1;
+    return node;
+  }
+
+  private void release(int node) {
+    left[node] = free;
+    free = node;
+  }
+
+  private void grow() {
+    int capacity = start.length * 2;
+    start = Arrays.copyOf(start, capacity);
+    end = Arrays.copyOf(end, capacity);
+    maxEnd = Arrays.copyOf(maxEnd, capacity);
+    payload = Arrays.copyOf(payload, capacity);
+    left = Arrays.copyOf(left, capacity);
+    right = Arrays.copyOf(right, capacity);
+    height = Arrays.copyOf(height, capacity);
+  }
+}
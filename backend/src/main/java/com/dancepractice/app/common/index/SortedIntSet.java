@@ -0,0 +1,123 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Ascending, duplicate-free {@code int} set on a single array, used as a posting list. Membership
+ * is a binary search; adding values in ascending order (as bulk loads do) is an append.
+ */
+public final class SortedIntSet {
+
+  private int[] values;
+  private int size;
+
+  public SortedIntSet() {
+    this(4);
+  }
+
+  public SortedIntSet(int capacity) {
+    this.values = new int[Math.max(1, capacity)];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return values[index];
+  }
+
+  public boolean contains(int value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
+  }
+
+  public boolean add(int value) {
+    int at = size == 0 || values[size - 1] < value ? -size - 1 : search(value);
+    if (at >= 0) {
+      return false;
+    }
+    at = -at - 1;
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    System.arraycopy(values, at, values, at + 1, size - at);
+    values[at] = value;
+    size++;
+    return true;
+  }
+
+  public boolean remove(int value) {
+    int at = search(value);
+    if (at < 0) {
+      return false;
+    }
+    System.arraycopy(values, at + 1, values, at, size - at - 1);
+    size--;
+    return true;
+  }
+
+  /** Sets every member's bit in {@code target}. */
+  public void orInto(BitSet target) {
+    for (int i = 0; i < size; i++) {
+      target.set(values[i]);
+    }
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /** Members of both ascending arrays, by a linear merge. */
+  public static int[] intersect(int[] left, int[] right) {
+    int[] shared = new int[Math.min(left.length, right.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length && j < right.length) {
+      if (left[i] < right[j]) {
+        i++;
+      } else if (left[i] > right[j]) {
+        j++;
+      } else {
+        shared[size++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return size == shared.length ? shared : Arrays.copyOf(shared, size);
+  }
+
+  /** Members of either ascending array, by a linear merge. */
+  public static int[] union(int[] left, int[] right) {
+    int[] merged = new int[left.length + right.length];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length || j < right.length) {
+      if (j == right.length || (i < left.length && left[i] < right[j])) {
+        merged[size++] = left[i++];
+      } else if (i == left.length || right[j] < left[i]) {
+        merged[size++] = right[j++];
+      } else {
+        merged[size++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return size == merged.length ? merged : Arrays.copyOf(merged, size);
+  }
+
+  private int search(int value) {
+    return Arrays.binarySearch(values, 0, size, value);
+  }
+}
@@ -0,0 +1,153 @@
+package com.dancepractice.app.common.index;
+
+// NOTE: Reference-only helper for in-memory indexes over Supabase rows; no Spring Boot backend wires it up.
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the few hundred distinct values of a string element collection (tags, notification
+ * channels, media URLs) to {@code int} codes, so in-memory copies hold an {@link IntSet} instead
+ * of a {@code LinkedHashSet<String>} and filters compare integers. Lookups are lock-free; codes are
+ * never reused or reassigned.
+ *
+ * <p>New values get their code from the {@link Assigner}: by default the next dense code, or from
+ * the database (see {@code JdbcStringDictionary}) when codes must agree across processes and
+ * restarts. {@link #restore} loads codes assigned earlier.
+ */
+public final class StringDictionary {
+
+  /** Returned by {@link #codeOf} for a value that has no code. */
+  public static final int MISSING = -1;
+
+  /** Chooses the code of a value seen for the first time. */
+  @FunctionalInterface
+  public interface Assigner {
+    int assign(String value) throws Exception;
+  }
+
+  private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+  private final Assigner assigner;
+  private volatile String[] values = new String[16];
+  private int next;
+
+  /** Assigns dense codes in first-seen order. */
+  public StringDictionary() {
+    this.assigner = null;
+  }
+
+  public StringDictionary(Assigner assigner) {
+    this.assigner = Objects.requireNonNull(assigner, "assigner");
+  }
+
+  /** The code of {@code value}, assigning one on first sight. */
+  public int encode(String value) {
+    Objects.requireNonNull(value, "value");
+    Integer code = codes.get(value);
+    if (code != null) {
+      return code;
+    }
+    synchronized (this) {
+      code = codes.get(value);
+      if (code != null) {
+        return code;
+      }
+      int assigned;
+      if (assigner == null) {
+        assigned = next;
+      } else {
+        try {
+          assigned = assigner.assign(value);
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new IllegalStateException("Could not assign a code to " + value, e);
+        }
+      }
+      restore(assigned, value);
+      return assigned;
+    }
+  }
+
+  /** The code of {@code value}, or {@link #MISSING}; never assigns. */
+  public int codeOf(String value) {
+    Integer code = value == null ? null : codes.get(value);
+    return code == null ? MISSING : code;
+  }
+
+  public String decode(int code) {
+    String[] current = values;
+    if (code < 0 || code >= current.length || current[code] == null) {
+      throw new IllegalArgumentException("Unknown code " + code);
+    }
+    return current[code];
+  }
+
+  /** Records a code assigned earlier, e.g. when loading persisted codes. */
+  public synchronized void restore(int code, String value) {
+    if (code < 0) {
+      throw new IllegalArgumentException("code must not be negative");
+    }
+    Integer existing = codes.get(value);
+    String[] current = values;
+    if (existing != null && existing != code
+        || code < current.length && current[code] != null && !current[code].equals(value)) {
+      throw new IllegalStateException("Conflicting code " + code + " for " + value);
+    }
+    if (code >= current.length) {
+      current = Arrays.copyOf(current, Math.max(code + 1, current.length * 2));
+    }
+    current[code] = value;
+    values = current;
+    codes.put(value, code);
+    next = Math.max(next, code + 1);
+  }
+
+  public int size() {
+    return codes.size();
+  }
+
+  /** Encodes every value, assigning codes as needed. */
+  public IntSet encodeAll(Collection<String> values) {
+    if (values.isEmpty()) {
+      return IntSet.EMPTY;
+    }
+    int[] encoded = new int[values.size()];
+    int size = 0;
+    for (String value : values) {
+      if (value != null) {
+        encoded[size++] = encode(value);
+      }
+    }
+    return IntSet.of(size == encoded.length ? encoded : Arrays.copyOf(encoded, size));
+  }
+
+  /**
+   * Codes of the values that already have one; never assigns. A filter value without a code
+   * matches nothing, which callers see as a result smaller than the distinct input.
+   */
+  public IntSet lookupAll(Collection<String> values) {
+    int[] found = new int[values.size()];
+    int size = 0;
+    for (String value : values) {
+      int code = codeOf(value);
+      if (code != MISSING) {
+        found[size++] = code;
+      }
+    }
+    return IntSet.of(Arrays.copyOf(found, size));
+  }
+
+  public Set<String> decodeAll(IntSet codes) {
+    Set<String> decoded = new LinkedHashSet<>(codes.size() * 2);
+    for (int i = 0; i < codes.size(); i++) {
+      decoded.add(decode(codes.get(i)));
+    }
+    return decoded;
+  }
+}
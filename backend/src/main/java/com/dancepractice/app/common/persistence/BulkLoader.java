@@ -0,0 +1,696 @@
+package com.dancepractice.app.common.persistence;
+
+// NOTE: Reference-only bulk writer for seeding and migrating Supabase rows; no Spring Boot backend runs it.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.UserRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.location.Location;
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.session.Session;
+import com.dancepractice.app.domain.session.SessionNote;
+import com.dancepractice.app.domain.user.User;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+/**
+ * Streams {@link Location}, {@link User} (with schedule preferences, roles and notification
+ * channels), and {@link Session} (with participants, focus areas and notes) entities into
+ * Postgres, for scale-test seeding ({@link SyntheticPopulation}) or migrated data, instead of one
+ * PostgREST call per row as in {@code seed_via_api.py}.
+ *
+ * <p>Entities are read one at a time and flattened into column arrays, so the source can be lazy
+ * and nothing but the current batches is held. A batch of {@code batchSize} entities and all of
+ * their child rows is written in one transaction with one {@code insert ... select from
+ * unnest(...)} per table, i.e. one round trip per table and no per-row statements. Up to {@code
+ * workers} batches are written at once on their own connections, and the reader waits when that
+ * many more are queued.
+ *
+ * <p>Foreign keys are respected by phase: locations, then users with their preferences, then
+ * {@code user_blocks}, then sessions with their notes. Each phase finishes before the next starts,
+ * and within a batch tables go parents first. Each user also gets an {@code auth.users} row for
+ * {@code auth_user_id} unless disabled, with no password, so loaded dancers cannot sign in.
+ * Entities without an id get a random one, written back to the entity so later references agree.
+ * {@code version} is the entity's, or the column default of 0, and the insert triggers set {@code
+ * created_at} and {@code updated_at} to the load time whatever the entity says. Batches commit
+ * with {@code synchronous_commit} off: a crash can lose the last few acknowledged batches, never
+ * part of one.
+ *
+ * <p>A failed batch stops the load once the batches in flight finish, and its exception is
+ * thrown wrapped in one that names the rows committed so far, with the cause's SQL state kept.
+ * Committed batches stay, so a failed load is rerun into a clean database or with fresh ids.
+ */
+public final class BulkLoader {
+
+  /** Rows written per table, in the order tables were first written, and the wall time. */
+  public record Result(Map<String, Long> rows, Duration elapsed) {
+
+    public long total() {
+      return rows.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double rowsPerSecond() {
+      double seconds = elapsed.toNanos() / 1e9;
+      return seconds == 0 ? 0 : total() / seconds;
+    }
+  }
+
+  private record Block(UUID userId, UUID blockedUserId) {}
+
+  private static final String INSERT_LOCATIONS =
+      "insert into locations (id, version, deleted_at, name, description, address_line1,"
+          + " address_line2, city, state, postal_code, country, latitude, longitude, location_type)"
+          + " select * from unnest(?::uuid[], ?::int8[], ?::timestamptz[], ?::varchar[],"
+          + " ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[],"
+          + " ?::varchar[], ?::float8[], ?::float8[], ?::int2[])";
+  private static final String INSERT_AUTH_USERS =
+      "insert into auth.users (instance_id, id, aud, role, email, encrypted_password,"
+          + " email_confirmed_at, raw_app_meta_data, raw_user_meta_data, created_at, updated_at,"
+          + " confirmation_token, email_change, email_change_token_new, recovery_token)"
+          + " select '00000000-0000-0000-0000-000000000000', u.id, 'authenticated',"
+          + " 'authenticated', u.email, '', now(),"
+          + " '{\"provider\":\"email\",\"providers\":[\"email\"]}'::jsonb, '{}'::jsonb,"
+          + " now(), now(), '', '', '', '' from unnest(?::uuid[], ?::varchar[]) as u(id, email)";
+  private static final String INSERT_USERS =
+      "insert into user_profiles (id, version, deleted_at, auth_user_id, home_location_id, email,"
+          + " first_name, last_name, display_name, birth_date, primary_role, wsdc_level,"
+          + " competitiveness_level, account_status, profile_visible, bio, dance_goals)"
+          + " select * from unnest(?::uuid[], ?::int8[], ?::timestamptz[], ?::uuid[], ?::uuid[],"
+          + " ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[], ?::int2[],"
+          + " ?::int2[], ?::int4[], ?::int2[], ?::bool[], ?::varchar[], ?::varchar[])";
+  private static final String INSERT_USER_ROLES =
+      "insert into user_roles (user_id, role) select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_CHANNELS =
+      "insert into user_notification_channels (user_id, channel)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_PREFERENCES =
+      "insert into schedule_preferences (id, version, deleted_at, user_id, max_travel_distance_km,"
+          + " notes, location_note) select * from unnest(?::uuid[], ?::int8[], ?::timestamptz[],"
+          + " ?::uuid[], ?::int4[], ?::varchar[], ?::varchar[])";
+  private static final String INSERT_WINDOWS =
+      "insert into schedule_preference_windows (preference_id, day_of_week, start_time, end_time,"
+          + " recurring, specific_date) select * from unnest(?::uuid[], ?::varchar[], ?::time[],"
+          + " ?::time[], ?::bool[], ?::date[])";
+  private static final String INSERT_PREFERENCE_ROLES =
+      "insert into schedule_preference_roles (preference_id, role)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_PREFERENCE_LEVELS =
+      "insert into schedule_preference_levels (preference_id, level)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_PREFERENCE_FOCUS =
+      "insert into schedule_preference_focus (preference_id, focus_area)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_PREFERENCE_LOCATIONS =
+      "insert into schedule_preference_locations (preference_id, location_id)"
+          + " select * from unnest(?::uuid[], ?::uuid[])";
+  private static final String INSERT_BLOCKS =
+      "insert into user_blocks (user_id, blocked_user_id)"
+          + " select * from unnest(?::uuid[], ?::uuid[]) on conflict do nothing";
+  private static final String INSERT_SESSIONS =
+      "insert into sessions (id, version, deleted_at, organizer_id, location_id, scheduled_start,"
+          + " scheduled_end, capacity, session_type, status, visibility, title)"
+          + " select * from unnest(?::uuid[], ?::int8[], ?::timestamptz[], ?::uuid[], ?::uuid[],"
+          + " ?::timestamptz[], ?::timestamptz[], ?::int4[], ?::varchar[], ?::varchar[],"
+          + " ?::varchar[], ?::varchar[])";
+  private static final String INSERT_SESSION_FOCUS =
+      "insert into session_focus_areas (session_id, focus_area)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_PARTICIPANTS =
+      "insert into session_participants (session_id, user_id)"
+          + " select * from unnest(?::uuid[], ?::uuid[])";
+  private static final String INSERT_NOTES =
+      "insert into session_notes (id, version, deleted_at, session_id, author_id, visibility,"
+          + " content) select * from unnest(?::uuid[], ?::int8[], ?::timestamptz[], ?::uuid[],"
+          + " ?::uuid[], ?::varchar[], ?::varchar[])";
+  private static final String INSERT_NOTE_TAGS =
+      "insert into session_note_tags (note_id, tag) select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String INSERT_NOTE_MEDIA =
+      "insert into session_note_media (note_id, media_url)"
+          + " select * from unnest(?::uuid[], ?::varchar[])";
+  private static final String NO_SYNCHRONOUS_COMMIT = "set local synchronous_commit to off";
+
+  private final DataSource dataSource;
+  private final int workers;
+  private final int batchSize;
+  private final boolean authUsers;
+
+  private BulkLoader(Builder builder) {
+    this.dataSource = builder.dataSource;
+    this.workers = builder.workers;
+    this.batchSize = builder.batchSize;
+    this.authUsers = builder.authUsers;
+  }
+
+  public static Builder builder(DataSource dataSource) {
+    return new Builder(dataSource);
+  }
+
+  /**
+   * Writes every entity of the three sources, each iterated once. Users are referenced by id from
+   * sessions, preferences and blocks, so a session's organizer may be any entity with the id of a
+   * loaded user. Interrupting the calling thread stops the load and interrupts the batches in
+   * flight.
+   */
+  public Result load(
+      Iterable<Location> locations, Iterable<User> users, Iterable<Session> sessions)
+      throws SQLException, InterruptedException {
+    long started = System.nanoTime();
+    Map<String, Long> rows = new LinkedHashMap<>();
+    List<Block> blocks = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      run(executor, rows, locations, BulkLoader::locationTables, BulkLoader::addLocation);
+      run(executor, rows, users, this::userTables, (tables, user) -> addUser(tables, user, blocks));
+      run(executor, rows, blocks, BulkLoader::blockTables, BulkLoader::addBlock);
+      run(executor, rows, sessions, BulkLoader::sessionTables, BulkLoader::addSession);
+    } catch (SQLException e) {
+      throw new SQLException(failedAfter(rows), e.getSQLState(), e.getErrorCode(), e);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException(failedAfter(rows), e);
+    } finally {
+      executor.shutdownNow();
+    }
+    return new Result(
+        Collections.unmodifiableMap(rows), Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  private static String failedAfter(Map<String, Long> rows) {
+    return "Bulk load failed after committing " + rows;
+  }
+
+  /**
+   * One phase: fills batches from {@code source} on the calling thread and writes them on {@code
+   * executor}, with at most {@code workers} queued behind the ones being written. Every submitted
+   * batch is waited for and counted, even after one fails; the first failure is then thrown.
+   */
+  private <T> void run(
+      ExecutorService executor,
+      Map<String, Long> rows,
+      Iterable<T> source,
+      Supplier<Table[]> tables,
+      BiConsumer<Table[], T> add)
+      throws SQLException, InterruptedException {
+    Semaphore queued = new Semaphore(2 * workers);
+    AtomicBoolean failed = new AtomicBoolean();
+    List<Future<long[]>> running = new ArrayList<>();
+    Table[] batch = tables.get();
+    int size = 0;
+    for (T entity : source) {
+      add.accept(batch, entity);
+      if (++size < batchSize) {
+        continue;
+      }
+      if (!submit(executor, queued, failed, running, batch)) {
+        break;
+      }
+      batch = tables.get();
+      size = 0;
+    }
+    if (size > 0) {
+      submit(executor, queued, failed, running, batch);
+    }
+    Table[] layout = tables.get();
+    Throwable failure = null;
+    for (Future<long[]> written : running) {
+      long[] counts;
+      try {
+        counts = written.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        } else {
+          failure.addSuppressed(e.getCause());
+        }
+        continue;
+      }
+      for (int i = 0; i < layout.length; i++) {
+        rows.merge(layout[i].name, counts[i], Long::sum);
+      }
+    }
+    if (failure instanceof SQLException sql) {
+      throw sql;
+    }
+    if (failure instanceof RuntimeException runtime) {
+      throw runtime;
+    }
+    if (failure != null) {
+      throw new IllegalStateException(failure);
+    }
+  }
+
+  /** Queues a batch once a slot frees up; {@code false} if an earlier batch failed. */
+  private boolean submit(
+      ExecutorService executor,
+      Semaphore queued,
+      AtomicBoolean failed,
+      List<Future<long[]>> running,
+      Table[] batch)
+      throws InterruptedException {
+    queued.acquire();
+    if (failed.get()) {
+      queued.release();
+      return false;
+    }
+    running.add(
+        executor.submit(
+            () -> {
+              try {
+                return write(batch);
+              } catch (SQLException | RuntimeException e) {
+                failed.set(true);
+                throw e;
+              } finally {
+                queued.release();
+              }
+            }));
+    return true;
+  }
+
+  /** Writes one batch, parents first, in its own transaction; returns rows per table. */
+  private long[] write(Table[] batch) throws SQLException {
+    long[] counts = new long[batch.length];
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute(NO_SYNCHRONOUS_COMMIT);
+        }
+        for (int i = 0; i < batch.length; i++) {
+          counts[i] = batch[i].write(connection);
+        }
+        connection.commit();
+        return counts;
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private static Table[] locationTables() {
+    return new Table[] {
+      new Table(
+          "locations",
+          INSERT_LOCATIONS,
+          "uuid",
+          "int8",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "float8",
+          "float8",
+          "int4")
+    };
+  }
+
+  private Table[] userTables() {
+    Table auth =
+        authUsers
+            ? new Table("auth.users", INSERT_AUTH_USERS, "uuid", "text")
+            : new Table("auth.users", null);
+    return new Table[] {
+      auth,
+      new Table(
+          "user_profiles",
+          INSERT_USERS,
+          "uuid",
+          "int8",
+          "text",
+          "uuid",
+          "uuid",
+          "text",
+          "text",
+          "text",
+          "text",
+          "text",
+          "int4",
+          "int4",
+          "int4",
+          "int4",
+          "bool",
+          "text",
+          "text"),
+      new Table("user_roles", INSERT_USER_ROLES, "uuid", "text"),
+      new Table("user_notification_channels", INSERT_CHANNELS, "uuid", "text"),
+      new Table(
+          "schedule_preferences",
+          INSERT_PREFERENCES,
+          "uuid",
+          "int8",
+          "text",
+          "uuid",
+          "int4",
+          "text",
+          "text"),
+      new Table(
+          "schedule_preference_windows",
+          INSERT_WINDOWS,
+          "uuid",
+          "text",
+          "text",
+          "text",
+          "bool",
+          "text"),
+      new Table("schedule_preference_roles", INSERT_PREFERENCE_ROLES, "uuid", "text"),
+      new Table("schedule_preference_levels", INSERT_PREFERENCE_LEVELS, "uuid", "text"),
+      new Table("schedule_preference_focus", INSERT_PREFERENCE_FOCUS, "uuid", "text"),
+      new Table("schedule_preference_locations", INSERT_PREFERENCE_LOCATIONS, "uuid", "uuid")
+    };
+  }
+
+  private static Table[] blockTables() {
+    return new Table[] {new Table("user_blocks", INSERT_BLOCKS, "uuid", "uuid")};
+  }
+
+  private static Table[] sessionTables() {
+    return new Table[] {
+      new Table(
+          "sessions",
+          INSERT_SESSIONS,
+          "uuid",
+          "int8",
+          "text",
+          "uuid",
+          "uuid",
+          "text",
+          "text",
+          "int4",
+          "text",
+          "text",
+          "text",
+          "text"),
+      new Table("session_focus_areas", INSERT_SESSION_FOCUS, "uuid", "text"),
+      new Table("session_participants", INSERT_PARTICIPANTS, "uuid", "uuid"),
+      new Table(
+          "session_notes",
+          INSERT_NOTES,
+          "uuid",
+          "int8",
+          "text",
+          "uuid",
+          "uuid",
+          "text",
+          "text"),
+      new Table("session_note_tags", INSERT_NOTE_TAGS, "uuid", "text"),
+      new Table("session_note_media", INSERT_NOTE_MEDIA, "uuid", "text")
+    };
+  }
+
+  private static void addLocation(Table[] tables, Location location) {
+    tables[0].add(
+        idOf(location),
+        version(location),
+        location.getDeletedAt(),
+        location.getName(),
+        location.getDescription(),
+        location.getAddressLine1(),
+        location.getAddressLine2(),
+        location.getCity(),
+        location.getState(),
+        location.getPostalCode(),
+        location.getCountry(),
+        location.getLatitude(),
+        location.getLongitude(),
+        ordinal(location.getLocationType()));
+  }
+
+  private static void addUser(Table[] tables, User user, List<Block> blocks) {
+    UUID id = idOf(user);
+    if (user.getAuthUserId() == null) {
+      user.setAuthUserId(UUID.randomUUID());
+    }
+    tables[0].add(user.getAuthUserId(), user.getEmail());
+    tables[1].add(
+        id,
+        version(user),
+        user.getDeletedAt(),
+        user.getAuthUserId(),
+        user.getHomeLocation() == null ? null : idOf(user.getHomeLocation()),
+        user.getEmail(),
+        user.getFirstName(),
+        user.getLastName(),
+        user.getDisplayName(),
+        user.getBirthDate(),
+        ordinal(user.getPrimaryRole()),
+        ordinal(user.getWsdcSkillLevel()),
+        user.getCompetitivenessLevel(),
+        ordinal(user.getAccountStatus()),
+        user.isProfileVisible(),
+        user.getBio(),
+        user.getDanceGoals());
+    for (UserRole role : user.getRoles()) {
+      tables[2].add(id, role.name());
+    }
+    for (String channel : user.getNotificationChannels()) {
+      tables[3].add(id, channel);
+    }
+    for (SchedulePreference preference : user.getSchedulePreferences()) {
+      UUID preferenceId = idOf(preference);
+      tables[4].add(
+          preferenceId,
+          version(preference),
+          preference.getDeletedAt(),
+          id,
+          preference.getMaxTravelDistanceKm(),
+          preference.getNotes(),
+          preference.getLocationNote());
+      for (AvailabilityWindow window : preference.getAvailabilityWindows()) {
+        tables[5].add(
+            preferenceId,
+            window.getDayOfWeek().name(),
+            window.getStartTime(),
+            window.getEndTime(),
+            window.isRecurring(),
+            window.getSpecificDate());
+      }
+      for (PrimaryRole role : preference.getPreferredRoles()) {
+        tables[6].add(preferenceId, role.name());
+      }
+      for (WsdcSkillLevel level : preference.getPreferredLevels()) {
+        tables[7].add(preferenceId, level.name());
+      }
+      for (FocusArea focusArea : preference.getPreferredFocusAreas()) {
+        tables[8].add(preferenceId, focusArea.name());
+      }
+      for (Location location : preference.getPreferredLocations()) {
+        tables[9].add(preferenceId, idOf(location));
+      }
+    }
+    for (User blocked : user.getBlockedUsers()) {
+      blocks.add(new Block(id, idOf(blocked)));
+    }
+  }
+
+  private static void addBlock(Table[] tables, Block block) {
+    tables[0].add(block.userId(), block.blockedUserId());
+  }
+
+  private static void addSession(Table[] tables, Session session) {
+    UUID id = idOf(session);
+    tables[0].add(
+        id,
+        version(session),
+        session.getDeletedAt(),
+        idOf(session.getOrganizer()),
+        session.getLocation() == null ? null : idOf(session.getLocation()),
+        session.getScheduledStart(),
+        session.getScheduledEnd(),
+        session.getCapacity(),
+        name(session.getSessionType()),
+        name(session.getStatus()),
+        name(session.getVisibility()),
+        session.getTitle());
+    for (FocusArea focusArea : session.getFocusAreas()) {
+      tables[1].add(id, focusArea.name());
+    }
+    for (User participant : session.getParticipants()) {
+      tables[2].add(id, idOf(participant));
+    }
+    for (SessionNote note : session.getNotes()) {
+      UUID noteId = idOf(note);
+      tables[3].add(
+          noteId,
+          version(note),
+          note.getDeletedAt(),
+          id,
+          idOf(note.getAuthor()),
+          name(note.getVisibility()),
+          note.getContent());
+      for (String tag : note.getTags()) {
+        tables[4].add(noteId, tag);
+      }
+      for (String mediaUrl : note.getMediaUrls()) {
+        tables[5].add(noteId, mediaUrl);
+      }
+    }
+  }
+
+  /** The entity's id, assigning a random one first if it has none. */
+  static UUID idOf(AbstractAuditableEntity entity) {
+    if (entity.getId() == null) {
+      entity.setId(UUID.randomUUID());
+    }
+    return entity.getId();
+  }
+
+  /** The entity's {@code version}, or the column default for a new row. */
+  private static long version(AbstractAuditableEntity entity) {
+    return entity.getVersion() == null ? 0L : entity.getVersion();
+  }
+
+  private static Integer ordinal(Enum<?> value) {
+    return value == null ? null : value.ordinal();
+  }
+
+  private static String name(Enum<?> value) {
+    return value == null ? null : value.name();
+  }
+
+  /**
+   * Column buffers for one table's insert. Each column is bound as one array of a driver-native
+   * element type ({@code uuid}, {@code int4}, {@code int8}, {@code float8}, {@code bool}) or as
+   * {@code text} that the statement casts; the statement unnests them back into rows. A table
+   * without a statement drops its rows.
+   */
+  private static final class Table {
+    private final String name;
+    private final String sql;
+    private final String[] types;
+    private Object[][] columns;
+    private int size;
+
+    private Table(String name, String sql, String... types) {
+      this.name = name;
+      this.sql = sql;
+      this.types = types;
+      this.columns = new Object[types.length][16];
+    }
+
+    private void add(Object... row) {
+      if (sql == null) {
+        return;
+      }
+      if (size == columns[0].length) {
+        for (int i = 0; i < columns.length; i++) {
+          columns[i] = Arrays.copyOf(columns[i], size * 2);
+        }
+      }
+      for (int i = 0; i < row.length; i++) {
+        columns[i][size] = row[i];
+      }
+      size++;
+    }
+
+    private int write(Connection connection) throws SQLException {
+      if (size == 0) {
+        return 0;
+      }
+      Array[] arrays = new Array[types.length];
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (int i = 0; i < types.length; i++) {
+          arrays[i] = connection.createArrayOf(types[i], column(i));
+          statement.setArray(i + 1, arrays[i]);
+        }
+        int written = statement.executeUpdate();
+        columns = null;
+        return written;
+      } finally {
+        for (Array array : arrays) {
+          if (array != null) {
+            array.free();
+          }
+        }
+      }
+    }
+
+    /** Column {@code i} as an array of the Java type the driver expects for its element type. */
+    private Object[] column(int i) {
+      Object[] values = columns[i];
+      return switch (types[i]) {
+        case "uuid" -> Arrays.copyOf(values, size, UUID[].class);
+        case "int4" -> Arrays.copyOf(values, size, Integer[].class);
+        case "int8" -> Arrays.copyOf(values, size, Long[].class);
+        case "float8" -> Arrays.copyOf(values, size, Double[].class);
+        case "bool" -> Arrays.copyOf(values, size, Boolean[].class);
+        default -> {
+          String[] text = new String[size];
+          for (int row = 0; row < size; row++) {
+            text[row] = values[row] == null ? null : values[row].toString();
+          }
+          yield text;
+        }
+      };
+    }
+  }
+
+  public static final class Builder {
+    private final DataSource dataSource;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 5_000;
+    private boolean authUsers = true;
+
+    private Builder(DataSource dataSource) {
+      this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /** Batches written at once, each holding one connection. */
+    public Builder workers(int workers) {
+      if (workers <= 0) {
+        throw new IllegalArgumentException("workers must be positive");
+      }
+      this.workers = workers;
+      return this;
+    }
+
+    /** Entities per batch and transaction; child rows come on top. */
+    public Builder batchSize(int batchSize) {
+      if (batchSize <= 0) {
+        throw new IllegalArgumentException("batchSize must be positive");
+      }
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    /** Whether to create the {@code auth.users} row each {@code user_profiles} row references. */
+    public Builder authUsers(boolean authUsers) {
+      this.authUsers = authUsers;
+      return this;
+    }
+
+    public BulkLoader build() {
+      return new BulkLoader(this);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.dancepractice.app.common.persistence;
+
+// NOTE: Reference-only JDBC backing for string dictionaries; no Spring Boot backend runs it.
+
+import com.dancepractice.app.common.index.StringDictionary;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+/**
+ * Persists {@link StringDictionary} codes in {@code string_dictionary}, so every process and every
+ * restart uses the same code for a value and codes can be stored in snapshots. Known codes are
+ * loaded up front; a value seen for the first time goes through {@code intern_string}, which
+ * returns the code the table holds, whichever process inserted it first. Codes are dense per
+ * domain, like those of a {@link StringDictionary} without an assigner, so arrays indexed by code
+ * stay as small as the domain.
+ */
+public final class JdbcStringDictionary {
+
+  public static final String SESSION_NOTE_TAG = "SESSION_NOTE_TAG";
+  public static final String SESSION_NOTE_MEDIA_URL = "SESSION_NOTE_MEDIA_URL";
+  public static final String NOTIFICATION_CHANNEL = "NOTIFICATION_CHANNEL";
+
+  private static final String SELECT_CODES =
+      "select code, value from string_dictionary where domain = ?";
+  private static final String INTERN = "select intern_string(?, ?)";
+
+  private JdbcStringDictionary() {}
+
+  /** A dictionary for {@code domain} holding every persisted code and persisting new ones. */
+  public static StringDictionary load(DataSource dataSource, String domain) throws SQLException {
+    StringDictionary dictionary = new StringDictionary(value -> assign(dataSource, domain, value));
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SELECT_CODES)) {
+      statement.setString(1, domain);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          dictionary.restore(rows.getInt(1), rows.getString(2));
+        }
+      }
+    }
+    return dictionary;
+  }
+
+  private static int assign(DataSource dataSource, String domain, String value)
+      throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(INTERN)) {
+      statement.setString(1, domain);
+      statement.setString(2, value);
+      try (ResultSet rows = statement.executeQuery()) {
+        rows.next();
+        return rows.getInt(1);
+      }
+    }
+  }
+}
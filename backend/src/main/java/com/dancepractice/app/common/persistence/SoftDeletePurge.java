@@ -0,0 +1,327 @@
+package com.dancepractice.app.common.persistence;
+
+// NOTE: Reference-only purge job for soft-deleted rows; no Spring Boot backend schedules it.
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+
+/**
+ * Moves rows of {@link AbstractAuditableEntity} tables whose {@code deleted_at} is older than the
+ * retention period into the {@code archive} schema, together with their element-collection rows,
+ * so the live tables and their indexes only hold what {@code @SQLRestriction("deleted_at IS
+ * NULL")} can still return.
+ *
+ * <p>Each table is walked in {@code (deleted_at, id)} order, one chunk per transaction: the chunk
+ * is locked with {@code skip locked}, its children and then the rows themselves are moved with
+ * {@code delete ... returning} into {@code insert}, and the keyset cursor in {@code
+ * archive.purge_progress} is advanced in the same transaction. Locks are held for one chunk only,
+ * an interrupted run resumes at the last committed chunk, and rows a guard keeps in place (e.g. a
+ * deleted session that still has notes) are stepped over instead of rescanned. Tables are purged
+ * in {@link #DEFAULT_TABLES} order, children before the parents they reference.
+ */
+public final class SoftDeletePurge {
+
+  /** An element collection or join table whose rows go with their parent. */
+  public record Child(String table, String parentColumn) {}
+
+  /**
+   * A soft-deleting table with its children. {@code guard}, if not {@code null}, is a condition on
+   * alias {@code t} that must hold for a row to be purged.
+   */
+  public record Table(String name, List<Child> children, String guard) {}
+
+  public static final List<Table> DEFAULT_TABLES =
+      List.of(
+          new Table(
+              "session_notes",
+              List.of(
+                  new Child("session_note_media", "note_id"),
+                  new Child("session_note_tags", "note_id")),
+              null),
+          new Table("session_invites", List.of(), null),
+          new Table(
+              "schedule_preferences",
+              List.of(
+                  new Child("schedule_preference_windows", "preference_id"),
+                  new Child("schedule_preference_focus", "preference_id"),
+                  new Child("schedule_preference_levels", "preference_id"),
+                  new Child("schedule_preference_roles", "preference_id"),
+                  new Child("schedule_preference_locations", "preference_id")),
+              "not exists (select 1 from match_recommendations m"
+                  + " where m.candidate_preference_id = t.id)"),
+          new Table(
+              "sessions",
+              List.of(
+                  new Child("session_focus_areas", "session_id"),
+                  new Child("session_participants", "session_id")),
+              "not exists (select 1 from session_notes n where n.session_id = t.id)"
+                  + " and not exists (select 1 from session_invites i where i.session_id = t.id)"
+                  + " and not exists (select 1 from abuse_reports r where r.session_id = t.id)"));
+
+  private static final String SELECT_CURSOR =
+      "select last_deleted_at, last_id from archive.purge_progress where table_name = ?";
+  private static final String SAVE_CURSOR =
+      "insert into archive.purge_progress"
+          + " (table_name, last_deleted_at, last_id, rows_archived, updated_at)"
+          + " values (?, ?, ?, ?, now())"
+          + " on conflict (table_name) do update set last_deleted_at = excluded.last_deleted_at,"
+          + " last_id = excluded.last_id,"
+          + " rows_archived = archive.purge_progress.rows_archived + excluded.rows_archived,"
+          + " updated_at = now()";
+  private static final String RESET_CURSOR =
+      "delete from archive.purge_progress where table_name = ?";
+
+  /** Totals for one table after a run, or after each chunk when reported as progress. */
+  public record Progress(
+      String table, int chunks, long rowsArchived, long childRowsArchived, boolean finished) {}
+
+  private final DataSource dataSource;
+  private final List<Table> tables;
+  private final Duration retention;
+  private final int chunkSize;
+  private final Duration pause;
+  private final int maxChunksPerTable;
+  private final Consumer<Progress> progressListener;
+
+  private SoftDeletePurge(Builder builder) {
+    this.dataSource = builder.dataSource;
+    this.tables = builder.tables;
+    this.retention = builder.retention;
+    this.chunkSize = builder.chunkSize;
+    this.pause = builder.pause;
+    this.maxChunksPerTable = builder.maxChunksPerTable;
+    this.progressListener = builder.progressListener;
+  }
+
+  public static Builder builder(DataSource dataSource) {
+    return new Builder(dataSource);
+  }
+
+  /**
+   * Purges every table of rows deleted before {@code now} minus the retention period. A table that
+   * runs out of candidates has its cursor reset, so rows whose guard clears later are picked up on
+   * the next run; a table stopped by {@code maxChunksPerTable} resumes where it left off.
+   */
+  public List<Progress> run(Instant now) throws SQLException, InterruptedException {
+    Instant cutoff = now.minus(retention);
+    List<Progress> results = new ArrayList<>(tables.size());
+    for (Table table : tables) {
+      results.add(purge(table, cutoff));
+    }
+    return results;
+  }
+
+  private Progress purge(Table table, Instant cutoff) throws SQLException, InterruptedException {
+    int chunks = 0;
+    long rows = 0;
+    long childRows = 0;
+    while (true) {
+      if (chunks == maxChunksPerTable) {
+        return report(new Progress(table.name(), chunks, rows, childRows, false));
+      }
+      if (chunks > 0 && !pause.isZero()) {
+        Thread.sleep(pause.toMillis());
+      }
+      long[] moved = purgeChunk(table, cutoff);
+      if (moved == null) {
+        return report(new Progress(table.name(), chunks, rows, childRows, true));
+      }
+      chunks++;
+      rows += moved[0];
+      childRows += moved[1];
+      report(new Progress(table.name(), chunks, rows, childRows, false));
+    }
+  }
+
+  /**
+   * Moves one chunk and advances the cursor in one transaction. Returns the rows and child rows
+   * moved, or {@code null} when nothing is left past the cursor.
+   */
+  private long[] purgeChunk(Table table, Instant cutoff) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        Timestamp afterDeletedAt = new Timestamp(0);
+        UUID afterId = new UUID(0, 0);
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_CURSOR)) {
+          statement.setString(1, table.name());
+          try (ResultSet rows = statement.executeQuery()) {
+            if (rows.next()) {
+              afterDeletedAt = rows.getTimestamp(1);
+              afterId = rows.getObject(2, UUID.class);
+            }
+          }
+        }
+
+        int scanned = 0;
+        Timestamp lastDeletedAt = null;
+        UUID lastId = null;
+        List<UUID> purgeable = new ArrayList<>(chunkSize);
+        try (PreparedStatement statement = connection.prepareStatement(selectChunk(table))) {
+          statement.setTimestamp(1, Timestamp.from(cutoff));
+          statement.setTimestamp(2, afterDeletedAt);
+          statement.setObject(3, afterId);
+          statement.setInt(4, chunkSize);
+          try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+              lastId = rows.getObject(1, UUID.class);
+              lastDeletedAt = rows.getTimestamp(2);
+              scanned++;
+              if (rows.getBoolean(3)) {
+                purgeable.add(lastId);
+              }
+            }
+          }
+        }
+        if (scanned == 0) {
+          reset(connection, table);
+          connection.commit();
+          return null;
+        }
+
+        long childRows = 0;
+        long rows = 0;
+        if (!purgeable.isEmpty()) {
+          Array idArray = connection.createArrayOf("uuid", purgeable.toArray(new UUID[0]));
+          try {
+            for (Child child : table.children()) {
+              childRows += move(connection, child.table(), child.parentColumn(), idArray);
+            }
+            rows = move(connection, table.name(), "id", idArray);
+          } finally {
+            idArray.free();
+          }
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(SAVE_CURSOR)) {
+          statement.setString(1, table.name());
+          statement.setTimestamp(2, lastDeletedAt);
+          statement.setObject(3, lastId);
+          statement.setLong(4, rows);
+          statement.executeUpdate();
+        }
+        connection.commit();
+        return new long[] {rows, childRows};
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  /**
+   * Next chunk past the cursor, locked, with whether each row passes the guard. Rows that fail it
+   * still advance the cursor, so they are not read again until the table is exhausted.
+   */
+  private static String selectChunk(Table table) {
+    String guard = table.guard() == null ? "true" : "(" + table.guard() + ")";
+    return "select t.id, t.deleted_at, " + guard + " from " + table.name() + " t"
+        + " where t.deleted_at is not null and t.deleted_at < ?"
+        + " and (t.deleted_at, t.id) > (?, ?)"
+        + " order by t.deleted_at, t.id limit ? for update skip locked";
+  }
+
+  private static int move(Connection connection, String table, String column, Array ids)
+      throws SQLException {
+    String sql =
+        "with moved as (delete from " + table + " where " + column + " = any(?) returning *)"
+            + " insert into archive." + table + " select * from moved";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setArray(1, ids);
+      return statement.executeUpdate();
+    }
+  }
+
+  private static void reset(Connection connection, Table table) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(RESET_CURSOR)) {
+      statement.setString(1, table.name());
+      statement.executeUpdate();
+    }
+  }
+
+  private Progress report(Progress progress) {
+    if (progressListener != null) {
+      progressListener.accept(progress);
+    }
+    return progress;
+  }
+
+  public static final class Builder {
+    private final DataSource dataSource;
+    private List<Table> tables = DEFAULT_TABLES;
+    private Duration retention = Duration.ofDays(90);
+    private int chunkSize = 1_000;
+    private Duration pause = Duration.ofMillis(100);
+    private int maxChunksPerTable = Integer.MAX_VALUE;
+    private Consumer<Progress> progressListener;
+
+    private Builder(DataSource dataSource) {
+      this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /** Tables to purge, in order; children must come before the tables they reference. */
+    public Builder tables(List<Table> tables) {
+      this.tables = List.copyOf(tables);
+      return this;
+    }
+
+    /** How long a row stays soft-deleted in place before it is archived. */
+    public Builder retention(Duration retention) {
+      if (retention.isNegative()) {
+        throw new IllegalArgumentException("retention must not be negative");
+      }
+      this.retention = retention;
+      return this;
+    }
+
+    public Builder chunkSize(int chunkSize) {
+      if (chunkSize <= 0) {
+        throw new IllegalArgumentException("chunkSize must be positive");
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /** Sleep between chunks, to leave room for regular traffic and replication. */
+    public Builder pause(Duration pause) {
+      if (pause.isNegative()) {
+        throw new IllegalArgumentException("pause must not be negative");
+      }
+      this.pause = pause;
+      return this;
+    }
+
+    /** Chunks per table per run; the rest of the table waits for the next run. */
+    public Builder maxChunksPerTable(int maxChunksPerTable) {
+      if (maxChunksPerTable <= 0) {
+        throw new IllegalArgumentException("maxChunksPerTable must be positive");
+      }
+      this.maxChunksPerTable = maxChunksPerTable;
+      return this;
+    }
+
+    public Builder progressListener(Consumer<Progress> progressListener) {
+      this.progressListener = progressListener;
+      return this;
+    }
+
+    public SoftDeletePurge build() {
+      return new SoftDeletePurge(this);
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.dancepractice.app.common.persistence;
+
+// NOTE: Reference-only synthetic dancers for scale-test seeding; no Spring Boot backend runs it.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.LocationType;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.SessionStatus;
+import com.dancepractice.app.domain.common.SessionType;
+import com.dancepractice.app.domain.common.Visibility;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.location.Location;
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.session.Session;
+import com.dancepractice.app.domain.session.SessionNote;
+import com.dancepractice.app.domain.user.User;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Lazily generated dancers for {@link BulkLoader}, shaped like {@code seed_via_api.py}'s: evening
+ * and weekend recurring windows shifted by whole quarter hours per user, a few focus areas, and
+ * partner preferences for the opposite role and nearby levels. Each of {@link #locations()},
+ * {@link #users()} and {@link #sessions()} builds its entities one at a time as it is iterated, so
+ * a million users never exist at once.
+ *
+ * <p>Every entity is derived from the seed and its own index, and ids are {@code seed} and kind
+ * in the high bits and the index in the low ones, so sessions refer to users without holding them
+ * and two runs with the same configuration produce identical rows. Reloading into the same
+ * database therefore needs another seed.
+ */
+public final class SyntheticPopulation {
+
+  /**
+   * {@code users} dancers with {@code windowsPerUser} recurring windows each (at most 21), spread
+   * over {@code cities} studio locations, with {@code sessionsPerUser × users} sessions of two
+   * participants, each carrying {@code notesPerSession} notes.
+   */
+  public record Config(
+      int users,
+      int windowsPerUser,
+      int cities,
+      int sessionsPerUser,
+      int notesPerSession,
+      long seed) {
+
+    public Config {
+      if (users < 2) {
+        throw new IllegalArgumentException("users must be at least 2");
+      }
+      if (windowsPerUser < 0 || windowsPerUser > MAX_WINDOWS_PER_USER) {
+        throw new IllegalArgumentException(
+            "windowsPerUser must be between 0 and " + MAX_WINDOWS_PER_USER);
+      }
+      if (cities <= 0) {
+        throw new IllegalArgumentException("cities must be positive");
+      }
+      if (sessionsPerUser < 0 || notesPerSession < 0) {
+        throw new IllegalArgumentException("sessionsPerUser and notesPerSession must be >= 0");
+      }
+    }
+
+    public static Config of(int users, int windowsPerUser) {
+      return new Config(users, windowsPerUser, 64, 0, 0, 42L);
+    }
+  }
+
+  /** Three rounds over the week, each four hours earlier than the last. */
+  public static final int MAX_WINDOWS_PER_USER = 21;
+
+  private static final Instant EPOCH = Instant.parse("2026-01-05T00:00:00Z");
+  private static final String[] TAGS = {"musicality", "connection", "footwork", "spins", "styling"};
+
+  private static final long LOCATION = 1;
+  private static final long USER = 2;
+  private static final long PREFERENCE = 3;
+  private static final long SESSION = 4;
+  private static final long NOTE = 5;
+  private static final long AUTH_USER = 6;
+
+  private final Config config;
+
+  public SyntheticPopulation(Config config) {
+    this.config = config;
+  }
+
+  public Iterable<Location> locations() {
+    return sequence(config.cities(), this::location);
+  }
+
+  public Iterable<User> users() {
+    return sequence(config.users(), this::user);
+  }
+
+  public Iterable<Session> sessions() {
+    return sequence(config.users() * config.sessionsPerUser(), this::session);
+  }
+
+  private Location location(int index) {
+    Location location = new Location();
+    location.setId(id(LOCATION, index));
+    location.setName("Studio " + (index + 1));
+    location.setCity(index == 0 ? "San Francisco" : "City " + index);
+    location.setLatitude(37.7749 + (index / 32) * 0.5);
+    location.setLongitude(-122.4194 + (index % 32) * 0.5);
+    location.setLocationType(LocationType.STUDIO);
+    return location;
+  }
+
+  private User user(int index) {
+    SplittableRandom random = random(USER, index);
+    User user = new User();
+    user.setId(id(USER, index));
+    user.setAuthUserId(id(AUTH_USER, index));
+    user.setFirstName("Dancer");
+    user.setLastName("No" + (index + 1));
+    user.setDisplayName("Dancer " + (index + 1));
+    user.setEmail("dancer" + (index + 1) + "." + Long.toHexString(config.seed()) + "@example.com");
+    PrimaryRole role = PrimaryRole.values()[random.nextInt(PrimaryRole.values().length)];
+    WsdcSkillLevel level = WsdcSkillLevel.values()[random.nextInt(4)];
+    user.setPrimaryRole(role);
+    user.setWsdcSkillLevel(level);
+    user.setCompetitivenessLevel(1 + random.nextInt(5));
+    user.setHomeLocation(reference(new Location(), LOCATION, homeCity(index)));
+
+    SchedulePreference preference = new SchedulePreference();
+    preference.setId(id(PREFERENCE, index));
+    preference.setUser(user);
+    preference.setMaxTravelDistanceKm(random.nextInt(4) == 0 ? null : 10 + 5 * random.nextInt(9));
+    int firstDay = random.nextInt(7);
+    int shiftMinutes = (random.nextInt(9) - 4) * 15;
+    for (int w = 0; w < config.windowsPerUser(); w++) {
+      DayOfWeek day = DayOfWeek.of(1 + (firstDay + 3 * w) % 7);
+      boolean weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+      LocalTime start =
+          LocalTime.of(weekend ? 10 : 18, 0).minusHours(4L * (w / 7)).plusMinutes(shiftMinutes);
+      AvailabilityWindow window = new AvailabilityWindow();
+      window.setDayOfWeek(day);
+      window.setStartTime(start);
+      window.setEndTime(start.plusMinutes(120 + 30L * random.nextInt(3)));
+      preference.getAvailabilityWindows().add(window);
+    }
+    if (random.nextInt(4) != 0) {
+      preference.getPreferredRoles().add(PrimaryRole.values()[1 - role.ordinal()]);
+    }
+    preference.getPreferredLevels().add(level);
+    preference.getPreferredLevels().add(WsdcSkillLevel.values()[level.ordinal() + 1]);
+    for (FocusArea focusArea : FocusArea.values()) {
+      if (random.nextInt(3) == 0) {
+        preference.getPreferredFocusAreas().add(focusArea);
+      }
+    }
+    user.getSchedulePreferences().add(preference);
+    return user;
+  }
+
+  private Session session(int index) {
+    SplittableRandom random = random(SESSION, index);
+    int organizer = random.nextInt(config.users());
+    int partner = (organizer + 1 + random.nextInt(config.users() - 1)) % config.users();
+    Session session = new Session();
+    session.setId(id(SESSION, index));
+    session.setTitle("Practice " + (index + 1));
+    session.setSessionType(
+        random.nextInt(4) == 0 ? SessionType.GROUP_PRACTICE : SessionType.PARTNER_PRACTICE);
+    session.setStatus(SessionStatus.values()[random.nextInt(SessionStatus.values().length)]);
+    session.setVisibility(Visibility.values()[random.nextInt(Visibility.values().length)]);
+    Instant start = EPOCH.plus(Duration.ofMinutes(15L * random.nextInt(4 * 24 * 28)));
+    session.setScheduledStart(start);
+    session.setScheduledEnd(start.plus(Duration.ofMinutes(60 + 30L * random.nextInt(4))));
+    User organizerRef = reference(new User(), USER, organizer);
+    User partnerRef = reference(new User(), USER, partner);
+    session.setOrganizer(organizerRef);
+    session.setLocation(reference(new Location(), LOCATION, homeCity(organizer)));
+    session.getParticipants().add(organizerRef);
+    session.getParticipants().add(partnerRef);
+    for (int n = 0; n < config.notesPerSession(); n++) {
+      SessionNote note = new SessionNote();
+      note.setId(id(NOTE, (long) index * config.notesPerSession() + n));
+      note.setSession(session);
+      note.setAuthor(random.nextBoolean() ? organizerRef : partnerRef);
+      note.setVisibility(Visibility.values()[random.nextInt(Visibility.values().length)]);
+      String tag = TAGS[random.nextInt(TAGS.length)];
+      note.setContent("Worked on " + tag + " for session " + (index + 1) + ".");
+      note.getTags().add(tag);
+      session.getNotes().add(note);
+    }
+    return session;
+  }
+
+  /** Home city of user {@code index}, the same whichever entity asks. */
+  private int homeCity(int index) {
+    return random(LOCATION, index).nextInt(config.cities());
+  }
+
+  private SplittableRandom random(long kind, long index) {
+    return new SplittableRandom((config.seed() * 31 + kind) * 0x9E3779B97F4A7C15L + index);
+  }
+
+  private UUID id(long kind, long index) {
+    return new UUID(config.seed() << 8 | kind, index);
+  }
+
+  /** An otherwise empty entity standing in for one this population generates elsewhere. */
+  private <T extends AbstractAuditableEntity> T reference(T entity, long kind, int index) {
+    entity.setId(id(kind, index));
+    return entity;
+  }
+
+  private static <T> Iterable<T> sequence(int count, IntFunction<T> element) {
+    return () ->
+        new Iterator<>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return next < count;
+          }
+
+          @Override
+          public T next() {
+            if (next >= count) {
+              throw new NoSuchElementException();
+            }
+            return element.apply(next++);
+          }
+        };
+  }
+}
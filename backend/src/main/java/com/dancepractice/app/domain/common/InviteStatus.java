@@ -0,0 +1,11 @@
+package com.dancepractice.app.domain.common;
+
+// NOTE: Reference-only enum for the session_invites status check; there is no Spring Boot backend.
+
+public enum InviteStatus {
+  PENDING,
+  ACCEPTED,
+  DECLINED,
+  CANCELLED,
+  EXPIRED
+}
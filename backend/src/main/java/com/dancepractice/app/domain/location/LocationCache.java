@@ -0,0 +1,95 @@
+package com.dancepractice.app.domain.location;
+
+// NOTE: Reference-only cache of locations rows; no Spring Boot backend wires it up.
+
+import com.dancepractice.app.common.cache.EntityCache;
+import com.dancepractice.app.domain.session.Session;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through {@link EntityCache} of {@link Location}s. The same few studios are referenced by
+ * {@code User.homeLocation}, {@code Session.location} and {@code
+ * SchedulePreference.preferredLocations} across thousands of rows, so lookups by id are served
+ * from memory and misses are loaded together through {@code loader} (typically a repository's
+ * {@code findAllById}). {@link #forSessions} resolves a whole session list with at most one load
+ * instead of one lazy fetch per row.
+ *
+ * <p>Location changes reach the cache through {@link #update(Location)}; an older {@code version}
+ * is ignored and a soft-deleted location reads as absent from then on.
+ */
+public final class LocationCache {
+
+  private final EntityCache<UUID, Location> cache;
+
+  /** {@code loader} returns the live locations among the requested ids. */
+  public LocationCache(
+      Function<? super Set<UUID>, ? extends Collection<Location>> loader, int maximumSize) {
+    this.cache =
+        EntityCache.<UUID, Location>builder(
+                ids -> {
+                  Map<UUID, Location> loaded = new HashMap<>();
+                  for (Location location : loader.apply(ids)) {
+                    loaded.put(location.getId(), location);
+                  }
+                  return loaded;
+                })
+            .version(Location::getVersion)
+            .updatedAt(Location::getUpdatedAt)
+            .deleted(Location::isDeleted)
+            .maximumSize(maximumSize)
+            .build();
+  }
+
+  public Location get(UUID locationId) {
+    return cache.get(locationId);
+  }
+
+  public Map<UUID, Location> getAll(Collection<UUID> locationIds) {
+    return cache.getAll(locationIds);
+  }
+
+  /**
+   * Each session's live location by session id, in iteration order; sessions without one are left
+   * out. Only the location ids are read from the sessions, which does not initialise a lazy
+   * reference, and every id not yet cached is loaded in one call.
+   */
+  public Map<UUID, Location> forSessions(Collection<Session> sessions) {
+    List<UUID> locationIds = new ArrayList<>(sessions.size());
+    for (Session session : sessions) {
+      if (session.getLocation() != null) {
+        locationIds.add(session.getLocation().getId());
+      }
+    }
+    Map<UUID, Location> locations = cache.getAll(locationIds);
+    Map<UUID, Location> bySession = new LinkedHashMap<>();
+    for (Session session : sessions) {
+      Location location =
+          session.getLocation() == null ? null : locations.get(session.getLocation().getId());
+      if (location != null) {
+        bySession.put(session.getId(), location);
+      }
+    }
+    return bySession;
+  }
+
+  /** Applies a changed or soft-deleted location if a copy is cached; see {@link EntityCache}. */
+  public boolean update(Location location) {
+    return cache.update(location.getId(), location);
+  }
+
+  public void invalidate(UUID locationId) {
+    cache.invalidate(locationId);
+  }
+
+  public EntityCache.Stats stats() {
+    return cache.stats();
+  }
+}
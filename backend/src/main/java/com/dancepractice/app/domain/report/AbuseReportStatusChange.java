@@ -0,0 +1,14 @@
+package com.dancepractice.app.domain.report;
+
+// NOTE: Reference-only change record for abuse_reports; it is not mapped to a table.
+
+import com.dancepractice.app.domain.common.AbuseReportStatus;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A status transition made in {@link AbuseTriageQueue}, pending a write to the database. {@code
+ * handledAt} is set for {@link AbuseReportStatus#RESOLVED} and {@link AbuseReportStatus#DISMISSED}
+ * and {@code null} otherwise.
+ */
+public record AbuseReportStatusChange(UUID reportId, AbuseReportStatus status, Instant handledAt) {}
@@ -0,0 +1,15 @@
+package com.dancepractice.app.domain.report;
+
+// NOTE: Reference-only output port for abuse triage; no Spring Boot backend implements it.
+
+import java.util.List;
+
+/**
+ * Destination for {@link AbuseTriageQueue#flush}. Changes arrive in the order they happened; a
+ * failed write is retried with the same changes, so implementations must be idempotent.
+ */
+@FunctionalInterface
+public interface AbuseReportStatusSink {
+
+  void write(List<AbuseReportStatusChange> changes) throws Exception;
+}
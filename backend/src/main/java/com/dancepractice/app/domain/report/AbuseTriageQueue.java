@@ -0,0 +1,691 @@
+package com.dancepractice.app.domain.report;
+
+// NOTE: Reference-only triage queue over abuse_reports; no Spring Boot backend serves it.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.domain.common.AbuseCategory;
+import com.dancepractice.app.domain.common.AbuseReportStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
+
+/**
+ * Orders {@code OPEN} {@link AbuseReport}s for admins by severity and age, and collapses floods
+ * against one reported user or session into a single escalated item.
+ *
+ * <p>A report's priority is its age plus a head start for its {@link AbuseCategory} (a {@code
+ * SAFETY} report ranks like a {@code SPAM} report filed two days earlier). Both terms grow at the
+ * same rate, so the order is fixed at insertion and a binary heap on {@code created_at - head
+ * start} keeps it without re-scoring. Every reported user and session also has a sliding-window
+ * counter of per-bucket ring slots; when a target collects {@code floodThreshold} reports within
+ * the window it is escalated: its open reports leave the queue as single items and come back as
+ * one item that ranks ahead of them by {@code floodBoost}, and the flood listener is told. Later
+ * reports against an escalated target join its item instead of the queue.
+ *
+ * <p>Reports are entries in parallel primitive arrays; a target's open reports are a doubly-linked
+ * list through them, so a transition unlinks a report in constant time. The heap drops entries
+ * lazily: a transition only flips the status, and {@link #peek} skips entries that no longer
+ * stand for an open item, and the heap is compacted once stale entries outnumber open reports.
+ *
+ * <p>Transitions are appended to an ordered change log that {@link #flush} hands to an {@link
+ * AbuseReportStatusSink} in batches, e.g. {@link JdbcAbuseReportStatusSink}. Methods are
+ * synchronized; the flood listener runs after the lock is released.
+ */
+public final class AbuseTriageQueue {
+
+  private static final String SELECT_REPORTS =
+      "select id, reported_user_id, session_id, category, status, created_at, version"
+          + " from abuse_reports where deleted_at is null and (status = 'OPEN' or created_at >= ?)";
+  private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+  private static final int NIL = -1;
+  private static final int USER = 0;
+  private static final int SESSION = 1;
+  private static final AbuseCategory[] CATEGORIES = AbuseCategory.values();
+
+  /**
+   * The next thing for an admin to look at: a single report, or every open report against {@code
+   * targetId} when it is flooding. {@code category} is the most severe among them.
+   */
+  public record Item(
+      UUID targetId,
+      List<UUID> reportIds,
+      AbuseCategory category,
+      Instant oldestCreatedAt,
+      int windowCount) {
+
+    public boolean flood() {
+      return targetId != null;
+    }
+  }
+
+  /** A target crossing the flood threshold, as reported to the flood listener. */
+  public record Flood(UUID targetId, boolean session, int windowCount, int openReports, Instant at) {}
+
+  private final long[] headStartMillis;
+  private final long floodBoostMillis;
+  private final long bucketMillis;
+  private final int buckets;
+  private final int floodThreshold;
+  private final Consumer<Flood> floodListener;
+
+  private final DenseIdRegistry reports = new DenseIdRegistry(1_024);
+  private long[] reportVersion = new long[1_024];
+  private long[] reportCreated = new long[1_024];
+  private byte[] reportCategory = new byte[1_024];
+  private byte[] reportStatus = new byte[1_024];
+  private int[] reportTarget = new int[2 * 1_024];
+  private int[] linkNext = new int[2 * 1_024];
+  private int[] linkPrev = new int[2 * 1_024];
+  private int openReports;
+
+  private final DenseIdRegistry targets = new DenseIdRegistry(1_024);
+  private int[] targetHead = new int[1_024];
+  private int[] targetOpen = new int[1_024];
+  private boolean[] targetSession = new boolean[1_024];
+  private boolean[] targetEscalated = new boolean[1_024];
+  private long[] targetKey = new long[1_024];
+  private int[][] targetRing = new int[1_024][];
+  private long[] targetNewestBucket = new long[1_024];
+  private int[] targetWindowCount = new int[1_024];
+
+  private long[] heapKey = new long[1_024];
+  private int[] heapItem = new int[1_024];
+  private int heapSize;
+
+  private final ConcurrentLinkedDeque<AbuseReportStatusChange> changes =
+      new ConcurrentLinkedDeque<>();
+  private final Object flushLock = new Object();
+
+  private AbuseTriageQueue(Builder builder) {
+    this.headStartMillis = new long[CATEGORIES.length];
+    builder.headStarts.forEach(
+        (category, headStart) -> headStartMillis[category.ordinal()] = headStart.toMillis());
+    this.floodBoostMillis = builder.floodBoost.toMillis();
+    this.buckets = builder.buckets;
+    this.bucketMillis = Math.max(1, builder.window.toMillis() / builder.buckets);
+    this.floodThreshold = builder.floodThreshold;
+    this.floodListener = builder.floodListener;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Streams every open report, and every report filed within the window so flood counters start
+   * warm, without hydrating {@link AbuseReport} entities. The connection is left open.
+   */
+  public int load(Connection connection, Instant now) throws SQLException {
+    int loaded = 0;
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_REPORTS)) {
+      statement.setTimestamp(1, Timestamp.from(now.minusMillis(bucketMillis * buckets)));
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          upsert(
+              rows.getObject(1, UUID.class),
+              rows.getObject(2, UUID.class),
+              rows.getObject(3, UUID.class),
+              AbuseCategory.valueOf(rows.getString(4)),
+              AbuseReportStatus.valueOf(rows.getString(5)),
+              rows.getTimestamp(6).toInstant(),
+              rows.getLong(7),
+              now);
+          loaded++;
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Applies a report as inserted or changed elsewhere. Returns {@code false} without changing
+   * anything when the queue already has this or a newer {@code version}. A report seen for the
+   * first time is counted against its targets' windows, which may escalate them.
+   */
+  public boolean upsert(AbuseReport report, Instant now) {
+    return upsert(
+        report.getId(),
+        report.getReportedUser() == null ? null : report.getReportedUser().getId(),
+        report.getSession() == null ? null : report.getSession().getId(),
+        report.getCategory(),
+        report.isDeleted() ? AbuseReportStatus.DISMISSED : report.getStatus(),
+        report.getCreatedAt() == null ? now : report.getCreatedAt(),
+        report.getVersion(),
+        now);
+  }
+
+  /** The highest-ranked open item, or {@code null} when nothing is open. */
+  public synchronized Item peek() {
+    return top() ? item(heapItem[0]) : null;
+  }
+
+  /**
+   * Removes the highest-ranked open item, moves its reports to {@code ACKNOWLEDGED}, and returns
+   * it; {@code null} when nothing is open.
+   */
+  public Item poll(Instant now) {
+    synchronized (this) {
+      if (!top()) {
+        return null;
+      }
+      Item item = item(heapItem[0]);
+      for (UUID reportId : item.reportIds()) {
+        transition(reports.indexOf(reportId), AbuseReportStatus.ACKNOWLEDGED, now);
+      }
+      return item;
+    }
+  }
+
+  /**
+   * Moves one report to {@code status}; back to {@code OPEN} re-queues it. Returns {@code false}
+   * for an unknown report or one already in {@code status}.
+   */
+  public synchronized boolean transition(UUID reportId, AbuseReportStatus status, Instant now) {
+    int report = reports.indexOf(reportId);
+    return report >= 0 && transition(report, status, now);
+  }
+
+  /** Moves every open report against {@code targetId} to {@code status}; returns how many. */
+  public synchronized int transitionTarget(UUID targetId, AbuseReportStatus status, Instant now) {
+    if (status == AbuseReportStatus.OPEN) {
+      throw new IllegalArgumentException("Open reports are already open");
+    }
+    int target = targets.indexOf(targetId);
+    if (target < 0) {
+      return 0;
+    }
+    int moved = 0;
+    while (targetHead[target] != NIL) {
+      transition(targetHead[target] >> 1, status, now);
+      moved++;
+    }
+    return moved;
+  }
+
+  /** Reports filed against a user or session within the window ending at {@code now}. */
+  public synchronized int windowCount(UUID targetId, Instant now) {
+    int target = targets.indexOf(targetId);
+    if (target < 0) {
+      return 0;
+    }
+    advance(target, now.toEpochMilli() / bucketMillis);
+    return targetWindowCount[target];
+  }
+
+  public synchronized boolean escalated(UUID targetId) {
+    int target = targets.indexOf(targetId);
+    return target >= 0 && targetEscalated[target];
+  }
+
+  public synchronized int openCount() {
+    return openReports;
+  }
+
+  public int pendingChanges() {
+    return changes.size();
+  }
+
+  /**
+   * Writes up to {@code maxBatch} pending transitions, oldest first, and returns how many were
+   * written. If the sink fails the changes are put back in front of newer ones, so per-report
+   * order survives the retry. Flushes are serialized.
+   */
+  public int flush(AbuseReportStatusSink sink, int maxBatch) throws Exception {
+    synchronized (flushLock) {
+      List<AbuseReportStatusChange> batch = new ArrayList<>(Math.min(maxBatch, 1_024));
+      AbuseReportStatusChange change;
+      while (batch.size() < maxBatch && (change = changes.pollFirst()) != null) {
+        batch.add(change);
+      }
+      if (batch.isEmpty()) {
+        return 0;
+      }
+      try {
+        sink.write(batch);
+      } catch (Exception e) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+          changes.addFirst(batch.get(i));
+        }
+        throw e;
+      }
+      return batch.size();
+    }
+  }
+
+  private boolean upsert(
+      UUID reportId,
+      UUID reportedUserId,
+      UUID sessionId,
+      AbuseCategory category,
+      AbuseReportStatus status,
+      Instant createdAt,
+      Long version,
+      Instant now) {
+    List<Flood> floods = new ArrayList<>(0);
+    synchronized (this) {
+      int before = reports.size();
+      int report = ensureReport(reportId);
+      if (!newer(reportVersion[report], version)) {
+        return false;
+      }
+      boolean first = report >= before;
+      boolean wasOpen = reportStatus[report] == AbuseReportStatus.OPEN.ordinal();
+      if (wasOpen) {
+        unlink(report);
+      }
+      reportVersion[report] = version == null ? UNKNOWN_VERSION : version;
+      reportCreated[report] = createdAt.toEpochMilli();
+      reportCategory[report] = (byte) category.ordinal();
+      reportStatus[report] = (byte) status.ordinal();
+      reportTarget[2 * report + USER] =
+          reportedUserId == null ? NIL : ensureTarget(reportedUserId, false);
+      reportTarget[2 * report + SESSION] = sessionId == null ? NIL : ensureTarget(sessionId, true);
+      if (first) {
+        long bucket = reportCreated[report] / bucketMillis;
+        long nowBucket = now.toEpochMilli() / bucketMillis;
+        for (int slot = USER; slot <= SESSION; slot++) {
+          int target = reportTarget[2 * report + slot];
+          if (target != NIL) {
+            count(target, bucket, nowBucket);
+          }
+        }
+      }
+      if (status == AbuseReportStatus.OPEN) {
+        open(report);
+      }
+      for (int slot = USER; slot <= SESSION; slot++) {
+        int target = reportTarget[2 * report + slot];
+        if (target != NIL
+            && !targetEscalated[target]
+            && targetOpen[target] > 0
+            && targetWindowCount[target] >= floodThreshold) {
+          escalate(target);
+          floods.add(
+              new Flood(
+                  targets.idAt(target),
+                  targetSession[target],
+                  targetWindowCount[target],
+                  targetOpen[target],
+                  now));
+        }
+      }
+    }
+    if (floodListener != null) {
+      floods.forEach(floodListener);
+    }
+    return true;
+  }
+
+  private boolean transition(int report, AbuseReportStatus status, Instant now) {
+    if (reportStatus[report] == status.ordinal()) {
+      return false;
+    }
+    boolean wasOpen = reportStatus[report] == AbuseReportStatus.OPEN.ordinal();
+    reportStatus[report] = (byte) status.ordinal();
+    if (wasOpen) {
+      unlink(report);
+    } else if (status == AbuseReportStatus.OPEN) {
+      open(report);
+    }
+    boolean handled =
+        status == AbuseReportStatus.RESOLVED || status == AbuseReportStatus.DISMISSED;
+    changes.addLast(
+        new AbuseReportStatusChange(reports.idAt(report), status, handled ? now : null));
+    return true;
+  }
+
+  /** Links an open report into its targets and queues it, alone or as part of a flood. */
+  private void open(int report) {
+    openReports++;
+    boolean grouped = false;
+    long key = reportKey(report);
+    for (int slot = USER; slot <= SESSION; slot++) {
+      int target = reportTarget[2 * report + slot];
+      if (target == NIL) {
+        continue;
+      }
+      link(report, slot, target);
+      if (targetEscalated[target]) {
+        grouped = true;
+        if (key - floodBoostMillis < targetKey[target]) {
+          targetKey[target] = key - floodBoostMillis;
+          push(targetKey[target], ~target);
+        }
+      }
+    }
+    if (!grouped) {
+      push(key, report);
+    }
+  }
+
+  private void escalate(int target) {
+    targetEscalated[target] = true;
+    long key = Long.MAX_VALUE;
+    for (int node = targetHead[target]; node != NIL; node = linkNext[node]) {
+      key = Math.min(key, reportKey(node >> 1));
+    }
+    targetKey[target] = key - floodBoostMillis;
+    push(targetKey[target], ~target);
+  }
+
+  /** Moves the heap's top to the highest-ranked live entry; {@code false} if there is none. */
+  private boolean top() {
+    while (heapSize > 0 && !live(heapKey[0], heapItem[0])) {
+      removeTop();
+    }
+    // Every live entry holds at least one open report, so this bounds the stale ones.
+    if (heapSize > 2 * openReports + 1_024) {
+      compact();
+    }
+    return heapSize > 0;
+  }
+
+  private boolean live(long key, int item) {
+    if (item < 0) {
+      int target = ~item;
+      return targetEscalated[target] && targetOpen[target] > 0 && targetKey[target] == key;
+    }
+    if (reportStatus[item] != AbuseReportStatus.OPEN.ordinal() || reportKey(item) != key) {
+      return false;
+    }
+    for (int slot = USER; slot <= SESSION; slot++) {
+      int target = reportTarget[2 * item + slot];
+      if (target != NIL && targetEscalated[target]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Item item(int item) {
+    if (item >= 0) {
+      return new Item(
+          null,
+          List.of(reports.idAt(item)),
+          CATEGORIES[reportCategory[item]],
+          Instant.ofEpochMilli(reportCreated[item]),
+          0);
+    }
+    int target = ~item;
+    List<UUID> ids = new ArrayList<>(targetOpen[target]);
+    long oldest = Long.MAX_VALUE;
+    long severest = Long.MIN_VALUE;
+    AbuseCategory category = null;
+    for (int node = targetHead[target]; node != NIL; node = linkNext[node]) {
+      int report = node >> 1;
+      ids.add(reports.idAt(report));
+      oldest = Math.min(oldest, reportCreated[report]);
+      if (headStartMillis[reportCategory[report]] > severest) {
+        severest = headStartMillis[reportCategory[report]];
+        category = CATEGORIES[reportCategory[report]];
+      }
+    }
+    return new Item(
+        targets.idAt(target),
+        ids,
+        category,
+        Instant.ofEpochMilli(oldest),
+        targetWindowCount[target]);
+  }
+
+  private long reportKey(int report) {
+    return reportCreated[report] - headStartMillis[reportCategory[report]];
+  }
+
+  /** Counts a report filed in {@code bucket} against {@code target}'s window. */
+  private void count(int target, long bucket, long nowBucket) {
+    advance(target, Math.max(bucket, nowBucket));
+    if (bucket <= targetNewestBucket[target] - buckets) {
+      return;
+    }
+    if (targetRing[target] == null) {
+      targetRing[target] = new int[buckets];
+    }
+    targetRing[target][(int) Math.floorMod(bucket, (long) buckets)]++;
+    targetWindowCount[target]++;
+  }
+
+  /** Slides {@code target}'s window forward to end at {@code bucket}, dropping expired buckets. */
+  private void advance(int target, long bucket) {
+    long newest = targetNewestBucket[target];
+    if (bucket <= newest) {
+      return;
+    }
+    int[] ring = targetRing[target];
+    if (ring != null) {
+      long steps = Math.min(bucket - newest, buckets);
+      for (long b = newest + 1; b <= newest + steps; b++) {
+        int slot = (int) Math.floorMod(b, (long) buckets);
+        targetWindowCount[target] -= ring[slot];
+        ring[slot] = 0;
+      }
+      if (targetWindowCount[target] == 0) {
+        targetRing[target] = null;
+      }
+    }
+    targetNewestBucket[target] = bucket;
+  }
+
+  private void link(int report, int slot, int target) {
+    int node = 2 * report + slot;
+    int head = targetHead[target];
+    linkPrev[node] = NIL;
+    linkNext[node] = head;
+    if (head != NIL) {
+      linkPrev[head] = node;
+    }
+    targetHead[target] = node;
+    targetOpen[target]++;
+  }
+
+  private void unlink(int report) {
+    openReports--;
+    for (int slot = USER; slot <= SESSION; slot++) {
+      int target = reportTarget[2 * report + slot];
+      if (target == NIL) {
+        continue;
+      }
+      int node = 2 * report + slot;
+      int next = linkNext[node];
+      int prev = linkPrev[node];
+      if (prev == NIL) {
+        targetHead[target] = next;
+      } else {
+        linkNext[prev] = next;
+      }
+      if (next != NIL) {
+        linkPrev[next] = prev;
+      }
+      if (--targetOpen[target] == 0) {
+        // The flood has been worked off; a new one needs the threshold again.
+        targetEscalated[target] = false;
+      }
+    }
+  }
+
+  private void push(long key, int item) {
+    if (heapSize == heapKey.length) {
+      heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+      heapItem = Arrays.copyOf(heapItem, heapSize * 2);
+    }
+    int at = heapSize++;
+    while (at > 0) {
+      int parent = (at - 1) >>> 1;
+      if (heapKey[parent] <= key) {
+        break;
+      }
+      heapKey[at] = heapKey[parent];
+      heapItem[at] = heapItem[parent];
+      at = parent;
+    }
+    heapKey[at] = key;
+    heapItem[at] = item;
+  }
+
+  private void removeTop() {
+    heapSize--;
+    if (heapSize > 0) {
+      siftDown(0, heapKey[heapSize], heapItem[heapSize]);
+    }
+  }
+
+  private void siftDown(int at, long key, int item) {
+    int half = heapSize >>> 1;
+    while (at < half) {
+      int child = 2 * at + 1;
+      if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) {
+        child++;
+      }
+      if (key <= heapKey[child]) {
+        break;
+      }
+      heapKey[at] = heapKey[child];
+      heapItem[at] = heapItem[child];
+      at = child;
+    }
+    heapKey[at] = key;
+    heapItem[at] = item;
+  }
+
+  /** Drops every stale entry and re-heapifies in linear time. */
+  private void compact() {
+    int kept = 0;
+    for (int i = 0; i < heapSize; i++) {
+      if (live(heapKey[i], heapItem[i])) {
+        heapKey[kept] = heapKey[i];
+        heapItem[kept] = heapItem[i];
+        kept++;
+      }
+    }
+    heapSize = kept;
+    for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+      siftDown(i, heapKey[i], heapItem[i]);
+    }
+  }
+
+  private int ensureReport(UUID id) {
+    int before = reports.size();
+    int index = reports.register(id);
+    if (index < before) {
+      return index;
+    }
+    if (index == reportVersion.length) {
+      int grown = index * 2;
+      reportVersion = Arrays.copyOf(reportVersion, grown);
+      reportCreated = Arrays.copyOf(reportCreated, grown);
+      reportCategory = Arrays.copyOf(reportCategory, grown);
+      reportStatus = Arrays.copyOf(reportStatus, grown);
+      reportTarget = Arrays.copyOf(reportTarget, grown * 2);
+      linkNext = Arrays.copyOf(linkNext, grown * 2);
+      linkPrev = Arrays.copyOf(linkPrev, grown * 2);
+    }
+    reportVersion[index] = UNKNOWN_VERSION;
+    // Not open until the upsert says so.
+    reportStatus[index] = (byte) AbuseReportStatus.DISMISSED.ordinal();
+    return index;
+  }
+
+  private int ensureTarget(UUID id, boolean session) {
+    int before = targets.size();
+    int index = targets.register(id);
+    if (index < before) {
+      return index;
+    }
+    if (index == targetHead.length) {
+      int grown = index * 2;
+      targetHead = Arrays.copyOf(targetHead, grown);
+      targetOpen = Arrays.copyOf(targetOpen, grown);
+      targetSession = Arrays.copyOf(targetSession, grown);
+      targetEscalated = Arrays.copyOf(targetEscalated, grown);
+      targetKey = Arrays.copyOf(targetKey, grown);
+      targetRing = Arrays.copyOf(targetRing, grown);
+      targetNewestBucket = Arrays.copyOf(targetNewestBucket, grown);
+      targetWindowCount = Arrays.copyOf(targetWindowCount, grown);
+    }
+    targetHead[index] = NIL;
+    targetSession[index] = session;
+    targetNewestBucket[index] = Long.MIN_VALUE;
+    return index;
+  }
+
+  private static boolean newer(long current, Long incoming) {
+    return current == UNKNOWN_VERSION || incoming == null || incoming > current;
+  }
+
+  public static final class Builder {
+    private final Map<AbuseCategory, Duration> headStarts = new EnumMap<>(AbuseCategory.class);
+    private Duration floodBoost = Duration.ofDays(3);
+    private Duration window = Duration.ofMinutes(15);
+    private int buckets = 15;
+    private int floodThreshold = 20;
+    private Consumer<Flood> floodListener;
+
+    private Builder() {
+      headStarts.put(AbuseCategory.SAFETY, Duration.ofHours(48));
+      headStarts.put(AbuseCategory.HARASSMENT, Duration.ofHours(24));
+      headStarts.put(AbuseCategory.PAYMENT, Duration.ofHours(6));
+      headStarts.put(AbuseCategory.OTHER, Duration.ofHours(1));
+      headStarts.put(AbuseCategory.SPAM, Duration.ZERO);
+    }
+
+    /** How much older than its age a report of {@code category} ranks. */
+    public Builder headStart(AbuseCategory category, Duration headStart) {
+      if (headStart.isNegative()) {
+        throw new IllegalArgumentException("headStart must not be negative");
+      }
+      headStarts.put(Objects.requireNonNull(category, "category"), headStart);
+      return this;
+    }
+
+    /** How far ahead of its oldest, most severe report an escalated flood ranks. */
+    public Builder floodBoost(Duration floodBoost) {
+      if (floodBoost.isNegative()) {
+        throw new IllegalArgumentException("floodBoost must not be negative");
+      }
+      this.floodBoost = floodBoost;
+      return this;
+    }
+
+    /** Sliding window of the flood counters, kept as {@code buckets} ring slots per target. */
+    public Builder window(Duration window, int buckets) {
+      if (window.toMillis() <= 0 || buckets <= 0) {
+        throw new IllegalArgumentException("window and buckets must be positive");
+      }
+      this.window = window;
+      this.buckets = buckets;
+      return this;
+    }
+
+    /** Reports within the window that escalate a reported user or session. */
+    public Builder floodThreshold(int floodThreshold) {
+      if (floodThreshold <= 1) {
+        throw new IllegalArgumentException("floodThreshold must be at least 2");
+      }
+      this.floodThreshold = floodThreshold;
+      return this;
+    }
+
+    public Builder floodListener(Consumer<Flood> floodListener) {
+      this.floodListener = floodListener;
+      return this;
+    }
+
+    public AbuseTriageQueue build() {
+      return new AbuseTriageQueue(this);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.dancepractice.app.domain.report;
+
+// NOTE: Reference-only JDBC writer for abuse_reports status; no Spring Boot backend runs it.
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Writes {@link AbuseTriageQueue} transitions to {@code abuse_reports} as one batched update per
+ * batch, in one transaction. Only the last change per report matters, so the batch is collapsed to
+ * that first; a flood acknowledged as one item therefore costs one statement execution for all of
+ * its reports. Each written row's {@code version} is bumped like a JPA update would.
+ */
+public final class JdbcAbuseReportStatusSink implements AbuseReportStatusSink {
+
+  private static final String UPDATE =
+      "update abuse_reports set status = ?, handled_at = ?, version = version + 1"
+          + " where id = ? and deleted_at is null";
+
+  private final DataSource dataSource;
+
+  public JdbcAbuseReportStatusSink(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public void write(List<AbuseReportStatusChange> changes) throws SQLException {
+    if (changes.isEmpty()) {
+      return;
+    }
+    Map<UUID, AbuseReportStatusChange> latest = new LinkedHashMap<>();
+    for (AbuseReportStatusChange change : changes) {
+      latest.put(change.reportId(), change);
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+        for (AbuseReportStatusChange change : latest.values()) {
+          statement.setString(1, change.status().name());
+          if (change.handledAt() == null) {
+            statement.setNull(2, Types.TIMESTAMP);
+          } else {
+            statement.setTimestamp(2, Timestamp.from(change.handledAt()));
+          }
+          statement.setObject(3, change.reportId());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Embeddable;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,10 @@ public class AvailabilityWindow {
 
   @Column(name = "end_time", nullable = false)
   private LocalTime endTime;
+
+  @Column(name = "recurring", nullable = false)
+  private boolean recurring = true;
+
+  @Column(name = "specific_date")
+  private LocalDate specificDate;
 }
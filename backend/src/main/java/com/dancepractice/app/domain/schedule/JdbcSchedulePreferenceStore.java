@@ -0,0 +1,248 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only JDBC store for schedule preferences; no Spring Boot backend runs it.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * {@link SchedulePreferenceStore} over {@code schedule_preferences} and its element-collection
+ * tables. {@link #apply} bumps the version with a guarded {@code update} and then inserts and
+ * deletes only the delta rows, each table as one batch, all in one transaction; untouched tables
+ * are not written at all.
+ */
+public final class JdbcSchedulePreferenceStore implements SchedulePreferenceStore {
+
+  private static final String SELECT_PREFERENCE =
+      "select version, max_travel_distance_km, notes, location_note from schedule_preferences"
+          + " where id = ? and deleted_at is null";
+  private static final String SELECT_WINDOWS =
+      "select day_of_week, start_time, end_time, recurring, specific_date"
+          + " from schedule_preference_windows where preference_id = ?";
+  private static final String SELECT_ROLES =
+      "select role from schedule_preference_roles where preference_id = ?";
+  private static final String SELECT_LEVELS =
+      "select level from schedule_preference_levels where preference_id = ?";
+  private static final String SELECT_FOCUS =
+      "select focus_area from schedule_preference_focus where preference_id = ?";
+  private static final String SELECT_LOCATIONS =
+      "select location_id from schedule_preference_locations where preference_id = ?";
+
+  private static final String BUMP_VERSION =
+      "update schedule_preferences set version = version + 1, max_travel_distance_km = ?,"
+          + " notes = ?, location_note = ?"
+          + " where id = ? and version = ? and deleted_at is null";
+  private static final String INSERT_WINDOW =
+      "insert into schedule_preference_windows"
+          + " (preference_id, day_of_week, start_time, end_time, recurring, specific_date)"
+          + " values (?, ?, ?, ?, ?, ?) on conflict do nothing";
+  private static final String DELETE_WINDOW =
+      "delete from schedule_preference_windows where preference_id = ? and day_of_week = ?"
+          + " and start_time = ? and end_time = ? and recurring = ?"
+          + " and specific_date is not distinct from ?";
+  private static final String INSERT_ROLE =
+      "insert into schedule_preference_roles (preference_id, role) values (?, ?)";
+  private static final String DELETE_ROLE =
+      "delete from schedule_preference_roles where preference_id = ? and role = ?";
+  private static final String INSERT_LEVEL =
+      "insert into schedule_preference_levels (preference_id, level) values (?, ?)";
+  private static final String DELETE_LEVEL =
+      "delete from schedule_preference_levels where preference_id = ? and level = ?";
+  private static final String INSERT_FOCUS =
+      "insert into schedule_preference_focus (preference_id, focus_area) values (?, ?)";
+  private static final String DELETE_FOCUS =
+      "delete from schedule_preference_focus where preference_id = ? and focus_area = ?";
+  private static final String INSERT_LOCATION =
+      "insert into schedule_preference_locations (preference_id, location_id) values (?, ?)"
+          + " on conflict do nothing";
+  private static final String DELETE_LOCATION =
+      "delete from schedule_preference_locations where preference_id = ? and location_id = ?";
+
+  private final DataSource dataSource;
+
+  public JdbcSchedulePreferenceStore(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public PreferenceSnapshot load(UUID preferenceId) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      long version;
+      Integer maxTravelDistanceKm;
+      String notes;
+      String locationNote;
+      try (PreparedStatement statement = connection.prepareStatement(SELECT_PREFERENCE)) {
+        statement.setObject(1, preferenceId);
+        try (ResultSet rows = statement.executeQuery()) {
+          if (!rows.next()) {
+            return null;
+          }
+          version = rows.getLong(1);
+          maxTravelDistanceKm = rows.getObject(2, Integer.class);
+          notes = rows.getString(3);
+          locationNote = rows.getString(4);
+        }
+      }
+      Set<PreferenceSnapshot.Window> windows = new HashSet<>();
+      try (PreparedStatement statement = connection.prepareStatement(SELECT_WINDOWS)) {
+        statement.setObject(1, preferenceId);
+        try (ResultSet rows = statement.executeQuery()) {
+          while (rows.next()) {
+            Date specificDate = rows.getDate(5);
+            windows.add(
+                new PreferenceSnapshot.Window(
+                    DayOfWeek.valueOf(rows.getString(1)),
+                    rows.getTime(2).toLocalTime(),
+                    rows.getTime(3).toLocalTime(),
+                    rows.getBoolean(4),
+                    specificDate == null ? null : specificDate.toLocalDate()));
+          }
+        }
+      }
+      Set<PrimaryRole> roles = new HashSet<>();
+      for (String role : strings(connection, SELECT_ROLES, preferenceId)) {
+        roles.add(PrimaryRole.valueOf(role));
+      }
+      Set<WsdcSkillLevel> levels = new HashSet<>();
+      for (String level : strings(connection, SELECT_LEVELS, preferenceId)) {
+        levels.add(WsdcSkillLevel.valueOf(level));
+      }
+      Set<FocusArea> focusAreas = new HashSet<>();
+      for (String focusArea : strings(connection, SELECT_FOCUS, preferenceId)) {
+        focusAreas.add(FocusArea.valueOf(focusArea));
+      }
+      Set<UUID> locationIds = new HashSet<>();
+      for (String locationId : strings(connection, SELECT_LOCATIONS, preferenceId)) {
+        locationIds.add(UUID.fromString(locationId));
+      }
+      return new PreferenceSnapshot(
+          version,
+          windows,
+          roles,
+          levels,
+          focusAreas,
+          locationIds,
+          maxTravelDistanceKm,
+          notes,
+          locationNote);
+    }
+  }
+
+  @Override
+  public long apply(UUID preferenceId, long expectedVersion, PreferenceDelta delta)
+      throws SQLException {
+    PreferenceSnapshot after = delta.after();
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        try (PreparedStatement statement = connection.prepareStatement(BUMP_VERSION)) {
+          if (after.maxTravelDistanceKm() == null) {
+            statement.setNull(1, Types.INTEGER);
+          } else {
+            statement.setInt(1, after.maxTravelDistanceKm());
+          }
+          statement.setString(2, after.notes());
+          statement.setString(3, after.locationNote());
+          statement.setObject(4, preferenceId);
+          statement.setLong(5, expectedVersion);
+          if (statement.executeUpdate() == 0) {
+            connection.rollback();
+            return -1;
+          }
+        }
+        writeWindows(connection, DELETE_WINDOW, preferenceId, delta.windows().removed());
+        writeWindows(connection, INSERT_WINDOW, preferenceId, delta.windows().added());
+        writeValues(connection, DELETE_ROLE, preferenceId, delta.roles().removed());
+        writeValues(connection, INSERT_ROLE, preferenceId, delta.roles().added());
+        writeValues(connection, DELETE_LEVEL, preferenceId, delta.levels().removed());
+        writeValues(connection, INSERT_LEVEL, preferenceId, delta.levels().added());
+        writeValues(connection, DELETE_FOCUS, preferenceId, delta.focusAreas().removed());
+        writeValues(connection, INSERT_FOCUS, preferenceId, delta.focusAreas().added());
+        writeValues(connection, DELETE_LOCATION, preferenceId, delta.locationIds().removed());
+        writeValues(connection, INSERT_LOCATION, preferenceId, delta.locationIds().added());
+        connection.commit();
+        return expectedVersion + 1;
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private static void writeWindows(
+      Connection connection, String sql, UUID preferenceId, Set<PreferenceSnapshot.Window> windows)
+      throws SQLException {
+    if (windows.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (PreferenceSnapshot.Window window : windows) {
+        statement.setObject(1, preferenceId);
+        statement.setString(2, window.dayOfWeek().name());
+        statement.setTime(3, Time.valueOf(window.startTime()));
+        statement.setTime(4, Time.valueOf(window.endTime()));
+        statement.setBoolean(5, window.recurring());
+        if (window.specificDate() == null) {
+          statement.setNull(6, Types.DATE);
+        } else {
+          statement.setDate(6, Date.valueOf(window.specificDate()));
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /** Enum values are written by name and ids as {@code uuid}, matching the column types. */
+  private static void writeValues(
+      Connection connection, String sql, UUID preferenceId, Set<?> values) throws SQLException {
+    if (values.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (Object value : values) {
+        statement.setObject(1, preferenceId);
+        if (value instanceof Enum<?> constant) {
+          statement.setString(2, constant.name());
+        } else {
+          statement.setObject(2, value);
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private static Set<String> strings(Connection connection, String sql, UUID preferenceId)
+      throws SQLException {
+    Set<String> values = new HashSet<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setObject(1, preferenceId);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          String value = rows.getString(1);
+          if (value != null) {
+            values.add(value);
+          }
+        }
+      }
+    }
+    return values;
+  }
+}
@@ -0,0 +1,117 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only change set for a schedule preference; it is not mapped to a table.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Difference between two {@link PreferenceSnapshot}s: rows added to and removed from each element
+ * collection, and the scalar columns that changed, with their new values taken from {@code after}.
+ * Collection changes are set operations and merge with anyone else's; a scalar change only applies
+ * while the column still holds the value it was changed from.
+ */
+public record PreferenceDelta(
+    Rows<PreferenceSnapshot.Window> windows,
+    Rows<PrimaryRole> roles,
+    Rows<WsdcSkillLevel> levels,
+    Rows<FocusArea> focusAreas,
+    Rows<UUID> locationIds,
+    Set<Scalar> scalars,
+    PreferenceSnapshot before,
+    PreferenceSnapshot after) {
+
+  public enum Scalar {
+    MAX_TRAVEL_DISTANCE_KM,
+    NOTES,
+    LOCATION_NOTE
+  }
+
+  /** Rows to insert and rows to delete in one element-collection table. */
+  public record Rows<T>(Set<T> added, Set<T> removed) {
+
+    static <T> Rows<T> diff(Set<T> before, Set<T> after) {
+      Set<T> added = new HashSet<>(after);
+      added.removeAll(before);
+      Set<T> removed = new HashSet<>(before);
+      removed.removeAll(after);
+      return new Rows<>(Set.copyOf(added), Set.copyOf(removed));
+    }
+
+    public boolean isEmpty() {
+      return added.isEmpty() && removed.isEmpty();
+    }
+
+    Set<T> applyTo(Set<T> rows) {
+      if (isEmpty()) {
+        return rows;
+      }
+      Set<T> applied = new HashSet<>(rows);
+      applied.removeAll(removed);
+      applied.addAll(added);
+      return applied;
+    }
+  }
+
+  public static PreferenceDelta diff(PreferenceSnapshot before, PreferenceSnapshot after) {
+    Set<Scalar> scalars = EnumSet.noneOf(Scalar.class);
+    if (!Objects.equals(before.maxTravelDistanceKm(), after.maxTravelDistanceKm())) {
+      scalars.add(Scalar.MAX_TRAVEL_DISTANCE_KM);
+    }
+    if (!Objects.equals(before.notes(), after.notes())) {
+      scalars.add(Scalar.NOTES);
+    }
+    if (!Objects.equals(before.locationNote(), after.locationNote())) {
+      scalars.add(Scalar.LOCATION_NOTE);
+    }
+    return new PreferenceDelta(
+        Rows.diff(before.windows(), after.windows()),
+        Rows.diff(before.roles(), after.roles()),
+        Rows.diff(before.levels(), after.levels()),
+        Rows.diff(before.focusAreas(), after.focusAreas()),
+        Rows.diff(before.locationIds(), after.locationIds()),
+        scalars,
+        before,
+        after);
+  }
+
+  public boolean isEmpty() {
+    return scalars.isEmpty()
+        && windows.isEmpty()
+        && roles.isEmpty()
+        && levels.isEmpty()
+        && focusAreas.isEmpty()
+        && locationIds.isEmpty();
+  }
+
+  /** Whether no scalar this delta changes has been changed by someone else in {@code current}. */
+  public boolean appliesTo(PreferenceSnapshot current) {
+    return (!scalars.contains(Scalar.MAX_TRAVEL_DISTANCE_KM)
+            || Objects.equals(current.maxTravelDistanceKm(), before.maxTravelDistanceKm()))
+        && (!scalars.contains(Scalar.NOTES) || Objects.equals(current.notes(), before.notes()))
+        && (!scalars.contains(Scalar.LOCATION_NOTE)
+            || Objects.equals(current.locationNote(), before.locationNote()));
+  }
+
+  /** {@code current} with this delta applied, keeping {@code current}'s version. */
+  public PreferenceSnapshot applyTo(PreferenceSnapshot current) {
+    return new PreferenceSnapshot(
+        current.version(),
+        windows.applyTo(current.windows()),
+        roles.applyTo(current.roles()),
+        levels.applyTo(current.levels()),
+        focusAreas.applyTo(current.focusAreas()),
+        locationIds.applyTo(current.locationIds()),
+        scalars.contains(Scalar.MAX_TRAVEL_DISTANCE_KM)
+            ? after.maxTravelDistanceKm()
+            : current.maxTravelDistanceKm(),
+        scalars.contains(Scalar.NOTES) ? after.notes() : current.notes(),
+        scalars.contains(Scalar.LOCATION_NOTE) ? after.locationNote() : current.locationNote());
+  }
+}
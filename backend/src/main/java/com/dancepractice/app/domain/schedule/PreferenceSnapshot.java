@@ -0,0 +1,77 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only value copy of a schedule preference; it is not mapped to a table.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.location.Location;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a {@link SchedulePreference} at one {@code version}: its scalar columns and the
+ * rows of its element collections, compared by value.
+ */
+public record PreferenceSnapshot(
+    long version,
+    Set<Window> windows,
+    Set<PrimaryRole> roles,
+    Set<WsdcSkillLevel> levels,
+    Set<FocusArea> focusAreas,
+    Set<UUID> locationIds,
+    Integer maxTravelDistanceKm,
+    String notes,
+    String locationNote) {
+
+  /** One {@code schedule_preference_windows} row by value. */
+  public record Window(
+      DayOfWeek dayOfWeek,
+      LocalTime startTime,
+      LocalTime endTime,
+      boolean recurring,
+      LocalDate specificDate) {
+
+    public static Window of(AvailabilityWindow window) {
+      return new Window(
+          window.getDayOfWeek(),
+          window.getStartTime(),
+          window.getEndTime(),
+          window.isRecurring(),
+          window.getSpecificDate());
+    }
+  }
+
+  public PreferenceSnapshot {
+    windows = Set.copyOf(windows);
+    roles = Set.copyOf(roles);
+    levels = Set.copyOf(levels);
+    focusAreas = Set.copyOf(focusAreas);
+    locationIds = Set.copyOf(locationIds);
+  }
+
+  public static PreferenceSnapshot of(SchedulePreference preference) {
+    Set<Window> windows = new LinkedHashSet<>();
+    for (AvailabilityWindow window : preference.getAvailabilityWindows()) {
+      windows.add(Window.of(window));
+    }
+    Set<UUID> locationIds = new LinkedHashSet<>();
+    for (Location location : preference.getPreferredLocations()) {
+      locationIds.add(location.getId());
+    }
+    return new PreferenceSnapshot(
+        preference.getVersion() == null ? 0 : preference.getVersion(),
+        windows,
+        preference.getPreferredRoles(),
+        preference.getPreferredLevels(),
+        preference.getPreferredFocusAreas(),
+        locationIds,
+        preference.getMaxTravelDistanceKm(),
+        preference.getNotes(),
+        preference.getLocationNote());
+  }
+}
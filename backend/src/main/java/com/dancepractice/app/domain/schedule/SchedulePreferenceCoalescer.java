@@ -0,0 +1,198 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only write buffer for schedule preference edits; no Spring Boot backend routes saves through it.
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers the stream of small saves the onboarding and schedule forms make, so a burst of edits to
+ * one preference becomes one versioned write. The first edit opens a buffer holding the persisted
+ * preference; later edits are applied to the buffered copy until {@link #flushDue} finds the
+ * buffer older than the window, or {@link #flush} is called. The write then carries only the delta
+ * between persisted and buffered state (rows to insert and delete per element collection, changed
+ * columns), and an edit that is undone within the window writes nothing.
+ *
+ * <p>Edits are given as the state the editor last saved (or loaded) and the state it wants now.
+ * When the editor saw an older {@code version} than the buffer holds, the edit is merged:
+ * collection changes are set operations and always apply, while a changed column only applies if
+ * nobody else has changed it since, otherwise the edit is rejected whole. The same rule is used
+ * when the write itself finds that the version moved underneath it.
+ */
+public final class SchedulePreferenceCoalescer {
+
+  private static final int MAX_WRITE_ATTEMPTS = 3;
+
+  public enum EditOutcome {
+    /** Applied to a buffer that was at the editor's version. */
+    BUFFERED,
+    /** The editor saw an older version; its changes were merged into the buffer. */
+    MERGED,
+    /** A column it changes was changed by someone else since the editor's version. */
+    CONFLICT
+  }
+
+  public enum FlushStatus {
+    WRITTEN,
+    /** The buffered edits cancelled out; nothing was written. */
+    UNCHANGED,
+    /** A concurrent write changed a column the buffer also changed; the buffer was dropped. */
+    CONFLICT,
+    /** The preference was deleted; the buffer was dropped. */
+    GONE,
+    /** The version kept moving; the buffer is kept for the next flush. */
+    RETRY,
+    /** The store threw; the buffer is kept for the next flush. */
+    FAILED
+  }
+
+  /**
+   * Result of flushing one buffer. {@code delta} is what was written, when anything was, and
+   * {@code error} what the store threw for a {@link FlushStatus#FAILED} flush.
+   */
+  public record Flush(
+      UUID preferenceId,
+      FlushStatus status,
+      long version,
+      PreferenceDelta delta,
+      Exception error) {
+
+    Flush(UUID preferenceId, FlushStatus status, long version, PreferenceDelta delta) {
+      this(preferenceId, status, version, delta, null);
+    }
+  }
+
+  private static final class Buffer {
+    private PreferenceSnapshot persisted;
+    private PreferenceSnapshot current;
+    private volatile Instant openedAt;
+    private boolean closed;
+  }
+
+  private final SchedulePreferenceStore store;
+  private final Duration window;
+  private final ConcurrentHashMap<UUID, Buffer> buffers = new ConcurrentHashMap<>();
+
+  public SchedulePreferenceCoalescer(SchedulePreferenceStore store) {
+    this(store, Duration.ofSeconds(5));
+  }
+
+  public SchedulePreferenceCoalescer(SchedulePreferenceStore store, Duration window) {
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("window must not be negative");
+    }
+    this.store = store;
+    this.window = window;
+  }
+
+  public int pendingCount() {
+    return buffers.size();
+  }
+
+  /**
+   * Buffers the change from {@code seen} to {@code wanted}. {@code seen.version()} is the version
+   * the editor last loaded. Throws {@link IllegalArgumentException} if the preference does not
+   * exist.
+   */
+  public EditOutcome edit(
+      UUID preferenceId, PreferenceSnapshot seen, PreferenceSnapshot wanted, Instant now)
+      throws Exception {
+    PreferenceDelta delta = PreferenceDelta.diff(seen, wanted);
+    while (true) {
+      Buffer buffer = buffers.computeIfAbsent(preferenceId, id -> new Buffer());
+      synchronized (buffer) {
+        if (buffer.closed) {
+          continue;
+        }
+        if (buffer.persisted == null) {
+          PreferenceSnapshot persisted = store.load(preferenceId);
+          if (persisted == null) {
+            close(preferenceId, buffer);
+            throw new IllegalArgumentException("Unknown schedule preference " + preferenceId);
+          }
+          buffer.persisted = persisted;
+          buffer.current = persisted;
+          buffer.openedAt = now;
+        }
+        boolean stale = seen.version() != buffer.current.version();
+        if (stale && !delta.appliesTo(buffer.current)) {
+          return EditOutcome.CONFLICT;
+        }
+        buffer.current = delta.applyTo(buffer.current);
+        return stale ? EditOutcome.MERGED : EditOutcome.BUFFERED;
+      }
+    }
+  }
+
+  /**
+   * Flushes every buffer opened at least one window before {@code now}. A buffer whose write
+   * throws is reported as {@link FlushStatus#FAILED} and kept, and the rest are still flushed.
+   */
+  public List<Flush> flushDue(Instant now) {
+    List<Flush> flushed = new ArrayList<>();
+    Instant openedBy = now.minus(window);
+    for (var entry : buffers.entrySet()) {
+      Instant openedAt = entry.getValue().openedAt;
+      if (openedAt != null && !openedAt.isAfter(openedBy)) {
+        Flush flush;
+        try {
+          flush = flush(entry.getKey(), entry.getValue());
+        } catch (Exception e) {
+          flush = new Flush(entry.getKey(), FlushStatus.FAILED, -1, null, e);
+        }
+        if (flush != null) {
+          flushed.add(flush);
+        }
+      }
+    }
+    return flushed;
+  }
+
+  /** Flushes the buffer of {@code preferenceId} now, e.g. when onboarding completes. */
+  public Flush flush(UUID preferenceId) throws Exception {
+    Buffer buffer = buffers.get(preferenceId);
+    return buffer == null ? null : flush(preferenceId, buffer);
+  }
+
+  private Flush flush(UUID preferenceId, Buffer buffer) throws Exception {
+    synchronized (buffer) {
+      if (buffer.closed || buffer.persisted == null) {
+        return null;
+      }
+      for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+        PreferenceDelta delta = PreferenceDelta.diff(buffer.persisted, buffer.current);
+        if (delta.isEmpty()) {
+          close(preferenceId, buffer);
+          return new Flush(preferenceId, FlushStatus.UNCHANGED, buffer.persisted.version(), null);
+        }
+        long version = store.apply(preferenceId, buffer.persisted.version(), delta);
+        if (version >= 0) {
+          close(preferenceId, buffer);
+          return new Flush(preferenceId, FlushStatus.WRITTEN, version, delta);
+        }
+        // Written around us: rebase the buffered changes onto the fresh row.
+        PreferenceSnapshot fresh = store.load(preferenceId);
+        if (fresh == null) {
+          close(preferenceId, buffer);
+          return new Flush(preferenceId, FlushStatus.GONE, -1, null);
+        }
+        if (!delta.appliesTo(fresh)) {
+          close(preferenceId, buffer);
+          return new Flush(preferenceId, FlushStatus.CONFLICT, fresh.version(), null);
+        }
+        buffer.persisted = fresh;
+        buffer.current = delta.applyTo(fresh);
+      }
+      return new Flush(preferenceId, FlushStatus.RETRY, buffer.persisted.version(), null);
+    }
+  }
+
+  private void close(UUID preferenceId, Buffer buffer) {
+    buffer.closed = true;
+    buffers.remove(preferenceId, buffer);
+  }
+}
@@ -0,0 +1,19 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only persistence port for schedule preferences; no Spring Boot backend implements it.
+
+import java.util.UUID;
+
+/** Reads and writes schedule preferences for {@link SchedulePreferenceCoalescer}. */
+public interface SchedulePreferenceStore {
+
+  /** The live preference, or {@code null} if it does not exist or is soft-deleted. */
+  PreferenceSnapshot load(UUID preferenceId) throws Exception;
+
+  /**
+   * Applies {@code delta} in one transaction if the preference is still at {@code expectedVersion},
+   * bumping the version once. Returns the new version, or {@code -1} without writing anything when
+   * the version has moved.
+   */
+  long apply(UUID preferenceId, long expectedVersion, PreferenceDelta delta) throws Exception;
+}
@@ -0,0 +1,199 @@
+package com.dancepractice.app.domain.schedule;
+
+// NOTE: Reference-only value type derived from schedule_preference_windows; it is not mapped to a table.
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A week of recurring availability packed into 7 × 96 quarter-hour slots (11 {@code long}s, 88
+ * bytes). Overlap between two schedules is an AND plus popcount instead of a pairwise comparison of
+ * {@link AvailabilityWindow}s.
+ *
+ * <p>A window marks every slot it touches, so two schedules whose windows overlap in real time
+ * always share a slot. When every window starts and ends on a quarter hour and no two windows of
+ * the same schedule overlap, the schedule is {@linkplain #isExact() exact} and slot counts equal the
+ * minute totals the SQL computes; otherwise they are an over-approximation and callers that need
+ * exact minutes must fall back to the windows themselves.
+ */
+public final class WeeklyAvailability {
+
+  public static final int SLOT_MINUTES = 15;
+  public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+  public static final int SLOTS_PER_WEEK = 7 * SLOTS_PER_DAY;
+  public static final int WORDS = (SLOTS_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+  private static final int SLOT_SECONDS = SLOT_MINUTES * 60;
+  private static final WeeklyAvailability EMPTY = new WeeklyAvailability(new long[WORDS], true);
+
+  private final long[] words;
+  private final boolean exact;
+
+  private WeeklyAvailability(long[] words, boolean exact) {
+    this.words = words;
+    this.exact = exact;
+  }
+
+  public static WeeklyAvailability empty() {
+    return EMPTY;
+  }
+
+  public static WeeklyAvailability of(SchedulePreference preference) {
+    return of(preference.getAvailabilityWindows());
+  }
+
+  /** Packs the recurring windows of {@code windows}; one-time windows are ignored. */
+  public static WeeklyAvailability of(Collection<AvailabilityWindow> windows) {
+    long[] words = new long[WORDS];
+    boolean aligned = true;
+    long windowSlots = 0;
+    for (AvailabilityWindow window : windows) {
+      if (!window.isRecurring()
+          || window.getDayOfWeek() == null
+          || window.getStartTime() == null
+          || window.getEndTime() == null) {
+        continue;
+      }
+      int startSecond = window.getStartTime().toSecondOfDay();
+      int endSecond = endSecondOfDay(window.getEndTime());
+      boolean wholeSeconds =
+          window.getStartTime().getNano() == 0
+              && (window.getEndTime().getNano() == 0 || window.getEndTime().equals(LocalTime.MAX));
+      if (!wholeSeconds) {
+        endSecond++;
+      }
+      if (endSecond <= startSecond) {
+        continue;
+      }
+      int dayOffset = window.getDayOfWeek().ordinal() * SLOTS_PER_DAY;
+      int from = dayOffset + startSecond / SLOT_SECONDS;
+      int to = dayOffset + (endSecond + SLOT_SECONDS - 1) / SLOT_SECONDS;
+      set(words, from, to);
+      aligned &=
+          wholeSeconds && startSecond % SLOT_SECONDS == 0 && endSecond % SLOT_SECONDS == 0;
+      windowSlots += to - from;
+    }
+    return new WeeklyAvailability(words, aligned && windowSlots == bitCount(words));
+  }
+
+  /** Rebuilds a value previously exported with {@link #copyWords(long[], int)}. */
+  public static WeeklyAvailability fromWords(long[] source, int offset, boolean exact) {
+    return new WeeklyAvailability(Arrays.copyOfRange(source, offset, offset + WORDS), exact);
+  }
+
+  public void copyWords(long[] target, int offset) {
+    System.arraycopy(words, 0, target, offset, WORDS);
+  }
+
+  public boolean isExact() {
+    return exact;
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int minutes() {
+    return bitCount(words) * SLOT_MINUTES;
+  }
+
+  public boolean intersects(WeeklyAvailability other) {
+    return sharedSlots(words, 0, other.words, 0) != 0;
+  }
+
+  /** Overlapping minutes; exact when both sides are {@linkplain #isExact() exact}. */
+  public int overlapMinutes(WeeklyAvailability other) {
+    return sharedSlots(words, 0, other.words, 0) * SLOT_MINUTES;
+  }
+
+  public WeeklyAvailability and(WeeklyAvailability other) {
+    long[] shared = new long[WORDS];
+    for (int i = 0; i < WORDS; i++) {
+      shared[i] = words[i] & other.words[i];
+    }
+    return new WeeklyAvailability(shared, exact && other.exact);
+  }
+
+  /**
+   * Decodes maximal runs of slots back into windows, in week order. A run reaching midnight ends
+   * at {@link LocalTime#MAX}, which {@link #of(Collection)} reads back as the end of the day.
+   */
+  public List<AvailabilityWindow> toWindows() {
+    List<AvailabilityWindow> windows = new ArrayList<>();
+    for (int day = 0; day < 7; day++) {
+      int dayOffset = day * SLOTS_PER_DAY;
+      int slot = 0;
+      while (slot < SLOTS_PER_DAY) {
+        if (!get(words, dayOffset + slot)) {
+          slot++;
+          continue;
+        }
+        int from = slot;
+        while (slot < SLOTS_PER_DAY && get(words, dayOffset + slot)) {
+          slot++;
+        }
+        AvailabilityWindow window = new AvailabilityWindow();
+        window.setDayOfWeek(DayOfWeek.of(day + 1));
+        window.setStartTime(LocalTime.ofSecondOfDay((long) from * SLOT_SECONDS));
+        window.setEndTime(
+            slot == SLOTS_PER_DAY
+                ? LocalTime.MAX
+                : LocalTime.ofSecondOfDay((long) slot * SLOT_SECONDS));
+        windows.add(window);
+      }
+    }
+    return windows;
+  }
+
+  /** Popcount of the AND of two packed schedules stored at the given word offsets. */
+  public static int sharedSlots(long[] left, int leftOffset, long[] right, int rightOffset) {
+    int shared = 0;
+    for (int i = 0; i < WORDS; i++) {
+      shared += Long.bitCount(left[leftOffset + i] & right[rightOffset + i]);
+    }
+    return shared;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof WeeklyAvailability that
+        && exact == that.exact
+        && Arrays.equals(words, that.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  private static int endSecondOfDay(LocalTime end) {
+    return end.equals(LocalTime.MAX) ? 24 * 60 * 60 : end.toSecondOfDay();
+  }
+
+  private static int bitCount(long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  private static boolean get(long[] words, int slot) {
+    return (words[slot >>> 6] & (1L << slot)) != 0;
+  }
+
+  private static void set(long[] words, int from, int to) {
+    for (int slot = from; slot < to; slot++) {
+      words[slot >>> 6] |= 1L << slot;
+    }
+  }
+}
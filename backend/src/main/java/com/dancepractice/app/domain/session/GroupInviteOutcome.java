@@ -0,0 +1,31 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only result record for group proposals; it is not mapped to a table.
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What {@link GroupProposal#propose} did for one invitee. {@code inviteId} is set only for {@link
+ * Result#INVITED}; {@code conflicts} lists the clashing session ids only for {@link
+ * Result#CONFLICT}.
+ */
+public record GroupInviteOutcome(
+    UUID inviteeId, Result result, UUID inviteId, List<UUID> conflicts) {
+
+  public enum Result {
+    INVITED,
+    /** The organizer is not invited to their own session. */
+    SELF,
+    /** Listed earlier in the same call, or already invited to this session. */
+    DUPLICATE,
+    /** The organizer and the invitee block each other in either direction. */
+    BLOCKED,
+    /** The invitee already has a proposed or scheduled session overlapping this one. */
+    CONFLICT
+  }
+
+  public boolean invited() {
+    return result == Result.INVITED;
+  }
+}
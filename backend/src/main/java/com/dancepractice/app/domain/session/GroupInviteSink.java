@@ -0,0 +1,21 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only output port for group proposals; no Spring Boot backend implements it.
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the invites that survived {@link GroupProposal}'s checks, together with the organizer's
+ * participant row. Invitees that already hold an invite to the session must be skipped rather
+ * than fail the batch; the returned map holds invite ids by invitee for the rows actually written.
+ */
+@FunctionalInterface
+public interface GroupInviteSink {
+
+  Map<UUID, UUID> insert(
+      UUID sessionId, UUID proposerId, List<UUID> inviteeIds, String note, Instant expiresAt)
+      throws Exception;
+}
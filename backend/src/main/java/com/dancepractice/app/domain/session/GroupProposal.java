@@ -0,0 +1,145 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only bulk proposal path for group sessions; no Spring Boot backend routes calls through it.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.domain.common.SessionType;
+import com.dancepractice.app.domain.user.BlockIndex;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Invites a whole list of users to an existing {@code GROUP_PRACTICE} or {@code CLASS} session in
+ * one pass, instead of one {@code propose_practice_session} call per invitee. Blocks are checked
+ * against the organizer's exclusion list, taken once from the {@link BlockIndex}, and calendar
+ * conflicts for every invitee come from one {@link SessionCalendarIndex} query. The invitees that
+ * pass are written by a single {@link GroupInviteSink} call, so the cost is one round trip however
+ * long the list is.
+ *
+ * <p>Invites expire at the sooner of the session end and 24 hours from now, like the RPC. When an
+ * {@link InviteExpiryWheel} is given, the new invites are scheduled on it. The indexes reflect
+ * whatever they were last fed, so the sink's unique-constraint guard still decides duplicates.
+ */
+public final class GroupProposal {
+
+  private static final Duration DEFAULT_EXPIRY = Duration.ofHours(24);
+
+  private final BlockIndex blocks;
+  private final SessionCalendarIndex calendar;
+  private final GroupInviteSink sink;
+  private final InviteExpiryWheel expiries;
+
+  public GroupProposal(BlockIndex blocks, SessionCalendarIndex calendar, GroupInviteSink sink) {
+    this(blocks, calendar, sink, null);
+  }
+
+  /** {@code expiries} may be {@code null}. */
+  public GroupProposal(
+      BlockIndex blocks,
+      SessionCalendarIndex calendar,
+      GroupInviteSink sink,
+      InviteExpiryWheel expiries) {
+    this.blocks = blocks;
+    this.calendar = calendar;
+    this.sink = sink;
+    this.expiries = expiries;
+  }
+
+  /**
+   * Proposes {@code session} to {@code inviteeIds} and returns one outcome per listed id, in the
+   * order given. Nothing is written when no invitee passes the checks.
+   */
+  public List<GroupInviteOutcome> propose(
+      Session session, List<UUID> inviteeIds, String note, Instant now) throws Exception {
+    if (session.getId() == null || session.getOrganizer() == null) {
+      throw new IllegalArgumentException("Session must be saved with an organizer");
+    }
+    if (session.getSessionType() != SessionType.GROUP_PRACTICE
+        && session.getSessionType() != SessionType.CLASS) {
+      throw new IllegalArgumentException("Only group practice sessions and classes take groups");
+    }
+    Instant start = session.getScheduledStart();
+    Instant end = session.getScheduledEnd();
+    if (start == null || end == null || !end.isAfter(start)) {
+      throw new IllegalArgumentException("End time must be after start time");
+    }
+    UUID sessionId = session.getId();
+    UUID organizerId = session.getOrganizer().getId();
+
+    DenseIdRegistry blockUsers = blocks.users();
+    int organizer = blockUsers.indexOf(organizerId);
+    int[] excluded = organizer < 0 ? new int[0] : blocks.excluded(organizer);
+    Map<UUID, List<UUID>> conflicts = calendar.conflicts(inviteeIds, start, end);
+
+    GroupInviteOutcome.Result[] results = new GroupInviteOutcome.Result[inviteeIds.size()];
+    List<UUID> candidates = new ArrayList<>(inviteeIds.size());
+    Set<UUID> seen = new HashSet<>(inviteeIds.size() * 2);
+    for (int i = 0; i < inviteeIds.size(); i++) {
+      UUID inviteeId = inviteeIds.get(i);
+      if (inviteeId.equals(organizerId)) {
+        results[i] = GroupInviteOutcome.Result.SELF;
+      } else if (!seen.add(inviteeId)) {
+        results[i] = GroupInviteOutcome.Result.DUPLICATE;
+      } else if (BlockIndex.contains(excluded, blockUsers.indexOf(inviteeId))) {
+        results[i] = GroupInviteOutcome.Result.BLOCKED;
+      } else if (!otherSessions(conflicts.get(inviteeId), sessionId).isEmpty()) {
+        results[i] = GroupInviteOutcome.Result.CONFLICT;
+      } else {
+        candidates.add(inviteeId);
+      }
+    }
+
+    Instant expiresAt = end.isBefore(now.plus(DEFAULT_EXPIRY)) ? end : now.plus(DEFAULT_EXPIRY);
+    Map<UUID, UUID> inviteIds =
+        candidates.isEmpty()
+            ? Map.of()
+            : sink.insert(sessionId, organizerId, candidates, note, expiresAt);
+
+    List<GroupInviteOutcome> outcomes = new ArrayList<>(inviteeIds.size());
+    for (int i = 0; i < inviteeIds.size(); i++) {
+      UUID inviteeId = inviteeIds.get(i);
+      GroupInviteOutcome.Result result = results[i];
+      if (result == GroupInviteOutcome.Result.CONFLICT) {
+        outcomes.add(
+            new GroupInviteOutcome(
+                inviteeId, result, null, otherSessions(conflicts.get(inviteeId), sessionId)));
+      } else if (result != null) {
+        outcomes.add(new GroupInviteOutcome(inviteeId, result, null, List.of()));
+      } else {
+        UUID inviteId = inviteIds.get(inviteeId);
+        if (inviteId == null) {
+          outcomes.add(
+              new GroupInviteOutcome(
+                  inviteeId, GroupInviteOutcome.Result.DUPLICATE, null, List.of()));
+        } else {
+          outcomes.add(
+              new GroupInviteOutcome(
+                  inviteeId, GroupInviteOutcome.Result.INVITED, inviteId, List.of()));
+          if (expiries != null) {
+            expiries.schedule(inviteId, expiresAt);
+          }
+        }
+      }
+    }
+    return outcomes;
+  }
+
+  /** The session being proposed is already on its participants' calendars; it is no conflict. */
+  private static List<UUID> otherSessions(List<UUID> sessionIds, UUID sessionId) {
+    if (sessionIds == null) {
+      return List.of();
+    }
+    if (!sessionIds.contains(sessionId)) {
+      return sessionIds;
+    }
+    List<UUID> others = new ArrayList<>(sessionIds);
+    others.remove(sessionId);
+    return others;
+  }
+}
@@ -0,0 +1,359 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only group slot search; no Spring Boot backend routes calls through it.
+
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.schedule.WeeklyAvailability;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Finds start times for a {@code GROUP_PRACTICE} session that suit as many of the invited dancers
+ * as possible, where {@code suggest_overlapping_windows} only compares the caller with one invitee.
+ * The horizon is cut into the quarter-hour slots of {@link WeeklyAvailability}, and each
+ * participant becomes one bitmap over it: their recurring windows repeated on every matching date,
+ * plus their one-time ({@code specific_date}) windows, minus the sessions that block them in the
+ * {@link SessionCalendarIndex}. Shifting a bitmap onto itself leaves the slots where a whole
+ * session fits, so the attendee count of every start time is a popcount across participants. 50
+ * participants over four weeks is 50 bitmaps of 42 {@code long}s.
+ *
+ * <p>A participant counts as free in a slot only when a window covers all of it, and as busy when a
+ * session touches any of it, so a suggested slot never overlaps a booking. Windows are wall-clock
+ * times and are placed on the timeline in the query's zone, so DST changes move them correctly.
+ * Results are ranked by attendee count and then by start time, and never overlap one another.
+ */
+public final class GroupSlotFinder {
+
+  /** The longest horizon a query may cover. */
+  public static final Duration MAX_HORIZON = Duration.ofDays(92);
+
+  private static final long SLOT_MILLIS = WeeklyAvailability.SLOT_MINUTES * 60_000L;
+
+  /** A start time, the session's end, and who can attend it in the order they were listed. */
+  public record Slot(Instant start, Instant end, List<UUID> attendees) {
+
+    public int attendeeCount() {
+      return attendees.size();
+    }
+  }
+
+  private final SessionCalendarIndex calendar;
+
+  public GroupSlotFinder(SessionCalendarIndex calendar) {
+    this.calendar = Objects.requireNonNull(calendar, "calendar");
+  }
+
+  public static Query.Builder query(Instant from, Instant to) {
+    return new Query.Builder(from, to);
+  }
+
+  /**
+   * The best non-overlapping slots for {@code query}, at most {@code limit} of them, each with at
+   * least {@code quorum} attendees including every required participant.
+   */
+  public List<Slot> find(Query query) {
+    long origin = Math.ceilDiv(query.from.toEpochMilli(), SLOT_MILLIS) * SLOT_MILLIS;
+    int slots = (int) Math.max(0, Math.floorDiv(query.to.toEpochMilli() - origin, SLOT_MILLIS));
+    int length = (int) Math.ceilDiv(query.duration.toMillis(), SLOT_MILLIS);
+    if (slots < length) {
+      return List.of();
+    }
+    int words = (slots + Long.SIZE - 1) / Long.SIZE;
+    List<UUID> userIds = new ArrayList<>(query.participants.keySet());
+    Map<UUID, List<SessionCalendarIndex.Busy>> busy =
+        calendar.freeBusy(
+            userIds,
+            Instant.ofEpochMilli(origin),
+            Instant.ofEpochMilli(origin + slots * SLOT_MILLIS));
+
+    // fits[u] has bit s set when participant u is free for the whole session starting at slot s
+    long[][] fits = new long[userIds.size()][];
+    long[] required = new long[words];
+    fill(required, 0, slots);
+    int[] counts = new int[slots];
+    for (int u = 0; u < userIds.size(); u++) {
+      UUID userId = userIds.get(u);
+      long[] free = new long[words];
+      mark(free, origin, slots, query.participants.get(userId), query.zone, query.from, query.to);
+      for (SessionCalendarIndex.Busy booking : busy.get(userId)) {
+        long start = booking.start().toEpochMilli() - origin;
+        long end = booking.end().toEpochMilli() - origin;
+        clear(
+            free,
+            (int) Math.max(0, Math.floorDiv(start, SLOT_MILLIS)),
+            (int) Math.min(slots, Math.ceilDiv(end, SLOT_MILLIS)));
+      }
+      long[] fit = runs(free, length);
+      fits[u] = fit;
+      if (query.required.contains(userId)) {
+        for (int w = 0; w < words; w++) {
+          required[w] &= fit[w];
+        }
+      }
+      for (int w = 0; w < words; w++) {
+        for (long bits = fit[w]; bits != 0; bits &= bits - 1) {
+          counts[(w << 6) + Long.numberOfTrailingZeros(bits)]++;
+        }
+      }
+    }
+
+    // Highest count first, earliest start within a count; a taken slot blocks overlapping starts.
+    int best = 0;
+    for (int s = 0; s < slots; s++) {
+      if (isSet(required, s)) {
+        best = Math.max(best, counts[s]);
+      }
+    }
+    List<Slot> found = new ArrayList<>(Math.min(query.limit, 16));
+    boolean[] blocked = new boolean[slots];
+    for (int count = best; count >= query.quorum && found.size() < query.limit; count--) {
+      for (int s = 0; s < slots && found.size() < query.limit; s++) {
+        if (counts[s] != count || blocked[s] || !isSet(required, s)) {
+          continue;
+        }
+        List<UUID> attendees = new ArrayList<>(count);
+        for (int u = 0; u < userIds.size(); u++) {
+          if (isSet(fits[u], s)) {
+            attendees.add(userIds.get(u));
+          }
+        }
+        Instant start = Instant.ofEpochMilli(origin + s * SLOT_MILLIS);
+        found.add(new Slot(start, start.plus(query.duration), List.copyOf(attendees)));
+        for (int b = Math.max(0, s - length + 1); b < Math.min(slots, s + length); b++) {
+          blocked[b] = true;
+        }
+      }
+    }
+    return found;
+  }
+
+  /** Sets the slots of {@code [from, to)} that {@code windows} fully cover, in {@code zone}. */
+  private static void mark(
+      long[] free,
+      long origin,
+      int slots,
+      Collection<AvailabilityWindow> windows,
+      ZoneId zone,
+      Instant from,
+      Instant to) {
+    LocalDate first = from.atZone(zone).toLocalDate();
+    LocalDate last = to.atZone(zone).toLocalDate();
+    for (AvailabilityWindow window : windows) {
+      LocalTime start = window.getStartTime();
+      LocalTime end = window.getEndTime();
+      if (start == null || end == null) {
+        continue;
+      }
+      if (!window.isRecurring()) {
+        LocalDate date = window.getSpecificDate();
+        if (date != null && !date.isBefore(first) && !date.isAfter(last)) {
+          mark(free, origin, slots, date, start, end, zone);
+        }
+        continue;
+      }
+      DayOfWeek day = window.getDayOfWeek();
+      if (day == null) {
+        continue;
+      }
+      for (LocalDate date = first.with(TemporalAdjusters.nextOrSame(day));
+          !date.isAfter(last);
+          date = date.plusWeeks(1)) {
+        mark(free, origin, slots, date, start, end, zone);
+      }
+    }
+  }
+
+  private static void mark(
+      long[] free,
+      long origin,
+      int slots,
+      LocalDate date,
+      LocalTime start,
+      LocalTime end,
+      ZoneId zone) {
+    ZonedDateTime endTime =
+        end.equals(LocalTime.MAX)
+            ? date.plusDays(1).atStartOfDay(zone)
+            : date.atTime(end).atZone(zone);
+    long startMillis = date.atTime(start).atZone(zone).toInstant().toEpochMilli();
+    long endMillis = endTime.toInstant().toEpochMilli();
+    int from = (int) Math.max(0, Math.ceilDiv(startMillis - origin, SLOT_MILLIS));
+    int to = (int) Math.min(slots, Math.floorDiv(endMillis - origin, SLOT_MILLIS));
+    fill(free, from, to);
+  }
+
+  /**
+   * Bit {@code s} of the result is set when bits {@code s .. s + length - 1} of {@code free} all
+   * are, found by ANDing the bitmap with itself shifted by doubling distances.
+   */
+  private static long[] runs(long[] free, int length) {
+    long[] fit = free.clone();
+    int covered = 1;
+    while (covered < length) {
+      int step = Math.min(covered, length - covered);
+      long[] shifted = shiftDown(fit, step);
+      for (int w = 0; w < fit.length; w++) {
+        fit[w] &= shifted[w];
+      }
+      covered += step;
+    }
+    return fit;
+  }
+
+  /** {@code bits} moved towards slot 0 by {@code distance}; slots past the end read as clear. */
+  private static long[] shiftDown(long[] bits, int distance) {
+    long[] shifted = new long[bits.length];
+    int wordShift = distance >>> 6;
+    int bitShift = distance & 63;
+    for (int w = 0; w + wordShift < bits.length; w++) {
+      long low = bits[w + wordShift] >>> bitShift;
+      long high =
+          bitShift == 0 || w + wordShift + 1 >= bits.length
+              ? 0
+              : bits[w + wordShift + 1] << (Long.SIZE - bitShift);
+      shifted[w] = low | high;
+    }
+    return shifted;
+  }
+
+  private static boolean isSet(long[] bits, int slot) {
+    return (bits[slot >>> 6] & (1L << slot)) != 0;
+  }
+
+  private static void fill(long[] bits, int from, int to) {
+    for (int slot = from; slot < to; slot++) {
+      bits[slot >>> 6] |= 1L << slot;
+    }
+  }
+
+  private static void clear(long[] bits, int from, int to) {
+    for (int slot = from; slot < to; slot++) {
+      bits[slot >>> 6] &= ~(1L << slot);
+    }
+  }
+
+  /** Who is invited, with their windows, and what counts as a usable slot. */
+  public static final class Query {
+    private final Instant from;
+    private final Instant to;
+    private final Map<UUID, Collection<AvailabilityWindow>> participants;
+    private final Set<UUID> required;
+    private final Duration duration;
+    private final int quorum;
+    private final int limit;
+    private final ZoneId zone;
+
+    private Query(Builder builder) {
+      this.from = builder.from;
+      this.to = builder.to;
+      this.participants = Collections.unmodifiableMap(new LinkedHashMap<>(builder.participants));
+      this.required = Collections.unmodifiableSet(new LinkedHashSet<>(builder.required));
+      this.duration = builder.duration;
+      this.quorum = builder.quorum == 0 ? participants.size() : builder.quorum;
+      this.limit = builder.limit;
+      this.zone = builder.zone;
+    }
+
+    public static final class Builder {
+      private final Instant from;
+      private final Instant to;
+      private final Map<UUID, Collection<AvailabilityWindow>> participants = new LinkedHashMap<>();
+      private final Set<UUID> required = new LinkedHashSet<>();
+      private Duration duration = Duration.ofHours(1);
+      private int quorum;
+      private int limit = 10;
+      private ZoneId zone = ZoneOffset.UTC;
+
+      private Builder(Instant from, Instant to) {
+        this.from = Objects.requireNonNull(from, "from");
+        this.to = Objects.requireNonNull(to, "to");
+        if (!to.isAfter(from)) {
+          throw new IllegalArgumentException("to must be after from");
+        }
+        if (Duration.between(from, to).compareTo(MAX_HORIZON) > 0) {
+          throw new IllegalArgumentException(
+              "horizon must not exceed " + MAX_HORIZON.toDays() + " days");
+        }
+      }
+
+      /** Invites {@code userId} with the given recurring and one-time windows. */
+      public Builder participant(UUID userId, Collection<AvailabilityWindow> windows) {
+        participants.put(Objects.requireNonNull(userId, "userId"), List.copyOf(windows));
+        return this;
+      }
+
+      /** Invites the owner of {@code preference} with its windows. */
+      public Builder participant(SchedulePreference preference) {
+        return participant(preference.getUser().getId(), preference.getAvailabilityWindows());
+      }
+
+      /** Only slots {@code userId} can attend are returned, e.g. the organizer's. */
+      public Builder require(UUID userId) {
+        required.add(Objects.requireNonNull(userId, "userId"));
+        return this;
+      }
+
+      public Builder duration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+          throw new IllegalArgumentException("duration must be positive");
+        }
+        this.duration = duration;
+        return this;
+      }
+
+      /** Attendees a slot needs; defaults to every participant. */
+      public Builder quorum(int quorum) {
+        if (quorum <= 0) {
+          throw new IllegalArgumentException("quorum must be positive");
+        }
+        this.quorum = quorum;
+        return this;
+      }
+
+      public Builder limit(int limit) {
+        if (limit <= 0) {
+          throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+        return this;
+      }
+
+      /** Zone the availability windows are read in; UTC by default, like the SQL. */
+      public Builder zone(ZoneId zone) {
+        this.zone = Objects.requireNonNull(zone, "zone");
+        return this;
+      }
+
+      public Query build() {
+        if (participants.isEmpty()) {
+          throw new IllegalArgumentException("at least one participant is required");
+        }
+        if (quorum > participants.size()) {
+          throw new IllegalArgumentException("quorum exceeds the number of participants");
+        }
+        if (!participants.keySet().containsAll(required)) {
+          throw new IllegalArgumentException("required users must be participants");
+        }
+        return new Query(this);
+      }
+    }
+  }
+}
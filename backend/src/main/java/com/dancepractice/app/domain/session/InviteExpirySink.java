@@ -0,0 +1,18 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only output port for invite expiry; no Spring Boot backend implements it.
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Marks invites handed out by {@link InviteExpiryWheel#expire} as {@code EXPIRED}. An invite may
+ * have been answered or extended since it was scheduled, so implementations must only touch rows
+ * that are still {@code PENDING} and due at {@code asOf}.
+ */
+@FunctionalInterface
+public interface InviteExpirySink {
+
+  void expire(List<UUID> inviteIds, Instant asOf) throws Exception;
+}
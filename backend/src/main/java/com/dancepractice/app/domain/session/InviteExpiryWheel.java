@@ -0,0 +1,374 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only expiry scheduler for session_invites; no Spring Boot backend runs it.
+
+import com.dancepractice.app.domain.common.InviteStatus;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hierarchical timing wheel of {@code PENDING} invites keyed by {@code expires_at}. Deadlines are
+ * counted in ticks from an origin; level {@code L} has 64 slots of {@code 64^L} ticks, and an invite
+ * sits on the lowest level whose slot still separates its deadline from the current tick. As time
+ * advances, a slot of a higher level is cascaded into the levels below when the current tick
+ * reaches it, and the level-0 slot of the current tick is due. Scheduling and cancelling are
+ * constant time, and advancing costs one step per tick plus the invites it touches; runs of empty
+ * levels are skipped in one jump.
+ *
+ * <p>Invites are entries in parallel primitive arrays, linked into doubly-linked slot lists and
+ * found by id through an open-addressing table, so millions of pending invites cost a few dozen
+ * bytes each. Invites expire no earlier than {@code expires_at} and at most one tick later, which
+ * matches the {@code expires_at < now()} check in {@code respond_to_session_invite}. Not
+ * thread-safe beyond its synchronized methods.
+ */
+public final class InviteExpiryWheel {
+
+  private static final String SELECT_PENDING =
+      "select id, expires_at from session_invites"
+          + " where status = 'PENDING' and expires_at is not null and deleted_at is null";
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = 11;
+  private static final int DUE = LEVELS * SLOTS;
+  private static final int NIL = -1;
+  private static final int EMPTY = -1;
+  private static final int TOMBSTONE = -2;
+
+  private final long originMillis;
+  private final long tickMillis;
+  private long currentTick;
+
+  private final int[] heads = new int[DUE + 1];
+  private final int[] levelCounts = new int[LEVELS];
+
+  private long[] idHigh = new long[1_024];
+  private long[] idLow = new long[1_024];
+  private long[] deadlines = new long[1_024];
+  private int[] next = new int[1_024];
+  private int[] prev = new int[1_024];
+  private int[] buckets = new int[1_024];
+  private int allocated;
+  private int free = NIL;
+  private int size;
+
+  private int[] table = newTable(2_048);
+  private int tombstones;
+
+  public InviteExpiryWheel(Instant now) {
+    this(now, Duration.ofSeconds(1));
+  }
+
+  public InviteExpiryWheel(Instant now, Duration tick) {
+    if (tick.toMillis() <= 0) {
+      throw new IllegalArgumentException("tick must be at least one millisecond");
+    }
+    this.tickMillis = tick.toMillis();
+    this.originMillis = now.toEpochMilli();
+    Arrays.fill(heads, NIL);
+  }
+
+  /**
+   * Rebuilds the wheel after a restart from every pending invite with an expiry, without
+   * hydrating {@link SessionInvite} entities. Invites that expired while nothing was running are
+   * due on the first {@link #expire}. The connection is left open.
+   */
+  public static InviteExpiryWheel load(Connection connection, Instant now) throws SQLException {
+    InviteExpiryWheel wheel = new InviteExpiryWheel(now);
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_PENDING)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          wheel.schedule(rows.getObject(1, UUID.class), rows.getTimestamp(2).toInstant());
+        }
+      }
+    }
+    return wheel;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Schedules a {@code PENDING} invite with an expiry and drops any other; returns whether the
+   * invite is now scheduled.
+   */
+  public boolean track(SessionInvite invite) {
+    if (invite.getStatus() == InviteStatus.PENDING
+        && invite.getExpiresAt() != null
+        && !invite.isDeleted()) {
+      schedule(invite.getId(), invite.getExpiresAt());
+      return true;
+    }
+    cancel(invite.getId());
+    return false;
+  }
+
+  /** Schedules {@code inviteId} to expire at {@code expiresAt}, moving it if already scheduled. */
+  public synchronized void schedule(UUID inviteId, Instant expiresAt) {
+    long deadline = Math.ceilDiv(expiresAt.toEpochMilli() - originMillis, tickMillis);
+    int entry = find(inviteId.getMostSignificantBits(), inviteId.getLeastSignificantBits());
+    if (entry == NIL) {
+      entry = allocate(inviteId.getMostSignificantBits(), inviteId.getLeastSignificantBits());
+      size++;
+    } else {
+      unlink(entry);
+    }
+    deadlines[entry] = deadline;
+    place(entry);
+  }
+
+  /** Drops an invite that was accepted, declined, cancelled or deleted. */
+  public synchronized boolean cancel(UUID inviteId) {
+    int entry = find(inviteId.getMostSignificantBits(), inviteId.getLeastSignificantBits());
+    if (entry == NIL) {
+      return false;
+    }
+    unlink(entry);
+    release(entry);
+    return true;
+  }
+
+  /**
+   * Advances to {@code now} and hands every due invite to {@code sink}, {@code maxBatch} at a
+   * time, stamped with {@code now}. Returns how many were handed over. If the sink fails, the
+   * unwritten invites stay due for the next call.
+   */
+  public int expire(Instant now, InviteExpirySink sink, int maxBatch) throws Exception {
+    if (maxBatch <= 0) {
+      throw new IllegalArgumentException("maxBatch must be positive");
+    }
+    advance(now);
+    int expired = 0;
+    while (true) {
+      List<UUID> batch = pollDue(maxBatch);
+      if (batch.isEmpty()) {
+        return expired;
+      }
+      try {
+        sink.expire(batch, now);
+      } catch (Exception e) {
+        requeue(batch);
+        throw e;
+      }
+      expired += batch.size();
+    }
+  }
+
+  /** Moves everything due by {@code now} to the due list. */
+  synchronized void advance(Instant now) {
+    long target = Math.floorDiv(now.toEpochMilli() - originMillis, tickMillis);
+    while (currentTick < target) {
+      int lowest = 0;
+      while (lowest < LEVELS && levelCounts[lowest] == 0) {
+        lowest++;
+      }
+      if (lowest == LEVELS) {
+        currentTick = target;
+        return;
+      }
+      if (lowest > 0) {
+        // Nothing happens before the next cascade of the lowest occupied level.
+        long skipTo = currentTick | ((1L << (SLOT_BITS * lowest)) - 1);
+        if (skipTo >= target) {
+          currentTick = target;
+          return;
+        }
+        currentTick = skipTo;
+      }
+      currentTick++;
+      for (int level = LEVELS - 1; level > 0; level--) {
+        if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+          cascade(level * SLOTS + slot(currentTick, level));
+        }
+      }
+      cascade(slot(currentTick, 0));
+    }
+  }
+
+  /** Puts invites back on the due list, e.g. after a failed write. */
+  synchronized void requeue(List<UUID> inviteIds) {
+    for (UUID inviteId : inviteIds) {
+      long high = inviteId.getMostSignificantBits();
+      long low = inviteId.getLeastSignificantBits();
+      int entry = find(high, low);
+      if (entry == NIL) {
+        entry = allocate(high, low);
+        size++;
+      } else {
+        unlink(entry);
+      }
+      deadlines[entry] = currentTick;
+      place(entry);
+    }
+  }
+
+  /** Removes and returns up to {@code max} due invites. */
+  synchronized List<UUID> pollDue(int max) {
+    List<UUID> due = new ArrayList<>(Math.min(max, 1_024));
+    while (due.size() < max && heads[DUE] != NIL) {
+      int entry = heads[DUE];
+      due.add(new UUID(idHigh[entry], idLow[entry]));
+      unlink(entry);
+      release(entry);
+    }
+    return due;
+  }
+
+  private void cascade(int bucket) {
+    int entry = heads[bucket];
+    while (entry != NIL) {
+      int following = next[entry];
+      unlink(entry);
+      place(entry);
+      entry = following;
+    }
+  }
+
+  private void place(int entry) {
+    long deadline = deadlines[entry];
+    int bucket;
+    if (deadline <= currentTick) {
+      bucket = DUE;
+    } else {
+      int highestBit = 63 - Long.numberOfLeadingZeros(deadline ^ currentTick);
+      int level = highestBit / SLOT_BITS;
+      bucket = level * SLOTS + slot(deadline, level);
+      levelCounts[level]++;
+    }
+    buckets[entry] = bucket;
+    prev[entry] = NIL;
+    next[entry] = heads[bucket];
+    if (heads[bucket] != NIL) {
+      prev[heads[bucket]] = entry;
+    }
+    heads[bucket] = entry;
+  }
+
+  private void unlink(int entry) {
+    int bucket = buckets[entry];
+    if (prev[entry] != NIL) {
+      next[prev[entry]] = next[entry];
+    } else {
+      heads[bucket] = next[entry];
+    }
+    if (next[entry] != NIL) {
+      prev[next[entry]] = prev[entry];
+    }
+    if (bucket != DUE) {
+      levelCounts[bucket / SLOTS]--;
+    }
+    buckets[entry] = NIL;
+  }
+
+  private static int slot(long tick, int level) {
+    return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+  }
+
+  private int allocate(long high, long low) {
+    int entry;
+    if (free != NIL) {
+      entry = free;
+      free = next[entry];
+    } else {
+      if (allocated == idHigh.length) {
+        grow();
+      }
+      entry = allocated++;
+    }
+    idHigh[entry] = high;
+    idLow[entry] = low;
+    insertKey(entry);
+    return entry;
+  }
+
+  private void release(int entry) {
+    removeKey(entry);
+    next[entry] = free;
+    free = entry;
+    size--;
+  }
+
+  private void grow() {
+    int capacity = idHigh.length * 2;
+    idHigh = Arrays.copyOf(idHigh, capacity);
+    idLow = Arrays.copyOf(idLow, capacity);
+    deadlines = Arrays.copyOf(deadlines, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    buckets = Arrays.copyOf(buckets, capacity);
+  }
+
+  private int find(long high, long low) {
+    int mask = table.length - 1;
+    for (int at = hash(high, low) & mask; ; at = (at + 1) & mask) {
+      int entry = table[at];
+      if (entry == EMPTY) {
+        return NIL;
+      }
+      if (entry >= 0 && idHigh[entry] == high && idLow[entry] == low) {
+        return entry;
+      }
+    }
+  }
+
+  private void insertKey(int entry) {
+    if ((size + tombstones + 1) * 2 > table.length) {
+      rehash(size + 1 > table.length / 4 ? table.length * 2 : table.length);
+    }
+    int mask = table.length - 1;
+    int at = hash(idHigh[entry], idLow[entry]) & mask;
+    while (table[at] >= 0) {
+      at = (at + 1) & mask;
+    }
+    if (table[at] == TOMBSTONE) {
+      tombstones--;
+    }
+    table[at] = entry;
+  }
+
+  private void removeKey(int entry) {
+    int mask = table.length - 1;
+    int at = hash(idHigh[entry], idLow[entry]) & mask;
+    while (table[at] != entry) {
+      at = (at + 1) & mask;
+    }
+    table[at] = TOMBSTONE;
+    tombstones++;
+  }
+
+  private void rehash(int capacity) {
+    int[] old = table;
+    table = newTable(capacity);
+    tombstones = 0;
+    int mask = capacity - 1;
+    for (int entry : old) {
+      if (entry >= 0) {
+        int at = hash(idHigh[entry], idLow[entry]) & mask;
+        while (table[at] != EMPTY) {
+          at = (at + 1) & mask;
+        }
+        table[at] = entry;
+      }
+    }
+  }
+
+  private static int[] newTable(int capacity) {
+    int[] table = new int[capacity];
+    Arrays.fill(table, EMPTY);
+    return table;
+  }
+
+  private static int hash(long high, long low) {
+    long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32));
+  }
+}
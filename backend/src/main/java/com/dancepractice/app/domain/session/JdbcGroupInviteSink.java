@@ -0,0 +1,71 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only JDBC writer for group session_invites; no Spring Boot backend runs it.
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Writes a whole group proposal with one statement: the organizer's {@code session_participants}
+ * row (as {@code propose_practice_session} does) and one {@code session_invites} row per invitee,
+ * unnested from a single array parameter. {@code uk_session_invites_session_invitee} conflicts are
+ * skipped, so only new invites come back.
+ */
+public final class JdbcGroupInviteSink implements GroupInviteSink {
+
+  private static final String INSERT =
+      "with organizer as ("
+          + "insert into session_participants (session_id, user_id) values (?, ?)"
+          + " on conflict do nothing)"
+          + " insert into session_invites"
+          + " (session_id, proposer_id, invitee_id, note, status, expires_at)"
+          + " select ?, ?, invitee_id, ?, 'PENDING', ? from unnest(?) as invitee(invitee_id)"
+          + " on conflict (session_id, invitee_id) do nothing"
+          + " returning invitee_id, id";
+
+  private final DataSource dataSource;
+
+  public JdbcGroupInviteSink(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Map<UUID, UUID> insert(
+      UUID sessionId, UUID proposerId, List<UUID> inviteeIds, String note, Instant expiresAt)
+      throws SQLException {
+    Map<UUID, UUID> inviteIds = new HashMap<>(inviteeIds.size() * 2);
+    if (inviteeIds.isEmpty()) {
+      return inviteIds;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      Array invitees = connection.createArrayOf("uuid", inviteeIds.toArray(new UUID[0]));
+      try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+        statement.setObject(1, sessionId);
+        statement.setObject(2, proposerId);
+        statement.setObject(3, sessionId);
+        statement.setObject(4, proposerId);
+        statement.setString(5, note);
+        statement.setTimestamp(6, Timestamp.from(expiresAt));
+        statement.setArray(7, invitees);
+        try (ResultSet rows = statement.executeQuery()) {
+          while (rows.next()) {
+            inviteIds.put(rows.getObject(1, UUID.class), rows.getObject(2, UUID.class));
+          }
+        }
+      } finally {
+        invitees.free();
+      }
+    }
+    return inviteIds;
+  }
+}
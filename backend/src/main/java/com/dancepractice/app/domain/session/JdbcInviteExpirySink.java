@@ -0,0 +1,48 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only JDBC writer for session_invites expiry; no Spring Boot backend runs it.
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Expires a batch of invites with one {@code update}. The {@code PENDING} and {@code expires_at}
+ * guards make it a no-op for invites that were accepted, declined, cancelled or extended after
+ * they were scheduled.
+ */
+public final class JdbcInviteExpirySink implements InviteExpirySink {
+
+  private static final String EXPIRE =
+      "update session_invites set status = 'EXPIRED' where id = any(?) and status = 'PENDING'"
+          + " and expires_at <= ? and deleted_at is null";
+
+  private final DataSource dataSource;
+
+  public JdbcInviteExpirySink(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public void expire(List<UUID> inviteIds, Instant asOf) throws SQLException {
+    if (inviteIds.isEmpty()) {
+      return;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      Array ids = connection.createArrayOf("uuid", inviteIds.toArray(new UUID[0]));
+      try (PreparedStatement statement = connection.prepareStatement(EXPIRE)) {
+        statement.setArray(1, ids);
+        statement.setTimestamp(2, Timestamp.from(asOf));
+        statement.executeUpdate();
+      } finally {
+        ids.free();
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only JDBC writer for session_participants; no Spring Boot backend runs it.
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Writes {@link SessionAdmission} changes to {@code session_participants} in one transaction per
+ * batch. Only the last change per session and user matters, so the batch is collapsed to that
+ * first and then applied as one batched insert ({@code on conflict do nothing}, like {@code
+ * upsert_session_participants}) and one batched delete. {@code sessions} is never updated, so its
+ * {@code version} does not move.
+ */
+public final class JdbcSeatChangeSink implements SeatChangeSink {
+
+  private static final String INSERT =
+      "insert into session_participants (session_id, user_id) values (?, ?)"
+          + " on conflict do nothing";
+  private static final String DELETE =
+      "delete from session_participants where session_id = ? and user_id = ?";
+
+  private final DataSource dataSource;
+
+  public JdbcSeatChangeSink(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public void write(List<SeatChange> changes) throws SQLException {
+    if (changes.isEmpty()) {
+      return;
+    }
+    Map<List<UUID>, SeatChange> latest = new LinkedHashMap<>();
+    for (SeatChange change : changes) {
+      latest.put(List.of(change.sessionId(), change.userId()), change);
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (PreparedStatement insert = connection.prepareStatement(INSERT);
+          PreparedStatement delete = connection.prepareStatement(DELETE)) {
+        for (SeatChange change : latest.values()) {
+          PreparedStatement statement = change.seated() ? insert : delete;
+          statement.setObject(1, change.sessionId());
+          statement.setObject(2, change.userId());
+          statement.addBatch();
+        }
+        insert.executeBatch();
+        delete.executeBatch();
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only change record for session_participants; it is not mapped to a table.
+
+import java.util.UUID;
+
+/** One seat granted or given up in {@link SessionAdmission}, pending a write to the database. */
+public record SeatChange(UUID sessionId, UUID userId, Kind kind) {
+
+  public enum Kind {
+    /** Admitted straight away. */
+    SEATED,
+    /** Moved from the waitlist into a freed seat; the user has not been told yet. */
+    PROMOTED,
+    RELEASED
+  }
+
+  public boolean seated() {
+    return kind != Kind.RELEASED;
+  }
+}
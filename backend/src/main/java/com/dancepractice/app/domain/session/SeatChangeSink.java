@@ -0,0 +1,15 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only output port for session admission; no Spring Boot backend implements it.
+
+import java.util.List;
+
+/**
+ * Destination for {@link SessionAdmission#flush}. Changes arrive in the order they happened; a
+ * failed write is retried with the same changes, so implementations must be idempotent.
+ */
+@FunctionalInterface
+public interface SeatChangeSink {
+
+  void write(List<SeatChange> changes) throws Exception;
+}
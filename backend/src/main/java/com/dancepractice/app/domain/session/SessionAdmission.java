@@ -0,0 +1,286 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only seat admission for sessions; no Spring Boot backend routes accepts through it.
+
+import com.dancepractice.app.domain.user.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grants seats of {@link Session#getCapacity()} to accepting users without touching the {@code
+ * sessions} row, so a burst of {@code respond_to_session_invite} accepts for one popular session
+ * does not turn into optimistic-lock retries on its {@code version}. Each tracked session has a
+ * seat counter claimed by compare-and-set, which never exceeds the capacity however many accepts
+ * race, and a bounded FIFO waitlist that is promoted as seats free up. While anyone is waiting,
+ * new accepts queue behind them.
+ *
+ * <p>Every seat granted or released is appended to an ordered change log that {@link #flush}
+ * hands to a {@link SeatChangeSink} in batches, e.g. {@link JdbcSeatChangeSink} for {@code
+ * session_participants}. Participants added by other paths are folded in with {@link #track},
+ * which counts them even past capacity because the database is authoritative.
+ */
+public final class SessionAdmission {
+
+  private static final String SELECT_SEATS =
+      "select s.id, s.capacity, sp.user_id from sessions s"
+          + " left join session_participants sp on sp.session_id = s.id"
+          + " where s.deleted_at is null and s.status in ('PROPOSED', 'SCHEDULED')";
+  private static final int UNLIMITED = Integer.MAX_VALUE;
+
+  public enum Outcome {
+    ADMITTED,
+    ALREADY_ADMITTED,
+    WAITLISTED,
+    ALREADY_WAITLISTED,
+    /** The session is full and its waitlist is too. */
+    REJECTED,
+    /** The session is not tracked; the caller falls back to the database. */
+    NOT_TRACKED
+  }
+
+  private final ConcurrentHashMap<UUID, Seats> sessions = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedDeque<SeatChange> changes = new ConcurrentLinkedDeque<>();
+  private final Object flushLock = new Object();
+  private final int maxWaitlist;
+
+  /** {@code maxWaitlist} of zero rejects every accept once a session is full. */
+  public SessionAdmission(int maxWaitlist) {
+    if (maxWaitlist < 0) {
+      throw new IllegalArgumentException("maxWaitlist must not be negative");
+    }
+    this.maxWaitlist = maxWaitlist;
+  }
+
+  /**
+   * Tracks every {@code PROPOSED} or {@code SCHEDULED} session with its current participants. The
+   * connection is left open.
+   */
+  public static SessionAdmission load(Connection connection, int maxWaitlist)
+      throws SQLException {
+    SessionAdmission admission = new SessionAdmission(maxWaitlist);
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_SEATS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          UUID sessionId = rows.getObject(1, UUID.class);
+          int capacity = rows.getInt(2);
+          Seats seats = admission.seats(sessionId, rows.wasNull() ? null : capacity);
+          UUID userId = rows.getObject(3, UUID.class);
+          if (userId != null) {
+            seats.seat(userId);
+          }
+        }
+      }
+    }
+    return admission;
+  }
+
+  /**
+   * Starts tracking {@code session}, or refreshes its capacity, and seats its organizer and
+   * participants. Seats already granted are kept.
+   */
+  public List<UUID> track(Session session) {
+    List<UUID> participantIds = new ArrayList<>(session.getParticipants().size() + 1);
+    participantIds.add(session.getOrganizer().getId());
+    for (User participant : session.getParticipants()) {
+      participantIds.add(participant.getId());
+    }
+    return track(session.getId(), session.getCapacity(), participantIds);
+  }
+
+  /**
+   * Starts tracking a session, or refreshes it, from its {@code capacity} ({@code null} for no
+   * limit) and the rows in {@code session_participants}. Returns waitlisted users promoted by a
+   * higher capacity.
+   */
+  public List<UUID> track(UUID sessionId, Integer capacity, Collection<UUID> participantIds) {
+    Seats seats = seats(sessionId, capacity);
+    seats.capacity = capacity == null ? UNLIMITED : capacity;
+    for (UUID userId : participantIds) {
+      seats.seat(userId);
+    }
+    return promote(sessionId, seats);
+  }
+
+  /** Stops tracking a cancelled, completed or deleted session and drops its waitlist. */
+  public boolean untrack(UUID sessionId) {
+    return sessions.remove(sessionId) != null;
+  }
+
+  /** Claims a seat for {@code userId}, or a waitlist place when the session is full. */
+  public Outcome admit(UUID sessionId, UUID userId) {
+    Seats seats = sessions.get(sessionId);
+    if (seats == null) {
+      return Outcome.NOT_TRACKED;
+    }
+    if (seats.seated.contains(userId)) {
+      return Outcome.ALREADY_ADMITTED;
+    }
+    if (seats.waiting.contains(userId)) {
+      return Outcome.ALREADY_WAITLISTED;
+    }
+    if (seats.waitlist.isEmpty() && seats.reserve()) {
+      if (!seats.seated.add(userId)) {
+        seats.taken.decrementAndGet();
+        return Outcome.ALREADY_ADMITTED;
+      }
+      changes.addLast(new SeatChange(sessionId, userId, SeatChange.Kind.SEATED));
+      return Outcome.ADMITTED;
+    }
+    if (!reserve(seats.waitCount, maxWaitlist)) {
+      return Outcome.REJECTED;
+    }
+    if (!seats.waiting.add(userId)) {
+      seats.waitCount.decrementAndGet();
+      return Outcome.ALREADY_WAITLISTED;
+    }
+    seats.waitlist.addLast(userId);
+    // A seat may have been released between the failed claim and joining the queue.
+    return promote(sessionId, seats).contains(userId) ? Outcome.ADMITTED : Outcome.WAITLISTED;
+  }
+
+  /**
+   * Gives up {@code userId}'s seat or waitlist place. Returns the waitlisted users promoted into
+   * the freed seat, whom the caller should notify.
+   */
+  public List<UUID> release(UUID sessionId, UUID userId) {
+    Seats seats = sessions.get(sessionId);
+    if (seats == null) {
+      return List.of();
+    }
+    if (seats.seated.remove(userId)) {
+      seats.taken.decrementAndGet();
+      changes.addLast(new SeatChange(sessionId, userId, SeatChange.Kind.RELEASED));
+    } else if (seats.waiting.remove(userId)) {
+      seats.waitlist.remove(userId);
+      seats.waitCount.decrementAndGet();
+    }
+    return promote(sessionId, seats);
+  }
+
+  public int seatsTaken(UUID sessionId) {
+    Seats seats = sessions.get(sessionId);
+    return seats == null ? 0 : seats.taken.get();
+  }
+
+  /** Waitlisted users in promotion order. */
+  public List<UUID> waitlist(UUID sessionId) {
+    Seats seats = sessions.get(sessionId);
+    return seats == null ? List.of() : List.copyOf(seats.waitlist);
+  }
+
+  public int pendingChanges() {
+    return changes.size();
+  }
+
+  /**
+   * Writes up to {@code maxBatch} pending changes, oldest first, and returns how many were
+   * written. If the sink fails the changes are put back in front of newer ones, so per-seat order
+   * survives the retry. Flushes are serialized.
+   */
+  public int flush(SeatChangeSink sink, int maxBatch) throws Exception {
+    synchronized (flushLock) {
+      List<SeatChange> batch = new ArrayList<>(Math.min(maxBatch, 1_024));
+      SeatChange change;
+      while (batch.size() < maxBatch && (change = changes.pollFirst()) != null) {
+        batch.add(change);
+      }
+      if (batch.isEmpty()) {
+        return 0;
+      }
+      try {
+        sink.write(batch);
+      } catch (Exception e) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+          changes.addFirst(batch.get(i));
+        }
+        throw e;
+      }
+      return batch.size();
+    }
+  }
+
+  private Seats seats(UUID sessionId, Integer capacity) {
+    return sessions.computeIfAbsent(
+        sessionId, ignored -> new Seats(capacity == null ? UNLIMITED : capacity));
+  }
+
+  /** Moves waitlisted users into free seats, head first, and returns them. */
+  private List<UUID> promote(UUID sessionId, Seats seats) {
+    List<UUID> promoted = new ArrayList<>(0);
+    while (!seats.waitlist.isEmpty() && seats.reserve()) {
+      UUID userId = seats.waitlist.pollFirst();
+      if (userId == null) {
+        seats.taken.decrementAndGet();
+        break;
+      }
+      if (!seats.waiting.remove(userId)) {
+        // Left the waitlist while being polled.
+        seats.taken.decrementAndGet();
+        continue;
+      }
+      seats.waitCount.decrementAndGet();
+      if (!seats.seated.add(userId)) {
+        seats.taken.decrementAndGet();
+        continue;
+      }
+      changes.addLast(new SeatChange(sessionId, userId, SeatChange.Kind.PROMOTED));
+      promoted.add(userId);
+    }
+    return promoted;
+  }
+
+  private static boolean reserve(AtomicInteger counter, int limit) {
+    while (true) {
+      int current = counter.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (counter.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Seat state of one session. {@code taken} is claimed before a user is added to {@code seated}
+   * and given back after one is removed, so it never drops below the number of seated users.
+   */
+  private static final class Seats {
+    volatile int capacity;
+    final AtomicInteger taken = new AtomicInteger();
+    final Set<UUID> seated = ConcurrentHashMap.newKeySet();
+    final AtomicInteger waitCount = new AtomicInteger();
+    final Set<UUID> waiting = ConcurrentHashMap.newKeySet();
+    final ConcurrentLinkedDeque<UUID> waitlist = new ConcurrentLinkedDeque<>();
+
+    Seats(int capacity) {
+      this.capacity = capacity;
+    }
+
+    boolean reserve() {
+      return SessionAdmission.reserve(taken, capacity);
+    }
+
+    /** Seats a participant the database already has, regardless of capacity. */
+    void seat(UUID userId) {
+      taken.incrementAndGet();
+      if (!seated.add(userId)) {
+        taken.decrementAndGet();
+      } else if (waiting.remove(userId)) {
+        waitlist.remove(userId);
+        waitCount.decrementAndGet();
+      }
+    }
+  }
+}
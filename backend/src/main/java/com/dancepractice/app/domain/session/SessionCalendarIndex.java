@@ -0,0 +1,453 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only in-memory calendar over sessions and session_participants; it is not mapped to a table.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.common.index.IntervalTree;
+import com.dancepractice.app.domain.common.SessionStatus;
+import com.dancepractice.app.domain.user.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-user calendar of the sessions that block a time slot, i.e. {@code PROPOSED} or {@code
+ * SCHEDULED} sessions that are not soft-deleted, for conflict checks in {@code
+ * propose_practice_session} and free/busy in the calendar view. A session occupies the calendar of
+ * its organizer and of every row in {@code session_participants}. Each user's calendar is an
+ * {@link IntervalTree} of half-open {@code [scheduledStart, scheduledEnd)} ranges, so back-to-back
+ * sessions do not conflict and a query costs {@code O(log n + k)} in that user's sessions.
+ *
+ * <p>Every known session keeps its bounds and members even while it does not block, so a session
+ * moving back to {@code PROPOSED} or {@code SCHEDULED} is re-indexed without a reload. Reads and
+ * writes are guarded by a read-write lock.
+ */
+public final class SessionCalendarIndex {
+
+  private static final String SELECT_SESSIONS =
+      "select id, organizer_id, status, scheduled_start, scheduled_end, version from sessions"
+          + " where deleted_at is null and status in ('PROPOSED', 'SCHEDULED')";
+  private static final String SELECT_PARTICIPANTS =
+      "select sp.session_id, sp.user_id from session_participants sp"
+          + " join sessions s on s.id = sp.session_id"
+          + " where s.deleted_at is null and s.status in ('PROPOSED', 'SCHEDULED')";
+  private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+  private static final int[] NONE = new int[0];
+
+  /** A merged busy range, clipped to the queried window. */
+  public record Busy(Instant start, Instant end) {}
+
+  private final DenseIdRegistry users;
+  private final DenseIdRegistry sessions = new DenseIdRegistry();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private IntervalTree[] calendars = new IntervalTree[16];
+  private long[] sessionVersion = new long[16];
+  private long[] sessionStart = new long[16];
+  private long[] sessionEnd = new long[16];
+  private boolean[] sessionBlocking = new boolean[16];
+  private int[][] sessionMembers = new int[16][];
+  private int blockingCount;
+
+  public SessionCalendarIndex() {
+    this(new DenseIdRegistry());
+  }
+
+  /** Shares {@code users} with other indexes so dense indexes mean the same user everywhere. */
+  public SessionCalendarIndex(DenseIdRegistry users) {
+    this.users = users;
+  }
+
+  /**
+   * Streams the blocking sessions and their participants into a new index without touching {@link
+   * Session} entities. The connection is left open.
+   */
+  public static SessionCalendarIndex load(Connection connection, DenseIdRegistry users)
+      throws SQLException {
+    SessionCalendarIndex index = new SessionCalendarIndex(users);
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_SESSIONS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          Timestamp start = rows.getTimestamp(4);
+          Timestamp end = rows.getTimestamp(5);
+          index.put(
+              rows.getObject(1, UUID.class),
+              rows.getLong(6),
+              SessionStatus.valueOf(rows.getString(3)),
+              false,
+              start.toInstant(),
+              end.toInstant(),
+              new int[] {users.register(rows.getObject(2, UUID.class))});
+        }
+      }
+    }
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTICIPANTS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          index.addParticipant(rows.getObject(1, UUID.class), rows.getObject(2, UUID.class));
+        }
+      }
+    }
+    return index;
+  }
+
+  public DenseIdRegistry users() {
+    return users;
+  }
+
+  /** Number of sessions currently occupying calendars. */
+  public int blockingSessionCount() {
+    lock.readLock().lock();
+    try {
+      return blockingCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a session's status, times, organizer and participants. Returns {@code false} without
+   * changing anything when the index already has this or a newer {@code version}. A session that
+   * is soft-deleted, {@code COMPLETED} or {@code CANCELLED} leaves every calendar.
+   */
+  public boolean upsert(Session session) {
+    int[] members = new int[session.getParticipants().size() + 1];
+    int count = 0;
+    members[count++] = users.register(session.getOrganizer().getId());
+    for (User participant : session.getParticipants()) {
+      members[count++] = users.register(participant.getId());
+    }
+    return put(
+        session.getId(),
+        session.getVersion() == null ? UNKNOWN_VERSION : session.getVersion(),
+        session.getStatus(),
+        session.isDeleted(),
+        session.getScheduledStart(),
+        session.getScheduledEnd(),
+        members);
+  }
+
+  /** Drops a hard-deleted session; replays of older versions stay ignored. */
+  public boolean remove(UUID sessionId) {
+    int session = sessions.indexOf(sessionId);
+    if (session < 0) {
+      return false;
+    }
+    lock.writeLock().lock();
+    try {
+      if (session >= sessionMembers.length || sessionMembers[session] == null) {
+        return false;
+      }
+      unindex(session);
+      sessionMembers[session] = NONE;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Applies an inserted {@code session_participants} row. Participant rows do not bump the
+   * session's version, so they are applied unconditionally.
+   */
+  public boolean addParticipant(UUID sessionId, UUID userId) {
+    int session = sessions.register(sessionId);
+    int user = users.register(userId);
+    lock.writeLock().lock();
+    try {
+      ensureSession(session);
+      int[] members = sessionMembers[session];
+      int at = Arrays.binarySearch(members, user);
+      if (at >= 0) {
+        return false;
+      }
+      at = -at - 1;
+      int[] grown = new int[members.length + 1];
+      System.arraycopy(members, 0, grown, 0, at);
+      grown[at] = user;
+      System.arraycopy(members, at, grown, at + 1, members.length - at);
+      sessionMembers[session] = grown;
+      if (sessionBlocking[session]) {
+        calendar(user).insert(sessionStart[session], sessionEnd[session], session);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean removeParticipant(UUID sessionId, UUID userId) {
+    int session = sessions.indexOf(sessionId);
+    int user = users.indexOf(userId);
+    if (session < 0 || user < 0) {
+      return false;
+    }
+    lock.writeLock().lock();
+    try {
+      if (session >= sessionMembers.length || sessionMembers[session] == null) {
+        return false;
+      }
+      int[] members = sessionMembers[session];
+      int at = Arrays.binarySearch(members, user);
+      if (at < 0) {
+        return false;
+      }
+      int[] shrunk = new int[members.length - 1];
+      System.arraycopy(members, 0, shrunk, 0, at);
+      System.arraycopy(members, at + 1, shrunk, at, shrunk.length - at);
+      sessionMembers[session] = shrunk;
+      if (sessionBlocking[session]) {
+        calendars[user].remove(sessionStart[session], sessionEnd[session], session);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Whether {@code [start, end)} overlaps any blocking session of {@code userId}. */
+  public boolean hasConflict(UUID userId, Instant start, Instant end) {
+    int user = users.indexOf(userId);
+    if (user < 0) {
+      return false;
+    }
+    lock.readLock().lock();
+    try {
+      IntervalTree calendar = calendarOrNull(user);
+      return calendar != null && calendar.overlapsAny(start.toEpochMilli(), end.toEpochMilli());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Ids of {@code userId}'s blocking sessions overlapping {@code [start, end)}, by start time. */
+  public List<UUID> conflicts(UUID userId, Instant start, Instant end) {
+    int user = users.indexOf(userId);
+    if (user < 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      return conflicts(user, start.toEpochMilli(), end.toEpochMilli());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@link #conflicts(UUID, Instant, Instant)} for a whole invite list under one read lock. Only
+   * users with at least one conflict appear, in the order given.
+   */
+  public Map<UUID, List<UUID>> conflicts(Collection<UUID> userIds, Instant start, Instant end) {
+    long from = start.toEpochMilli();
+    long to = end.toEpochMilli();
+    Map<UUID, List<UUID>> conflicts = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      for (UUID userId : userIds) {
+        int user = users.indexOf(userId);
+        if (user < 0) {
+          continue;
+        }
+        List<UUID> sessionIds = conflicts(user, from, to);
+        if (!sessionIds.isEmpty()) {
+          conflicts.put(userId, sessionIds);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return conflicts;
+  }
+
+  /** {@code userId}'s blocking sessions within {@code [from, to)}, merged where they touch. */
+  public List<Busy> busy(UUID userId, Instant from, Instant to) {
+    int user = users.indexOf(userId);
+    if (user < 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      return busy(user, from.toEpochMilli(), to.toEpochMilli());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@link #busy(UUID, Instant, Instant)} for a whole invite list under one read lock. Every
+   * requested user appears, in the order given, with an empty list when free.
+   */
+  public Map<UUID, List<Busy>> freeBusy(Collection<UUID> userIds, Instant from, Instant to) {
+    long lower = from.toEpochMilli();
+    long upper = to.toEpochMilli();
+    Map<UUID, List<Busy>> freeBusy = new LinkedHashMap<>();
+    lock.readLock().lock();
+    try {
+      for (UUID userId : userIds) {
+        int user = users.indexOf(userId);
+        freeBusy.put(userId, user < 0 ? List.of() : busy(user, lower, upper));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return freeBusy;
+  }
+
+  private List<UUID> conflicts(int user, long from, long to) {
+    IntervalTree calendar = calendarOrNull(user);
+    if (calendar == null) {
+      return List.of();
+    }
+    List<UUID> sessionIds = new ArrayList<>();
+    calendar.forEachOverlapping(from, to, (session, start, end) -> sessionIds.add(idOf(session)));
+    return sessionIds;
+  }
+
+  private List<Busy> busy(int user, long from, long to) {
+    IntervalTree calendar = calendarOrNull(user);
+    if (calendar == null) {
+      return List.of();
+    }
+    List<Busy> busy = new ArrayList<>();
+    long[] open = {Long.MIN_VALUE, Long.MIN_VALUE};
+    calendar.forEachOverlapping(
+        from,
+        to,
+        (session, start, end) -> {
+          long clippedStart = Math.max(start, from);
+          long clippedEnd = Math.min(end, to);
+          if (open[1] >= clippedStart) {
+            open[1] = Math.max(open[1], clippedEnd);
+            return;
+          }
+          if (open[1] != Long.MIN_VALUE) {
+            busy.add(busy(open[0], open[1]));
+          }
+          open[0] = clippedStart;
+          open[1] = clippedEnd;
+        });
+    if (open[1] != Long.MIN_VALUE) {
+      busy.add(busy(open[0], open[1]));
+    }
+    return busy;
+  }
+
+  private static Busy busy(long start, long end) {
+    return new Busy(Instant.ofEpochMilli(start), Instant.ofEpochMilli(end));
+  }
+
+  private boolean put(
+      UUID sessionId,
+      long version,
+      SessionStatus status,
+      boolean deleted,
+      Instant start,
+      Instant end,
+      int[] members) {
+    int session = sessions.register(sessionId);
+    int[] sorted = distinct(members);
+    lock.writeLock().lock();
+    try {
+      ensureSession(session);
+      long current = sessionVersion[session];
+      if (current != UNKNOWN_VERSION && version != UNKNOWN_VERSION && version <= current) {
+        return false;
+      }
+      unindex(session);
+      sessionVersion[session] = version;
+      sessionMembers[session] = sorted;
+      boolean timed = start != null && end != null && start.isBefore(end);
+      sessionStart[session] = timed ? start.toEpochMilli() : 0L;
+      sessionEnd[session] = timed ? end.toEpochMilli() : 0L;
+      if (timed
+          && !deleted
+          && (status == SessionStatus.PROPOSED || status == SessionStatus.SCHEDULED)) {
+        index(session);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void index(int session) {
+    for (int user : sessionMembers[session]) {
+      calendar(user).insert(sessionStart[session], sessionEnd[session], session);
+    }
+    sessionBlocking[session] = true;
+    blockingCount++;
+  }
+
+  private void unindex(int session) {
+    if (!sessionBlocking[session]) {
+      return;
+    }
+    for (int user : sessionMembers[session]) {
+      calendars[user].remove(sessionStart[session], sessionEnd[session], session);
+    }
+    sessionBlocking[session] = false;
+    blockingCount--;
+  }
+
+  private UUID idOf(int session) {
+    return sessions.idAt(session);
+  }
+
+  private IntervalTree calendarOrNull(int user) {
+    return user < calendars.length ? calendars[user] : null;
+  }
+
+  private IntervalTree calendar(int user) {
+    if (user >= calendars.length) {
+      calendars = Arrays.copyOf(calendars, Math.max(calendars.length * 2, user + 1));
+    }
+    IntervalTree calendar = calendars[user];
+    if (calendar == null) {
+      calendar = new IntervalTree();
+      calendars[user] = calendar;
+    }
+    return calendar;
+  }
+
+  private void ensureSession(int session) {
+    if (session >= sessionMembers.length) {
+      int grown = Math.max(sessionMembers.length * 2, session + 1);
+      sessionVersion = Arrays.copyOf(sessionVersion, grown);
+      sessionStart = Arrays.copyOf(sessionStart, grown);
+      sessionEnd = Arrays.copyOf(sessionEnd, grown);
+      sessionBlocking = Arrays.copyOf(sessionBlocking, grown);
+      sessionMembers = Arrays.copyOf(sessionMembers, grown);
+    }
+    if (sessionMembers[session] == null) {
+      sessionVersion[session] = UNKNOWN_VERSION;
+      sessionMembers[session] = NONE;
+    }
+  }
+
+  private static int[] distinct(int[] values) {
+    int[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int count = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[count++] = sorted[i];
+      }
+    }
+    return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+  }
+}
@@ -0,0 +1,528 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only export of practice history; no Spring Boot backend serves it.
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+
+/**
+ * Writes practice history as NDJSON, one {@link Session} per line with its focus areas,
+ * participant ids and live {@link SessionNote}s (with tags and media URLs) nested in it, without
+ * building entity graphs. Sessions are walked in {@code (scheduled_start, id)} order one keyset page
+ * at a time; each page's children come from one {@code = any(?)} query per table, and the page is
+ * written and flushed before the next is read, so memory is bounded by the page size however long
+ * the history is. Each page is its own statement, so no transaction stays open across the export.
+ *
+ * <p>{@link #exportUser} covers the sessions a dancer organized or joined and only the notes the
+ * {@code session_notes read access} policy lets them read. {@link #exportAll} covers every live
+ * session for admins: the id space is cut into ranges that run in parallel, each on its own
+ * connection and into its own output.
+ */
+public final class SessionHistoryExport {
+
+  /** Opens the output of one {@link #exportAll} partition; the export closes it when done. */
+  @FunctionalInterface
+  public interface PartitionOutput {
+    OutputStream open(int partition) throws IOException;
+  }
+
+  private static final String SESSION_COLUMNS =
+      "select s.id, s.organizer_id, s.location_id, s.scheduled_start, s.scheduled_end, s.capacity,"
+          + " s.session_type, s.status, s.visibility, s.title from sessions s"
+          + " where s.deleted_at is null";
+  private static final String USER_SESSIONS =
+      " and (s.organizer_id = ? or exists (select 1 from session_participants sp"
+          + " where sp.session_id = s.id and sp.user_id = ?))";
+  private static final String PARTITION_FROM = " and s.id >= ?";
+  private static final String PARTITION_TO = " and s.id < ?";
+  private static final String AFTER = " and (s.scheduled_start, s.id) > (?, ?)";
+  private static final String PAGE = " order by s.scheduled_start, s.id limit ?";
+
+  private static final String SELECT_FOCUS =
+      "select session_id, focus_area from session_focus_areas where session_id = any(?)";
+  private static final String SELECT_PARTICIPANTS =
+      "select session_id, user_id from session_participants where session_id = any(?)"
+          + " order by session_id, user_id";
+  private static final String SELECT_NOTES =
+      "select n.id, n.session_id, n.author_id, n.visibility, n.content, n.created_at,"
+          + " n.updated_at from session_notes n"
+          + " where n.session_id = any(?) and n.deleted_at is null";
+  private static final String READABLE_NOTES =
+      " and (n.visibility = 'PUBLIC' or n.author_id = ? or (n.visibility = 'PARTICIPANTS_ONLY'"
+          + " and exists (select 1 from session_participants sp"
+          + " where sp.session_id = n.session_id and sp.user_id = ?)))";
+  private static final String NOTE_ORDER = " order by n.session_id, n.created_at, n.id";
+  private static final String SELECT_NOTE_VALUES =
+      "select note_id, 0, tag from session_note_tags where note_id = any(?)"
+          + " union all select note_id, 1, media_url from session_note_media where note_id = any(?)";
+
+  /** Which sessions one export walks: a dancer's, or an id range of everyone's. */
+  private record Scope(UUID profileId, UUID fromId, UUID toId) {}
+
+  private record SessionRow(
+      UUID id,
+      UUID organizerId,
+      UUID locationId,
+      Instant scheduledStart,
+      Instant scheduledEnd,
+      Integer capacity,
+      String type,
+      String status,
+      String visibility,
+      String title) {}
+
+  private record NoteRow(
+      UUID id,
+      UUID authorId,
+      String visibility,
+      String content,
+      Instant createdAt,
+      Instant updatedAt) {}
+
+  private final DataSource dataSource;
+  private final int pageSize;
+  private final int parallelism;
+
+  private SessionHistoryExport(Builder builder) {
+    this.dataSource = builder.dataSource;
+    this.pageSize = builder.pageSize;
+    this.parallelism = builder.parallelism;
+  }
+
+  public static Builder builder(DataSource dataSource) {
+    return new Builder(dataSource);
+  }
+
+  /**
+   * Writes every live session {@code profileId} organized or participates in, oldest first, and
+   * returns how many. {@code out} is flushed after each page but not closed. Lines carry a {@code
+   * role} of {@code ORGANIZER} or {@code PARTICIPANT}.
+   */
+  public long exportUser(UUID profileId, OutputStream out) throws SQLException, IOException {
+    Objects.requireNonNull(profileId, "profileId");
+    Writer writer = writer(out);
+    try (Connection connection = dataSource.getConnection()) {
+      return export(connection, new Scope(profileId, null, null), writer);
+    }
+  }
+
+  /**
+   * Writes every live session into {@code partitions} outputs, one per range of session ids, with
+   * up to {@code parallelism} partitions running at once, and returns the number written. When a
+   * partition fails the others are cancelled and its exception is thrown; outputs already written
+   * are left for the caller to discard.
+   */
+  public long exportAll(int partitions, PartitionOutput outputs)
+      throws SQLException, IOException, InterruptedException {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException("partitions must be positive");
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, partitions));
+    try {
+      List<Future<Long>> running = new ArrayList<>(partitions);
+      for (int partition = 0; partition < partitions; partition++) {
+        Scope scope =
+            new Scope(null, bound(partition, partitions), bound(partition + 1, partitions));
+        int index = partition;
+        running.add(executor.submit(() -> exportPartition(scope, outputs, index)));
+      }
+      long total = 0;
+      for (Future<Long> partition : running) {
+        try {
+          total += partition.get();
+        } catch (ExecutionException e) {
+          running.forEach(other -> other.cancel(true));
+          Throwable cause = e.getCause();
+          if (cause instanceof SQLException sql) {
+            throw sql;
+          }
+          if (cause instanceof IOException io) {
+            throw io;
+          }
+          if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+          }
+          throw new IllegalStateException(cause);
+        }
+      }
+      return total;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long exportPartition(Scope scope, PartitionOutput outputs, int partition)
+      throws SQLException, IOException {
+    try (OutputStream out = outputs.open(partition);
+        Connection connection = dataSource.getConnection()) {
+      return export(connection, scope, writer(out));
+    }
+  }
+
+  /**
+   * First id of partition {@code partition} of {@code partitions}, splitting the high 32 bits
+   * evenly; {@code null} past the last one. Postgres orders {@code uuid} by unsigned bytes, which
+   * is the order of these bounds.
+   */
+  static UUID bound(int partition, int partitions) {
+    if (partition == 0 || partition >= partitions) {
+      return null;
+    }
+    long high = (partition * (1L << 32)) / partitions;
+    return new UUID(high << 32, 0);
+  }
+
+  private long export(Connection connection, Scope scope, Writer writer)
+      throws SQLException, IOException {
+    long written = 0;
+    SessionRow last = null;
+    while (true) {
+      List<SessionRow> page = selectPage(connection, scope, last);
+      if (page.isEmpty()) {
+        break;
+      }
+      UUID[] ids = new UUID[page.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = page.get(i).id();
+      }
+      Map<UUID, List<String>> focus = new HashMap<>();
+      Map<UUID, List<UUID>> participants = new HashMap<>();
+      Map<UUID, List<NoteRow>> notes = new HashMap<>();
+      Map<UUID, List<String>> tags = new HashMap<>();
+      Map<UUID, List<String>> media = new HashMap<>();
+      Array idArray = connection.createArrayOf("uuid", ids);
+      try {
+        selectFocus(connection, idArray, focus);
+        selectParticipants(connection, idArray, participants);
+        List<UUID> noteIds = selectNotes(connection, idArray, scope, notes);
+        if (!noteIds.isEmpty()) {
+          Array noteArray = connection.createArrayOf("uuid", noteIds.toArray(new UUID[0]));
+          try {
+            selectNoteValues(connection, noteArray, tags, media);
+          } finally {
+            noteArray.free();
+          }
+        }
+      } finally {
+        idArray.free();
+      }
+      StringBuilder line = new StringBuilder(1024);
+      for (SessionRow session : page) {
+        line.setLength(0);
+        appendSession(
+            line,
+            session,
+            scope.profileId(),
+            focus.getOrDefault(session.id(), List.of()),
+            participants.getOrDefault(session.id(), List.of()),
+            notes.getOrDefault(session.id(), List.of()),
+            tags,
+            media);
+        writer.append(line).append('\n');
+      }
+      writer.flush();
+      written += page.size();
+      if (page.size() < pageSize) {
+        break;
+      }
+      last = page.get(page.size() - 1);
+    }
+    return written;
+  }
+
+  private List<SessionRow> selectPage(Connection connection, Scope scope, SessionRow after)
+      throws SQLException {
+    StringBuilder sql = new StringBuilder(SESSION_COLUMNS);
+    if (scope.profileId() != null) {
+      sql.append(USER_SESSIONS);
+    }
+    if (scope.fromId() != null) {
+      sql.append(PARTITION_FROM);
+    }
+    if (scope.toId() != null) {
+      sql.append(PARTITION_TO);
+    }
+    if (after != null) {
+      sql.append(AFTER);
+    }
+    sql.append(PAGE);
+    List<SessionRow> page = new ArrayList<>(pageSize);
+    try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+      int parameter = 1;
+      if (scope.profileId() != null) {
+        statement.setObject(parameter++, scope.profileId());
+        statement.setObject(parameter++, scope.profileId());
+      }
+      if (scope.fromId() != null) {
+        statement.setObject(parameter++, scope.fromId());
+      }
+      if (scope.toId() != null) {
+        statement.setObject(parameter++, scope.toId());
+      }
+      if (after != null) {
+        statement.setTimestamp(parameter++, Timestamp.from(after.scheduledStart()));
+        statement.setObject(parameter++, after.id());
+      }
+      statement.setInt(parameter, pageSize);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          page.add(
+              new SessionRow(
+                  rows.getObject(1, UUID.class),
+                  rows.getObject(2, UUID.class),
+                  rows.getObject(3, UUID.class),
+                  rows.getTimestamp(4).toInstant(),
+                  rows.getTimestamp(5).toInstant(),
+                  rows.getObject(6, Integer.class),
+                  rows.getString(7),
+                  rows.getString(8),
+                  rows.getString(9),
+                  rows.getString(10)));
+        }
+      }
+    }
+    return page;
+  }
+
+  private static void selectFocus(Connection connection, Array ids, Map<UUID, List<String>> focus)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_FOCUS)) {
+      statement.setArray(1, ids);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          String focusArea = rows.getString(2);
+          if (focusArea != null) {
+            focus.computeIfAbsent(rows.getObject(1, UUID.class), id -> new ArrayList<>(4))
+                .add(focusArea);
+          }
+        }
+      }
+    }
+  }
+
+  private static void selectParticipants(
+      Connection connection, Array ids, Map<UUID, List<UUID>> participants) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTICIPANTS)) {
+      statement.setArray(1, ids);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          participants
+              .computeIfAbsent(rows.getObject(1, UUID.class), id -> new ArrayList<>(4))
+              .add(rows.getObject(2, UUID.class));
+        }
+      }
+    }
+  }
+
+  /** Fills {@code notes} by session and returns the note ids, in order. */
+  private static List<UUID> selectNotes(
+      Connection connection, Array ids, Scope scope, Map<UUID, List<NoteRow>> notes)
+      throws SQLException {
+    String sql = SELECT_NOTES + (scope.profileId() == null ? "" : READABLE_NOTES) + NOTE_ORDER;
+    List<UUID> noteIds = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setArray(1, ids);
+      if (scope.profileId() != null) {
+        statement.setObject(2, scope.profileId());
+        statement.setObject(3, scope.profileId());
+      }
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          NoteRow note =
+              new NoteRow(
+                  rows.getObject(1, UUID.class),
+                  rows.getObject(3, UUID.class),
+                  rows.getString(4),
+                  rows.getString(5),
+                  rows.getTimestamp(6).toInstant(),
+                  rows.getTimestamp(7).toInstant());
+          notes.computeIfAbsent(rows.getObject(2, UUID.class), id -> new ArrayList<>(2)).add(note);
+          noteIds.add(note.id());
+        }
+      }
+    }
+    return noteIds;
+  }
+
+  private static void selectNoteValues(
+      Connection connection,
+      Array noteIds,
+      Map<UUID, List<String>> tags,
+      Map<UUID, List<String>> media)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_NOTE_VALUES)) {
+      statement.setArray(1, noteIds);
+      statement.setArray(2, noteIds);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          String value = rows.getString(3);
+          if (value == null) {
+            continue;
+          }
+          Map<UUID, List<String>> target = rows.getInt(2) == 0 ? tags : media;
+          target.computeIfAbsent(rows.getObject(1, UUID.class), id -> new ArrayList<>(2)).add(value);
+        }
+      }
+    }
+  }
+
+  private static void appendSession(
+      StringBuilder line,
+      SessionRow session,
+      UUID profileId,
+      List<String> focus,
+      List<UUID> participants,
+      List<NoteRow> notes,
+      Map<UUID, List<String>> tags,
+      Map<UUID, List<String>> media) {
+    line.append("{\"id\":");
+    appendString(line, session.id());
+    if (profileId != null) {
+      line.append(",\"role\":");
+      appendString(line, profileId.equals(session.organizerId()) ? "ORGANIZER" : "PARTICIPANT");
+    }
+    line.append(",\"title\":");
+    appendString(line, session.title());
+    line.append(",\"sessionType\":");
+    appendString(line, session.type());
+    line.append(",\"status\":");
+    appendString(line, session.status());
+    line.append(",\"visibility\":");
+    appendString(line, session.visibility());
+    line.append(",\"scheduledStart\":");
+    appendString(line, session.scheduledStart());
+    line.append(",\"scheduledEnd\":");
+    appendString(line, session.scheduledEnd());
+    line.append(",\"organizerId\":");
+    appendString(line, session.organizerId());
+    line.append(",\"locationId\":");
+    appendString(line, session.locationId());
+    line.append(",\"capacity\":").append(session.capacity());
+    line.append(",\"focusAreas\":");
+    appendStrings(line, focus);
+    line.append(",\"participantIds\":");
+    appendStrings(line, participants);
+    line.append(",\"notes\":[");
+    for (int i = 0; i < notes.size(); i++) {
+      NoteRow note = notes.get(i);
+      if (i > 0) {
+        line.append(',');
+      }
+      line.append("{\"id\":");
+      appendString(line, note.id());
+      line.append(",\"authorId\":");
+      appendString(line, note.authorId());
+      line.append(",\"visibility\":");
+      appendString(line, note.visibility());
+      line.append(",\"content\":");
+      appendString(line, note.content());
+      line.append(",\"tags\":");
+      appendStrings(line, tags.getOrDefault(note.id(), List.of()));
+      line.append(",\"mediaUrls\":");
+      appendStrings(line, media.getOrDefault(note.id(), List.of()));
+      line.append(",\"createdAt\":");
+      appendString(line, note.createdAt());
+      line.append(",\"updatedAt\":");
+      appendString(line, note.updatedAt());
+      line.append('}');
+    }
+    line.append("]}");
+  }
+
+  private static void appendStrings(StringBuilder line, List<?> values) {
+    line.append('[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        line.append(',');
+      }
+      appendString(line, values.get(i));
+    }
+    line.append(']');
+  }
+
+  /** {@code value} as a JSON string, or {@code null}. */
+  static void appendString(StringBuilder line, Object value) {
+    if (value == null) {
+      line.append("null");
+      return;
+    }
+    String text = value.toString();
+    line.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '"' -> line.append("\\\"");
+        case '\\' -> line.append("\\\\");
+        case '\n' -> line.append("\\n");
+        case '\r' -> line.append("\\r");
+        case '\t' -> line.append("\\t");
+        default -> {
+          if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+            line.append(String.format("\\u%04x", (int) c));
+          } else {
+            line.append(c);
+          }
+        }
+      }
+    }
+    line.append('"');
+  }
+
+  private static Writer writer(OutputStream out) {
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+  }
+
+  public static final class Builder {
+    private final DataSource dataSource;
+    private int pageSize = 500;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private Builder(DataSource dataSource) {
+      this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /** Sessions per keyset page; a page and its notes are what the export holds in memory. */
+    public Builder pageSize(int pageSize) {
+      if (pageSize <= 0) {
+        throw new IllegalArgumentException("pageSize must be positive");
+      }
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /** Partitions {@link #exportAll} runs at once, each holding one connection. */
+    public Builder parallelism(int parallelism) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("parallelism must be positive");
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public SessionHistoryExport build() {
+      return new SessionHistoryExport(this);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only entity mirroring the session_invites table; this repo has no Spring Boot backend.
+
+import com.dancepractice.app.common.persistence.AbstractAuditableEntity;
+import com.dancepractice.app.domain.common.InviteStatus;
+import com.dancepractice.app.domain.user.User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "session_invites",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_session_invites_session_invitee",
+            columnNames = {"session_id", "invitee_id"}))
+@SQLDelete(
+    sql =
+        "UPDATE session_invites SET deleted_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP, version = version + 1 WHERE id = ? AND version = ?")
+@SQLRestriction("deleted_at IS NULL")
+public class SessionInvite extends AbstractAuditableEntity {
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(
+      name = "session_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "session_invites_session_id_fkey"))
+  private Session session;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(
+      name = "proposer_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "session_invites_proposer_id_fkey"))
+  private User proposer;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(
+      name = "invitee_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "session_invites_invitee_id_fkey"))
+  private User invitee;
+
+  @Column(name = "note", length = 500)
+  private String note;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private InviteStatus status = InviteStatus.PENDING;
+
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+}
@@ -0,0 +1,666 @@
+package com.dancepractice.app.domain.session;
+
+// NOTE: Reference-only in-memory search index over session_notes; it is not mapped to a table.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.common.index.IntSet;
+import com.dancepractice.app.common.index.StringDictionary;
+import com.dancepractice.app.domain.common.Visibility;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over {@link SessionNote} content and tags, for searching practice journals
+ * without {@code LIKE} scans. Content is split into lowercase letter-or-digit tokens; tags are
+ * indexed both as exact filters and as content tokens weighted {@value #TAG_WEIGHT} times. Tags
+ * are held as codes of a shared {@link StringDictionary}, so each note keeps an {@link IntSet} and
+ * a tag filter is a lookup of integer posting lists. A query
+ * matches notes containing every token, the last one as a prefix so results follow typing, and
+ * hits are ranked by BM25.
+ *
+ * <p>Read access mirrors the {@code session_notes read access} policy: a viewer sees {@code
+ * PUBLIC} notes, their own notes, and {@code PARTICIPANTS_ONLY} notes of sessions they have a
+ * {@code session_participants} row in. That check, and the optional "only my notes" and tag
+ * filters, are applied to each candidate while the posting lists are intersected, before the
+ * candidate is scored, so hidden notes cost one array lookup. Postings are sorted by dense note
+ * index and intersected from the shortest list with galloping search.
+ *
+ * <p>Notes are applied with {@link #upsert} on create, edit and soft delete, and participant rows
+ * with {@link #addParticipant} and {@link #removeParticipant}. Reads and writes are guarded by a
+ * read-write lock.
+ */
+public final class SessionNoteIndex {
+
+  private static final String SELECT_NOTES =
+      "select n.id, n.author_id, n.session_id, n.visibility, n.content, n.version,"
+          + " array(select t.tag from session_note_tags t"
+          + " where t.note_id = n.id and t.tag is not null)"
+          + " from session_notes n where n.deleted_at is null";
+  private static final String SELECT_PARTICIPANTS =
+      "select session_id, user_id from session_participants";
+  private static final int TAG_WEIGHT = 3;
+  private static final int MAX_TOKEN_LENGTH = 64;
+  /** Terms a prefix may expand to; the shortest terms are taken first. */
+  private static final int MAX_PREFIX_TERMS = 128;
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final byte DEAD = -1;
+  private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+  private static final int[] NONE = new int[0];
+  private static final String[] NO_TERMS = new String[0];
+
+  /** A matching note, best first. */
+  public record Hit(UUID noteId, UUID sessionId, UUID authorId, double score) {}
+
+  /** Sorted note indexes with a term frequency each. */
+  private static final class Postings {
+    private int[] notes = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+
+    private void add(int note, int freq) {
+      int at = Arrays.binarySearch(notes, 0, size, note);
+      if (at >= 0) {
+        freqs[at] = freq;
+        return;
+      }
+      at = -at - 1;
+      if (size == notes.length) {
+        notes = Arrays.copyOf(notes, size * 2);
+        freqs = Arrays.copyOf(freqs, size * 2);
+      }
+      System.arraycopy(notes, at, notes, at + 1, size - at);
+      System.arraycopy(freqs, at, freqs, at + 1, size - at);
+      notes[at] = note;
+      freqs[at] = freq;
+      size++;
+    }
+
+    private void remove(int note) {
+      int at = Arrays.binarySearch(notes, 0, size, note);
+      if (at >= 0) {
+        System.arraycopy(notes, at + 1, notes, at, size - at - 1);
+        System.arraycopy(freqs, at + 1, freqs, at, size - at - 1);
+        size--;
+      }
+    }
+  }
+
+  /**
+   * One conjunct of a query: sorted notes and, for scored clauses, their term frequencies or
+   * precomputed scores.
+   */
+  private final class Clause {
+    private final int[] notes;
+    private final int size;
+    private final int[] freqs;
+    private final double idf;
+    private final double[] scores;
+    private int cursor;
+
+    private Clause(int[] notes, int size, int[] freqs, double idf, double[] scores) {
+      this.notes = notes;
+      this.size = size;
+      this.freqs = freqs;
+      this.idf = idf;
+      this.scores = scores;
+    }
+
+    /** Advances to the first note at or after {@code note}; returns whether it is {@code note}. */
+    private boolean advanceTo(int note) {
+      int step = 1;
+      int low = cursor;
+      int high = cursor;
+      while (high < size && notes[high] < note) {
+        low = high + 1;
+        high += step;
+        step <<= 1;
+      }
+      int at = Arrays.binarySearch(notes, low, Math.min(high + 1, size), note);
+      cursor = at >= 0 ? at : -at - 1;
+      return at >= 0;
+    }
+
+    private double score(int at) {
+      if (scores != null) {
+        return scores[at];
+      }
+      return freqs == null ? 0 : bm25(idf, freqs[at], noteLength[notes[at]]);
+    }
+  }
+
+  private final DenseIdRegistry users;
+  private final DenseIdRegistry notes = new DenseIdRegistry();
+  private final DenseIdRegistry sessions = new DenseIdRegistry();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final TreeMap<String, Postings> terms = new TreeMap<>();
+  private final StringDictionary tagCodes;
+  private Postings[] tagPostings = new Postings[16];
+
+  private long[] noteVersion = new long[16];
+  private int[] noteAuthor = new int[16];
+  private int[] noteSession = new int[16];
+  private byte[] noteVisibility = new byte[16];
+  private int[] noteLength = new int[16];
+  private String[][] noteTerms = new String[16][];
+  private IntSet[] noteTags = new IntSet[16];
+  private int[][] authorNotes = new int[16][];
+  private int[][] userSessions = new int[16][];
+  private int liveNotes;
+  private long totalLength;
+
+  public SessionNoteIndex() {
+    this(new DenseIdRegistry(), new StringDictionary());
+  }
+
+  /**
+   * Shares {@code users} and {@code tagCodes} with other indexes so dense indexes and tag codes
+   * mean the same thing everywhere.
+   */
+  public SessionNoteIndex(DenseIdRegistry users, StringDictionary tagCodes) {
+    this.users = users;
+    this.tagCodes = tagCodes;
+    Arrays.fill(noteVersion, UNKNOWN_VERSION);
+    Arrays.fill(noteVisibility, DEAD);
+  }
+
+  /**
+   * Streams live notes with their tags, and every participant row, into a new index without
+   * touching {@link SessionNote} entities. The connection is left open.
+   */
+  public static SessionNoteIndex load(
+      Connection connection, DenseIdRegistry users, StringDictionary tagCodes)
+      throws SQLException {
+    SessionNoteIndex index = new SessionNoteIndex(users, tagCodes);
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_NOTES)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          Array tagArray = rows.getArray(7);
+          String[] tags = tagArray == null ? NO_TERMS : (String[]) tagArray.getArray();
+          index.put(
+              rows.getObject(1, UUID.class),
+              rows.getLong(6),
+              rows.getObject(2, UUID.class),
+              rows.getObject(3, UUID.class),
+              Visibility.valueOf(rows.getString(4)),
+              false,
+              rows.getString(5),
+              Arrays.asList(tags));
+        }
+      }
+    }
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTICIPANTS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          index.addParticipant(rows.getObject(1, UUID.class), rows.getObject(2, UUID.class));
+        }
+      }
+    }
+    return index;
+  }
+
+  public DenseIdRegistry users() {
+    return users;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return liveNotes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Indexes a created or edited note, or drops a soft-deleted one. Returns {@code false} without
+   * changing anything when the index already has this or a newer {@code version}.
+   */
+  public boolean upsert(SessionNote note) {
+    return put(
+        note.getId(),
+        note.getVersion() == null ? UNKNOWN_VERSION : note.getVersion(),
+        note.getAuthor().getId(),
+        note.getSession().getId(),
+        note.getVisibility(),
+        note.isDeleted(),
+        note.getContent(),
+        note.getTags());
+  }
+
+  /** Drops a hard-deleted note; replays of older versions stay ignored. */
+  public boolean remove(UUID noteId) {
+    int note = notes.indexOf(noteId);
+    if (note < 0) {
+      return false;
+    }
+    lock.writeLock().lock();
+    try {
+      if (note >= noteVisibility.length || noteVisibility[note] == DEAD) {
+        return false;
+      }
+      unindex(note);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Applies an inserted {@code session_participants} row. */
+  public boolean addParticipant(UUID sessionId, UUID userId) {
+    int session = sessions.register(sessionId);
+    int user = users.register(userId);
+    lock.writeLock().lock();
+    try {
+      ensureUser(user);
+      int[] grown = insertSorted(userSessions[user], session);
+      if (grown == userSessions[user]) {
+        return false;
+      }
+      userSessions[user] = grown;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean removeParticipant(UUID sessionId, UUID userId) {
+    int session = sessions.indexOf(sessionId);
+    int user = users.indexOf(userId);
+    if (session < 0 || user < 0) {
+      return false;
+    }
+    lock.writeLock().lock();
+    try {
+      if (user >= userSessions.length || userSessions[user] == null) {
+        return false;
+      }
+      int[] shrunk = removeSorted(userSessions[user], session);
+      if (shrunk == userSessions[user]) {
+        return false;
+      }
+      userSessions[user] = shrunk;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Notes {@code viewerId} may read that contain every token of {@code text} (the last as a prefix)
+   * and carry every tag in {@code tags}, best first. {@code ownOnly} restricts the search to notes
+   * the viewer wrote. An empty query with no tags matches nothing.
+   */
+  public List<Hit> search(
+      UUID viewerId, String text, Collection<String> tags, boolean ownOnly, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    List<String> tokens = new ArrayList<>(tokenize(text).keySet());
+    if (tokens.isEmpty() && tags.isEmpty()) {
+      return List.of();
+    }
+    int viewer = users.indexOf(viewerId);
+    lock.readLock().lock();
+    try {
+      List<Clause> clauses = new ArrayList<>(tokens.size() + tags.size() + 1);
+      for (int i = 0; i < tokens.size(); i++) {
+        Clause clause =
+            i == tokens.size() - 1 ? prefixClause(tokens.get(i)) : termClause(tokens.get(i));
+        if (clause == null) {
+          return List.of();
+        }
+        clauses.add(clause);
+      }
+      Set<String> wantedTags = new LinkedHashSet<>();
+      for (String tag : tags) {
+        wantedTags.add(normalizeTag(tag));
+      }
+      IntSet wantedCodes = tagCodes.lookupAll(wantedTags);
+      if (wantedCodes.size() < wantedTags.size()) {
+        return List.of();
+      }
+      for (int i = 0; i < wantedCodes.size(); i++) {
+        int code = wantedCodes.get(i);
+        Postings postings = code < tagPostings.length ? tagPostings[code] : null;
+        if (postings == null || postings.size == 0) {
+          return List.of();
+        }
+        clauses.add(new Clause(postings.notes, postings.size, null, 0, null));
+      }
+      if (ownOnly) {
+        int[] own = viewer < 0 || viewer >= authorNotes.length ? null : authorNotes[viewer];
+        if (own == null || own.length == 0) {
+          return List.of();
+        }
+        clauses.add(new Clause(own, own.length, null, 0, null));
+      }
+      clauses.sort(Comparator.comparingInt(clause -> clause.size));
+      int[] viewerSessions =
+          viewer >= 0 && viewer < userSessions.length && userSessions[viewer] != null
+              ? userSessions[viewer]
+              : NONE;
+
+      PriorityQueue<Hit> best =
+          new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+      Clause driver = clauses.get(0);
+      candidates:
+      for (int at = 0; at < driver.size; at++) {
+        int note = driver.notes[at];
+        if (!readable(note, viewer, viewerSessions)) {
+          continue;
+        }
+        double score = driver.score(at);
+        for (int c = 1; c < clauses.size(); c++) {
+          Clause clause = clauses.get(c);
+          if (!clause.advanceTo(note)) {
+            if (clause.cursor == clause.size) {
+              break candidates;
+            }
+            continue candidates;
+          }
+          score += clause.score(clause.cursor);
+        }
+        if (best.size() < limit || score > best.peek().score()) {
+          best.add(
+              new Hit(
+                  notes.idAt(note),
+                  sessions.idAt(noteSession[note]),
+                  users.idAt(noteAuthor[note]),
+                  score));
+          if (best.size() > limit) {
+            best.poll();
+          }
+        }
+      }
+      List<Hit> hits = new ArrayList<>(best);
+      hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+      return hits;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Lowercase letter-or-digit runs of {@code text} with their counts, in first-seen order. */
+  static Map<String, Integer> tokenize(String text) {
+    Map<String, Integer> tokens = new LinkedHashMap<>();
+    if (text == null) {
+      return tokens;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+      if (word && start < 0) {
+        start = i;
+      } else if (!word && start >= 0) {
+        if (i - start <= MAX_TOKEN_LENGTH) {
+          tokens.merge(lower.substring(start, i), 1, Integer::sum);
+        }
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static String normalizeTag(String tag) {
+    return tag.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private boolean put(
+      UUID noteId,
+      long version,
+      UUID authorId,
+      UUID sessionId,
+      Visibility visibility,
+      boolean deleted,
+      String content,
+      Collection<String> noteTagValues) {
+    int note = notes.register(noteId);
+    int author = users.register(authorId);
+    int session = sessions.register(sessionId);
+    Map<String, Integer> freqs = tokenize(content);
+    int length = 0;
+    for (int freq : freqs.values()) {
+      length += freq;
+    }
+    Set<String> normalizedTags = new LinkedHashSet<>();
+    for (String tag : noteTagValues) {
+      if (tag != null && !tag.isBlank()) {
+        normalizedTags.add(normalizeTag(tag));
+      }
+    }
+    for (String tag : normalizedTags) {
+      for (Map.Entry<String, Integer> token : tokenize(tag).entrySet()) {
+        freqs.merge(token.getKey(), token.getValue() * TAG_WEIGHT, Integer::sum);
+        length += token.getValue() * TAG_WEIGHT;
+      }
+    }
+    IntSet indexedTags = tagCodes.encodeAll(normalizedTags);
+
+    lock.writeLock().lock();
+    try {
+      ensureNote(note);
+      if (noteVersion[note] != UNKNOWN_VERSION
+          && version != UNKNOWN_VERSION
+          && noteVersion[note] >= version) {
+        return false;
+      }
+      if (noteVisibility[note] != DEAD) {
+        unindex(note);
+      }
+      noteVersion[note] = version;
+      if (deleted) {
+        return true;
+      }
+      noteAuthor[note] = author;
+      noteSession[note] = session;
+      noteVisibility[note] = (byte) visibility.ordinal();
+      noteLength[note] = length;
+      String[] indexedTerms = new String[freqs.size()];
+      int i = 0;
+      for (Map.Entry<String, Integer> term : freqs.entrySet()) {
+        terms.computeIfAbsent(term.getKey(), key -> new Postings()).add(note, term.getValue());
+        indexedTerms[i++] = term.getKey();
+      }
+      noteTerms[note] = indexedTerms;
+      for (int t = 0; t < indexedTags.size(); t++) {
+        tagPostings(indexedTags.get(t)).add(note, 1);
+      }
+      noteTags[note] = indexedTags;
+      ensureUser(author);
+      authorNotes[author] = insertSorted(authorNotes[author], note);
+      liveNotes++;
+      totalLength += length;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void unindex(int note) {
+    for (String term : noteTerms[note]) {
+      Postings postings = terms.get(term);
+      postings.remove(note);
+      if (postings.size == 0) {
+        terms.remove(term);
+      }
+    }
+    IntSet codes = noteTags[note];
+    for (int t = 0; t < codes.size(); t++) {
+      tagPostings[codes.get(t)].remove(note);
+    }
+    int author = noteAuthor[note];
+    authorNotes[author] = removeSorted(authorNotes[author], note);
+    noteTerms[note] = NO_TERMS;
+    noteTags[note] = IntSet.EMPTY;
+    noteVisibility[note] = DEAD;
+    liveNotes--;
+    totalLength -= noteLength[note];
+  }
+
+  private Postings tagPostings(int code) {
+    if (code >= tagPostings.length) {
+      tagPostings = Arrays.copyOf(tagPostings, Math.max(code + 1, tagPostings.length * 2));
+    }
+    if (tagPostings[code] == null) {
+      tagPostings[code] = new Postings();
+    }
+    return tagPostings[code];
+  }
+
+  private boolean readable(int note, int viewer, int[] viewerSessions) {
+    byte visibility = noteVisibility[note];
+    if (visibility == DEAD) {
+      return false;
+    }
+    if (visibility == Visibility.PUBLIC.ordinal() || noteAuthor[note] == viewer) {
+      return true;
+    }
+    return visibility == Visibility.PARTICIPANTS_ONLY.ordinal()
+        && viewerSessions.length != 0
+        && Arrays.binarySearch(viewerSessions, noteSession[note]) >= 0;
+  }
+
+  private Clause termClause(String term) {
+    Postings postings = terms.get(term);
+    if (postings == null || postings.size == 0) {
+      return null;
+    }
+    return new Clause(postings.notes, postings.size, postings.freqs, idf(postings.size), null);
+  }
+
+  /**
+   * Union of the postings of up to {@value #MAX_PREFIX_TERMS} terms starting with {@code prefix};
+   * a note scores as its best-matching term.
+   */
+  private Clause prefixClause(String prefix) {
+    Map<String, Postings> expansions = terms.subMap(prefix, prefix + Character.MAX_VALUE);
+    if (expansions.isEmpty()) {
+      return null;
+    }
+    if (expansions.size() == 1) {
+      return termClause(expansions.keySet().iterator().next());
+    }
+    List<Map.Entry<String, Postings>> chosen = new ArrayList<>(expansions.entrySet());
+    if (chosen.size() > MAX_PREFIX_TERMS) {
+      chosen.sort(Comparator.comparingInt(entry -> entry.getKey().length()));
+      chosen = chosen.subList(0, MAX_PREFIX_TERMS);
+    }
+    int total = 0;
+    for (Map.Entry<String, Postings> entry : chosen) {
+      total += entry.getValue().size;
+    }
+    long[] packed = new long[total];
+    double[] raw = new double[total];
+    int n = 0;
+    for (Map.Entry<String, Postings> entry : chosen) {
+      Postings postings = entry.getValue();
+      double idf = idf(postings.size);
+      for (int i = 0; i < postings.size; i++) {
+        packed[n] = ((long) postings.notes[i] << 32) | n;
+        raw[n] = bm25(idf, postings.freqs[i], noteLength[postings.notes[i]]);
+        n++;
+      }
+    }
+    Arrays.sort(packed);
+    int[] merged = new int[total];
+    double[] scores = new double[total];
+    int size = 0;
+    for (long entry : packed) {
+      int note = (int) (entry >>> 32);
+      double score = raw[(int) entry];
+      if (size > 0 && merged[size - 1] == note) {
+        scores[size - 1] = Math.max(scores[size - 1], score);
+      } else {
+        merged[size] = note;
+        scores[size] = score;
+        size++;
+      }
+    }
+    return new Clause(merged, size, null, 0, scores);
+  }
+
+  private double idf(int documentFrequency) {
+    return Math.log(1 + (liveNotes - documentFrequency + 0.5) / (documentFrequency + 0.5));
+  }
+
+  private double bm25(double idf, int freq, int length) {
+    double averageLength = liveNotes == 0 ? 1 : Math.max(1.0, (double) totalLength / liveNotes);
+    return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / averageLength));
+  }
+
+  private static int[] insertSorted(int[] values, int value) {
+    if (values == null) {
+      return new int[] {value};
+    }
+    int at = Arrays.binarySearch(values, value);
+    if (at >= 0) {
+      return values;
+    }
+    at = -at - 1;
+    int[] grown = new int[values.length + 1];
+    System.arraycopy(values, 0, grown, 0, at);
+    grown[at] = value;
+    System.arraycopy(values, at, grown, at + 1, values.length - at);
+    return grown;
+  }
+
+  private static int[] removeSorted(int[] values, int value) {
+    int at = values == null ? -1 : Arrays.binarySearch(values, value);
+    if (at < 0) {
+      return values;
+    }
+    int[] shrunk = new int[values.length - 1];
+    System.arraycopy(values, 0, shrunk, 0, at);
+    System.arraycopy(values, at + 1, shrunk, at, shrunk.length - at);
+    return shrunk;
+  }
+
+  private void ensureNote(int note) {
+    if (note < noteVersion.length) {
+      return;
+    }
+    int capacity = Math.max(note + 1, noteVersion.length * 2);
+    int from = noteVersion.length;
+    noteVersion = Arrays.copyOf(noteVersion, capacity);
+    noteAuthor = Arrays.copyOf(noteAuthor, capacity);
+    noteSession = Arrays.copyOf(noteSession, capacity);
+    noteVisibility = Arrays.copyOf(noteVisibility, capacity);
+    noteLength = Arrays.copyOf(noteLength, capacity);
+    noteTerms = Arrays.copyOf(noteTerms, capacity);
+    noteTags = Arrays.copyOf(noteTags, capacity);
+    Arrays.fill(noteVersion, from, capacity, UNKNOWN_VERSION);
+    Arrays.fill(noteVisibility, from, capacity, DEAD);
+  }
+
+  private void ensureUser(int user) {
+    if (user < userSessions.length) {
+      return;
+    }
+    int capacity = Math.max(user + 1, userSessions.length * 2);
+    userSessions = Arrays.copyOf(userSessions, capacity);
+    authorNotes = Arrays.copyOf(authorNotes, capacity);
+  }
+}
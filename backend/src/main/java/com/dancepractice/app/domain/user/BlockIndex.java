@@ -0,0 +1,377 @@
+package com.dancepractice.app.domain.user;
+
+// NOTE: Reference-only in-memory mirror of user_blocks; it is not mapped to a table.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Both directions of {@code user_blocks} keyed by dense user indexes from a {@link
+ * DenseIdRegistry}, so callers can exclude blocked pairs without loading {@link
+ * User#getBlockedUsers()}. Every blocking pair is kept once in an open-addressing hash of {@code
+ * long} keys (lower index in the high half) with one flag per direction, which answers "does either
+ * side block the other" in constant time. Each user's blocked and blocked-by sets are also kept as
+ * sorted {@code int} arrays for listing and for per-query exclusion.
+ *
+ * <p>Reads and writes are guarded by a read-write lock; the sorted arrays are replaced rather than
+ * mutated, so an array returned by a reader never changes underneath it.
+ */
+public final class BlockIndex {
+
+  private static final String SELECT_BLOCKS = "select user_id, blocked_user_id from user_blocks";
+  private static final int[] NONE = new int[0];
+  private static final long EMPTY = -1L;
+  private static final byte LOW_BLOCKS_HIGH = 1;
+  private static final byte HIGH_BLOCKS_LOW = 2;
+
+  private final DenseIdRegistry users;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private int[][] blocked = new int[16][];
+  private int[][] blockedBy = new int[16][];
+  private long[] pairKeys = emptyKeys(64);
+  private byte[] pairFlags = new byte[64];
+  private int pairCount;
+
+  public BlockIndex() {
+    this(new DenseIdRegistry());
+  }
+
+  /** Shares {@code users} with other indexes so dense indexes mean the same user everywhere. */
+  public BlockIndex(DenseIdRegistry users) {
+    this.users = users;
+  }
+
+  /**
+   * Streams {@code user_blocks} into a new index without touching {@link User} entities. The
+   * connection is left open.
+   */
+  public static BlockIndex load(Connection connection, DenseIdRegistry users) throws SQLException {
+    BlockIndex index = new BlockIndex(users);
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_BLOCKS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          index.block(rows.getObject(1, UUID.class), rows.getObject(2, UUID.class));
+        }
+      }
+    }
+    return index;
+  }
+
+  public DenseIdRegistry users() {
+    return users;
+  }
+
+  public boolean block(UUID userId, UUID blockedUserId) {
+    return block(users.register(userId), users.register(blockedUserId));
+  }
+
+  public boolean unblock(UUID userId, UUID blockedUserId) {
+    int user = users.indexOf(userId);
+    int other = users.indexOf(blockedUserId);
+    return user >= 0 && other >= 0 && unblock(user, other);
+  }
+
+  /** Records that {@code user} blocks {@code other}; returns {@code false} if it already did. */
+  public boolean block(int user, int other) {
+    if (user == other) {
+      return false;
+    }
+    lock.writeLock().lock();
+    try {
+      if (!setFlag(user, other)) {
+        return false;
+      }
+      ensure(Math.max(user, other));
+      blocked[user] = insert(blocked[user], other);
+      blockedBy[other] = insert(blockedBy[other], user);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean unblock(int user, int other) {
+    lock.writeLock().lock();
+    try {
+      if (!clearFlag(user, other)) {
+        return false;
+      }
+      blocked[user] = delete(blocked[user], other);
+      blockedBy[other] = delete(blockedBy[other], user);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Replaces everyone {@code user} blocks, e.g. when a whole profile row is reloaded. */
+  public void replaceBlocked(int user, int[] others) {
+    lock.writeLock().lock();
+    try {
+      for (int other : blocked(user)) {
+        unblock(user, other);
+      }
+      for (int other : others) {
+        block(user, other);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean eitherBlocks(UUID userId, UUID otherId) {
+    int user = users.indexOf(userId);
+    int other = users.indexOf(otherId);
+    return user >= 0 && other >= 0 && eitherBlocks(user, other);
+  }
+
+  /** Whether {@code user} blocks {@code other} or {@code other} blocks {@code user}. */
+  public boolean eitherBlocks(int user, int other) {
+    if (user == other) {
+      return false;
+    }
+    lock.readLock().lock();
+    try {
+      return pairCount != 0 && slot(key(user, other)) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean blocks(int user, int other) {
+    if (user == other) {
+      return false;
+    }
+    lock.readLock().lock();
+    try {
+      int slot = pairCount == 0 ? -1 : slot(key(user, other));
+      return slot >= 0 && (pairFlags[slot] & direction(user, other)) != 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Users {@code user} blocks, ascending. */
+  public int[] blocked(int user) {
+    lock.readLock().lock();
+    try {
+      return user < blocked.length && blocked[user] != null ? blocked[user] : NONE;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Users blocking {@code user}, ascending. */
+  public int[] blockedBy(int user) {
+    lock.readLock().lock();
+    try {
+      return user < blockedBy.length && blockedBy[user] != null ? blockedBy[user] : NONE;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Everyone {@code user} must never be paired with, ascending and without duplicates. Taken once
+   * per query, it turns each candidate check into a search of a (usually empty) array.
+   */
+  public int[] excluded(int user) {
+    lock.readLock().lock();
+    try {
+      int[] out = user < blocked.length && blocked[user] != null ? blocked[user] : NONE;
+      int[] in = user < blockedBy.length && blockedBy[user] != null ? blockedBy[user] : NONE;
+      if (in.length == 0) {
+        return out;
+      }
+      if (out.length == 0) {
+        return in;
+      }
+      int[] union = new int[out.length + in.length];
+      int size = 0;
+      int i = 0;
+      int j = 0;
+      while (i < out.length || j < in.length) {
+        int next =
+            j == in.length || (i < out.length && out[i] <= in[j]) ? out[i] : in[j];
+        if (i < out.length && out[i] == next) {
+          i++;
+        }
+        if (j < in.length && in[j] == next) {
+          j++;
+        }
+        union[size++] = next;
+      }
+      return size == union.length ? union : Arrays.copyOf(union, size);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Whether {@code user} occurs in an array returned by {@link #excluded(int)}. */
+  public static boolean contains(int[] excluded, int user) {
+    return excluded.length != 0 && Arrays.binarySearch(excluded, user) >= 0;
+  }
+
+  public int pairCount() {
+    lock.readLock().lock();
+    try {
+      return pairCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean setFlag(int user, int other) {
+    long key = key(user, other);
+    byte flag = direction(user, other);
+    int slot = slot(key);
+    if (slot >= 0) {
+      if ((pairFlags[slot] & flag) != 0) {
+        return false;
+      }
+      pairFlags[slot] |= flag;
+      return true;
+    }
+    if ((pairCount + 1) * 2 > pairKeys.length) {
+      rehash(pairKeys.length * 2);
+    }
+    slot = ~slot(key);
+    pairKeys[slot] = key;
+    pairFlags[slot] = flag;
+    pairCount++;
+    return true;
+  }
+
+  private boolean clearFlag(int user, int other) {
+    if (user == other || pairCount == 0) {
+      return false;
+    }
+    byte flag = direction(user, other);
+    int slot = slot(key(user, other));
+    if (slot < 0 || (pairFlags[slot] & flag) == 0) {
+      return false;
+    }
+    pairFlags[slot] &= (byte) ~flag;
+    if (pairFlags[slot] == 0) {
+      removeSlot(slot);
+    }
+    return true;
+  }
+
+  /** The slot holding {@code key}, or the complement of the free slot where it would go. */
+  private int slot(long key) {
+    int mask = pairKeys.length - 1;
+    int slot = mix(key) & mask;
+    while (true) {
+      long current = pairKeys[slot];
+      if (current == key) {
+        return slot;
+      }
+      if (current == EMPTY) {
+        return ~slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /** Linear-probing deletion: shifts later entries of the same run back instead of leaving holes. */
+  private void removeSlot(int slot) {
+    int mask = pairKeys.length - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (pairKeys[next] != EMPTY) {
+      int home = mix(pairKeys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        pairKeys[hole] = pairKeys[next];
+        pairFlags[hole] = pairFlags[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    pairKeys[hole] = EMPTY;
+    pairFlags[hole] = 0;
+    pairCount--;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = pairKeys;
+    byte[] oldFlags = pairFlags;
+    pairKeys = emptyKeys(capacity);
+    pairFlags = new byte[capacity];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = ~slot(oldKeys[i]);
+        pairKeys[slot] = oldKeys[i];
+        pairFlags[slot] = oldFlags[i];
+      }
+    }
+  }
+
+  private void ensure(int user) {
+    if (user >= blocked.length) {
+      int grown = Math.max(blocked.length * 2, user + 1);
+      blocked = Arrays.copyOf(blocked, grown);
+      blockedBy = Arrays.copyOf(blockedBy, grown);
+    }
+  }
+
+  private static int[] insert(int[] sorted, int value) {
+    if (sorted == null) {
+      return new int[] {value};
+    }
+    int at = Arrays.binarySearch(sorted, value);
+    if (at >= 0) {
+      return sorted;
+    }
+    at = ~at;
+    int[] grown = new int[sorted.length + 1];
+    System.arraycopy(sorted, 0, grown, 0, at);
+    grown[at] = value;
+    System.arraycopy(sorted, at, grown, at + 1, sorted.length - at);
+    return grown;
+  }
+
+  private static int[] delete(int[] sorted, int value) {
+    int at = sorted == null ? -1 : Arrays.binarySearch(sorted, value);
+    if (at < 0) {
+      return sorted;
+    }
+    if (sorted.length == 1) {
+      return NONE;
+    }
+    int[] shrunk = new int[sorted.length - 1];
+    System.arraycopy(sorted, 0, shrunk, 0, at);
+    System.arraycopy(sorted, at + 1, shrunk, at, sorted.length - at - 1);
+    return shrunk;
+  }
+
+  private static long key(int user, int other) {
+    int low = Math.min(user, other);
+    int high = Math.max(user, other);
+    return ((long) low << 32) | (high & 0xFFFFFFFFL);
+  }
+
+  private static byte direction(int user, int other) {
+    return user < other ? LOW_BLOCKS_HIGH : HIGH_BLOCKS_LOW;
+  }
+
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static long[] emptyKeys(int capacity) {
+    long[] keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    return keys;
+  }
+}
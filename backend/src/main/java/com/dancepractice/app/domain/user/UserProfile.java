@@ -0,0 +1,50 @@
+package com.dancepractice.app.domain.user;
+
+// NOTE: Reference-only projection of user_profiles; it is not mapped to a table.
+
+import com.dancepractice.app.domain.common.AccountStatus;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a {@link User} that lists and cards show, without the element collections and
+ * associations that make the entity expensive to load. {@code wsdcSkillLevel} and {@code
+ * homeLocationId} may be {@code null}.
+ */
+public record UserProfile(
+    UUID id,
+    long version,
+    Instant updatedAt,
+    boolean deleted,
+    String firstName,
+    String lastName,
+    String displayName,
+    PrimaryRole primaryRole,
+    WsdcSkillLevel wsdcSkillLevel,
+    AccountStatus accountStatus,
+    boolean profileVisible,
+    UUID homeLocationId) {
+
+  public static UserProfile of(User user) {
+    return new UserProfile(
+        user.getId(),
+        user.getVersion() == null ? 0 : user.getVersion(),
+        user.getUpdatedAt(),
+        user.isDeleted(),
+        user.getFirstName(),
+        user.getLastName(),
+        user.getDisplayName(),
+        user.getPrimaryRole(),
+        user.getWsdcSkillLevel(),
+        user.getAccountStatus(),
+        user.isProfileVisible(),
+        user.getHomeLocation() == null ? null : user.getHomeLocation().getId());
+  }
+
+  /** {@code displayName}, or first and last name when it is blank. */
+  public String name() {
+    return displayName == null || displayName.isBlank() ? firstName + " " + lastName : displayName;
+  }
+}
@@ -0,0 +1,108 @@
+package com.dancepractice.app.domain.user;
+
+// NOTE: Reference-only cache of user_profiles rows; no Spring Boot backend wires it up.
+
+import com.dancepractice.app.common.cache.EntityCache;
+import com.dancepractice.app.domain.common.AccountStatus;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Read-through {@link EntityCache} of {@link UserProfile} projections, for the organizer,
+ * participant and candidate names that session lists and match results show next to every row.
+ * Misses are read straight from {@code user_profiles} with one {@code = any(?)} query per batch, so
+ * no {@link User} entity is hydrated. Profile edits reach the cache through {@link #update(User)};
+ * an older {@code version} is ignored and a soft-deleted profile reads as absent from then on.
+ */
+public final class UserProfileCache {
+
+  private static final String SELECT_PROFILES =
+      "select id, version, updated_at, first_name, last_name, display_name, primary_role,"
+          + " wsdc_level, account_status, profile_visible, home_location_id from user_profiles"
+          + " where id = any(?) and deleted_at is null";
+
+  private static final PrimaryRole[] ROLES = PrimaryRole.values();
+  private static final WsdcSkillLevel[] LEVELS = WsdcSkillLevel.values();
+  private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+  private final DataSource dataSource;
+  private final EntityCache<UUID, UserProfile> cache;
+
+  public UserProfileCache(DataSource dataSource, int maximumSize) {
+    this.dataSource = dataSource;
+    this.cache =
+        EntityCache.<UUID, UserProfile>builder(this::load)
+            .version(UserProfile::version)
+            .updatedAt(UserProfile::updatedAt)
+            .deleted(UserProfile::deleted)
+            .maximumSize(maximumSize)
+            .build();
+  }
+
+  public UserProfile get(UUID userId) {
+    return cache.get(userId);
+  }
+
+  public Map<UUID, UserProfile> getAll(Collection<UUID> userIds) {
+    return cache.getAll(userIds);
+  }
+
+  /** Applies a changed or soft-deleted profile if a copy is cached; see {@link EntityCache}. */
+  public boolean update(User user) {
+    return cache.update(user.getId(), UserProfile.of(user));
+  }
+
+  public void invalidate(UUID userId) {
+    cache.invalidate(userId);
+  }
+
+  public EntityCache.Stats stats() {
+    return cache.stats();
+  }
+
+  private Map<UUID, UserProfile> load(Set<UUID> userIds) {
+    Map<UUID, UserProfile> profiles = new HashMap<>();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement select = connection.prepareStatement(SELECT_PROFILES)) {
+      Array ids = connection.createArrayOf("uuid", userIds.toArray(new UUID[0]));
+      select.setArray(1, ids);
+      try (ResultSet rows = select.executeQuery()) {
+        while (rows.next()) {
+          UUID id = rows.getObject(1, UUID.class);
+          int level = rows.getInt(8);
+          WsdcSkillLevel wsdcLevel = rows.wasNull() ? null : LEVELS[level];
+          profiles.put(
+              id,
+              new UserProfile(
+                  id,
+                  rows.getLong(2),
+                  rows.getTimestamp(3).toInstant(),
+                  false,
+                  rows.getString(4),
+                  rows.getString(5),
+                  rows.getString(6),
+                  ROLES[rows.getInt(7)],
+                  wsdcLevel,
+                  STATUSES[rows.getInt(9)],
+                  rows.getBoolean(10),
+                  rows.getObject(11, UUID.class)));
+        }
+      }
+      ids.free();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Loading user profiles failed", e);
+    }
+    return profiles;
+  }
+}
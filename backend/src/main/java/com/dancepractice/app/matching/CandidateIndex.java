@@ -0,0 +1,180 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only inverted index over schedule_preferences; no Spring Boot backend maintains it.
+
+import com.dancepractice.app.common.index.SortedIntSet;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Inverted index from (home city, weekday, preferred partner role, skill level) to posting lists
+ * of candidate preference indexes, so candidate generation only touches preferences that share a
+ * weekday with the caller. A preference with no preferred roles is filed under an "any role" slot
+ * that every role filter includes; the level is the candidate user's {@code wsdc_level}, with
+ * {@code null} filed as level 0 like the RPC scores it.
+ *
+ * <p>Every listed preference is also filed by weekday alone, independent of city, so candidates
+ * from a radius query can be narrowed by intersection. Postings are {@link SortedIntSet}s updated
+ * one preference at a time; the owner removes a preference with the attributes it was added with
+ * before re-adding it. Not thread-safe: {@link CandidatePool} guards it with its own lock.
+ */
+final class CandidateIndex {
+
+  /** Mask selecting every role or every level. */
+  static final int ALL = -1;
+
+  static final int DAYS = 7;
+  static final int ROLES = PrimaryRole.values().length;
+  static final int ANY_ROLE = ROLES;
+  static final int LEVELS = WsdcSkillLevel.values().length;
+  private static final int SLOTS = DAYS * (ROLES + 1) * LEVELS;
+
+  private final List<SortedIntSet[]> cities = new ArrayList<>();
+  private final SortedIntSet[] days = new SortedIntSet[DAYS];
+  private int bound;
+
+  CandidateIndex() {
+    for (int day = 0; day < DAYS; day++) {
+      days[day] = new SortedIntSet();
+    }
+  }
+
+  /**
+   * Files {@code preference} under every weekday in {@code dayMask} and every role in {@code
+   * roleMask} (or the any-role slot when it is empty). {@code city} may be {@link
+   * CandidatePool#NO_CITY}, in which case only the weekday postings are updated.
+   */
+  void add(int preference, int city, int dayMask, int roleMask, int level) {
+    bound = Math.max(bound, preference + 1);
+    SortedIntSet[] slots = city < 0 ? null : slots(city);
+    for (int day = 0; day < DAYS; day++) {
+      if ((dayMask & (1 << day)) == 0) {
+        continue;
+      }
+      days[day].add(preference);
+      if (slots == null) {
+        continue;
+      }
+      for (int role : fileSlots(roleMask)) {
+        int slot = slot(day, role, level);
+        if (slots[slot] == null) {
+          slots[slot] = new SortedIntSet();
+        }
+        slots[slot].add(preference);
+      }
+    }
+  }
+
+  void remove(int preference, int city, int dayMask, int roleMask, int level) {
+    SortedIntSet[] slots = city < 0 || city >= cities.size() ? null : cities.get(city);
+    for (int day = 0; day < DAYS; day++) {
+      if ((dayMask & (1 << day)) == 0) {
+        continue;
+      }
+      days[day].remove(preference);
+      if (slots == null) {
+        continue;
+      }
+      for (int role : fileSlots(roleMask)) {
+        SortedIntSet posting = slots[slot(day, role, level)];
+        if (posting != null) {
+          posting.remove(preference);
+        }
+      }
+    }
+  }
+
+  /**
+   * Ascending preferences in {@code city} available on any weekday of {@code dayMask}, open to a
+   * partner of any role in {@code roleMask}, whose user's level is in {@code levelMask}.
+   */
+  int[] query(int city, int dayMask, int roleMask, int levelMask) {
+    if (city < 0 || city >= cities.size()) {
+      return new int[0];
+    }
+    SortedIntSet[] slots = cities.get(city);
+    int[] roles = roleSlots(roleMask);
+    BitSet found = new BitSet(bound);
+    for (int day = 0; day < DAYS; day++) {
+      if ((dayMask & (1 << day)) == 0) {
+        continue;
+      }
+      for (int role : roles) {
+        for (int level = 0; level < LEVELS; level++) {
+          SortedIntSet posting = slots[slot(day, role, level)];
+          if ((levelMask & (1 << level)) != 0 && posting != null) {
+            posting.orInto(found);
+          }
+        }
+      }
+    }
+    return found.stream().toArray();
+  }
+
+  /** Ascending preferences in any city available on any weekday of {@code dayMask}. */
+  int[] query(int dayMask) {
+    BitSet found = new BitSet(bound);
+    for (int day = 0; day < DAYS; day++) {
+      if ((dayMask & (1 << day)) != 0) {
+        days[day].orInto(found);
+      }
+    }
+    return found.stream().toArray();
+  }
+
+  /** The members of the ascending {@code candidates} available on any weekday of {@code dayMask}. */
+  int[] retainDays(int[] candidates, int dayMask) {
+    return SortedIntSet.intersect(candidates, query(dayMask));
+  }
+
+  static int roleMask(Iterable<PrimaryRole> roles) {
+    int mask = 0;
+    for (PrimaryRole role : roles) {
+      mask |= 1 << role.ordinal();
+    }
+    return mask;
+  }
+
+  private SortedIntSet[] slots(int city) {
+    while (cities.size() <= city) {
+      cities.add(new SortedIntSet[SLOTS]);
+    }
+    return cities.get(city);
+  }
+
+  /** The role slots a preference with these preferred roles is filed under. */
+  private static int[] fileSlots(int roleMask) {
+    if (roleMask == 0) {
+      return new int[] {ANY_ROLE};
+    }
+    int[] slots = new int[Integer.bitCount(roleMask)];
+    int count = 0;
+    for (int role = 0; role < ROLES; role++) {
+      if ((roleMask & (1 << role)) != 0) {
+        slots[count++] = role;
+      }
+    }
+    return slots;
+  }
+
+  /** The role slots a query for partners of these roles looks in, always including any-role. */
+  private static int[] roleSlots(int roleMask) {
+    int mask = roleMask == ALL ? (1 << ROLES) - 1 : roleMask & ((1 << ROLES) - 1);
+    int[] slots = new int[Integer.bitCount(mask) + 1];
+    int count = 0;
+    for (int role = 0; role < ROLES; role++) {
+      if ((mask & (1 << role)) != 0) {
+        slots[count++] = role;
+      }
+    }
+    slots[count] = ANY_ROLE;
+    return slots;
+  }
+
+  private static int slot(int day, int role, int level) {
+    return (day * (ROLES + 1) + role) * LEVELS + level;
+  }
+}
@@ -0,0 +1,838 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only in-memory mirror of the Supabase matching tables; no Spring Boot backend loads it.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.common.index.IntArrayList;
+import com.dancepractice.app.domain.common.AccountStatus;
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.location.Location;
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.schedule.WeeklyAvailability;
+import com.dancepractice.app.domain.user.BlockIndex;
+import com.dancepractice.app.domain.user.User;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of everything {@code find_matches_for_current_user} reads: per-user level,
+ * home city and blocks, and per-preference focus areas and recurring windows. Blocks live in a
+ * {@link BlockIndex} sharing the pool's user indexes. Users and preferences are addressed by dense
+ * {@code int} indexes, focus areas are a bitmask, and windows are kept twice: as a {@link
+ * WeeklyAvailability} bitmap for the hot path and as sorted seconds-of-week ranges for exact
+ * minutes when a schedule is not quarter-hour aligned.
+ *
+ * <p>Preferences of visible users are filed in a {@link CandidateIndex} by home city, weekday,
+ * preferred role and level, so the matcher only ever sees candidates sharing a weekday with the
+ * caller. Hidden profiles can still search but are never filed.
+ *
+ * <p>One-time ({@code specific_date}) windows are kept apart from the weekly ones, as packed
+ * per-date entries, and listed preferences are filed by date in a {@link DatedAvailabilityIndex}
+ * for searches over a concrete date range. Entries dated before today are dropped on every write
+ * and by {@link #advance()}, so one-off windows that have passed cost nothing.
+ *
+ * <p>Visible candidates are also linked in a {@link LocationIndex} to their home location and
+ * their preference's preferred locations, so a caller with {@code maxTravelDistanceKm} set can be
+ * matched by distance instead of by home city.
+ *
+ * <p>The pool is updated in place as rows change. Each upsert carries the entity's {@code version}
+ * and is ignored when the pool already holds that version or a newer one, so replayed or
+ * out-of-order change events are harmless. Package-private readers expect the caller to hold
+ * {@link #readLock()}.
+ */
+public final class CandidatePool {
+
+  static final int SECONDS_PER_DAY = 24 * 60 * 60;
+  static final int NO_CITY = -1;
+  static final int NO_PREFERENCE = -1;
+  static final int NO_TRAVEL_LIMIT = -1;
+
+  /** Slots 64..95 of a day, the part of its second word that belongs to it. */
+  private static final long DAY_HIGH_BITS = (1L << (WeeklyAvailability.SLOTS_PER_DAY - 64)) - 1;
+
+  private static final int[] NO_WINDOWS = new int[0];
+  private static final UUID[] NO_PLACES = new UUID[0];
+  private static final double[] NO_COORDINATES = new double[0];
+  private static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LocationIndex locations = new LocationIndex();
+  private final Map<String, Integer> cityIds = new HashMap<>();
+  private final List<String> cityNames = new ArrayList<>();
+  private final CandidateIndex candidates = new CandidateIndex();
+  private final Clock clock;
+  private final DatedAvailabilityIndex dated;
+
+  private final DenseIdRegistry users = new DenseIdRegistry();
+  private final BlockIndex blocks = new BlockIndex(users);
+  private long[] userVersion = new long[16];
+  private byte[] userLevel = new byte[16];
+  private int[] userCity = new int[16];
+  private boolean[] userVisible = new boolean[16];
+  private boolean[] userActive = new boolean[16];
+  private UUID[] userHome = new UUID[16];
+  private double[] userHomeCoordinates = new double[32];
+  private IntArrayList[] userPreferences = new IntArrayList[16];
+  private int[] userLatestPreference = new int[16];
+
+  private final DenseIdRegistry preferences = new DenseIdRegistry();
+  private long[] preferenceVersion = new long[16];
+  private Instant[] preferenceCreatedAt = new Instant[16];
+  private boolean[] preferenceLive = new boolean[16];
+  private int[] preferenceUser = new int[16];
+  private int[] preferenceFocus = new int[16];
+  private byte[] preferenceDays = new byte[16];
+  private byte[] preferenceRoles = new byte[16];
+  private int[] preferenceSeconds = new int[16];
+  private byte[] preferenceDepth = new byte[16];
+  private long[] preferenceSlots = new long[16 * WeeklyAvailability.WORDS];
+  private boolean[] preferenceExact = new boolean[16];
+  private int[] preferenceTravelKm = new int[16];
+  private UUID[][] preferencePlaces = new UUID[16][];
+  private double[][] preferencePlaceCoordinates = new double[16][];
+  private int[][] preferenceWindows = new int[16][];
+  private long[][] preferenceDated = new long[16][];
+
+  public CandidatePool() {
+    this(Clock.systemUTC());
+  }
+
+  /** {@code clock} decides which one-time windows are in the past. */
+  public CandidatePool(Clock clock) {
+    this.clock = clock;
+    this.dated = new DatedAvailabilityIndex(LocalDate.now(clock).toEpochDay());
+  }
+
+  /**
+   * Builds a pool from preferences whose {@link SchedulePreference#getUser() user}, home location,
+   * blocks, windows and focus areas are already initialised. Soft-deleted rows are skipped.
+   */
+  public static CandidatePool of(Collection<SchedulePreference> preferences) {
+    CandidatePool pool = new CandidatePool();
+    Set<User> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (SchedulePreference preference : preferences) {
+      if (seen.add(preference.getUser())) {
+        pool.upsertUser(preference.getUser());
+      }
+    }
+    for (SchedulePreference preference : preferences) {
+      pool.upsertPreference(preference);
+    }
+    return pool;
+  }
+
+  public int userCount() {
+    return users.size();
+  }
+
+  public int preferenceCount() {
+    return preferences.size();
+  }
+
+  /**
+   * Applies a user's level, visibility, home location and outgoing blocks. Returns {@code false}
+   * without changing anything when the pool already has this or a newer {@code version}. A
+   * soft-deleted user is hidden from every candidate list.
+   */
+  public boolean upsertUser(User user) {
+    lock.writeLock().lock();
+    try {
+      roll();
+      int index = ensureUser(user.getId());
+      if (!newer(userVersion[index], user.getVersion())) {
+        return false;
+      }
+      unlistUser(index);
+      userVersion[index] = versionOf(user.getVersion());
+      WsdcSkillLevel level = user.getWsdcSkillLevel();
+      userLevel[index] = (byte) (level == null ? 0 : level.ordinal());
+      userVisible[index] = user.isProfileVisible() && !user.isDeleted();
+      userActive[index] =
+          !user.isDeleted()
+              && (user.getAccountStatus() == null
+                  || user.getAccountStatus() == AccountStatus.ACTIVE);
+      Location home = user.getHomeLocation();
+      boolean liveHome = home != null && !home.isDeleted();
+      userHome[index] = liveHome ? home.getId() : null;
+      userCity[index] = liveHome && home.getCity() != null ? cityId(home.getCity()) : NO_CITY;
+      boolean located = LocationIndex.hasCoordinates(home);
+      userHomeCoordinates[2 * index] = located ? home.getLatitude() : Double.NaN;
+      userHomeCoordinates[2 * index + 1] = located ? home.getLongitude() : Double.NaN;
+      if (located) {
+        locations.upsert(home);
+      }
+      int[] blocking = new int[user.getBlockedUsers().size()];
+      int count = 0;
+      for (User blocked : user.getBlockedUsers()) {
+        blocking[count++] = ensureUser(blocked.getId());
+      }
+      blocks.replaceBlocked(index, blocking);
+      listUser(index);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a preference's windows, focus areas, travel distance and preferred locations, or
+   * drops it when soft-deleted. The owning user must have been {@linkplain #upsertUser upserted}
+   * first. Returns {@code false} when the pool already has this or a newer {@code version}.
+   */
+  public boolean upsertPreference(SchedulePreference preference) {
+    lock.writeLock().lock();
+    try {
+      roll();
+      int index = ensurePreference(preference.getId());
+      if (!newer(preferenceVersion[index], preference.getVersion())) {
+        return false;
+      }
+      int previousUser = preferenceUser[index];
+      unlist(index);
+      if (preferenceLive[index]) {
+        userPreferences[previousUser].removeValue(index);
+        refreshLatest(previousUser);
+      }
+      preferenceVersion[index] = versionOf(preference.getVersion());
+      boolean live = !preference.isDeleted() && !preference.getUser().isDeleted();
+      preferenceLive[index] = live;
+      if (!live) {
+        return true;
+      }
+      int user = ensureUser(preference.getUser().getId());
+      preferenceUser[index] = user;
+      preferenceCreatedAt[index] = preference.getCreatedAt();
+      preferenceFocus[index] = focusMask(preference.getPreferredFocusAreas());
+      preferenceRoles[index] = (byte) CandidateIndex.roleMask(preference.getPreferredRoles());
+      Integer travelKm = preference.getMaxTravelDistanceKm();
+      preferenceTravelKm[index] = travelKm == null ? NO_TRAVEL_LIMIT : Math.max(0, travelKm);
+      WeeklyAvailability availability = WeeklyAvailability.of(preference);
+      availability.copyWords(preferenceSlots, index * WeeklyAvailability.WORDS);
+      preferenceExact[index] = availability.isExact();
+      storeWindows(index, preference.getAvailabilityWindows());
+      storePlaces(index, preference.getPreferredLocations());
+      userPreferences[user].add(index);
+      refreshLatest(user);
+      list(index);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records that {@code userId} started or stopped blocking {@code blockedUserId}. Blocks do not
+   * bump either profile's version, so they are applied unconditionally.
+   */
+  public void setBlocked(UUID userId, UUID blockedUserId, boolean blocked) {
+    lock.writeLock().lock();
+    try {
+      int user = ensureUser(userId);
+      int other = ensureUser(blockedUserId);
+      if (blocked) {
+        blocks.block(user, other);
+      } else {
+        blocks.unblock(user, other);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops one-time windows dated before today. Writes do this as well, so this is only needed to
+   * keep an otherwise idle pool trimmed.
+   */
+  public void advance() {
+    lock.writeLock().lock();
+    try {
+      roll();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * The location index the pool's candidates are linked into; callers may move or drop locations
+   * in it as {@code locations} rows change.
+   */
+  public LocationIndex locations() {
+    return locations;
+  }
+
+  /** Blocks between pool users, addressed by the same dense indexes as the pool. */
+  public BlockIndex blocks() {
+    return blocks;
+  }
+
+  Lock readLock() {
+    return lock.readLock();
+  }
+
+  int userIndex(UUID profileId) {
+    return users.indexOf(profileId);
+  }
+
+  UUID userId(int user) {
+    return users.idAt(user);
+  }
+
+  long userVersion(int user) {
+    return userVersion[user];
+  }
+
+  int level(int user) {
+    return userLevel[user];
+  }
+
+  int city(int user) {
+    return userCity[user];
+  }
+
+  String cityName(int city) {
+    return cityNames.get(city);
+  }
+
+  /** Not soft-deleted and in {@link AccountStatus#ACTIVE} standing. */
+  boolean active(int user) {
+    return userActive[user];
+  }
+
+  boolean blocked(int user, int other) {
+    return blocks.eitherBlocks(user, other);
+  }
+
+  /** Users {@code user} is never matched with; see {@link BlockIndex#excluded(int)}. */
+  int[] excluded(int user) {
+    return blocks.excluded(user);
+  }
+
+  int latestPreference(int user) {
+    return userLatestPreference[user];
+  }
+
+  int preferenceIndex(UUID preferenceId) {
+    return preferences.indexOf(preferenceId);
+  }
+
+  UUID preferenceId(int preference) {
+    return preferences.idAt(preference);
+  }
+
+  long preferenceVersion(int preference) {
+    return preferenceVersion[preference];
+  }
+
+  int preferenceUser(int preference) {
+    return preferenceUser[preference];
+  }
+
+  /** Live preferences of {@code user}. */
+  IntArrayList userPreferences(int user) {
+    return userPreferences[user];
+  }
+
+  /** A live preference of a visible user, i.e. one that appears in candidate lists. */
+  boolean listed(int preference) {
+    return preferenceLive[preference] && userVisible[preferenceUser[preference]];
+  }
+
+  int focusMask(int preference) {
+    return preferenceFocus[preference];
+  }
+
+  /** Bitmask of the weekdays ({@code 1 << DayOfWeek.ordinal()}) with a recurring window. */
+  int dayMask(int preference) {
+    return preferenceDays[preference];
+  }
+
+  /** Quarter-hour slots both preferences are available; zero means no window overlaps. */
+  int sharedSlots(int preference, int other) {
+    return WeeklyAvailability.sharedSlots(
+        preferenceSlots,
+        preference * WeeklyAvailability.WORDS,
+        preferenceSlots,
+        other * WeeklyAvailability.WORDS);
+  }
+
+  /** Whether {@link #sharedSlots} of two exact preferences equals their overlapping minutes / 15. */
+  boolean exact(int preference) {
+    return preferenceExact[preference];
+  }
+
+  WeeklyAvailability availability(int preference) {
+    return WeeklyAvailability.fromWords(
+        preferenceSlots, preference * WeeklyAvailability.WORDS, preferenceExact[preference]);
+  }
+
+  /**
+   * Upper bound on {@link #overlapSeconds}: every second of one side's windows can be counted at
+   * most once per window of the other side that covers it, i.e. at most that side's nesting depth.
+   */
+  long overlapBound(int preference, int other) {
+    return Math.min(
+        (long) preferenceSeconds[preference] * preferenceDepth[other],
+        (long) preferenceSeconds[other] * preferenceDepth[preference]);
+  }
+
+  int windowCount(int preference) {
+    return preferenceWindows[preference].length / 2;
+  }
+
+  /** Epoch day before which one-time windows have been dropped. */
+  long today() {
+    return dated.today();
+  }
+
+  /**
+   * Fills {@code target} with two words per date of {@code [fromDay, toDay]}: the preference's
+   * quarter-hour slots that day, recurring and one-time together. Returns whether any is set.
+   */
+  boolean dayWords(int preference, long fromDay, long toDay, long[] target) {
+    int base = preference * WeeklyAvailability.WORDS;
+    long any = 0;
+    for (long day = fromDay; day <= toDay; day++) {
+      int at = (int) (day - fromDay) * 2;
+      int first = Math.floorMod(day + 3, 7) * WeeklyAvailability.SLOTS_PER_DAY;
+      target[at] = slotWord(base, first);
+      target[at + 1] = slotWord(base, first + Long.SIZE) & DAY_HIGH_BITS;
+    }
+    long[] entries = preferenceDated[preference];
+    int i = lowerBound(entries, fromDay);
+    for (; i < entries.length && DatedAvailabilityIndex.day(entries[i]) <= toDay; i++) {
+      int at = (int) (DatedAvailabilityIndex.day(entries[i]) - fromDay) * 2;
+      for (int slot = DatedAvailabilityIndex.fromSlot(entries[i]);
+          slot < DatedAvailabilityIndex.toSlot(entries[i]);
+          slot++) {
+        target[at + (slot >>> 6)] |= 1L << slot;
+      }
+    }
+    for (int at = 0; at < (toDay - fromDay + 1) * 2; at++) {
+      any |= target[at];
+    }
+    return any != 0;
+  }
+
+  /**
+   * Listed preferences, ascending, of users homed in {@code city} (or anywhere, for {@link
+   * #NO_CITY}) with a one-time window in {@code [fromDay, toDay]}.
+   */
+  int[] datedPreferences(int city, long fromDay, long toDay) {
+    return city == NO_CITY ? dated.query(fromDay, toDay) : dated.query(city, fromDay, toDay);
+  }
+
+  /** Bitmask of the preference's {@code preferredRoles}; zero means open to any role. */
+  int roleMask(int preference) {
+    return preferenceRoles[preference];
+  }
+
+  /**
+   * Listed preferences, ascending, of users whose home is in {@code city}, with a recurring window
+   * on a weekday in {@code dayMask}, open to a partner role in {@code roleMask} and at a level in
+   * {@code levelMask}; see {@link CandidateIndex#query(int, int, int, int)}.
+   */
+  int[] cityPreferences(int city, int dayMask, int roleMask, int levelMask) {
+    return candidates.query(city, dayMask, roleMask, levelMask);
+  }
+
+  /** The members of the ascending {@code preferences} with a recurring window in {@code dayMask}. */
+  int[] retainDays(int[] preferences, int dayMask) {
+    return candidates.retainDays(preferences, dayMask);
+  }
+
+  /** The preference's {@code maxTravelDistanceKm}, or {@link #NO_TRAVEL_LIMIT}. */
+  int travelKm(int preference) {
+    return preferenceTravelKm[preference];
+  }
+
+  /** Whether the preference has a travel limit and at least one located origin to measure from. */
+  boolean searchesByRadius(int preference) {
+    return preferenceTravelKm[preference] != NO_TRAVEL_LIMIT && origins(preference).length > 0;
+  }
+
+  /**
+   * Listed preferences linked to a location within the preference's travel distance of its user's
+   * home or any of its preferred locations, or {@code null} when the preference does not {@linkplain
+   * #searchesByRadius search by radius}.
+   */
+  int[] preferencesWithinTravel(int preference) {
+    double[] origins = origins(preference);
+    int radius = preferenceTravelKm[preference];
+    if (radius == NO_TRAVEL_LIMIT || origins.length == 0) {
+      return null;
+    }
+    BitSet found = new BitSet(preferences.size());
+    for (int i = 0; i < origins.length; i += 2) {
+      locations.ownersWithin(origins[i], origins[i + 1], radius, found);
+    }
+    return found.stream().toArray();
+  }
+
+  /** Whether {@code candidate} would be returned by {@link #preferencesWithinTravel(int)}. */
+  boolean withinTravel(int preference, int candidate) {
+    double[] origins = origins(preference);
+    double[] places = origins(candidate);
+    int radius = preferenceTravelKm[preference];
+    for (int i = 0; i < origins.length; i += 2) {
+      for (int j = 0; j < places.length; j += 2) {
+        if (LocationIndex.distanceKm(origins[i], origins[i + 1], places[j], places[j + 1])
+            <= radius) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sums overlapping seconds across every pair of recurring windows, exactly like the RPC's
+   * {@code least(end) - greatest(start)} join, and stores the number of overlapping pairs in
+   * {@code pairs[0]}. Windows are sorted by start so the inner loop stops at the first window that
+   * begins after the outer one ends.
+   */
+  long overlapSeconds(int preference, int other, int[] pairs) {
+    int[] windows = preferenceWindows[preference];
+    int[] otherWindows = preferenceWindows[other];
+    long total = 0;
+    int count = 0;
+    for (int i = 0; i < windows.length; i += 2) {
+      int start = windows[i];
+      int stop = windows[i + 1];
+      for (int j = 0; j < otherWindows.length; j += 2) {
+        int otherStart = otherWindows[j];
+        if (otherStart >= stop) {
+          break;
+        }
+        int otherStop = otherWindows[j + 1];
+        if (start < otherStop) {
+          total += Math.min(stop, otherStop) - Math.max(start, otherStart);
+          count++;
+        }
+      }
+    }
+    pairs[0] = count;
+    return total;
+  }
+
+  /** 64 slots of the preference's week starting at slot {@code first}; past the week reads 0. */
+  private long slotWord(int base, int first) {
+    int word = first >>> 6;
+    int shift = first & 63;
+    long low = preferenceSlots[base + word] >>> shift;
+    if (shift == 0 || word + 1 >= WeeklyAvailability.WORDS) {
+      return low;
+    }
+    return low | preferenceSlots[base + word + 1] << (Long.SIZE - shift);
+  }
+
+  /** Index of the first entry dated on or after {@code day}. */
+  private static int lowerBound(long[] entries, long day) {
+    int low = 0;
+    int high = entries.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (DatedAvailabilityIndex.day(entries[mid]) < day) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Moves the dated index to the clock's today and trims the entries of evicted preferences. */
+  private void roll() {
+    long today = LocalDate.now(clock).toEpochDay();
+    for (int preference : dated.advance(today)) {
+      long[] entries = preferenceDated[preference];
+      int past = lowerBound(entries, today);
+      preferenceDated[preference] =
+          past == entries.length
+              ? DatedAvailabilityIndex.NO_ENTRIES
+              : Arrays.copyOfRange(entries, past, entries.length);
+    }
+  }
+
+  static int focusMask(Collection<FocusArea> focusAreas) {
+    int mask = 0;
+    for (FocusArea focusArea : focusAreas) {
+      mask |= 1 << focusArea.ordinal();
+    }
+    return mask;
+  }
+
+  static int secondOfWeek(AvailabilityWindow window, boolean end) {
+    LocalTime time = end ? window.getEndTime() : window.getStartTime();
+    int second = time.equals(LocalTime.MAX) ? SECONDS_PER_DAY : time.toSecondOfDay();
+    return window.getDayOfWeek().ordinal() * SECONDS_PER_DAY + second;
+  }
+
+  private static boolean newer(long current, Long incoming) {
+    return current == UNKNOWN_VERSION || incoming == null || incoming > current;
+  }
+
+  private static long versionOf(Long version) {
+    return version == null ? UNKNOWN_VERSION : version;
+  }
+
+  /** The user's located home followed by the preference's located preferred locations. */
+  private double[] origins(int preference) {
+    int user = preferenceUser[preference];
+    double[] places = preferencePlaceCoordinates[preference];
+    if (Double.isNaN(userHomeCoordinates[2 * user])) {
+      return places;
+    }
+    double[] origins = new double[places.length + 2];
+    origins[0] = userHomeCoordinates[2 * user];
+    origins[1] = userHomeCoordinates[2 * user + 1];
+    System.arraycopy(places, 0, origins, 2, places.length);
+    return origins;
+  }
+
+  private void list(int preference) {
+    if (!listed(preference)) {
+      return;
+    }
+    int user = preferenceUser[preference];
+    candidates.add(
+        preference,
+        userCity[user],
+        preferenceDays[preference],
+        preferenceRoles[preference],
+        userLevel[user]);
+    dated.add(preference, userCity[user], preferenceDated[preference]);
+    if (userHome[user] != null) {
+      locations.link(userHome[user], preference);
+    }
+    for (UUID place : preferencePlaces[preference]) {
+      locations.link(place, preference);
+    }
+  }
+
+  private void unlist(int preference) {
+    if (!listed(preference)) {
+      return;
+    }
+    int user = preferenceUser[preference];
+    candidates.remove(
+        preference,
+        userCity[user],
+        preferenceDays[preference],
+        preferenceRoles[preference],
+        userLevel[user]);
+    dated.remove(preference, userCity[user], preferenceDated[preference]);
+    if (userHome[user] != null) {
+      locations.unlink(userHome[user], preference);
+    }
+    for (UUID place : preferencePlaces[preference]) {
+      locations.unlink(place, preference);
+    }
+  }
+
+  private void listUser(int user) {
+    IntArrayList owned = userPreferences[user];
+    for (int i = 0; i < owned.size(); i++) {
+      list(owned.get(i));
+    }
+  }
+
+  private void unlistUser(int user) {
+    IntArrayList owned = userPreferences[user];
+    for (int i = 0; i < owned.size(); i++) {
+      unlist(owned.get(i));
+    }
+  }
+
+  private void refreshLatest(int user) {
+    IntArrayList owned = userPreferences[user];
+    int latest = NO_PREFERENCE;
+    for (int i = 0; i < owned.size(); i++) {
+      int preference = owned.get(i);
+      if (latest == NO_PREFERENCE || createdAfter(preference, latest)) {
+        latest = preference;
+      }
+    }
+    userLatestPreference[user] = latest;
+  }
+
+  /** Newest first like {@code order by created_at desc}; a tie goes to the earlier-seen row. */
+  private boolean createdAfter(int preference, int other) {
+    Instant created = preferenceCreatedAt[preference];
+    Instant otherCreated = preferenceCreatedAt[other];
+    if (created == null || otherCreated == null) {
+      return otherCreated == null && created != null;
+    }
+    return created.isAfter(otherCreated) || (created.equals(otherCreated) && preference < other);
+  }
+
+  private void storeWindows(int preference, Collection<AvailabilityWindow> windows) {
+    int[] packed = new int[windows.size() * 2];
+    int count = 0;
+    int days = 0;
+    long[] entries = new long[windows.size()];
+    int entryCount = 0;
+    for (AvailabilityWindow window : windows) {
+      if (!window.isRecurring()
+          && window.getSpecificDate() != null
+          && window.getStartTime() != null
+          && window.getEndTime() != null) {
+        long day = window.getSpecificDate().toEpochDay();
+        long entry = DatedAvailabilityIndex.entry(day, window.getStartTime(), window.getEndTime());
+        if (day >= dated.today() && entry >= 0) {
+          entries[entryCount++] = entry;
+        }
+        continue;
+      }
+      if (!window.isRecurring()
+          || window.getDayOfWeek() == null
+          || window.getStartTime() == null
+          || window.getEndTime() == null) {
+        continue;
+      }
+      int start = secondOfWeek(window, false);
+      int end = secondOfWeek(window, true);
+      int at = count;
+      while (at > 0 && packed[at - 2] > start) {
+        packed[at] = packed[at - 2];
+        packed[at + 1] = packed[at - 1];
+        at -= 2;
+      }
+      packed[at] = start;
+      packed[at + 1] = end;
+      count += 2;
+      days |= 1 << window.getDayOfWeek().ordinal();
+    }
+    packed = count == 0 ? NO_WINDOWS : Arrays.copyOf(packed, count);
+
+    int seconds = 0;
+    int depth = 0;
+    for (int i = 0; i < packed.length; i += 2) {
+      seconds += Math.max(0, packed[i + 1] - packed[i]);
+      int covering = 1;
+      for (int j = 0; j < i; j += 2) {
+        if (packed[j + 1] > packed[i]) {
+          covering++;
+        }
+      }
+      depth = Math.max(depth, covering);
+    }
+    preferenceWindows[preference] = packed;
+    if (entryCount == 0) {
+      preferenceDated[preference] = DatedAvailabilityIndex.NO_ENTRIES;
+    } else {
+      entries = Arrays.copyOf(entries, entryCount);
+      Arrays.sort(entries);
+      preferenceDated[preference] = entries;
+    }
+    preferenceDays[preference] = (byte) days;
+    preferenceSeconds[preference] = seconds;
+    preferenceDepth[preference] = (byte) Math.min(depth, Byte.MAX_VALUE);
+  }
+
+  private void storePlaces(int preference, Collection<Location> places) {
+    UUID[] ids = new UUID[places.size()];
+    double[] coordinates = new double[places.size() * 2];
+    int idCount = 0;
+    int coordinateCount = 0;
+    for (Location place : places) {
+      if (place == null || place.isDeleted()) {
+        continue;
+      }
+      ids[idCount++] = place.getId();
+      if (LocationIndex.hasCoordinates(place)) {
+        locations.upsert(place);
+        coordinates[coordinateCount++] = place.getLatitude();
+        coordinates[coordinateCount++] = place.getLongitude();
+      }
+    }
+    preferencePlaces[preference] = idCount == 0 ? NO_PLACES : Arrays.copyOf(ids, idCount);
+    preferencePlaceCoordinates[preference] =
+        coordinateCount == 0 ? NO_COORDINATES : Arrays.copyOf(coordinates, coordinateCount);
+  }
+
+  private int cityId(String city) {
+    return cityIds.computeIfAbsent(
+        city,
+        key -> {
+          cityNames.add(key);
+          return cityNames.size() - 1;
+        });
+  }
+
+  private int ensureUser(UUID id) {
+    int before = users.size();
+    int index = users.register(id);
+    if (index < before) {
+      return index;
+    }
+    if (index == userVersion.length) {
+      int grown = index * 2;
+      userVersion = Arrays.copyOf(userVersion, grown);
+      userLevel = Arrays.copyOf(userLevel, grown);
+      userCity = Arrays.copyOf(userCity, grown);
+      userVisible = Arrays.copyOf(userVisible, grown);
+      userActive = Arrays.copyOf(userActive, grown);
+      userHome = Arrays.copyOf(userHome, grown);
+      userHomeCoordinates = Arrays.copyOf(userHomeCoordinates, grown * 2);
+      userPreferences = Arrays.copyOf(userPreferences, grown);
+      userLatestPreference = Arrays.copyOf(userLatestPreference, grown);
+    }
+    userVersion[index] = UNKNOWN_VERSION;
+    userCity[index] = NO_CITY;
+    userHomeCoordinates[2 * index] = Double.NaN;
+    userHomeCoordinates[2 * index + 1] = Double.NaN;
+    userPreferences[index] = new IntArrayList(1);
+    userLatestPreference[index] = NO_PREFERENCE;
+    return index;
+  }
+
+  private int ensurePreference(UUID id) {
+    int before = preferences.size();
+    int index = preferences.register(id);
+    if (index < before) {
+      return index;
+    }
+    if (index == preferenceVersion.length) {
+      int grown = index * 2;
+      preferenceVersion = Arrays.copyOf(preferenceVersion, grown);
+      preferenceCreatedAt = Arrays.copyOf(preferenceCreatedAt, grown);
+      preferenceLive = Arrays.copyOf(preferenceLive, grown);
+      preferenceUser = Arrays.copyOf(preferenceUser, grown);
+      preferenceFocus = Arrays.copyOf(preferenceFocus, grown);
+      preferenceDays = Arrays.copyOf(preferenceDays, grown);
+      preferenceRoles = Arrays.copyOf(preferenceRoles, grown);
+      preferenceSeconds = Arrays.copyOf(preferenceSeconds, grown);
+      preferenceDepth = Arrays.copyOf(preferenceDepth, grown);
+      preferenceSlots = Arrays.copyOf(preferenceSlots, grown * WeeklyAvailability.WORDS);
+      preferenceExact = Arrays.copyOf(preferenceExact, grown);
+      preferenceTravelKm = Arrays.copyOf(preferenceTravelKm, grown);
+      preferencePlaces = Arrays.copyOf(preferencePlaces, grown);
+      preferencePlaceCoordinates = Arrays.copyOf(preferencePlaceCoordinates, grown);
+      preferenceWindows = Arrays.copyOf(preferenceWindows, grown);
+      preferenceDated = Arrays.copyOf(preferenceDated, grown);
+    }
+    preferenceVersion[index] = UNKNOWN_VERSION;
+    preferencePlaces[index] = NO_PLACES;
+    preferencePlaceCoordinates[index] = NO_COORDINATES;
+    preferenceWindows[index] = NO_WINDOWS;
+    preferenceDated[index] = DatedAvailabilityIndex.NO_ENTRIES;
+    return index;
+  }
+}
@@ -0,0 +1,163 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only date index over one-time preference windows; no Spring Boot backend maintains it.
+
+import com.dancepractice.app.common.index.SortedIntSet;
+import com.dancepractice.app.domain.schedule.WeeklyAvailability;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Posting lists of candidate preferences by date, for the non-recurring ({@code specific_date})
+ * windows that {@link CandidateIndex} and {@link WeeklyAvailability} leave out. Each date from
+ * today on has a bucket holding every listed preference with a one-time window that day, once for
+ * all cities and once per home city, so a dated search reads only the buckets of its own dates.
+ *
+ * <p>Dates before {@linkplain #today() today} are dropped as a whole by {@link #advance(long)},
+ * so searches never pay for historical one-off windows. Windows themselves are stored by the
+ * owner as packed entries, {@code epochDay << 16 | fromSlot << 8 | toSlot}, ascending, with
+ * quarter-hour slots of the day as in {@link WeeklyAvailability}. Not thread-safe: {@link
+ * CandidatePool} guards it with its own lock.
+ */
+final class DatedAvailabilityIndex {
+
+  static final long[] NO_ENTRIES = new long[0];
+
+  private static final int SLOT_SECONDS = WeeklyAvailability.SLOT_MINUTES * 60;
+
+  private static final class Day {
+    private final SortedIntSet all = new SortedIntSet();
+    private final List<SortedIntSet> cities = new ArrayList<>();
+  }
+
+  private final NavigableMap<Long, Day> days = new TreeMap<>();
+  private long today;
+  private int bound;
+
+  DatedAvailabilityIndex(long today) {
+    this.today = today;
+  }
+
+  long today() {
+    return today;
+  }
+
+  /** Files {@code preference} under each date of {@code entries} from today on. */
+  void add(int preference, int city, long[] entries) {
+    bound = Math.max(bound, preference + 1);
+    long previous = Long.MIN_VALUE;
+    for (long entry : entries) {
+      long day = day(entry);
+      if (day < today || day == previous) {
+        continue;
+      }
+      previous = day;
+      Day bucket = days.computeIfAbsent(day, key -> new Day());
+      bucket.all.add(preference);
+      if (city >= 0) {
+        while (bucket.cities.size() <= city) {
+          bucket.cities.add(null);
+        }
+        if (bucket.cities.get(city) == null) {
+          bucket.cities.set(city, new SortedIntSet());
+        }
+        bucket.cities.get(city).add(preference);
+      }
+    }
+  }
+
+  /** Removes a preference with the city and entries it was added with. */
+  void remove(int preference, int city, long[] entries) {
+    long previous = Long.MIN_VALUE;
+    for (long entry : entries) {
+      long day = day(entry);
+      if (day == previous) {
+        continue;
+      }
+      previous = day;
+      Day bucket = days.get(day);
+      if (bucket == null) {
+        continue;
+      }
+      bucket.all.remove(preference);
+      if (city >= 0 && city < bucket.cities.size() && bucket.cities.get(city) != null) {
+        bucket.cities.get(city).remove(preference);
+      }
+      if (bucket.all.isEmpty()) {
+        days.remove(day);
+      }
+    }
+  }
+
+  /** Ascending preferences with a one-time window in {@code [fromDay, toDay]} in any city. */
+  int[] query(long fromDay, long toDay) {
+    BitSet found = new BitSet(bound);
+    for (Day bucket : range(fromDay, toDay).values()) {
+      bucket.all.orInto(found);
+    }
+    return found.stream().toArray();
+  }
+
+  /** Ascending preferences of users homed in {@code city} with a one-time window in range. */
+  int[] query(int city, long fromDay, long toDay) {
+    BitSet found = new BitSet(bound);
+    for (Day bucket : range(fromDay, toDay).values()) {
+      if (city < bucket.cities.size() && bucket.cities.get(city) != null) {
+        bucket.cities.get(city).orInto(found);
+      }
+    }
+    return found.stream().toArray();
+  }
+
+  /**
+   * Moves today forward to {@code day} and drops every earlier bucket. Returns the ascending
+   * preferences that were filed under a dropped date, so the owner can trim their entries.
+   */
+  int[] advance(long day) {
+    if (day <= today) {
+      return new int[0];
+    }
+    today = day;
+    Map<Long, Day> past = days.headMap(day, false);
+    BitSet evicted = new BitSet(bound);
+    for (Day bucket : past.values()) {
+      bucket.all.orInto(evicted);
+    }
+    past.clear();
+    return evicted.stream().toArray();
+  }
+
+  /** Packs a window, rounded out to whole slots like {@link WeeklyAvailability}; -1 if empty. */
+  static long entry(long epochDay, LocalTime start, LocalTime end) {
+    int startSecond = start.toSecondOfDay();
+    int endSecond = end.equals(LocalTime.MAX) ? 24 * 60 * 60 : end.toSecondOfDay();
+    if (end.getNano() != 0 && !end.equals(LocalTime.MAX)) {
+      endSecond++;
+    }
+    int from = startSecond / SLOT_SECONDS;
+    int to = (endSecond + SLOT_SECONDS - 1) / SLOT_SECONDS;
+    return from < to ? epochDay << 16 | from << 8 | to : -1;
+  }
+
+  static long day(long entry) {
+    return entry >> 16;
+  }
+
+  static int fromSlot(long entry) {
+    return (int) (entry >>> 8) & 0xFF;
+  }
+
+  static int toSlot(long entry) {
+    return (int) entry & 0xFF;
+  }
+
+  private NavigableMap<Long, Day> range(long fromDay, long toDay) {
+    long first = Math.max(fromDay, today);
+    return first > toDay ? new TreeMap<>() : days.subMap(first, true, toDay, true);
+  }
+}
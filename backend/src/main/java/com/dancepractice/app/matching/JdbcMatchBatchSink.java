@@ -0,0 +1,93 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only JDBC writer for match_recommendations; no Spring Boot backend runs it.
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Writes {@link MatchBatch} output to {@code match_recommendations}: one transaction per batch
+ * that deletes the batch's profiles' rows and inserts the new ranking with a batched insert.
+ */
+public final class JdbcMatchBatchSink implements MatchBatchSink {
+
+  private static final String DELETE =
+      "delete from match_recommendations where profile_id = any(?)";
+  private static final String INSERT =
+      "insert into match_recommendations (profile_id, rank, candidate_profile_id,"
+          + " candidate_preference_id, score, overlapping_windows, overlapping_minutes,"
+          + " shared_focus_areas, wsdc_level_diff) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final DataSource dataSource;
+
+  public JdbcMatchBatchSink(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public void write(List<UserMatches> batch) throws SQLException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        delete(connection, batch);
+        insert(connection, batch);
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private static void delete(Connection connection, List<UserMatches> batch) throws SQLException {
+    UUID[] profiles = new UUID[batch.size()];
+    for (int i = 0; i < profiles.length; i++) {
+      profiles[i] = batch.get(i).profileId();
+    }
+    Array array = connection.createArrayOf("uuid", profiles);
+    try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+      statement.setArray(1, array);
+      statement.executeUpdate();
+    } finally {
+      array.free();
+    }
+  }
+
+  private static void insert(Connection connection, List<UserMatches> batch) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+      for (UserMatches user : batch) {
+        int rank = 1;
+        for (MatchResult match : user.matches()) {
+          statement.setObject(1, user.profileId());
+          statement.setInt(2, rank++);
+          statement.setObject(3, match.candidateProfileId());
+          statement.setObject(4, match.candidatePreferenceId());
+          statement.setBigDecimal(5, decimal(match.score()));
+          statement.setInt(6, match.overlappingWindows());
+          statement.setBigDecimal(7, decimal(match.overlappingMinutes()));
+          statement.setInt(8, match.sharedFocusAreas());
+          statement.setInt(9, match.wsdcLevelDiff());
+          statement.addBatch();
+        }
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private static BigDecimal decimal(double value) {
+    return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+  }
+}
@@ -0,0 +1,246 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only spatial index over locations.latitude/longitude; no Spring Boot backend runs it.
+
+import com.dancepractice.app.common.index.DenseIdRegistry;
+import com.dancepractice.app.common.index.IntArrayList;
+import com.dancepractice.app.domain.location.Location;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-size latitude/longitude grid over {@link Location} coordinates. Each location carries a
+ * list of owners (dense ids chosen by the caller, e.g. candidate preferences whose user lives there
+ * or who prefer to practise there), and a radius query returns the owners of every location within
+ * range. A query only visits the grid cells overlapping the radius's bounding box and then checks
+ * great-circle distance, so its cost depends on the radius and local density rather than on the
+ * population size.
+ *
+ * <p>Locations can be moved, added or dropped one at a time as rows change, or the whole grid can
+ * be rebuilt in bulk. Reads and writes are guarded by a read-write lock.
+ */
+public final class LocationIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0088;
+  static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+  public static final double DEFAULT_CELL_KM = 10.0;
+
+  private final double cellDegrees;
+  private final int lonCells;
+  private final DenseIdRegistry locations = new DenseIdRegistry();
+  private final Map<Long, IntArrayList> cells = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private double[] latitudes = new double[16];
+  private double[] longitudes = new double[16];
+  private long[] cellKeys = new long[16];
+  private IntArrayList[] owners = new IntArrayList[16];
+
+  public LocationIndex() {
+    this(DEFAULT_CELL_KM);
+  }
+
+  public LocationIndex(double cellKm) {
+    if (!(cellKm > 0)) {
+      throw new IllegalArgumentException("cellKm must be positive");
+    }
+    this.cellDegrees = cellKm / KM_PER_DEGREE;
+    this.lonCells = (int) Math.ceil(360.0 / cellDegrees);
+  }
+
+  /** Replaces every indexed position with those of {@code all}; owner links are kept. */
+  public void rebuild(Collection<Location> all) {
+    lock.writeLock().lock();
+    try {
+      cells.clear();
+      Arrays.fill(cellKeys, -1L);
+      for (Location location : all) {
+        place(location);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Inserts or moves {@code location}. A soft-deleted location or one without coordinates is
+   * dropped from the grid, but keeps its owners in case it comes back.
+   */
+  public void upsert(Location location) {
+    lock.writeLock().lock();
+    try {
+      place(location);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(UUID locationId) {
+    lock.writeLock().lock();
+    try {
+      int index = locations.indexOf(locationId);
+      if (index >= 0) {
+        unplace(index);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void link(UUID locationId, int owner) {
+    lock.writeLock().lock();
+    try {
+      int index = ensure(locationId);
+      if (owners[index] == null) {
+        owners[index] = new IntArrayList(2);
+      }
+      if (!owners[index].contains(owner)) {
+        owners[index].add(owner);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void unlink(UUID locationId, int owner) {
+    lock.writeLock().lock();
+    try {
+      int index = locations.indexOf(locationId);
+      if (index >= 0 && owners[index] != null) {
+        owners[index].removeValue(owner);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds to {@code found} every owner linked to a location within {@code radiusKm}. */
+  public void ownersWithin(double latitude, double longitude, double radiusKm, BitSet found) {
+    if (!(radiusKm >= 0)) {
+      return;
+    }
+    double latSpan = radiusKm / KM_PER_DEGREE;
+    double lonSpan = 180.0;
+    if (Math.abs(latitude) + latSpan < 90.0) {
+      double sin = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+      lonSpan = sin >= 1.0 ? 180.0 : Math.toDegrees(Math.asin(sin));
+    }
+    int latFrom = latCell(Math.max(-90.0, latitude - latSpan));
+    int latTo = latCell(Math.min(90.0, latitude + latSpan));
+    int lonFrom = lonCell(longitude - lonSpan);
+    int lonCount = Math.min(lonCells, lonCell(longitude + lonSpan) - lonFrom + 1);
+
+    lock.readLock().lock();
+    try {
+      for (int lat = latFrom; lat <= latTo; lat++) {
+        for (int step = 0; step < lonCount; step++) {
+          IntArrayList members = cells.get(key(lat, Math.floorMod(lonFrom + step, lonCells)));
+          if (members == null) {
+            continue;
+          }
+          for (int i = 0; i < members.size(); i++) {
+            int index = members.get(i);
+            IntArrayList linked = owners[index];
+            if (linked == null
+                || linked.isEmpty()
+                || distanceKm(latitude, longitude, latitudes[index], longitudes[index])
+                    > radiusKm) {
+              continue;
+            }
+            for (int j = 0; j < linked.size(); j++) {
+              found.set(linked.get(j));
+            }
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Great-circle distance by the haversine formula. */
+  public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2)
+                * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+  }
+
+  static boolean hasCoordinates(Location location) {
+    return location != null
+        && !location.isDeleted()
+        && location.getLatitude() != null
+        && location.getLongitude() != null;
+  }
+
+  private void place(Location location) {
+    int index = ensure(location.getId());
+    unplace(index);
+    if (!hasCoordinates(location)) {
+      return;
+    }
+    double latitude = location.getLatitude();
+    double longitude = location.getLongitude();
+    long key = key(latCell(latitude), lonCell(longitude));
+    latitudes[index] = latitude;
+    longitudes[index] = longitude;
+    cellKeys[index] = key;
+    cells.computeIfAbsent(key, ignored -> new IntArrayList()).add(index);
+  }
+
+  private void unplace(int index) {
+    long key = cellKeys[index];
+    if (key < 0) {
+      return;
+    }
+    IntArrayList members = cells.get(key);
+    if (members != null) {
+      members.removeValue(index);
+      if (members.isEmpty()) {
+        cells.remove(key);
+      }
+    }
+    cellKeys[index] = -1L;
+  }
+
+  private int ensure(UUID locationId) {
+    int before = locations.size();
+    int index = locations.register(locationId);
+    if (index >= before) {
+      if (index >= cellKeys.length) {
+        int grown = cellKeys.length * 2;
+        latitudes = Arrays.copyOf(latitudes, grown);
+        longitudes = Arrays.copyOf(longitudes, grown);
+        owners = Arrays.copyOf(owners, grown);
+        int previous = cellKeys.length;
+        cellKeys = Arrays.copyOf(cellKeys, grown);
+        Arrays.fill(cellKeys, previous, grown, -1L);
+      }
+      cellKeys[index] = -1L;
+    }
+    return index;
+  }
+
+  private int latCell(double latitude) {
+    return (int) Math.floor((latitude + 90.0) / cellDegrees);
+  }
+
+  private int lonCell(double longitude) {
+    return (int) Math.floor((longitude + 180.0) / cellDegrees);
+  }
+
+  private long key(int latCell, int lonCell) {
+    return (long) latCell * lonCells + Math.floorMod(lonCell, lonCells);
+  }
+}
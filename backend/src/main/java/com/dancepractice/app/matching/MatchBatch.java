@@ -0,0 +1,328 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only nightly job computing every user's matches; no Spring Boot backend schedules it.
+
+import com.dancepractice.app.common.index.IntArrayList;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Computes the top matches of every active user with a schedule preference and hands them to a
+ * {@link MatchBatchSink} in bulk, e.g. to back "new matches for you" notifications.
+ *
+ * <p>Users are sharded by home city, since the matcher never pairs people across cities (users
+ * without a city who search by radius form a shard of their own). Shards run on a dedicated
+ * {@link ForkJoinPool}, largest first, and each shard is split into fixed-size chunks that are
+ * stolen by idle workers, so one huge city does not leave the other cores waiting. A shard buffers
+ * at most {@code maxBufferedUsers} users' results before flushing them to the sink, which bounds
+ * memory per shard regardless of city size.
+ *
+ * <p>When a shard has been fully written it is recorded in the optional {@link
+ * MatchBatchCheckpoint}; a rerun skips recorded shards, so an interrupted run resumes where it
+ * stopped. A run that finishes every shard clears the checkpoint, so the next night starts from
+ * scratch. Progress is reported after every shard.
+ */
+public final class MatchBatch {
+
+  /** Name of the shard holding users without a home city who search by radius. */
+  public static final String NO_CITY_SHARD = "";
+
+  static final int CHUNK_USERS = 64;
+
+  private final MatchEngine engine;
+  private final CandidatePool pool;
+  private final MatchBatchSink sink;
+  private final int topK;
+  private final int parallelism;
+  private final int maxBufferedUsers;
+  private final MatchBatchCheckpoint checkpoint;
+  private final Consumer<Progress> progressListener;
+
+  private MatchBatch(Builder builder) {
+    this.engine = builder.engine;
+    this.pool = builder.engine.pool();
+    this.sink = builder.sink;
+    this.topK = builder.topK;
+    this.parallelism = builder.parallelism;
+    this.maxBufferedUsers = builder.maxBufferedUsers;
+    this.checkpoint = builder.checkpoint;
+    this.progressListener = builder.progressListener;
+  }
+
+  public static Builder builder(MatchEngine engine, MatchBatchSink sink) {
+    return new Builder(engine, sink);
+  }
+
+  /**
+   * Snapshot of a run. {@code skippedShards} were already recorded in the checkpoint when the run
+   * started and are counted as done.
+   */
+  public record Progress(
+      int shardsDone,
+      int shardsTotal,
+      int skippedShards,
+      long usersDone,
+      long usersTotal,
+      long matchesWritten,
+      Duration elapsed) {}
+
+  /**
+   * Runs every shard not yet in the checkpoint, clears the checkpoint once they have all been
+   * written, and returns the final progress.
+   */
+  public Progress run() {
+    long started = System.nanoTime();
+    List<Shard> shards = shards();
+    Set<String> completed = checkpoint == null ? Set.of() : checkpoint.completed();
+    List<Shard> pending = new ArrayList<>();
+    long usersTotal = 0;
+    for (Shard shard : shards) {
+      if (!completed.contains(shard.name)) {
+        pending.add(shard);
+        usersTotal += shard.users.length;
+      }
+    }
+    pending.sort(Comparator.comparingInt((Shard shard) -> shard.users.length).reversed());
+
+    Run run = new Run(shards.size(), shards.size() - pending.size(), usersTotal, started);
+    ForkJoinPool workers = new ForkJoinPool(parallelism);
+    try {
+      List<ShardTask> tasks = new ArrayList<>(pending.size());
+      for (Shard shard : pending) {
+        tasks.add(new ShardTask(shard, run));
+      }
+      workers.invoke(
+          new RecursiveAction() {
+            @Override
+            protected void compute() {
+              invokeAll(tasks);
+            }
+          });
+    } finally {
+      workers.shutdown();
+    }
+    if (checkpoint != null) {
+      checkpoint.clear();
+    }
+    return run.progress();
+  }
+
+  /** Groups eligible users by home city under the pool's read lock. */
+  private List<Shard> shards() {
+    Map<Integer, IntArrayList> byCity = new HashMap<>();
+    Lock lock = pool.readLock();
+    lock.lock();
+    try {
+      for (int user = 0, count = pool.userCount(); user < count; user++) {
+        if (!pool.active(user) || pool.latestPreference(user) == CandidatePool.NO_PREFERENCE) {
+          continue;
+        }
+        int city = pool.city(user);
+        if (city == CandidatePool.NO_CITY && !engine.searchesByRadius(user)) {
+          continue;
+        }
+        byCity.computeIfAbsent(city, ignored -> new IntArrayList()).add(user);
+      }
+      List<Shard> shards = new ArrayList<>(byCity.size());
+      for (Map.Entry<Integer, IntArrayList> entry : byCity.entrySet()) {
+        int city = entry.getKey();
+        String name = city == CandidatePool.NO_CITY ? NO_CITY_SHARD : pool.cityName(city);
+        shards.add(new Shard(name, entry.getValue().toArray()));
+      }
+      return shards;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private record Shard(String name, int[] users) {}
+
+  /** Counters shared by every task of one {@link #run()}. */
+  private final class Run {
+    final int shardsTotal;
+    final int skippedShards;
+    final long usersTotal;
+    final long started;
+    final AtomicInteger shardsDone;
+    final AtomicLong usersDone = new AtomicLong();
+    final AtomicLong matchesWritten = new AtomicLong();
+
+    Run(int shardsTotal, int skippedShards, long usersTotal, long started) {
+      this.shardsTotal = shardsTotal;
+      this.skippedShards = skippedShards;
+      this.usersTotal = usersTotal;
+      this.started = started;
+      this.shardsDone = new AtomicInteger(skippedShards);
+    }
+
+    Progress progress() {
+      return new Progress(
+          shardsDone.get(),
+          shardsTotal,
+          skippedShards,
+          usersDone.get(),
+          usersTotal,
+          matchesWritten.get(),
+          Duration.ofNanos(System.nanoTime() - started));
+    }
+  }
+
+  /** One city: fans out into chunks, then flushes what is left and records the checkpoint. */
+  @SuppressWarnings("serial")
+  private final class ShardTask extends RecursiveAction {
+    private final Shard shard;
+    private final Run run;
+    private final List<UserMatches> buffer = new ArrayList<>();
+
+    ShardTask(Shard shard, Run run) {
+      this.shard = shard;
+      this.run = run;
+    }
+
+    @Override
+    protected void compute() {
+      new ChunkTask(this, 0, shard.users.length).invoke();
+      flush(true);
+      if (checkpoint != null) {
+        checkpoint.complete(shard.name);
+      }
+      run.shardsDone.incrementAndGet();
+      if (progressListener != null) {
+        synchronized (run) {
+          progressListener.accept(run.progress());
+        }
+      }
+    }
+
+    void collect(List<UserMatches> results) {
+      synchronized (buffer) {
+        buffer.addAll(results);
+      }
+      run.usersDone.addAndGet(results.size());
+      flush(false);
+    }
+
+    /** Writes the buffer when it is over the bound, or whatever is left when {@code force}. */
+    private void flush(boolean force) {
+      List<UserMatches> batch;
+      synchronized (buffer) {
+        if (buffer.isEmpty() || (!force && buffer.size() < maxBufferedUsers)) {
+          return;
+        }
+        batch = new ArrayList<>(buffer);
+        buffer.clear();
+      }
+      try {
+        sink.write(batch);
+      } catch (Exception e) {
+        throw new IllegalStateException("Writing matches for shard '" + shard.name + "' failed", e);
+      }
+      long written = 0;
+      for (UserMatches user : batch) {
+        written += user.matches().size();
+      }
+      run.matchesWritten.addAndGet(written);
+    }
+  }
+
+  /** A range of one shard's users, split in halves until it is at most {@link #CHUNK_USERS}. */
+  @SuppressWarnings("serial")
+  private final class ChunkTask extends RecursiveAction {
+    private final ShardTask shard;
+    private final int from;
+    private final int to;
+
+    ChunkTask(ShardTask shard, int from, int to) {
+      this.shard = shard;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > CHUNK_USERS) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunkTask(shard, from, middle), new ChunkTask(shard, middle, to));
+        return;
+      }
+      int[] users = shard.shard.users;
+      List<UserMatches> results = new ArrayList<>(to - from);
+      Lock lock = pool.readLock();
+      lock.lock();
+      try {
+        for (int i = from; i < to; i++) {
+          results.add(new UserMatches(pool.userId(users[i]), engine.findMatches(users[i], topK)));
+        }
+      } finally {
+        lock.unlock();
+      }
+      shard.collect(results);
+    }
+  }
+
+  public static final class Builder {
+    private final MatchEngine engine;
+    private final MatchBatchSink sink;
+    private int topK = 20;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxBufferedUsers = 2_000;
+    private MatchBatchCheckpoint checkpoint;
+    private Consumer<Progress> progressListener;
+
+    private Builder(MatchEngine engine, MatchBatchSink sink) {
+      this.engine = Objects.requireNonNull(engine, "engine");
+      this.sink = Objects.requireNonNull(sink, "sink");
+    }
+
+    public Builder topK(int topK) {
+      if (topK <= 0) {
+        throw new IllegalArgumentException("topK must be positive");
+      }
+      this.topK = topK;
+      return this;
+    }
+
+    public Builder parallelism(int parallelism) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("parallelism must be positive");
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /** Users whose results a shard may hold before it must flush them to the sink. */
+    public Builder maxBufferedUsers(int maxBufferedUsers) {
+      if (maxBufferedUsers <= 0) {
+        throw new IllegalArgumentException("maxBufferedUsers must be positive");
+      }
+      this.maxBufferedUsers = maxBufferedUsers;
+      return this;
+    }
+
+    public Builder checkpoint(MatchBatchCheckpoint checkpoint) {
+      this.checkpoint = checkpoint;
+      return this;
+    }
+
+    public Builder progressListener(Consumer<Progress> progressListener) {
+      this.progressListener = progressListener;
+      return this;
+    }
+
+    public MatchBatch build() {
+      return new MatchBatch(this);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only checkpoint file for the nightly match batch; no Spring Boot backend schedules it.
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Append-only list of the {@link MatchBatch} shards whose output has been fully written, one shard
+ * name per line. Each line is synced before {@link #complete} returns, so a run killed at any point
+ * can resume and redo at most the shards that were in flight. {@link MatchBatch#run} clears it once
+ * every shard has been written.
+ */
+public final class MatchBatchCheckpoint {
+
+  private final Path file;
+
+  public MatchBatchCheckpoint(Path file) {
+    this.file = file;
+  }
+
+  public Set<String> completed() {
+    if (!Files.exists(file)) {
+      return Set.of();
+    }
+    try {
+      return new HashSet<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public synchronized void complete(String shard) {
+    try {
+      Files.writeString(
+          file,
+          shard + '\n',
+          StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND,
+          StandardOpenOption.SYNC);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Forgets every completed shard, so the next run starts from scratch. */
+  public synchronized void clear() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only output port for the nightly match batch; no Spring Boot backend implements it.
+
+import java.util.List;
+
+/**
+ * Destination for {@link MatchBatch} output. Shards flush concurrently, so implementations must be
+ * thread-safe; each call replaces the stored matches of every profile in {@code batch}.
+ */
+@FunctionalInterface
+public interface MatchBatchSink {
+
+  void write(List<UserMatches> batch) throws Exception;
+}
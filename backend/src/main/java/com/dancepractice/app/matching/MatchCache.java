@@ -0,0 +1,340 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only result cache in front of MatchEngine; no Spring Boot backend serves it.
+
+import com.dancepractice.app.common.index.IntArrayList;
+import com.dancepractice.app.domain.schedule.SchedulePreference;
+import com.dancepractice.app.domain.user.User;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-user top-K cache over a {@link MatchEngine}. Each entry keeps a few more candidates than
+ * were asked for, together with the {@code version} of the owner's user row and most recent
+ * preference it was computed from; an entry whose versions no longer match the pool is recomputed
+ * on the next read.
+ *
+ * <p>Changes to other people are applied incrementally. Row changes go through {@link
+ * #preferenceChanged}, {@link #userChanged} and {@link #blockChanged}, which update the pool and
+ * then rescore only the changed user's preferences against the entries that could contain them:
+ * owners in the same home city (before and after a move) and owners searching by radius. An entry
+ * stays a correct prefix of the full ranking as long as it holds at least the number of matches
+ * last asked for; when removals shrink it below that, it is marked stale instead.
+ *
+ * <p>Reads run concurrently; change events are exclusive with reads and with each other.
+ */
+public final class MatchCache {
+
+  public static final int DEFAULT_SLACK = 10;
+
+  private final MatchEngine engine;
+  private final CandidatePool pool;
+  private final int slack;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<Integer, Set<Integer>> cityOwners = new ConcurrentHashMap<>();
+  private final Set<Integer> radiusOwners = ConcurrentHashMap.newKeySet();
+  private final Comparator<Row> ranking;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong rescored = new AtomicLong();
+
+  public MatchCache(MatchEngine engine) {
+    this(engine, DEFAULT_SLACK);
+  }
+
+  public MatchCache(MatchEngine engine, int slack) {
+    if (slack < 0) {
+      throw new IllegalArgumentException("slack must not be negative");
+    }
+    this.engine = engine;
+    this.pool = engine.pool();
+    this.slack = slack;
+    this.ranking =
+        Comparator.comparingDouble((Row row) -> -row.result().score())
+            .thenComparingInt(Row::candidate);
+  }
+
+  /** Same result as {@link MatchEngine#findMatches(UUID, int)}, served from the cache if possible. */
+  public List<MatchResult> get(UUID profileId, int limit) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    Lock poolLock = pool.readLock();
+    poolLock.lock();
+    try {
+      int user = pool.userIndex(profileId);
+      if (user < 0) {
+        return List.of();
+      }
+      Entry entry = entries.get(user);
+      if (entry != null && entry.serves(pool, user, limit)) {
+        hits.incrementAndGet();
+        return entry.top(limit);
+      }
+      misses.incrementAndGet();
+      entry = compute(user, Math.max(limit, entry == null ? 0 : entry.limit));
+      if (entry.radius) {
+        radiusOwners.add(user);
+      } else if (entry.city != CandidatePool.NO_CITY) {
+        cityOwners.computeIfAbsent(entry.city, ignored -> ConcurrentHashMap.newKeySet()).add(user);
+      }
+      entries.put(user, entry);
+      return entry.top(limit);
+    } finally {
+      poolLock.unlock();
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Applies a preference row to the pool and rescores it for every entry it could appear in. */
+  public void preferenceChanged(SchedulePreference preference) {
+    lock.writeLock().lock();
+    try {
+      if (!pool.upsertPreference(preference)) {
+        return;
+      }
+      int user = pool.userIndex(preference.getUser().getId());
+      markStale(user);
+      rescoreNeighbours(user, CandidatePool.NO_CITY);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a user row (level, visibility, home location, outgoing blocks) to the pool and rescores
+   * the user's preferences for every entry in the old and new home city.
+   */
+  public void userChanged(User user) {
+    lock.writeLock().lock();
+    try {
+      int index = pool.userIndex(user.getId());
+      int previousCity = index < 0 ? CandidatePool.NO_CITY : cityOf(index);
+      if (!pool.upsertUser(user)) {
+        return;
+      }
+      index = pool.userIndex(user.getId());
+      markStale(index);
+      rescoreNeighbours(index, previousCity);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Applies a {@code user_blocks} insert or delete; only the two users' entries are touched. */
+  public void blockChanged(UUID userId, UUID blockedUserId, boolean blocked) {
+    lock.writeLock().lock();
+    try {
+      pool.setBlocked(userId, blockedUserId, blocked);
+      int user = pool.userIndex(userId);
+      int other = pool.userIndex(blockedUserId);
+      Lock poolLock = pool.readLock();
+      poolLock.lock();
+      try {
+        rescore(user, other);
+        rescore(other, user);
+      } finally {
+        poolLock.unlock();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void invalidate(UUID profileId) {
+    lock.writeLock().lock();
+    try {
+      int user = pool.userIndex(profileId);
+      if (user >= 0) {
+        entries.remove(user);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Drops every entry, e.g. after locations were moved directly through the pool's index. */
+  public void invalidateAll() {
+    lock.writeLock().lock();
+    try {
+      entries.clear();
+      cityOwners.clear();
+      radiusOwners.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  /** Number of cached entries updated in place by change events. */
+  public long rescored() {
+    return rescored.get();
+  }
+
+  public double hitRate() {
+    long total = hits.get() + misses.get();
+    return total == 0 ? 0.0 : (double) hits.get() / total;
+  }
+
+  private Entry compute(int user, int limit) {
+    int capacity = limit + slack;
+    int preference = pool.latestPreference(user);
+    Entry entry = new Entry();
+    entry.preference = preference;
+    entry.preferenceVersion =
+        preference == CandidatePool.NO_PREFERENCE ? 0 : pool.preferenceVersion(preference);
+    entry.userVersion = pool.userVersion(user);
+    entry.city = pool.city(user);
+    entry.radius = engine.searchesByRadius(user);
+    entry.limit = limit;
+    entry.capacity = capacity;
+    List<MatchResult> results = engine.findMatches(user, capacity);
+    entry.rows = new ArrayList<>(results.size());
+    for (MatchResult result : results) {
+      entry.rows.add(new Row(pool.preferenceIndex(result.candidatePreferenceId()), result));
+    }
+    entry.exhausted = results.size() < capacity;
+    return entry;
+  }
+
+  /** Rows without a {@code version} never look stale by comparison, so the owner is flagged. */
+  private void markStale(int user) {
+    Entry entry = entries.get(user);
+    if (entry != null) {
+      entry.stale = true;
+    }
+  }
+
+  private int cityOf(int user) {
+    Lock poolLock = pool.readLock();
+    poolLock.lock();
+    try {
+      return pool.city(user);
+    } finally {
+      poolLock.unlock();
+    }
+  }
+
+  /** Rescores {@code user} for owners in its current or {@code previousCity} and radius owners. */
+  private void rescoreNeighbours(int user, int previousCity) {
+    Lock poolLock = pool.readLock();
+    poolLock.lock();
+    try {
+      int city = pool.city(user);
+      rescoreAll(cityOwners.get(city), user);
+      if (previousCity != city) {
+        rescoreAll(cityOwners.get(previousCity), user);
+      }
+      rescoreAll(radiusOwners, user);
+    } finally {
+      poolLock.unlock();
+    }
+  }
+
+  private void rescoreAll(Set<Integer> owners, int user) {
+    if (owners == null) {
+      return;
+    }
+    for (Integer owner : owners.toArray(new Integer[0])) {
+      if (!entries.containsKey(owner)) {
+        owners.remove(owner);
+      } else if (owner != user) {
+        rescore(owner, user);
+      }
+    }
+  }
+
+  /**
+   * Replaces {@code user}'s rows in {@code owner}'s entry with fresh scores. Rows ranking below the
+   * entry's last row are only kept when the entry already holds every match.
+   */
+  private void rescore(int owner, int user) {
+    Entry entry = owner < 0 ? null : entries.get(owner);
+    if (entry == null || user < 0 || entry.stale) {
+      return;
+    }
+    rescored.incrementAndGet();
+    List<Row> rows = entry.rows;
+    rows.removeIf(row -> pool.preferenceUser(row.candidate()) == user);
+    IntArrayList candidates = pool.userPreferences(user);
+    for (int i = 0; i < candidates.size(); i++) {
+      int candidate = candidates.get(i);
+      MatchResult result = engine.scorePair(owner, candidate);
+      if (result == null) {
+        continue;
+      }
+      Row row = new Row(candidate, result);
+      int at = -(Collections.binarySearch(rows, row, ranking) + 1);
+      if (at < rows.size() || entry.exhausted) {
+        rows.add(at, row);
+      }
+    }
+    if (rows.size() > entry.capacity) {
+      rows.subList(entry.capacity, rows.size()).clear();
+      entry.exhausted = false;
+    }
+    if (!entry.exhausted && rows.size() < entry.limit) {
+      entry.stale = true;
+    }
+  }
+
+  private record Row(int candidate, MatchResult result) {}
+
+  private static final class Entry {
+    int preference;
+    long preferenceVersion;
+    long userVersion;
+    int city;
+    boolean radius;
+    int limit;
+    int capacity;
+    boolean exhausted;
+    boolean stale;
+    List<Row> rows;
+
+    boolean serves(CandidatePool pool, int user, int requested) {
+      if (stale
+          || userVersion != pool.userVersion(user)
+          || preference != pool.latestPreference(user)) {
+        return false;
+      }
+      if (preference != CandidatePool.NO_PREFERENCE
+          && preferenceVersion != pool.preferenceVersion(preference)) {
+        return false;
+      }
+      return requested <= rows.size() || exhausted;
+    }
+
+    List<MatchResult> top(int limit) {
+      List<MatchResult> results = new ArrayList<>(Math.min(limit, rows.size()));
+      for (int i = 0; i < rows.size() && i < limit; i++) {
+        results.add(rows.get(i).result());
+      }
+      return results;
+    }
+  }
+}
@@ -0,0 +1,439 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only Java twin of find_matches_for_current_user; the Supabase RPC stays authoritative.
+
+import com.dancepractice.app.common.index.SortedIntSet;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import com.dancepractice.app.domain.schedule.AvailabilityWindow;
+import com.dancepractice.app.domain.schedule.WeeklyAvailability;
+import com.dancepractice.app.domain.user.BlockIndex;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * In-process equivalent of the {@code find_matches_for_current_user} RPC over a {@link
+ * CandidatePool}. Same rules as V1: the caller's most recent preference, recurring windows only,
+ * visible candidates in the caller's home city, blocks excluded in both directions, at least one
+ * overlapping window required. When the caller's preference sets {@code maxTravelDistanceKm} and
+ * the caller has a located home or preferred location, the home-city rule is replaced by a radius
+ * query on the pool's {@link LocationIndex}, which happens before any candidate is scored. The
+ * caller's blocks are read once per query from the pool's {@link BlockIndex}. Candidates are
+ * scored with {@link MatchScoring} and the best {@code limit} are kept in a bounded heap; ties on
+ * score are broken by pool order so results are stable.
+ *
+ * <p>Candidates come from the pool's {@link CandidateIndex}, so preferences sharing no weekday
+ * with the caller are never looked at. Window overlap is the only non-trivial part of the score,
+ * so it is computed last: once the heap is full, a candidate whose score cannot beat the current
+ * threshold even with its {@linkplain CandidatePool#overlapBound best possible overlap} is never
+ * looked at further. Overlap itself is a {@link WeeklyAvailability} AND plus popcount; the
+ * pairwise window join only runs for schedules that are not quarter-hour aligned.
+ *
+ * <p>The dated variants answer for concrete dates instead of a typical week, and count one-time
+ * ({@code specific_date}) windows that the RPCs ignore. Each date's availability is its weekday's
+ * recurring slots plus that date's one-time slots, and candidates with one-time windows in the
+ * range come from the pool's {@link DatedAvailabilityIndex}, so no search scans the pool.
+ */
+public final class MatchEngine {
+
+  /** The longest date range a dated search covers; longer ranges are cut short. */
+  public static final int MAX_RANGE_DAYS = 92;
+
+  private final CandidatePool pool;
+
+  public MatchEngine(CandidatePool pool) {
+    this.pool = pool;
+  }
+
+  public CandidatePool pool() {
+    return pool;
+  }
+
+  public List<MatchResult> findMatches(UUID profileId, int limit) {
+    return findMatches(profileId, limit, CandidateIndex.ALL, CandidateIndex.ALL);
+  }
+
+  /**
+   * {@link #findMatches(UUID, int)} narrowed to candidates open to a partner of one of {@code
+   * partnerRoles} (a preference without preferred roles is open to any) whose level is one of
+   * {@code levels}. The narrowing happens in the candidate index, before anything is scored.
+   */
+  public List<MatchResult> findMatches(
+      UUID profileId, int limit, Set<PrimaryRole> partnerRoles, Set<WsdcSkillLevel> levels) {
+    int levelMask = 0;
+    for (WsdcSkillLevel level : levels) {
+      levelMask |= 1 << level.ordinal();
+    }
+    return findMatches(profileId, limit, CandidateIndex.roleMask(partnerRoles), levelMask);
+  }
+
+  private List<MatchResult> findMatches(UUID profileId, int limit, int roleMask, int levelMask) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    Lock lock = pool.readLock();
+    lock.lock();
+    try {
+      int user = pool.userIndex(profileId);
+      return user < 0 ? List.of() : findMatches(user, limit, roleMask, levelMask);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Equivalent of the {@code suggest_overlapping_windows} RPC: the recurring time both users'
+   * most recent preferences share, longest first. Adjacent overlaps are merged into one window, and
+   * schedules that are not quarter-hour aligned are rounded out to whole slots.
+   */
+  public List<AvailabilityWindow> suggestOverlappingWindows(UUID profileId, UUID inviteeId) {
+    List<AvailabilityWindow> windows;
+    Lock lock = pool.readLock();
+    lock.lock();
+    try {
+      int user = pool.userIndex(profileId);
+      int invitee = pool.userIndex(inviteeId);
+      if (user < 0 || invitee < 0) {
+        return List.of();
+      }
+      int preference = pool.latestPreference(user);
+      int other = pool.latestPreference(invitee);
+      if (preference == CandidatePool.NO_PREFERENCE || other == CandidatePool.NO_PREFERENCE) {
+        return List.of();
+      }
+      windows = pool.availability(preference).and(pool.availability(other)).toWindows();
+    } finally {
+      lock.unlock();
+    }
+    windows.sort(
+        Comparator.comparing(
+                (AvailabilityWindow window) ->
+                    Duration.between(window.getStartTime(), window.getEndTime()))
+            .reversed());
+    return windows;
+  }
+
+  /**
+   * {@link #findMatches(UUID, int)} over the dates {@code from} to {@code to}, inclusive, with
+   * one-time windows counted on their dates. Overlap is the shared time across the whole range,
+   * so a one-week range scores like the recurring search, and {@code overlappingWindows} counts
+   * the shared stretches. Dates before today are skipped and the range is capped at {@link
+   * #MAX_RANGE_DAYS}. Slots are quarter hours, so unaligned windows are rounded out.
+   */
+  public List<MatchResult> findMatches(UUID profileId, int limit, LocalDate from, LocalDate to) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    Lock lock = pool.readLock();
+    lock.lock();
+    try {
+      int user = pool.userIndex(profileId);
+      long fromDay = Math.max(from.toEpochDay(), pool.today());
+      long toDay = Math.min(to.toEpochDay(), fromDay + MAX_RANGE_DAYS - 1);
+      return user < 0 || toDay < fromDay
+          ? List.of()
+          : findMatches(user, limit, fromDay, toDay);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@link #suggestOverlappingWindows(UUID, UUID)} for the dates {@code from} to {@code to}: the
+   * time both users are available on each date, recurring and one-time windows together, as
+   * one-time windows longest first.
+   */
+  public List<AvailabilityWindow> suggestOverlappingWindows(
+      UUID profileId, UUID inviteeId, LocalDate from, LocalDate to) {
+    List<AvailabilityWindow> windows = new ArrayList<>();
+    Lock lock = pool.readLock();
+    lock.lock();
+    try {
+      int user = pool.userIndex(profileId);
+      int invitee = pool.userIndex(inviteeId);
+      if (user < 0 || invitee < 0) {
+        return List.of();
+      }
+      int preference = pool.latestPreference(user);
+      int other = pool.latestPreference(invitee);
+      long fromDay = Math.max(from.toEpochDay(), pool.today());
+      long toDay = Math.min(to.toEpochDay(), fromDay + MAX_RANGE_DAYS - 1);
+      if (preference == CandidatePool.NO_PREFERENCE
+          || other == CandidatePool.NO_PREFERENCE
+          || toDay < fromDay) {
+        return List.of();
+      }
+      int days = (int) (toDay - fromDay + 1);
+      long[] mine = new long[days * 2];
+      long[] theirs = new long[days * 2];
+      pool.dayWords(preference, fromDay, toDay, mine);
+      pool.dayWords(other, fromDay, toDay, theirs);
+      for (int day = 0; day < days; day++) {
+        LocalDate date = LocalDate.ofEpochDay(fromDay + day);
+        int slot = 0;
+        while (slot < WeeklyAvailability.SLOTS_PER_DAY) {
+          if (!shared(mine, theirs, day, slot)) {
+            slot++;
+            continue;
+          }
+          int start = slot;
+          while (slot < WeeklyAvailability.SLOTS_PER_DAY && shared(mine, theirs, day, slot)) {
+            slot++;
+          }
+          windows.add(datedWindow(date, start, slot));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    windows.sort(
+        Comparator.comparing(
+                (AvailabilityWindow window) ->
+                    Duration.between(window.getStartTime(), window.getEndTime()))
+            .reversed());
+    return windows;
+  }
+
+  /** {@link #findMatches(UUID, int)} for a dense user index; the caller holds the read lock. */
+  List<MatchResult> findMatches(int user, int limit) {
+    return findMatches(user, limit, CandidateIndex.ALL, CandidateIndex.ALL);
+  }
+
+  private List<MatchResult> findMatches(int user, int limit, int roleMask, int levelMask) {
+    int preference = pool.latestPreference(user);
+    if (preference == CandidatePool.NO_PREFERENCE || pool.windowCount(preference) == 0) {
+      return List.of();
+    }
+    int days = pool.dayMask(preference);
+    int[] candidates = pool.preferencesWithinTravel(preference);
+    if (candidates != null) {
+      candidates = pool.retainDays(candidates, days);
+    } else if (pool.city(user) != CandidatePool.NO_CITY) {
+      candidates = pool.cityPreferences(pool.city(user), days, roleMask, levelMask);
+    } else {
+      return List.of();
+    }
+    TopK top = new TopK(limit);
+    int[] excluded = pool.excluded(user);
+    boolean narrowed = roleMask != CandidateIndex.ALL || levelMask != CandidateIndex.ALL;
+    for (int candidate : candidates) {
+      if (!narrowed || accepts(candidate, roleMask, levelMask)) {
+        offer(top, user, preference, excluded, candidate);
+      }
+    }
+    int[] best = top.drainDescending();
+    List<MatchResult> results = new ArrayList<>(best.length);
+    for (int candidate : best) {
+      results.add(result(user, preference, candidate));
+    }
+    return results;
+  }
+
+  private List<MatchResult> findMatches(int user, int limit, long fromDay, long toDay) {
+    int preference = pool.latestPreference(user);
+    if (preference == CandidatePool.NO_PREFERENCE) {
+      return List.of();
+    }
+    int days = (int) (toDay - fromDay + 1);
+    long[] mine = new long[days * 2];
+    if (!pool.dayWords(preference, fromDay, toDay, mine)) {
+      return List.of();
+    }
+    int weekdays = 0;
+    int mySlots = 0;
+    for (int day = 0; day < days; day++) {
+      if ((mine[2 * day] | mine[2 * day + 1]) != 0) {
+        weekdays |= 1 << Math.floorMod(fromDay + day + 3, 7);
+        mySlots += Long.bitCount(mine[2 * day]) + Long.bitCount(mine[2 * day + 1]);
+      }
+    }
+    int[] candidates = pool.preferencesWithinTravel(preference);
+    if (candidates != null) {
+      candidates =
+          SortedIntSet.union(
+              pool.retainDays(candidates, weekdays),
+              SortedIntSet.intersect(
+                  candidates, pool.datedPreferences(CandidatePool.NO_CITY, fromDay, toDay)));
+    } else if (pool.city(user) != CandidatePool.NO_CITY) {
+      int city = pool.city(user);
+      candidates =
+          SortedIntSet.union(
+              pool.cityPreferences(city, weekdays, CandidateIndex.ALL, CandidateIndex.ALL),
+              pool.datedPreferences(city, fromDay, toDay));
+    } else {
+      return List.of();
+    }
+    double maxOverlapPoints =
+        MatchScoring.overlapPoints(mySlots * WeeklyAvailability.SLOT_MINUTES);
+    TopK top = new TopK(limit);
+    int[] excluded = pool.excluded(user);
+    long[] theirs = new long[days * 2];
+    for (int candidate : candidates) {
+      int other = pool.preferenceUser(candidate);
+      double softPoints =
+          MatchScoring.softPoints(
+              Integer.bitCount(pool.focusMask(preference) & pool.focusMask(candidate)),
+              Math.abs(pool.level(other) - pool.level(user)));
+      if ((top.isFull() && softPoints + maxOverlapPoints < top.threshold())
+          || other == user
+          || BlockIndex.contains(excluded, other)) {
+        continue;
+      }
+      pool.dayWords(candidate, fromDay, toDay, theirs);
+      int slots = 0;
+      for (int w = 0; w < mine.length; w++) {
+        slots += Long.bitCount(mine[w] & theirs[w]);
+      }
+      if (slots != 0) {
+        top.offer(
+            softPoints + MatchScoring.overlapPoints(slots * WeeklyAvailability.SLOT_MINUTES),
+            candidate);
+      }
+    }
+    int[] best = top.drainDescending();
+    List<MatchResult> results = new ArrayList<>(best.length);
+    for (int candidate : best) {
+      pool.dayWords(candidate, fromDay, toDay, theirs);
+      int slots = 0;
+      int stretches = 0;
+      for (int day = 0; day < days; day++) {
+        long low = mine[2 * day] & theirs[2 * day];
+        long high = mine[2 * day + 1] & theirs[2 * day + 1];
+        slots += Long.bitCount(low) + Long.bitCount(high);
+        stretches +=
+            Long.bitCount(low & ~(low << 1)) + Long.bitCount(high & ~(high << 1 | low >>> 63));
+      }
+      int other = pool.preferenceUser(candidate);
+      double minutes = slots * WeeklyAvailability.SLOT_MINUTES;
+      int sharedFocus = Integer.bitCount(pool.focusMask(preference) & pool.focusMask(candidate));
+      int levelDiff = Math.abs(pool.level(other) - pool.level(user));
+      results.add(
+          new MatchResult(
+              pool.userId(other),
+              pool.preferenceId(candidate),
+              MatchScoring.score(minutes, sharedFocus, levelDiff),
+              stretches,
+              minutes,
+              sharedFocus,
+              levelDiff));
+    }
+    return results;
+  }
+
+  /**
+   * Scores one candidate preference for {@code user} under the same rules as {@link
+   * #findMatches(int, int)}, or returns {@code null} when the candidate would not be returned at
+   * any limit. The caller holds the read lock.
+   */
+  MatchResult scorePair(int user, int candidate) {
+    int preference = pool.latestPreference(user);
+    if (preference == CandidatePool.NO_PREFERENCE
+        || pool.windowCount(preference) == 0
+        || !pool.listed(candidate)) {
+      return null;
+    }
+    int other = pool.preferenceUser(candidate);
+    if (other == user || pool.blocked(user, other) || !inScope(user, preference, candidate)) {
+      return null;
+    }
+    if ((pool.dayMask(candidate) & pool.dayMask(preference)) == 0
+        || pool.sharedSlots(preference, candidate) == 0) {
+      return null;
+    }
+    MatchResult result = result(user, preference, candidate);
+    return result.overlappingWindows() == 0 ? null : result;
+  }
+
+  /** Whether {@link #findMatches(int, int)} searches by radius rather than home city. */
+  boolean searchesByRadius(int user) {
+    int preference = pool.latestPreference(user);
+    return preference != CandidatePool.NO_PREFERENCE && pool.searchesByRadius(preference);
+  }
+
+  /** Role and level filter for radius candidates, which the city postings cannot narrow. */
+  private boolean accepts(int candidate, int roleMask, int levelMask) {
+    int roles = pool.roleMask(candidate);
+    return (roles == 0 || (roles & roleMask) != 0)
+        && (levelMask & (1 << pool.level(pool.preferenceUser(candidate)))) != 0;
+  }
+
+  private void offer(TopK top, int user, int preference, int[] excluded, int candidate) {
+    int other = pool.preferenceUser(candidate);
+    double softPoints =
+        MatchScoring.softPoints(
+            Integer.bitCount(pool.focusMask(preference) & pool.focusMask(candidate)),
+            Math.abs(pool.level(other) - pool.level(user)));
+    if (top.isFull()
+        && softPoints + MatchScoring.overlapPoints(pool.overlapBound(preference, candidate) / 60.0)
+            < top.threshold()) {
+      return;
+    }
+    if (other == user || BlockIndex.contains(excluded, other)) {
+      return;
+    }
+    int slots = pool.sharedSlots(preference, candidate);
+    if (slots == 0) {
+      return;
+    }
+    double minutes;
+    if (pool.exact(preference) && pool.exact(candidate)) {
+      minutes = slots * WeeklyAvailability.SLOT_MINUTES;
+    } else {
+      int[] pairs = new int[1];
+      minutes = pool.overlapSeconds(preference, candidate, pairs) / 60.0;
+      if (pairs[0] == 0) {
+        return;
+      }
+    }
+    top.offer(softPoints + MatchScoring.overlapPoints(minutes), candidate);
+  }
+
+  private static boolean shared(long[] mine, long[] theirs, int day, int slot) {
+    int word = 2 * day + (slot >>> 6);
+    return (mine[word] & theirs[word] & (1L << slot)) != 0;
+  }
+
+  private static AvailabilityWindow datedWindow(LocalDate date, int fromSlot, int toSlot) {
+    AvailabilityWindow window = new AvailabilityWindow();
+    window.setRecurring(false);
+    window.setSpecificDate(date);
+    window.setDayOfWeek(date.getDayOfWeek());
+    window.setStartTime(LocalTime.ofSecondOfDay(fromSlot * WeeklyAvailability.SLOT_MINUTES * 60L));
+    window.setEndTime(
+        toSlot == WeeklyAvailability.SLOTS_PER_DAY
+            ? LocalTime.MAX
+            : LocalTime.ofSecondOfDay(toSlot * WeeklyAvailability.SLOT_MINUTES * 60L));
+    return window;
+  }
+
+  private boolean inScope(int user, int preference, int candidate) {
+    if (pool.searchesByRadius(preference)) {
+      return pool.withinTravel(preference, candidate);
+    }
+    int city = pool.city(user);
+    return city != CandidatePool.NO_CITY && city == pool.city(pool.preferenceUser(candidate));
+  }
+
+  private MatchResult result(int user, int preference, int candidate) {
+    int[] pairs = new int[1];
+    int other = pool.preferenceUser(candidate);
+    double minutes = pool.overlapSeconds(preference, candidate, pairs) / 60.0;
+    int sharedFocus = Integer.bitCount(pool.focusMask(preference) & pool.focusMask(candidate));
+    int levelDiff = Math.abs(pool.level(other) - pool.level(user));
+    return new MatchResult(
+        pool.userId(other),
+        pool.preferenceId(candidate),
+        MatchScoring.score(minutes, sharedFocus, levelDiff),
+        pairs[0],
+        minutes,
+        sharedFocus,
+        levelDiff);
+  }
+}
@@ -0,0 +1,14 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only result type mirroring the find_matches_for_current_user RPC columns.
+
+import java.util.UUID;
+
+public record MatchResult(
+    UUID candidateProfileId,
+    UUID candidatePreferenceId,
+    double score,
+    int overlappingWindows,
+    double overlappingMinutes,
+    int sharedFocusAreas,
+    int wsdcLevelDiff) {}
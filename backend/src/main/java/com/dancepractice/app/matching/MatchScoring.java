@@ -0,0 +1,52 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only port of the find_matches_for_current_user scoring; no Spring Boot backend runs it.
+
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+
+/**
+ * The V1 heuristic from {@code 20251130000002_find_matches_for_current_user.sql}: up to 60 points
+ * for overlapping minutes (capped at 10 hours), 25 for shared focus areas (capped at 5) and 15 for
+ * WSDC level proximity (a difference of 5 or more scores nothing). Focus and level points only
+ * take a handful of values, so they are looked up rather than recomputed per candidate.
+ */
+public final class MatchScoring {
+
+  public static final double OVERLAP_POINTS = 60.0;
+  public static final double FOCUS_POINTS = 25.0;
+  public static final double LEVEL_POINTS = 15.0;
+
+  public static final double MAX_OVERLAP_MINUTES = 600.0;
+  public static final int MAX_SHARED_FOCUS_AREAS = 5;
+  public static final int MAX_LEVEL_DIFF = 5;
+
+  private static final double POINTS_PER_OVERLAP_MINUTE = OVERLAP_POINTS / MAX_OVERLAP_MINUTES;
+  private static final double[] FOCUS_TABLE = new double[FocusArea.values().length + 1];
+  private static final double[] LEVEL_TABLE = new double[WsdcSkillLevel.values().length];
+
+  static {
+    for (int shared = 0; shared < FOCUS_TABLE.length; shared++) {
+      FOCUS_TABLE[shared] =
+          (double) Math.min(shared, MAX_SHARED_FOCUS_AREAS) / MAX_SHARED_FOCUS_AREAS * FOCUS_POINTS;
+    }
+    for (int diff = 0; diff < LEVEL_TABLE.length; diff++) {
+      LEVEL_TABLE[diff] = (double) Math.max(0, MAX_LEVEL_DIFF - diff) / MAX_LEVEL_DIFF * LEVEL_POINTS;
+    }
+  }
+
+  private MatchScoring() {}
+
+  public static double score(double overlappingMinutes, int sharedFocusAreas, int wsdcLevelDiff) {
+    return overlapPoints(overlappingMinutes) + softPoints(sharedFocusAreas, wsdcLevelDiff);
+  }
+
+  public static double overlapPoints(double overlappingMinutes) {
+    return Math.min(overlappingMinutes, MAX_OVERLAP_MINUTES) * POINTS_PER_OVERLAP_MINUTE;
+  }
+
+  /** Focus and level points, which need no window data and so can be computed first. */
+  public static double softPoints(int sharedFocusAreas, int wsdcLevelDiff) {
+    return FOCUS_TABLE[sharedFocusAreas] + LEVEL_TABLE[wsdcLevelDiff];
+  }
+}
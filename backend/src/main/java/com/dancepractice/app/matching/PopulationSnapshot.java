@@ -0,0 +1,988 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only columnar snapshot of user_profiles and schedule_preferences; no Spring Boot backend loads it.
+
+import com.dancepractice.app.common.index.IntArrayList;
+import com.dancepractice.app.domain.common.AccountStatus;
+import com.dancepractice.app.domain.common.FocusArea;
+import com.dancepractice.app.domain.common.PrimaryRole;
+import com.dancepractice.app.domain.common.WsdcSkillLevel;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+import javax.sql.DataSource;
+
+/**
+ * Read-only, column-per-attribute copy of every live user and their current schedule preference,
+ * loaded straight from JDBC in five bulk queries instead of hydrating {@code User} → {@code
+ * schedulePreferences} → windows, focus areas and levels one lazy collection at a time. Users are
+ * addressed by a dense {@code int} index; ids are two {@code long} columns behind an
+ * open-addressing table, and per user the snapshot keeps role, level, account flags, home grid
+ * cell and coordinates, the preference's focus, role and level masks and travel limit, its
+ * recurring windows packed one {@code int} each ({@code startMinuteOfWeek << 16 |
+ * endMinuteOfWeek}) in one shared array, and the indexes of the users they block in another. That
+ * is about 57 bytes per user plus 4 per window and per block, see {@link #estimatedBytes()}.
+ *
+ * <p>The current preference is the user's newest live one, as {@code find_matches_for_current_user}
+ * picks it for the caller. Home cells use the grid of a {@link LocationIndex} with {@link
+ * LocationIndex#DEFAULT_CELL_KM}.
+ *
+ * <p>A snapshot never changes, so readers need no lock. {@link #refresh} returns a new snapshot
+ * with every user whose profile, preference or home location has an {@code updated_at} past the
+ * watermark reloaded; indexes are kept, new users are appended, and deleted users stay as holes
+ * for which {@link #present} is {@code false}. {@code user_blocks} has no {@code updated_at}, so
+ * blocks are read in full each time.
+ *
+ * <p>{@link #save} writes the columns to a versioned file and {@link #open} maps one back without
+ * copying it, so a restart costs a refresh since the saved watermark instead of a full load.
+ */
+public final class PopulationSnapshot {
+
+  public static final int NO_LEVEL = -1;
+  public static final int NO_CELL = -1;
+  public static final int NO_TRAVEL_LIMIT = -1;
+
+  /**
+   * How far before the watermark {@link #refresh} looks. {@code updated_at} is set at transaction
+   * start, so a transaction still open when the watermark was read commits rows older than it.
+   */
+  public static final Duration DEFAULT_OVERLAP = Duration.ofMinutes(1);
+
+  static final int MINUTES_PER_DAY = 24 * 60;
+
+  private static final byte PRESENT = 1;
+  private static final byte ACTIVE = 2;
+  private static final byte VISIBLE = 4;
+  private static final byte HAS_PREFERENCE = 8;
+
+  /** {@code DPPS} as little-endian bytes. */
+  private static final int FILE_MAGIC = 0x53505044;
+  private static final int FILE_FORMAT = 1;
+  private static final int HEADER_BYTES = 48;
+
+  private static final double CELL_DEGREES =
+      LocationIndex.DEFAULT_CELL_KM / LocationIndex.KM_PER_DEGREE;
+  private static final int LON_CELLS = (int) Math.ceil(360.0 / CELL_DEGREES);
+
+  private static final String CURRENT_PREFERENCE =
+      "with current_pref as ("
+          + "select distinct on (p.user_id) p.user_id, p.id, p.max_travel_distance_km"
+          + " from schedule_preferences p"
+          + " join user_profiles u on u.id = p.user_id and u.deleted_at is null"
+          + " where p.deleted_at is null%s"
+          + " order by p.user_id, p.created_at desc) ";
+  private static final String SELECT_USERS =
+      "select u.id, u.primary_role, u.wsdc_level, u.account_status, u.profile_visible,"
+          + " l.latitude, l.longitude from user_profiles u"
+          + " left join locations l on l.id = u.home_location_id and l.deleted_at is null"
+          + " where u.deleted_at is null%s";
+  private static final String SELECT_PREFERENCES =
+      CURRENT_PREFERENCE + "select user_id, max_travel_distance_km from current_pref";
+  private static final String SELECT_WINDOWS =
+      CURRENT_PREFERENCE
+          + "select cp.user_id, w.day_of_week, w.start_time, w.end_time from current_pref cp"
+          + " join schedule_preference_windows w on w.preference_id = cp.id where w.recurring";
+  private static final String SELECT_ATTRIBUTES =
+      CURRENT_PREFERENCE
+          + "select cp.user_id, 0, f.focus_area from current_pref cp"
+          + " join schedule_preference_focus f on f.preference_id = cp.id"
+          + " union all select cp.user_id, 1, r.role from current_pref cp"
+          + " join schedule_preference_roles r on r.preference_id = cp.id"
+          + " union all select cp.user_id, 2, v.level from current_pref cp"
+          + " join schedule_preference_levels v on v.preference_id = cp.id";
+  private static final String SELECT_BLOCKS = "select user_id, blocked_user_id from user_blocks";
+  private static final String SELECT_CHANGED =
+      "select id from user_profiles where updated_at > ?"
+          + " union select user_id from schedule_preferences where updated_at > ?"
+          + " union select u.id from user_profiles u"
+          + " join locations l on l.id = u.home_location_id where l.updated_at > ?";
+  private static final String USER_FILTER = " and u.id = any(?)";
+  private static final String SELECT_NOW = "select now()";
+
+  private final Instant watermark;
+  private final int size;
+  private final LongBuffer idMost;
+  private final LongBuffer idLeast;
+  private final IntBuffer table;
+  private final ByteBuffer flags;
+  private final ByteBuffer role;
+  private final ByteBuffer level;
+  private final IntBuffer homeCell;
+  private final FloatBuffer latitude;
+  private final FloatBuffer longitude;
+  private final ShortBuffer focus;
+  private final ByteBuffer preferredRoles;
+  private final ByteBuffer preferredLevels;
+  private final ShortBuffer travelKm;
+  private final IntBuffer windowStart;
+  private final IntBuffer windows;
+  private final IntBuffer blockStart;
+  private final IntBuffer blocks;
+
+  private PopulationSnapshot(Columns columns, Instant watermark) {
+    this.watermark = watermark;
+    this.size = columns.size;
+    this.idMost = LongBuffer.wrap(Arrays.copyOf(columns.idMost, size));
+    this.idLeast = LongBuffer.wrap(Arrays.copyOf(columns.idLeast, size));
+    this.flags = ByteBuffer.wrap(Arrays.copyOf(columns.flags, size));
+    this.role = ByteBuffer.wrap(Arrays.copyOf(columns.role, size));
+    this.level = ByteBuffer.wrap(Arrays.copyOf(columns.level, size));
+    this.homeCell = IntBuffer.wrap(Arrays.copyOf(columns.homeCell, size));
+    this.latitude = FloatBuffer.wrap(Arrays.copyOf(columns.latitude, size));
+    this.longitude = FloatBuffer.wrap(Arrays.copyOf(columns.longitude, size));
+    this.focus = ShortBuffer.wrap(Arrays.copyOf(columns.focus, size));
+    this.preferredRoles = ByteBuffer.wrap(Arrays.copyOf(columns.preferredRoles, size));
+    this.preferredLevels = ByteBuffer.wrap(Arrays.copyOf(columns.preferredLevels, size));
+    this.travelKm = ShortBuffer.wrap(Arrays.copyOf(columns.travelKm, size));
+    this.table = IntBuffer.wrap(columns.table);
+    int[] windowStart = new int[size + 1];
+    this.windows = IntBuffer.wrap(columns.windows(windowStart));
+    this.windowStart = IntBuffer.wrap(windowStart);
+    int[] blockStart = new int[size + 1];
+    this.blocks = IntBuffer.wrap(packBlocks(columns.blockUsers, columns.blockTargets, blockStart));
+    this.blockStart = IntBuffer.wrap(blockStart);
+  }
+
+  /** {@code previous} as of a newer watermark with re-read blocks; its other columns are shared. */
+  private PopulationSnapshot(
+      PopulationSnapshot previous, Instant watermark, int[] blockStart, int[] blocks) {
+    this.watermark = watermark;
+    this.size = previous.size;
+    this.idMost = previous.idMost;
+    this.idLeast = previous.idLeast;
+    this.table = previous.table;
+    this.flags = previous.flags;
+    this.role = previous.role;
+    this.level = previous.level;
+    this.homeCell = previous.homeCell;
+    this.latitude = previous.latitude;
+    this.longitude = previous.longitude;
+    this.focus = previous.focus;
+    this.preferredRoles = previous.preferredRoles;
+    this.preferredLevels = previous.preferredLevels;
+    this.travelKm = previous.travelKm;
+    this.windowStart = previous.windowStart;
+    this.windows = previous.windows;
+    this.blockStart = IntBuffer.wrap(blockStart);
+    this.blocks = IntBuffer.wrap(blocks);
+  }
+
+  /** Columns viewed in place in a file written by {@link #save}. */
+  private PopulationSnapshot(ByteBuffer file, Instant watermark, int size, int[] lengths) {
+    this.watermark = watermark;
+    this.size = size;
+    Sections sections = new Sections(file);
+    this.idMost = sections.next(8, size).asLongBuffer();
+    this.idLeast = sections.next(8, size).asLongBuffer();
+    this.table = sections.next(4, lengths[0]).asIntBuffer();
+    this.flags = sections.next(1, size);
+    this.role = sections.next(1, size);
+    this.level = sections.next(1, size);
+    this.homeCell = sections.next(4, size).asIntBuffer();
+    this.latitude = sections.next(4, size).asFloatBuffer();
+    this.longitude = sections.next(4, size).asFloatBuffer();
+    this.focus = sections.next(2, size).asShortBuffer();
+    this.preferredRoles = sections.next(1, size);
+    this.preferredLevels = sections.next(1, size);
+    this.travelKm = sections.next(2, size).asShortBuffer();
+    this.windowStart = sections.next(4, size + 1).asIntBuffer();
+    this.windows = sections.next(4, lengths[1]).asIntBuffer();
+    this.blockStart = sections.next(4, size + 1).asIntBuffer();
+    this.blocks = sections.next(4, lengths[2]).asIntBuffer();
+  }
+
+  /** Loads every live user in one read-only repeatable-read transaction. */
+  public static PopulationSnapshot load(DataSource dataSource) throws SQLException {
+    return read(dataSource, null, new Columns(1 << 10), null);
+  }
+
+  /**
+   * Maps a file written by {@link #save} read-only. Nothing is copied or parsed past the header:
+   * columns are views of the mapping, pages are read as lookups touch them, and processes opening
+   * the same file share them through the page cache. Follow with {@link #refresh} to catch up from
+   * the saved watermark.
+   *
+   * @throws IOException if the file is not a snapshot, is of another format version, or is
+   *     truncated
+   */
+  public static PopulationSnapshot open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+        throw new IOException("Not a population snapshot: " + file);
+      }
+      ByteBuffer mapped =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+      if (mapped.getInt(0) != FILE_MAGIC) {
+        throw new IOException("Not a population snapshot: " + file);
+      }
+      if (mapped.getInt(4) != FILE_FORMAT) {
+        throw new IOException("Unsupported snapshot format " + mapped.getInt(4) + ": " + file);
+      }
+      Instant watermark = Instant.ofEpochSecond(mapped.getLong(8), mapped.getInt(16));
+      int size = mapped.getInt(20);
+      int[] lengths = {mapped.getInt(24), mapped.getInt(28), mapped.getInt(32)};
+      if (size < 0
+          || lengths[0] < 0
+          || lengths[1] < 0
+          || lengths[2] < 0
+          || mapped.getLong(40) != length
+          || fileBytes(size, lengths) != length) {
+        throw new IOException("Truncated population snapshot: " + file);
+      }
+      return new PopulationSnapshot(mapped, watermark, size, lengths);
+    }
+  }
+
+  /**
+   * Writes the snapshot to {@code file}, replacing any previous one atomically: the columns are
+   * written to a temporary file beside it, forced to disk and renamed over {@code file}, so a
+   * reader or a crash sees the old snapshot or the new one and never part of either.
+   *
+   * <p>Format version 1 is a 48-byte header (magic {@code DPPS}, format version, watermark epoch
+   * seconds and nanos, user count, id table, window and block lengths, a reserved word, and the
+   * file length) followed by every column in declaration order, little-endian, each starting on an
+   * 8-byte boundary. A layout change must bump the version, which {@link #open} rejects.
+   */
+  public void save(Path file) throws IOException {
+    int[] lengths = {table.capacity(), windows.capacity(), blocks.capacity()};
+    long length = fileBytes(size, lengths);
+    Path directory = file.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+    try {
+      try (FileChannel channel =
+          FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        ByteBuffer header = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, FILE_MAGIC);
+        header.putInt(4, FILE_FORMAT);
+        header.putLong(8, watermark.getEpochSecond());
+        header.putInt(16, watermark.getNano());
+        header.putInt(20, size);
+        header.putInt(24, lengths[0]);
+        header.putInt(28, lengths[1]);
+        header.putInt(32, lengths[2]);
+        header.putLong(40, length);
+        Sections sections = new Sections(mapped);
+        sections.next(8, size).asLongBuffer().put(idMost.duplicate().clear());
+        sections.next(8, size).asLongBuffer().put(idLeast.duplicate().clear());
+        sections.next(4, lengths[0]).asIntBuffer().put(table.duplicate().clear());
+        sections.next(1, size).put(flags.duplicate().clear());
+        sections.next(1, size).put(role.duplicate().clear());
+        sections.next(1, size).put(level.duplicate().clear());
+        sections.next(4, size).asIntBuffer().put(homeCell.duplicate().clear());
+        sections.next(4, size).asFloatBuffer().put(latitude.duplicate().clear());
+        sections.next(4, size).asFloatBuffer().put(longitude.duplicate().clear());
+        sections.next(2, size).asShortBuffer().put(focus.duplicate().clear());
+        sections.next(1, size).put(preferredRoles.duplicate().clear());
+        sections.next(1, size).put(preferredLevels.duplicate().clear());
+        sections.next(2, size).asShortBuffer().put(travelKm.duplicate().clear());
+        sections.next(4, size + 1).asIntBuffer().put(windowStart.duplicate().clear());
+        sections.next(4, lengths[1]).asIntBuffer().put(windows.duplicate().clear());
+        sections.next(4, size + 1).asIntBuffer().put(blockStart.duplicate().clear());
+        sections.next(4, lengths[2]).asIntBuffer().put(blocks.duplicate().clear());
+        mapped.force();
+      }
+      Files.move(
+          temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /** {@link #refresh(DataSource, Duration)} with {@link #DEFAULT_OVERLAP}. */
+  public PopulationSnapshot refresh(DataSource dataSource) throws SQLException {
+    return refresh(dataSource, DEFAULT_OVERLAP);
+  }
+
+  /**
+   * A new snapshot with every user changed since {@code overlap} before the watermark reloaded.
+   * Users found again are simply reloaded, so the overlap only costs a few extra rows. When nobody
+   * changed, the new snapshot shares this one's columns, mapped or not, and only blocks are read.
+   */
+  public PopulationSnapshot refresh(DataSource dataSource, Duration overlap) throws SQLException {
+    return read(dataSource, Timestamp.from(watermark.minus(overlap)), null, this);
+  }
+
+  /** Database time at which the snapshot's transaction started. */
+  public Instant watermark() {
+    return watermark;
+  }
+
+  /** Number of user indexes, including deleted holes. */
+  public int size() {
+    return size;
+  }
+
+  /** The dense index of {@code userId}, or {@code -1} when the snapshot has never seen it. */
+  public int indexOf(UUID userId) {
+    if (userId == null) {
+      return -1;
+    }
+    long most = userId.getMostSignificantBits();
+    long least = userId.getLeastSignificantBits();
+    int mask = table.capacity() - 1;
+    for (int slot = slot(most, least, mask); ; slot = (slot + 1) & mask) {
+      int user = table.get(slot);
+      if (user < 0) {
+        return -1;
+      }
+      if (idMost.get(user) == most && idLeast.get(user) == least) {
+        return user;
+      }
+    }
+  }
+
+  public UUID idAt(int user) {
+    return new UUID(idMost.get(user), idLeast.get(user));
+  }
+
+  /** Not soft-deleted as of the watermark. */
+  public boolean present(int user) {
+    return (flags.get(user) & PRESENT) != 0;
+  }
+
+  /** Present and in {@link AccountStatus#ACTIVE} standing. */
+  public boolean active(int user) {
+    return (flags.get(user) & ACTIVE) != 0;
+  }
+
+  public boolean visible(int user) {
+    return (flags.get(user) & VISIBLE) != 0;
+  }
+
+  /** {@link PrimaryRole} ordinal. */
+  public int role(int user) {
+    return role.get(user);
+  }
+
+  /** {@link WsdcSkillLevel} ordinal, or {@link #NO_LEVEL}. */
+  public int level(int user) {
+    return level.get(user);
+  }
+
+  /** Grid cell of the user's located home, or {@link #NO_CELL}. */
+  public int homeCell(int user) {
+    return homeCell.get(user);
+  }
+
+  /** Latitude of the user's located home, or {@code NaN}. */
+  public double homeLatitude(int user) {
+    return latitude.get(user);
+  }
+
+  /** Longitude of the user's located home, or {@code NaN}. */
+  public double homeLongitude(int user) {
+    return longitude.get(user);
+  }
+
+  public boolean hasPreference(int user) {
+    return (flags.get(user) & HAS_PREFERENCE) != 0;
+  }
+
+  /** Bitmask of the current preference's focus areas ({@code 1 << FocusArea.ordinal()}). */
+  public int focusMask(int user) {
+    return focus.get(user);
+  }
+
+  /** Bitmask of the current preference's partner roles; zero means any role. */
+  public int preferredRoleMask(int user) {
+    return preferredRoles.get(user);
+  }
+
+  /** Bitmask of the current preference's partner levels; zero means any level. */
+  public int preferredLevelMask(int user) {
+    return preferredLevels.get(user);
+  }
+
+  /** The current preference's {@code maxTravelDistanceKm}, or {@link #NO_TRAVEL_LIMIT}. */
+  public int travelKm(int user) {
+    return travelKm.get(user);
+  }
+
+  /** Recurring windows of the current preference. */
+  public int windowCount(int user) {
+    return windowStart.get(user + 1) - windowStart.get(user);
+  }
+
+  /** Start of the {@code i}th window by start, in minutes since Monday 00:00. */
+  public int windowStartMinute(int user, int i) {
+    return windows.get(windowStart.get(user) + i) >>> 16;
+  }
+
+  /** End of the {@code i}th window, in minutes since Monday 00:00; midnight is the next day's 0. */
+  public int windowEndMinute(int user, int i) {
+    return windows.get(windowStart.get(user) + i) & 0xFFFF;
+  }
+
+  /** Users that {@code user} blocks. */
+  public int blockCount(int user) {
+    return blockStart.get(user + 1) - blockStart.get(user);
+  }
+
+  /** Index of the {@code i}th user that {@code user} blocks, ascending. */
+  public int blockedAt(int user, int i) {
+    return blocks.get(blockStart.get(user) + i);
+  }
+
+  /** Whether either user blocks the other. */
+  public boolean blocked(int user, int other) {
+    return blocks(user, other) || blocks(other, user);
+  }
+
+  /** Overlapping minutes summed over every pair of the two users' windows, like the RPC's join. */
+  public int overlapMinutes(int user, int other) {
+    int total = 0;
+    for (int i = windowStart.get(user); i < windowStart.get(user + 1); i++) {
+      int start = windows.get(i) >>> 16;
+      int stop = windows.get(i) & 0xFFFF;
+      for (int j = windowStart.get(other); j < windowStart.get(other + 1); j++) {
+        int otherStart = windows.get(j) >>> 16;
+        if (otherStart >= stop) {
+          break;
+        }
+        int otherStop = windows.get(j) & 0xFFFF;
+        if (start < otherStop) {
+          total += Math.min(stop, otherStop) - Math.max(start, otherStart);
+        }
+      }
+    }
+    return total;
+  }
+
+  /** Bytes held by the columns, on the heap or mapped, excluding object headers. */
+  public long estimatedBytes() {
+    return 8L * (idMost.capacity() + idLeast.capacity())
+        + 4L * (table.capacity() + homeCell.capacity() + latitude.capacity())
+        + 4L * (longitude.capacity() + windowStart.capacity() + windows.capacity())
+        + 4L * (blockStart.capacity() + blocks.capacity())
+        + 2L * (focus.capacity() + travelKm.capacity())
+        + flags.capacity()
+        + role.capacity()
+        + level.capacity()
+        + preferredRoles.capacity()
+        + preferredLevels.capacity();
+  }
+
+  /** Grid cell of a coordinate, matching a {@link LocationIndex} with the default cell size. */
+  static int cellOf(double latitude, double longitude) {
+    int latCell = (int) Math.floor((latitude + 90.0) / CELL_DEGREES);
+    int lonCell = (int) Math.floor((longitude + 180.0) / CELL_DEGREES);
+    return latCell * LON_CELLS + Math.floorMod(lonCell, LON_CELLS);
+  }
+
+  private boolean blocks(int user, int other) {
+    int low = blockStart.get(user);
+    int high = blockStart.get(user + 1) - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int blocked = blocks.get(mid);
+      if (blocked < other) {
+        low = mid + 1;
+      } else if (blocked > other) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Header plus every column padded to 8 bytes, as {@link #save} lays them out. */
+  private static long fileBytes(int size, int[] lengths) {
+    return HEADER_BYTES
+        + 2 * padded(8L * size)
+        + padded(4L * lengths[0])
+        + 3 * padded(size)
+        + 3 * padded(4L * size)
+        + padded(2L * size)
+        + 2 * padded(size)
+        + padded(2L * size)
+        + 2 * padded(4L * (size + 1))
+        + padded(4L * lengths[1])
+        + padded(4L * lengths[2]);
+  }
+
+  private static long padded(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  /** Consecutive little-endian column slices of a snapshot file, each 8-byte aligned. */
+  private static final class Sections {
+    private final ByteBuffer file;
+    private int offset = HEADER_BYTES;
+
+    private Sections(ByteBuffer file) {
+      this.file = file;
+    }
+
+    private ByteBuffer next(int width, int count) {
+      int bytes = width * count;
+      ByteBuffer slice = file.slice(offset, bytes).order(ByteOrder.LITTLE_ENDIAN);
+      offset += (int) padded(bytes);
+      return slice;
+    }
+  }
+
+  private static PopulationSnapshot read(
+      DataSource dataSource, Timestamp since, Columns columns, PopulationSnapshot previous)
+      throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      boolean readOnly = connection.isReadOnly();
+      int isolation = connection.getTransactionIsolation();
+      connection.setReadOnly(true);
+      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+      connection.setAutoCommit(false);
+      try {
+        Instant watermark;
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_NOW);
+            ResultSet rows = statement.executeQuery()) {
+          rows.next();
+          watermark = rows.getTimestamp(1).toInstant();
+        }
+        Array ids = null;
+        if (since != null) {
+          UUID[] changed = changed(connection, since);
+          if (changed.length == 0) {
+            IntArrayList blockUsers = new IntArrayList();
+            IntArrayList blockTargets = new IntArrayList();
+            readBlocks(connection, previous::indexOf, blockUsers, blockTargets);
+            connection.commit();
+            int[] blockStart = new int[previous.size + 1];
+            int[] blocks = packBlocks(blockUsers, blockTargets, blockStart);
+            return new PopulationSnapshot(previous, watermark, blockStart, blocks);
+          }
+          columns = new Columns(previous);
+          ids = connection.createArrayOf("uuid", changed);
+          for (UUID id : changed) {
+            columns.clear(previous.indexOf(id));
+          }
+        }
+        try {
+          readUsers(connection, ids, columns);
+          readPreferences(connection, ids, columns);
+          readWindows(connection, ids, columns);
+          readAttributes(connection, ids, columns);
+          readBlocks(connection, columns::present, columns.blockUsers, columns.blockTargets);
+        } finally {
+          if (ids != null) {
+            ids.free();
+          }
+        }
+        connection.commit();
+        return new PopulationSnapshot(columns, watermark);
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+        connection.setTransactionIsolation(isolation);
+        connection.setReadOnly(readOnly);
+      }
+    }
+  }
+
+  private static UUID[] changed(Connection connection, Timestamp since) throws SQLException {
+    UUID[] changed = new UUID[64];
+    int count = 0;
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_CHANGED)) {
+      statement.setTimestamp(1, since);
+      statement.setTimestamp(2, since);
+      statement.setTimestamp(3, since);
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          if (count == changed.length) {
+            changed = Arrays.copyOf(changed, count * 2);
+          }
+          changed[count++] = rows.getObject(1, UUID.class);
+        }
+      }
+    }
+    return Arrays.copyOf(changed, count);
+  }
+
+  private static PreparedStatement prepare(Connection connection, String sql, Array ids)
+      throws SQLException {
+    PreparedStatement statement =
+        connection.prepareStatement(String.format(sql, ids == null ? "" : USER_FILTER));
+    if (ids != null) {
+      statement.setArray(1, ids);
+    }
+    statement.setFetchSize(10_000);
+    return statement;
+  }
+
+  private static void readUsers(Connection connection, Array ids, Columns columns)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, SELECT_USERS, ids);
+        ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        int user = columns.ensure(rows.getObject(1, UUID.class));
+        int wsdcLevel = rows.getInt(3);
+        boolean hasLevel = !rows.wasNull();
+        boolean active = rows.getInt(4) == AccountStatus.ACTIVE.ordinal();
+        byte flags = PRESENT;
+        if (active) {
+          flags |= ACTIVE;
+        }
+        if (rows.getBoolean(5)) {
+          flags |= VISIBLE;
+        }
+        double latitude = rows.getDouble(6);
+        boolean located = !rows.wasNull();
+        double longitude = rows.getDouble(7);
+        located &= !rows.wasNull();
+        columns.flags[user] = flags;
+        columns.role[user] = (byte) rows.getInt(2);
+        columns.level[user] = (byte) (hasLevel ? wsdcLevel : NO_LEVEL);
+        columns.homeCell[user] = located ? cellOf(latitude, longitude) : NO_CELL;
+        columns.latitude[user] = located ? (float) latitude : Float.NaN;
+        columns.longitude[user] = located ? (float) longitude : Float.NaN;
+      }
+    }
+  }
+
+  private static void readPreferences(Connection connection, Array ids, Columns columns)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, SELECT_PREFERENCES, ids);
+        ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        int user = columns.present(rows.getObject(1, UUID.class));
+        if (user < 0) {
+          continue;
+        }
+        int km = rows.getInt(2);
+        columns.flags[user] |= HAS_PREFERENCE;
+        columns.travelKm[user] =
+            rows.wasNull() ? NO_TRAVEL_LIMIT : (short) Math.min(Math.max(0, km), Short.MAX_VALUE);
+      }
+    }
+  }
+
+  private static void readWindows(Connection connection, Array ids, Columns columns)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, SELECT_WINDOWS, ids);
+        ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        int user = columns.present(rows.getObject(1, UUID.class));
+        if (user < 0) {
+          continue;
+        }
+        int day = DayOfWeek.valueOf(rows.getString(2)).ordinal() * MINUTES_PER_DAY;
+        int start = day + minuteOfDay(rows.getTime(3));
+        int end = day + minuteOfDay(rows.getTime(4));
+        if (end > start) {
+          columns.addWindow(user, start << 16 | end);
+        }
+      }
+    }
+  }
+
+  private static void readAttributes(Connection connection, Array ids, Columns columns)
+      throws SQLException {
+    try (PreparedStatement statement = prepare(connection, SELECT_ATTRIBUTES, ids);
+        ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        int user = columns.present(rows.getObject(1, UUID.class));
+        String value = rows.getString(3);
+        if (user < 0 || value == null) {
+          continue;
+        }
+        switch (rows.getInt(2)) {
+          case 0 -> columns.focus[user] |= (short) (1 << FocusArea.valueOf(value).ordinal());
+          case 1 -> columns.preferredRoles[user] |= (byte) (1 << PrimaryRole.valueOf(value).ordinal());
+          default ->
+              columns.preferredLevels[user] |= (byte) (1 << WsdcSkillLevel.valueOf(value).ordinal());
+        }
+      }
+    }
+  }
+
+  /** Every block between two users that {@code indexes} knows, as parallel index lists. */
+  private static void readBlocks(
+      Connection connection, ToIntFunction<UUID> indexes, IntArrayList users, IntArrayList targets)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_BLOCKS)) {
+      statement.setFetchSize(10_000);
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          int user = indexes.applyAsInt(rows.getObject(1, UUID.class));
+          int blocked = indexes.applyAsInt(rows.getObject(2, UUID.class));
+          if (user >= 0 && blocked >= 0) {
+            users.add(user);
+            targets.add(blocked);
+          }
+        }
+      }
+    }
+  }
+
+  /** Groups blocks by user with targets ascending, filling {@code start} with each offset. */
+  private static int[] packBlocks(IntArrayList users, IntArrayList targets, int[] start) {
+    int size = start.length - 1;
+    for (int i = 0; i < users.size(); i++) {
+      start[users.get(i) + 1]++;
+    }
+    for (int user = 0; user < size; user++) {
+      start[user + 1] += start[user];
+    }
+    int[] packed = new int[start[size]];
+    int[] next = Arrays.copyOf(start, size);
+    for (int i = 0; i < users.size(); i++) {
+      packed[next[users.get(i)]++] = targets.get(i);
+    }
+    for (int user = 0; user < size; user++) {
+      Arrays.sort(packed, start[user], start[user + 1]);
+    }
+    return packed;
+  }
+
+  /** Minute of day, rounding seconds down; the day's last second counts as its end. */
+  private static int minuteOfDay(Time time) {
+    int second = time.toLocalTime().toSecondOfDay();
+    return second == MINUTES_PER_DAY * 60 - 1 ? MINUTES_PER_DAY : second / 60;
+  }
+
+  private static int slot(long most, long least, int mask) {
+    long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private static int find(int[] table, long[] idMost, long[] idLeast, UUID id) {
+    long most = id.getMostSignificantBits();
+    long least = id.getLeastSignificantBits();
+    int mask = table.length - 1;
+    for (int slot = slot(most, least, mask); ; slot = (slot + 1) & mask) {
+      int user = table[slot];
+      if (user < 0) {
+        return -1;
+      }
+      if (idMost[user] == most && idLeast[user] == least) {
+        return user;
+      }
+    }
+  }
+
+  /**
+   * Growable columns a snapshot is built from: empty for a full load, or a copy of the previous
+   * snapshot for a refresh. Windows of users being reloaded are collected apart and merged with
+   * the kept ones when the snapshot is built; blocks are always collected in full.
+   */
+  private static final class Columns {
+    private int size;
+    private long[] idMost;
+    private long[] idLeast;
+    private int[] table;
+    private byte[] flags;
+    private byte[] role;
+    private byte[] level;
+    private int[] homeCell;
+    private float[] latitude;
+    private float[] longitude;
+    private short[] focus;
+    private byte[] preferredRoles;
+    private byte[] preferredLevels;
+    private short[] travelKm;
+
+    private final PopulationSnapshot previous;
+    private final BitSet reloaded = new BitSet();
+    private final IntArrayList windowUsers = new IntArrayList();
+    private final IntArrayList windowValues = new IntArrayList();
+    private final IntArrayList blockUsers = new IntArrayList();
+    private final IntArrayList blockTargets = new IntArrayList();
+
+    private Columns(int capacity) {
+      this.previous = null;
+      this.idMost = new long[capacity];
+      this.idLeast = new long[capacity];
+      this.flags = new byte[capacity];
+      this.role = new byte[capacity];
+      this.level = new byte[capacity];
+      this.homeCell = new int[capacity];
+      this.latitude = new float[capacity];
+      this.longitude = new float[capacity];
+      this.focus = new short[capacity];
+      this.preferredRoles = new byte[capacity];
+      this.preferredLevels = new byte[capacity];
+      this.travelKm = new short[capacity];
+      this.table = emptyTable(capacity * 2);
+    }
+
+    private Columns(PopulationSnapshot previous) {
+      this.previous = previous;
+      this.size = previous.size;
+      int capacity = Math.max(16, size + (size >> 4));
+      this.idMost = new long[capacity];
+      this.idLeast = new long[capacity];
+      this.flags = new byte[capacity];
+      this.role = new byte[capacity];
+      this.level = new byte[capacity];
+      this.homeCell = new int[capacity];
+      this.latitude = new float[capacity];
+      this.longitude = new float[capacity];
+      this.focus = new short[capacity];
+      this.preferredRoles = new byte[capacity];
+      this.preferredLevels = new byte[capacity];
+      this.travelKm = new short[capacity];
+      this.table = new int[previous.table.capacity()];
+      previous.idMost.get(0, idMost, 0, size);
+      previous.idLeast.get(0, idLeast, 0, size);
+      previous.flags.get(0, flags, 0, size);
+      previous.role.get(0, role, 0, size);
+      previous.level.get(0, level, 0, size);
+      previous.homeCell.get(0, homeCell, 0, size);
+      previous.latitude.get(0, latitude, 0, size);
+      previous.longitude.get(0, longitude, 0, size);
+      previous.focus.get(0, focus, 0, size);
+      previous.preferredRoles.get(0, preferredRoles, 0, size);
+      previous.preferredLevels.get(0, preferredLevels, 0, size);
+      previous.travelKm.get(0, travelKm, 0, size);
+      previous.table.get(0, table);
+    }
+
+    /** Forgets everything about an existing user; the reload fills in what is still live. */
+    private void clear(int user) {
+      if (user < 0) {
+        return;
+      }
+      reloaded.set(user);
+      flags[user] = 0;
+      role[user] = 0;
+      level[user] = NO_LEVEL;
+      homeCell[user] = NO_CELL;
+      latitude[user] = Float.NaN;
+      longitude[user] = Float.NaN;
+      focus[user] = 0;
+      preferredRoles[user] = 0;
+      preferredLevels[user] = 0;
+      travelKm[user] = NO_TRAVEL_LIMIT;
+    }
+
+    /** The index of a user row, appending the user when new. */
+    private int ensure(UUID id) {
+      int user = present(id);
+      if (user >= 0) {
+        return user;
+      }
+      if (size == idMost.length) {
+        grow(size * 2);
+      }
+      if (2 * (size + 1) > table.length) {
+        rehash(table.length * 2);
+      }
+      user = size++;
+      idMost[user] = id.getMostSignificantBits();
+      idLeast[user] = id.getLeastSignificantBits();
+      clear(user);
+      int mask = table.length - 1;
+      int slot = slot(idMost[user], idLeast[user], mask);
+      while (table[slot] >= 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = user;
+      return user;
+    }
+
+    private int present(UUID id) {
+      return find(table, idMost, idLeast, id);
+    }
+
+    private void addWindow(int user, int packed) {
+      windowUsers.add(user);
+      windowValues.add(packed);
+    }
+
+    /**
+     * Packs every user's windows, sorted by start, into one array and fills {@code start} with
+     * each user's offset: kept users' windows come from the previous snapshot, reloaded and new
+     * users' from this read.
+     */
+    private int[] windows(int[] start) {
+      int[] counts = new int[size];
+      for (int i = 0; i < windowUsers.size(); i++) {
+        counts[windowUsers.get(i)]++;
+      }
+      for (int user = 0; user < size; user++) {
+        int count = reloaded(user) ? counts[user] : previous.windowCount(user);
+        start[user + 1] = start[user] + count;
+      }
+      int[] packed = new int[start[size]];
+      int[] next = Arrays.copyOf(start, size);
+      for (int i = 0; i < windowUsers.size(); i++) {
+        packed[next[windowUsers.get(i)]++] = windowValues.get(i);
+      }
+      for (int user = 0; user < size; user++) {
+        if (reloaded(user)) {
+          Arrays.sort(packed, start[user], start[user + 1]);
+        } else {
+          int from = previous.windowStart.get(user);
+          previous.windows.get(from, packed, start[user], previous.windowCount(user));
+        }
+      }
+      return packed;
+    }
+
+    private boolean reloaded(int user) {
+      return previous == null || user >= previous.size || reloaded.get(user);
+    }
+
+    private void grow(int capacity) {
+      idMost = Arrays.copyOf(idMost, capacity);
+      idLeast = Arrays.copyOf(idLeast, capacity);
+      flags = Arrays.copyOf(flags, capacity);
+      role = Arrays.copyOf(role, capacity);
+      level = Arrays.copyOf(level, capacity);
+      homeCell = Arrays.copyOf(homeCell, capacity);
+      latitude = Arrays.copyOf(latitude, capacity);
+      longitude = Arrays.copyOf(longitude, capacity);
+      focus = Arrays.copyOf(focus, capacity);
+      preferredRoles = Arrays.copyOf(preferredRoles, capacity);
+      preferredLevels = Arrays.copyOf(preferredLevels, capacity);
+      travelKm = Arrays.copyOf(travelKm, capacity);
+    }
+
+    private void rehash(int capacity) {
+      table = emptyTable(capacity);
+      int mask = capacity - 1;
+      for (int user = 0; user < size; user++) {
+        int slot = slot(idMost[user], idLeast[user], mask);
+        while (table[slot] >= 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = user;
+      }
+    }
+
+    private static int[] emptyTable(int capacity) {
+      int[] table = new int[Integer.highestOneBit(Math.max(16, capacity - 1)) << 1];
+      Arrays.fill(table, -1);
+      return table;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only selection helper for the in-memory matcher; no Spring Boot backend exists.
+
+/**
+ * Bounded min-heap over {@code (score, id)} pairs backed by primitive arrays. Offering a candidate
+ * that cannot make the cut costs a single comparison, so selecting the best {@code k} of {@code n}
+ * is {@code O(n log k)} with no per-candidate allocation. Ties on score keep the lower id.
+ */
+final class TopK {
+
+  private final double[] scores;
+  private final int[] ids;
+  private int size;
+
+  TopK(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative");
+    }
+    this.scores = new double[capacity];
+    this.ids = new int[capacity];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isFull() {
+    return size == scores.length;
+  }
+
+  /** Lowest score currently retained; only meaningful once the heap {@link #isFull() is full}. */
+  double threshold() {
+    return size == 0 ? Double.NEGATIVE_INFINITY : scores[0];
+  }
+
+  void offer(double score, int id) {
+    if (size < scores.length) {
+      scores[size] = score;
+      ids[size] = id;
+      siftUp(size++);
+    } else if (size > 0 && worse(scores[0], ids[0], score, id)) {
+      scores[0] = score;
+      ids[0] = id;
+      siftDown(0);
+    }
+  }
+
+  /** Drains the heap into ids ordered best first. */
+  int[] drainDescending() {
+    int[] out = new int[size];
+    for (int i = size - 1; i >= 0; i--) {
+      out[i] = ids[0];
+      size--;
+      scores[0] = scores[size];
+      ids[0] = ids[size];
+      siftDown(0);
+    }
+    return out;
+  }
+
+  private static boolean worse(double scoreA, int idA, double scoreB, int idB) {
+    return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!worse(scores[i], ids[i], scores[parent], ids[parent])) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int left = 2 * i + 1;
+      if (left >= size) {
+        return;
+      }
+      int smallest = left;
+      int right = left + 1;
+      if (right < size && worse(scores[right], ids[right], scores[left], ids[left])) {
+        smallest = right;
+      }
+      if (!worse(scores[smallest], ids[smallest], scores[i], ids[i])) {
+        return;
+      }
+      swap(i, smallest);
+      i = smallest;
+    }
+  }
+
+  private void swap(int a, int b) {
+    double score = scores[a];
+    scores[a] = scores[b];
+    scores[b] = score;
+    int id = ids[a];
+    ids[a] = ids[b];
+    ids[b] = id;
+  }
+}
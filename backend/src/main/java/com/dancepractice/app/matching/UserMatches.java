@@ -0,0 +1,9 @@
+package com.dancepractice.app.matching;
+
+// NOTE: Reference-only row group mirroring match_recommendations for one profile.
+
+import java.util.List;
+import java.util.UUID;
+
+/** One profile's ranked matches as produced by {@link MatchBatch}, best first. */
+public record UserMatches(UUID profileId, List<MatchResult> matches) {}
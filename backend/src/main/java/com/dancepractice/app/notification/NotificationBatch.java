@@ -0,0 +1,9 @@
+package com.dancepractice.app.notification;
+
+// NOTE: Reference-only coalesced message for one recipient and channel; it is not mapped to a table.
+
+import java.util.List;
+import java.util.UUID;
+
+/** Events for one recipient on one channel, in arrival order, to be sent as a single message. */
+public record NotificationBatch(UUID recipientId, String channel, List<NotificationEvent> events) {}
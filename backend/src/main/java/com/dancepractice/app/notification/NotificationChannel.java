@@ -0,0 +1,14 @@
+package com.dancepractice.app.notification;
+
+// NOTE: Reference-only adapter port for notification channels; no Spring Boot backend implements it.
+
+/**
+ * Delivers coalesced messages for one of the strings stored in {@code user_notification_channels}.
+ * Sends run on virtual threads, at most the channel's concurrency limit at a time, so a blocking
+ * client is fine; a thrown exception marks the whole batch as failed.
+ */
+@FunctionalInterface
+public interface NotificationChannel {
+
+  void send(NotificationBatch batch) throws Exception;
+}
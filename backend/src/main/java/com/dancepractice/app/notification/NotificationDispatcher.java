@@ -0,0 +1,398 @@
+package com.dancepractice.app.notification;
+
+// NOTE: Reference-only notification fan-out; no Spring Boot backend feeds events into it.
+
+import com.dancepractice.app.common.index.IntSet;
+import com.dancepractice.app.common.index.StringDictionary;
+import com.dancepractice.app.domain.user.User;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Fans invite events out to each recipient's {@link User#getNotificationChannels() notification
+ * channels}. Events are grouped by recipient and channel: the first one opens a batch that stays
+ * open for the coalescing window (or until it holds {@code maxBatchEvents}), and everything that
+ * arrives meanwhile goes out with it as one {@link NotificationBatch}. A group session that sends
+ * five updates in 30 seconds therefore costs each invitee one message per channel.
+ *
+ * <p>Sends run on virtual threads, gated by a semaphore per channel so a slow provider cannot be
+ * flooded. Every event-channel pair counts against {@code maxPendingEvents} from submission until
+ * its send finishes; when the budget is used up {@link #offer} refuses and {@link #submit} waits,
+ * so nothing in the pipeline grows without bound. Since a pair holds its share for the whole
+ * window, the budget caps throughput at {@code maxPendingEvents} per window: the default of a
+ * million covers 10,000 events a second to two channels each over the 30-second default window,
+ * with room for slow sends. Channels without an adapter are skipped. Channel names are held as
+ * codes of a {@link StringDictionary}, so pending batches are keyed by recipient and an {@code
+ * int}.
+ */
+public final class NotificationDispatcher implements AutoCloseable {
+
+  /** Counters since construction; {@code pendingEvents} is the current backlog. */
+  public record Stats(
+      long eventsAccepted,
+      long eventsRejected,
+      long messagesSent,
+      long eventsDelivered,
+      long eventsFailed,
+      int pendingEvents) {}
+
+  private record Key(UUID recipientId, int channel) {}
+
+  private record Lane(String name, NotificationChannel channel, Semaphore permits) {}
+
+  private static final class Batch {
+    private final Key key;
+    private final List<NotificationEvent> events = new ArrayList<>(4);
+    private boolean sealed;
+
+    private Batch(Key key) {
+      this.key = key;
+    }
+  }
+
+  private final StringDictionary channelCodes;
+  private final Lane[] lanes;
+  private final long windowNanos;
+  private final int maxBatchEvents;
+  private final int maxPendingEvents;
+  private final BiConsumer<NotificationBatch, Exception> failureListener;
+
+  private final Semaphore pending;
+  private final ConcurrentHashMap<Key, Batch> open = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService timer;
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  /** Held shared to queue or time out a batch, exclusively by {@link #close} to stop both. */
+  private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+  private volatile boolean closed;
+
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  private NotificationDispatcher(Builder builder) {
+    this.channelCodes = builder.channelCodes;
+    Lane[] lanes = new Lane[0];
+    for (Map.Entry<String, NotificationChannel> entry : builder.channels.entrySet()) {
+      String name = entry.getKey();
+      int code = channelCodes.encode(name);
+      if (code >= lanes.length) {
+        lanes = Arrays.copyOf(lanes, code + 1);
+      }
+      lanes[code] =
+          new Lane(
+              name,
+              entry.getValue(),
+              new Semaphore(builder.concurrency.getOrDefault(name, builder.defaultConcurrency)));
+    }
+    this.lanes = lanes;
+    this.windowNanos = builder.coalesceWindow.toNanos();
+    this.maxBatchEvents = builder.maxBatchEvents;
+    this.maxPendingEvents = builder.maxPendingEvents;
+    this.failureListener = builder.failureListener;
+    this.pending = new Semaphore(builder.maxPendingEvents);
+    this.timer =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "notification-coalescer");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Queues {@code event} for each of {@code channels} if the backlog has room for all of them, and
+   * returns whether it did. Never blocks.
+   */
+  public boolean offer(NotificationEvent event, Collection<String> channels) {
+    IntSet routed = route(channels);
+    if (routed.isEmpty()) {
+      return true;
+    }
+    if (!pending.tryAcquire(routed.size())) {
+      rejected.add(routed.size());
+      return false;
+    }
+    enqueue(event, routed);
+    return true;
+  }
+
+  /** {@link #offer} that waits up to {@code timeout} for room in the backlog. */
+  public boolean submit(NotificationEvent event, Collection<String> channels, Duration timeout)
+      throws InterruptedException {
+    IntSet routed = route(channels);
+    if (routed.isEmpty()) {
+      return true;
+    }
+    if (!pending.tryAcquire(routed.size(), timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+      rejected.add(routed.size());
+      return false;
+    }
+    enqueue(event, routed);
+    return true;
+  }
+
+  /** {@link #submit} to every channel {@code recipient} has opted into. */
+  public boolean submit(User recipient, NotificationEvent event, Duration timeout)
+      throws InterruptedException {
+    return submit(event, recipient.getNotificationChannels(), timeout);
+  }
+
+  public Stats stats() {
+    return new Stats(
+        accepted.sum(),
+        rejected.sum(),
+        messages.sum(),
+        delivered.sum(),
+        failed.sum(),
+        maxPendingEvents - pending.availablePermits());
+  }
+
+  /**
+   * Sends every open batch without waiting for its window, then waits for all sends to finish.
+   * Submitting afterwards fails, as does a {@link #submit} still waiting for room.
+   */
+  @Override
+  public void close() {
+    Lock lock = lifecycle.writeLock();
+    lock.lock();
+    try {
+      closed = true;
+    } finally {
+      lock.unlock();
+    }
+    timer.shutdownNow();
+    for (Batch batch : open.values()) {
+      flush(batch);
+    }
+    senders.close();
+  }
+
+  /** Codes of the channels in {@code channels} that have an adapter. */
+  private IntSet route(Collection<String> channels) {
+    if (closed) {
+      throw new IllegalStateException("Dispatcher is closed");
+    }
+    int[] routed = new int[channels.size()];
+    int size = 0;
+    for (String channel : channels) {
+      int code = channelCodes.codeOf(channel);
+      if (code >= 0 && code < lanes.length && lanes[code] != null) {
+        routed[size++] = code;
+      }
+    }
+    return IntSet.of(Arrays.copyOf(routed, size));
+  }
+
+  /** Adds {@code event} to its open batches; the caller holds its budget for every channel. */
+  private void enqueue(NotificationEvent event, IntSet channels) {
+    Lock lock = lifecycle.readLock();
+    lock.lock();
+    try {
+      if (closed) {
+        pending.release(channels.size());
+        throw new IllegalStateException("Dispatcher is closed");
+      }
+      accepted.add(channels.size());
+      for (int c = 0; c < channels.size(); c++) {
+        Key key = new Key(event.recipientId(), channels.get(c));
+        while (true) {
+          Batch batch = open.computeIfAbsent(key, Batch::new);
+          boolean full;
+          synchronized (batch) {
+            if (batch.sealed) {
+              open.remove(key, batch);
+              continue;
+            }
+            if (batch.events.isEmpty()) {
+              timer.schedule(() -> expire(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.events.add(event);
+            full = batch.events.size() >= maxBatchEvents;
+          }
+          if (full) {
+            flush(batch);
+          }
+          break;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Flushes {@code batch} at the end of its window, unless {@link #close} is sending it. */
+  private void expire(Batch batch) {
+    Lock lock = lifecycle.readLock();
+    lock.lock();
+    try {
+      if (!closed) {
+        flush(batch);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Seals {@code batch} and hands it to a sender; only the first call per batch does anything. */
+  private void flush(Batch batch) {
+    List<NotificationEvent> events;
+    synchronized (batch) {
+      if (batch.sealed) {
+        return;
+      }
+      batch.sealed = true;
+      events = List.copyOf(batch.events);
+    }
+    open.remove(batch.key, batch);
+    Lane lane = lanes[batch.key.channel()];
+    NotificationBatch message = new NotificationBatch(batch.key.recipientId(), lane.name(), events);
+    try {
+      senders.execute(() -> send(lane, message));
+    } catch (RejectedExecutionException e) {
+      failed.add(events.size());
+      pending.release(events.size());
+      report(message, e);
+    }
+  }
+
+  private void send(Lane lane, NotificationBatch message) {
+    int size = message.events().size();
+    try {
+      lane.permits().acquire();
+      try {
+        lane.channel().send(message);
+        messages.increment();
+        delivered.add(size);
+      } finally {
+        lane.permits().release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failed.add(size);
+      report(message, e);
+    } catch (Exception e) {
+      failed.add(size);
+      report(message, e);
+    } finally {
+      pending.release(size);
+    }
+  }
+
+  private void report(NotificationBatch message, Exception e) {
+    if (failureListener != null) {
+      failureListener.accept(message, e);
+    }
+  }
+
+  public static final class Builder {
+    private final Map<String, NotificationChannel> channels = new HashMap<>();
+    private final Map<String, Integer> concurrency = new HashMap<>();
+    private int defaultConcurrency = 64;
+    private Duration coalesceWindow = Duration.ofSeconds(30);
+    private int maxBatchEvents = 50;
+    private int maxPendingEvents = 1_000_000;
+    private BiConsumer<NotificationBatch, Exception> failureListener;
+    private StringDictionary channelCodes = new StringDictionary();
+
+    private Builder() {}
+
+    /** Shares channel codes with other in-memory copies of {@code user_notification_channels}. */
+    public Builder channelCodes(StringDictionary channelCodes) {
+      this.channelCodes = Objects.requireNonNull(channelCodes, "channelCodes");
+      return this;
+    }
+
+    /** Registers the adapter for {@code name}, as stored in {@code user_notification_channels}. */
+    public Builder channel(String name, NotificationChannel channel) {
+      channels.put(
+          Objects.requireNonNull(name, "name"), Objects.requireNonNull(channel, "channel"));
+      return this;
+    }
+
+    /** Registers the adapter for {@code name} with its own limit on concurrent sends. */
+    public Builder channel(String name, NotificationChannel channel, int maxConcurrentSends) {
+      if (maxConcurrentSends <= 0) {
+        throw new IllegalArgumentException("maxConcurrentSends must be positive");
+      }
+      channel(name, channel);
+      concurrency.put(name, maxConcurrentSends);
+      return this;
+    }
+
+    /** Concurrent sends per channel registered without a limit of its own. */
+    public Builder defaultConcurrency(int defaultConcurrency) {
+      if (defaultConcurrency <= 0) {
+        throw new IllegalArgumentException("defaultConcurrency must be positive");
+      }
+      this.defaultConcurrency = defaultConcurrency;
+      return this;
+    }
+
+    /**
+     * How long a batch collects events after its first one. Zero sends a batch as soon as the timer
+     * gets to it, though events arriving before then still join it.
+     */
+    public Builder coalesceWindow(Duration coalesceWindow) {
+      if (coalesceWindow.isNegative()) {
+        throw new IllegalArgumentException("coalesceWindow must not be negative");
+      }
+      this.coalesceWindow = coalesceWindow;
+      return this;
+    }
+
+    /** Events after which a batch is sent without waiting for the rest of its window. */
+    public Builder maxBatchEvents(int maxBatchEvents) {
+      if (maxBatchEvents <= 0) {
+        throw new IllegalArgumentException("maxBatchEvents must be positive");
+      }
+      this.maxBatchEvents = maxBatchEvents;
+      return this;
+    }
+
+    /**
+     * Event-channel pairs that may be queued or sending at once before submitters are held. Each
+     * pair is held for the coalescing window, so this should exceed the peak rate times the window.
+     */
+    public Builder maxPendingEvents(int maxPendingEvents) {
+      if (maxPendingEvents <= 0) {
+        throw new IllegalArgumentException("maxPendingEvents must be positive");
+      }
+      this.maxPendingEvents = maxPendingEvents;
+      return this;
+    }
+
+    public Builder failureListener(BiConsumer<NotificationBatch, Exception> failureListener) {
+      this.failureListener = failureListener;
+      return this;
+    }
+
+    public NotificationDispatcher build() {
+      return new NotificationDispatcher(this);
+    }
+  }
+}
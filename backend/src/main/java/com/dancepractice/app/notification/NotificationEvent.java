@@ -0,0 +1,19 @@
+package com.dancepractice.app.notification;
+
+// NOTE: Reference-only event record for notifications; it is not mapped to a table.
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** Something that happened to an invite that {@code recipientId} should hear about. */
+public record NotificationEvent(
+    UUID recipientId, Kind kind, UUID sessionId, UUID inviteId, Instant occurredAt) {
+
+  public enum Kind {
+    INVITED,
+    ACCEPTED,
+    DECLINED,
+    CANCELLED,
+    EXPIRED
+  }
+}
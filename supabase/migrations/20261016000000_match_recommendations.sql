@@ -0,0 +1,49 @@
+-- Precomputed match recommendations
+-- Adds:
+--   - match_recommendations table, written in bulk by the nightly match batch
+--   - RLS policies (owners read their own rows; admins read all)
+--
+-- Each row is one ranked candidate for profile_id, with the same columns as
+-- find_matches_for_current_user. A batch run replaces a profile's rows wholesale.
+
+set search_path = public;
+
+-- ----------------------------
+-- Table
+-- ----------------------------
+create table if not exists match_recommendations (
+    profile_id uuid not null references user_profiles,
+    rank smallint not null,
+    candidate_profile_id uuid not null references user_profiles,
+    candidate_preference_id uuid not null references schedule_preferences,
+    score numeric(6,2) not null,
+    overlapping_windows integer not null,
+    overlapping_minutes numeric(10,2) not null,
+    shared_focus_areas integer not null,
+    wsdc_level_diff integer not null,
+    computed_at timestamptz not null default now(),
+    constraint pk_match_recommendations primary key (profile_id, rank)
+);
+
+create index if not exists idx_match_recommendations_computed_at
+    on match_recommendations (computed_at);
+
+-- ----------------------------
+-- RLS
+-- ----------------------------
+alter table match_recommendations enable row level security;
+
+drop policy if exists "match_recommendations owner read" on match_recommendations;
+create policy "match_recommendations owner read"
+on match_recommendations
+for select
+to authenticated
+using (profile_id = public.current_profile_id());
+
+drop policy if exists "match_recommendations admin all" on match_recommendations;
+create policy "match_recommendations admin all"
+on match_recommendations
+for all
+to authenticated
+using (public.current_user_is_admin())
+with check (public.current_user_is_admin());
@@ -0,0 +1,91 @@
+-- Archive for purged soft-deleted rows
+-- Adds:
+--   - archive schema with one table per purged table and element collection
+--   - purge_progress, the keyset cursor of the purge job per table
+--   - partial indexes on deleted_at so the purge finds old rows without scanning live ones
+--
+-- Archive tables copy the live column layout plus archived_at. They carry no
+-- keys or foreign keys, so rows can move in any order and survive later
+-- deletes of what they referenced. Only the purge job (service role) writes them.
+
+set search_path = public;
+
+create schema if not exists archive;
+revoke all on schema archive from public, anon, authenticated;
+
+-- ----------------------------
+-- Archive tables
+-- ----------------------------
+create table if not exists archive.sessions
+    (like public.sessions including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.session_focus_areas
+    (like public.session_focus_areas including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.session_participants
+    (like public.session_participants including defaults, archived_at timestamptz not null default now());
+
+create table if not exists archive.session_notes
+    (like public.session_notes including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.session_note_media
+    (like public.session_note_media including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.session_note_tags
+    (like public.session_note_tags including defaults, archived_at timestamptz not null default now());
+
+create table if not exists archive.session_invites
+    (like public.session_invites including defaults, archived_at timestamptz not null default now());
+
+create table if not exists archive.schedule_preferences
+    (like public.schedule_preferences including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.schedule_preference_windows
+    (like public.schedule_preference_windows including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.schedule_preference_focus
+    (like public.schedule_preference_focus including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.schedule_preference_levels
+    (like public.schedule_preference_levels including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.schedule_preference_roles
+    (like public.schedule_preference_roles including defaults, archived_at timestamptz not null default now());
+create table if not exists archive.schedule_preference_locations
+    (like public.schedule_preference_locations including defaults, archived_at timestamptz not null default now());
+
+create index if not exists idx_archive_sessions_id on archive.sessions (id);
+create index if not exists idx_archive_session_notes_id on archive.session_notes (id);
+create index if not exists idx_archive_session_invites_id on archive.session_invites (id);
+create index if not exists idx_archive_schedule_preferences_id on archive.schedule_preferences (id);
+
+-- ----------------------------
+-- Purge cursor
+-- ----------------------------
+create table if not exists archive.purge_progress (
+    table_name text not null,
+    last_deleted_at timestamptz not null,
+    last_id uuid not null,
+    rows_archived bigint not null default 0,
+    updated_at timestamptz not null default now(),
+    constraint pk_purge_progress primary key (table_name)
+);
+
+-- ----------------------------
+-- Candidate indexes (only dead rows)
+-- ----------------------------
+create index if not exists idx_sessions_purge
+    on public.sessions (deleted_at, id) where deleted_at is not null;
+create index if not exists idx_session_notes_purge
+    on public.session_notes (deleted_at, id) where deleted_at is not null;
+create index if not exists idx_session_invites_purge
+    on public.session_invites (deleted_at, id) where deleted_at is not null;
+create index if not exists idx_schedule_preferences_purge
+    on public.schedule_preferences (deleted_at, id) where deleted_at is not null;
+
+-- Child lookups by parent id (these tables had no index on the foreign key)
+create index if not exists idx_session_focus_areas_session on public.session_focus_areas (session_id);
+create index if not exists idx_session_note_media_note on public.session_note_media (note_id);
+create index if not exists idx_session_note_tags_note on public.session_note_tags (note_id);
+create index if not exists idx_sched_pref_focus_preference on public.schedule_preference_focus (preference_id);
+create index if not exists idx_sched_pref_levels_preference on public.schedule_preference_levels (preference_id);
+create index if not exists idx_sched_pref_roles_preference on public.schedule_preference_roles (preference_id);
+create index if not exists idx_sched_pref_locations_preference on public.schedule_preference_locations (preference_id);
+
+-- Reference checks the purge runs before moving a session or preference
+create index if not exists idx_session_notes_session on public.session_notes (session_id);
+create index if not exists idx_abuse_reports_session on public.abuse_reports (session_id);
+create index if not exists idx_match_recommendations_candidate_preference
+    on public.match_recommendations (candidate_preference_id);
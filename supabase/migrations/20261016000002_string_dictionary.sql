@@ -0,0 +1,89 @@
+-- Shared string dictionary
+-- Adds:
+--   - string_dictionary: stable integer codes for repeated element-collection
+--     values (session note tags, media URLs, notification channels)
+--   - intern_string(): the code of a value, assigning the next one on first sight
+--   - RLS policies (authenticated users read; admins manage)
+--
+-- In-process indexes encode these strings as codes instead of holding copies
+-- of every value, and size arrays by the largest code. Codes are therefore
+-- dense per domain, counting from 0, and a busy domain (media URLs) does not
+-- push up the codes of a small one (channels). Codes are never reassigned; a
+-- value keeps its code forever.
+
+set search_path = public;
+
+-- ----------------------------
+-- Table
+-- ----------------------------
+create table if not exists string_dictionary (
+    domain varchar(32) not null check (domain in ('SESSION_NOTE_TAG','SESSION_NOTE_MEDIA_URL','NOTIFICATION_CHANNEL')),
+    code integer not null check (code >= 0),
+    value varchar(500) not null,
+    created_at timestamptz not null default now(),
+    constraint pk_string_dictionary primary key (domain, code),
+    constraint uk_string_dictionary_domain_value unique (domain, value)
+);
+
+-- ----------------------------
+-- Code assignment
+-- ----------------------------
+-- A new value takes the domain's largest code + 1. The advisory lock serializes
+-- assignment within one domain, so two processes interning different values
+-- never pick the same code; values already present return without locking.
+create or replace function public.intern_string(
+    p_domain varchar,
+    p_value varchar
+)
+returns integer
+language plpgsql
+set search_path = public
+as $$
+declare
+    v_code integer;
+begin
+    select code into v_code
+    from string_dictionary
+    where domain = p_domain and value = p_value;
+    if found then
+        return v_code;
+    end if;
+
+    perform pg_advisory_xact_lock(hashtext('string_dictionary'), hashtext(p_domain));
+
+    select code into v_code
+    from string_dictionary
+    where domain = p_domain and value = p_value;
+    if found then
+        return v_code;
+    end if;
+
+    select coalesce(max(code), -1) + 1 into v_code
+    from string_dictionary
+    where domain = p_domain;
+
+    insert into string_dictionary (domain, code, value)
+    values (p_domain, v_code, p_value);
+    return v_code;
+end;
+$$;
+
+-- ----------------------------
+-- RLS
+-- ----------------------------
+alter table string_dictionary enable row level security;
+
+drop policy if exists "string_dictionary authenticated read" on string_dictionary;
+create policy "string_dictionary authenticated read"
+on string_dictionary
+for select
+to authenticated
+using (true);
+
+drop policy if exists "string_dictionary admin all" on string_dictionary;
+create policy "string_dictionary admin all"
+on string_dictionary
+for all
+to authenticated
+using (public.current_user_is_admin())
+with check (public.current_user_is_admin());
@@ -0,0 +1,18 @@
+-- Indexes for the practice history export
+-- Adds:
+--   - keyset index on live sessions by (scheduled_start, id), the export's page order
+--   - the same per organizer, for a single dancer's export
+--   - session_participants by user, for the "sessions I joined" half of that filter
+--
+-- Each export page seeks past the last (scheduled_start, id) it wrote and reads
+-- the next rows in index order, so an export streams instead of rescanning and
+-- sorting sessions once per page.
+
+set search_path = public;
+
+create index if not exists idx_sessions_schedule
+    on public.sessions (scheduled_start, id) where deleted_at is null;
+create index if not exists idx_sessions_organizer_schedule
+    on public.sessions (organizer_id, scheduled_start, id) where deleted_at is null;
+create index if not exists idx_session_participants_user
+    on public.session_participants (user_id, session_id);